@@ -0,0 +1,443 @@
+package io.github.timemachinelab.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * ConfigMeow 客户端
+ * 启动时加载一个命名空间（应用名+环境）的全量快照，之后 get 直接读内存中的不可变Map，无网络调用也无对象分配；
+ * 后台线程通过长轮询监听变更并刷新快照，每次刷新成功后把快照写入本地文件，服务端不可用时可从本地文件冷启动。
+ * 快照中以内容哈希引用的大配置值在刷新时按哈希拉取，哈希未变化的复用上次结果。
+ *
+ * <pre>
+ * ConfigMeowClient client = ConfigMeowClient.builder("http://config-meow:8080", "order-service", "prod")
+ *         .snapshotFile(Paths.get("/data/config-meow/order-service-prod.json"))
+ *         .build();
+ * client.start();
+ * String url = client.get("database.url");
+ * </pre>
+ */
+public final class ConfigMeowClient implements Closeable {
+
+    private static final Logger log = Logger.getLogger(ConfigMeowClient.class.getName());
+
+    private final String serverUrl;
+
+    private final String appName;
+
+    private final String environment;
+
+    private final Duration connectTimeout;
+
+    private final Duration pollTimeout;
+
+    private final Duration retryInterval;
+
+    private final boolean requireInitialSnapshot;
+
+    private final SnapshotFileStore fileStore;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile ConfigSnapshot snapshot;
+
+    /**
+     * 当前快照引用的大配置值，内容哈希 -> 配置值
+     */
+    private volatile Map<String, String> blobs = Collections.emptyMap();
+
+    /**
+     * 当前快照的ETag，服务端按编码与压缩方式区分，刷新时原样带回
+     */
+    private volatile String snapshotETag;
+
+    private volatile boolean running;
+
+    private Thread refresher;
+
+    private ConfigMeowClient(Builder builder) {
+        this.serverUrl = builder.serverUrl.endsWith("/")
+                ? builder.serverUrl.substring(0, builder.serverUrl.length() - 1) : builder.serverUrl;
+        this.appName = builder.appName;
+        this.environment = builder.environment;
+        this.connectTimeout = builder.connectTimeout;
+        this.pollTimeout = builder.pollTimeout;
+        this.retryInterval = builder.retryInterval;
+        this.requireInitialSnapshot = builder.requireInitialSnapshot;
+        this.fileStore = builder.snapshotFile == null ? null : new SnapshotFileStore(builder.snapshotFile, objectMapper);
+        this.snapshot = ConfigSnapshot.empty(appName, environment);
+    }
+
+    public static Builder builder(String serverUrl, String appName, String environment) {
+        return new Builder(serverUrl, appName, environment);
+    }
+
+    /**
+     * 加载初始快照并启动后台刷新
+     * 优先从服务端加载，失败时退回本地快照文件；两者都不可用且 requireInitialSnapshot 为true时抛出异常
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (IOException e) {
+            ConfigSnapshot local = loadLocal();
+            if (local != null) {
+                snapshot = local;
+                log.log(Level.WARNING, "ConfigMeow服务端不可用，使用本地快照启动，version=" + local.getVersion(), e);
+            } else if (requireInitialSnapshot) {
+                throw new IllegalStateException("无法从服务端或本地文件加载配置快照: " + appName + "/" + environment, e);
+            } else {
+                log.log(Level.WARNING, "ConfigMeow服务端不可用且无本地快照，以空配置启动", e);
+            }
+        }
+        running = true;
+        refresher = new Thread(this::refreshLoop, "config-meow-refresher-" + appName + "-" + environment);
+        refresher.setDaemon(true);
+        refresher.start();
+    }
+
+    /**
+     * 读取配置值
+     * @param key 配置键
+     * @return 配置值，不存在时返回null
+     */
+    public String get(String key) {
+        return snapshot.getValues().get(key);
+    }
+
+    /**
+     * 读取配置值
+     * @param key 配置键
+     * @param defaultValue 不存在时的默认值
+     * @return 配置值
+     */
+    public String get(String key, String defaultValue) {
+        String value = snapshot.getValues().get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * 当前快照
+     * @return 快照
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (refresher != null) {
+            refresher.interrupt();
+            refresher = null;
+        }
+    }
+
+    private void refreshLoop() {
+        while (running) {
+            try {
+                if (watch()) {
+                    refresh();
+                }
+            } catch (IOException e) {
+                log.log(Level.FINE, "ConfigMeow刷新失败，稍后重试", e);
+                sleep(retryInterval);
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "ConfigMeow刷新异常，稍后重试", e);
+                sleep(retryInterval);
+            }
+        }
+    }
+
+    /**
+     * 从服务端拉取快照，携带当前快照的ETag作为If-None-Match，未变化时服务端返回304
+     * 从本地文件启动、尚无ETag时按版本号构造
+     */
+    private void refresh() throws IOException {
+        ConfigSnapshot current = snapshot;
+        HttpURLConnection connection = open("/config/api/snapshot?appName=" + encode(appName)
+                + "&environment=" + encode(environment), readTimeout(connectTimeout));
+        try {
+            if (current.getVersion() != null) {
+                String eTag = snapshotETag;
+                connection.setRequestProperty("If-None-Match",
+                        eTag != null ? eTag : "\"" + current.getVersion() + "\"");
+            }
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("拉取快照失败，HTTP " + status);
+            }
+            JsonNode data = readData(connection);
+            String eTag = connection.getHeaderField("ETag");
+            if (Objects.equals(data.path("version").asText(null), current.getVersion())) {
+                snapshotETag = eTag;
+                return;
+            }
+            Map<String, String> values = new HashMap<>();
+            Map<String, String> fetchedBlobs = new HashMap<>();
+            for (JsonNode item : data.path("items")) {
+                JsonNode value = item.path("configValue");
+                String valueRef = item.path("valueRef").asText(null);
+                if (value.isMissingNode() || value.isNull()) {
+                    values.put(item.path("configKey").asText(), valueRef == null ? null : loadBlob(valueRef, fetchedBlobs));
+                } else {
+                    values.put(item.path("configKey").asText(), value.asText());
+                }
+            }
+            ConfigSnapshot fetched = new ConfigSnapshot(appName, environment, data.path("version").asText(null), values);
+            blobs = fetchedBlobs;
+            snapshotETag = eTag;
+            snapshot = fetched;
+            saveLocal(fetched);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * 按内容哈希读取大配置值，上次快照已有的直接复用
+     */
+    private String loadBlob(String hash, Map<String, String> fetchedBlobs) throws IOException {
+        String value = fetchedBlobs.get(hash);
+        if (value == null) {
+            value = blobs.get(hash);
+        }
+        if (value == null) {
+            HttpURLConnection connection = open("/config/api/blob?hash=" + encode(hash), readTimeout(connectTimeout));
+            try {
+                int status = connection.getResponseCode();
+                if (status != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("拉取大配置值失败，HTTP " + status);
+                }
+                try (InputStream in = "gzip".equalsIgnoreCase(connection.getContentEncoding())
+                        ? new GZIPInputStream(connection.getInputStream()) : connection.getInputStream()) {
+                    value = new String(readAll(in), StandardCharsets.UTF_8);
+                }
+            } finally {
+                connection.disconnect();
+            }
+        }
+        fetchedBlobs.put(hash, value);
+        return value;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 长轮询监听命名空间变更
+     * @return 是否有变更
+     */
+    private boolean watch() throws IOException {
+        ObjectNode body = objectMapper.createObjectNode();
+        ArrayNode namespaces = body.putArray("namespaces");
+        namespaces.addObject()
+                .put("appName", appName)
+                .put("environment", environment)
+                .put("version", snapshot.getVersion());
+
+        // 读超时需长于服务端挂起时间
+        HttpURLConnection connection = open("/config/api/watch", readTimeout(pollTimeout).plus(pollTimeout));
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                objectMapper.writeValue(out, body);
+            }
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return false;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("监听变更失败，HTTP " + status);
+            }
+            readData(connection);
+            return true;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private HttpURLConnection open(String path, Duration readTimeout) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(serverUrl + path).openConnection();
+        connection.setConnectTimeout((int) connectTimeout.toMillis());
+        connection.setReadTimeout((int) readTimeout.toMillis());
+        connection.setRequestProperty("Accept", "application/json");
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        // 服务端按应用名限流，请求体中的应用名无法在拦截器中读取
+        connection.setRequestProperty("X-Config-App", appName);
+        return connection;
+    }
+
+    private JsonNode readData(HttpURLConnection connection) throws IOException {
+        JsonNode result;
+        try (InputStream in = "gzip".equalsIgnoreCase(connection.getContentEncoding())
+                ? new GZIPInputStream(connection.getInputStream()) : connection.getInputStream()) {
+            result = objectMapper.readTree(in);
+        }
+        if (result.path("code").asInt() != 200) {
+            throw new IOException("服务端返回错误: " + result.path("code").asInt() + " " + result.path("message").asText());
+        }
+        return result.path("data");
+    }
+
+    private ConfigSnapshot loadLocal() {
+        if (fileStore == null) {
+            return null;
+        }
+        try {
+            return fileStore.load(appName, environment);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "读取本地快照失败", e);
+            return null;
+        }
+    }
+
+    private void saveLocal(ConfigSnapshot fetched) {
+        if (fileStore == null) {
+            return;
+        }
+        try {
+            fileStore.save(fetched);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "写入本地快照失败", e);
+        }
+    }
+
+    private static Duration readTimeout(Duration timeout) {
+        return timeout.isZero() ? Duration.ofSeconds(10) : timeout;
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 客户端构建器
+     */
+    public static final class Builder {
+
+        private final String serverUrl;
+
+        private final String appName;
+
+        private final String environment;
+
+        private Path snapshotFile;
+
+        private Duration connectTimeout = Duration.ofSeconds(3);
+
+        private Duration pollTimeout = Duration.ofSeconds(30);
+
+        private Duration retryInterval = Duration.ofSeconds(5);
+
+        private boolean requireInitialSnapshot = true;
+
+        private Builder(String serverUrl, String appName, String environment) {
+            this.serverUrl = Objects.requireNonNull(serverUrl, "serverUrl");
+            this.appName = Objects.requireNonNull(appName, "appName");
+            this.environment = Objects.requireNonNull(environment, "environment");
+        }
+
+        /**
+         * 本地快照文件，为空时不落盘
+         */
+        public Builder snapshotFile(Path snapshotFile) {
+            this.snapshotFile = snapshotFile;
+            return this;
+        }
+
+        /**
+         * 本地快照文件，为空时不落盘
+         */
+        public Builder snapshotFile(String snapshotFile) {
+            this.snapshotFile = snapshotFile == null ? null : Paths.get(snapshotFile);
+            return this;
+        }
+
+        /**
+         * 连接超时，同时作为拉取快照的读超时
+         */
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * 服务端长轮询挂起时间（config-meow.watch.timeout）
+         */
+        public Builder pollTimeout(Duration pollTimeout) {
+            this.pollTimeout = pollTimeout;
+            return this;
+        }
+
+        /**
+         * 刷新失败后的重试间隔
+         */
+        public Builder retryInterval(Duration retryInterval) {
+            this.retryInterval = retryInterval;
+            return this;
+        }
+
+        /**
+         * 启动时服务端与本地文件均不可用时是否失败，默认true
+         */
+        public Builder requireInitialSnapshot(boolean requireInitialSnapshot) {
+            this.requireInitialSnapshot = requireInitialSnapshot;
+            return this;
+        }
+
+        public ConfigMeowClient build() {
+            return new ConfigMeowClient(this);
+        }
+    }
+}
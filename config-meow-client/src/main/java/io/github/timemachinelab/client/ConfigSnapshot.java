@@ -0,0 +1,52 @@
+package io.github.timemachinelab.client;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 命名空间配置快照（不可变）
+ */
+public final class ConfigSnapshot {
+
+    private final String appName;
+
+    private final String environment;
+
+    private final String version;
+
+    private final Map<String, String> values;
+
+    ConfigSnapshot(String appName, String environment, String version, Map<String, String> values) {
+        this.appName = appName;
+        this.environment = environment;
+        this.version = version;
+        this.values = Collections.unmodifiableMap(new HashMap<>(values));
+    }
+
+    static ConfigSnapshot empty(String appName, String environment) {
+        return new ConfigSnapshot(appName, environment, null, Collections.<String, String>emptyMap());
+    }
+
+    public String getAppName() {
+        return appName;
+    }
+
+    public String getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * 服务端快照版本号，尚未获取到快照时为null
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * 全部配置：配置键 -> 配置值
+     */
+    public Map<String, String> getValues() {
+        return values;
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.timemachinelab.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 本地快照文件：保存最近一次成功获取的快照，服务端不可用时用于冷启动
+ * 先写临时文件再原子替换，进程崩溃不会留下半个文件。
+ */
+final class SnapshotFileStore {
+
+    private final Path file;
+
+    private final ObjectMapper objectMapper;
+
+    SnapshotFileStore(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 读取本地快照
+     * @return 快照，文件不存在或命名空间不匹配时返回null
+     */
+    ConfigSnapshot load(String appName, String environment) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        JsonNode root = objectMapper.readTree(file.toFile());
+        if (!appName.equals(root.path("appName").asText()) || !environment.equals(root.path("environment").asText())) {
+            return null;
+        }
+        Map<String, String> values = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = root.path("values").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            values.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText());
+        }
+        return new ConfigSnapshot(appName, environment, root.path("version").asText(null), values);
+    }
+
+    /**
+     * 保存快照
+     */
+    void save(ConfigSnapshot snapshot) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("appName", snapshot.getAppName());
+        root.put("environment", snapshot.getEnvironment());
+        root.put("version", snapshot.getVersion());
+        ObjectNode values = root.putObject("values");
+        for (Map.Entry<String, String> entry : snapshot.getValues().entrySet()) {
+            values.put(entry.getKey(), entry.getValue());
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                objectMapper.writeValue(out, root);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package io.github.timemachinelab.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 以内嵌HTTP服务模拟 ConfigMeow 服务端：快照按 gzip 返回并带表示相关的ETag，长轮询由测试放行
+ */
+public class ConfigMeowClientTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // 当前快照：版本号与条目，条目的 configValue 为空时按 valueRef 引用大配置值
+    private volatile String version;
+
+    private volatile ArrayNode items;
+
+    private final Map<String, String> blobContents = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> blobRequests = new ConcurrentHashMap<>();
+
+    // 每次快照请求携带的 If-None-Match，未携带时记为空串
+    private final List<String> ifNoneMatch = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    private final BlockingQueue<Boolean> changes = new LinkedBlockingQueue<>();
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    private ConfigMeowClient client;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/config/api/snapshot", this::snapshot);
+        server.createContext("/config/api/blob", this::blob);
+        server.createContext("/config/api/watch", this::watch);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        if (client != null) {
+            client.close();
+        }
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void refreshSendsReceivedETagAndKeepsSnapshotWhenNotModified() {
+        publish("v1", item("timeout", "10"));
+        client = client(serverUrl(), null);
+        client.start();
+        assertEquals("10", client.get("timeout"));
+        assertEquals("", ifNoneMatch.get(0));
+        ConfigSnapshot initial = client.getSnapshot();
+
+        // 变更通知后快照未变化：带回服务端给出的 gzip 表示的ETag，收到304并保留原快照
+        changes.add(Boolean.TRUE);
+        awaitTrue(() -> notModified.get() == 1);
+        assertEquals("\"v1-gzip\"", ifNoneMatch.get(1));
+        assertSame(initial, client.getSnapshot());
+
+        publish("v2", item("timeout", "20"), item("retries", "3"));
+        changes.add(Boolean.TRUE);
+        awaitTrue(() -> "v2".equals(client.getSnapshot().getVersion()));
+        assertEquals("20", client.get("timeout"));
+        assertEquals("3", client.get("retries"));
+        assertNull(client.get("missing"));
+        assertEquals("fallback", client.get("missing", "fallback"));
+    }
+
+    @Test
+    public void blobValuesAreFetchedOnceAndReusedAcrossRefreshes() {
+        blobContents.put("h1", "large-1");
+        blobContents.put("h2", "large-2");
+        publish("v1", blobItem("a", "h1"), blobItem("b", "h1"), item("small", "1"));
+        client = client(serverUrl(), null);
+        client.start();
+        assertEquals("large-1", client.get("a"));
+        assertEquals("large-1", client.get("b"));
+        // 同一快照内引用同一哈希的配置只拉取一次
+        assertEquals(1, blobRequests.get("h1").get());
+
+        publish("v2", blobItem("a", "h1"), blobItem("b", "h1"), item("small", "2"));
+        changes.add(Boolean.TRUE);
+        awaitTrue(() -> "v2".equals(client.getSnapshot().getVersion()));
+        assertEquals("large-1", client.get("a"));
+        assertEquals(1, blobRequests.get("h1").get());
+
+        publish("v3", blobItem("a", "h2"), item("small", "2"));
+        changes.add(Boolean.TRUE);
+        awaitTrue(() -> "v3".equals(client.getSnapshot().getVersion()));
+        assertEquals("large-2", client.get("a"));
+        assertNull(client.get("b"));
+        assertEquals(1, blobRequests.get("h2").get());
+    }
+
+    @Test
+    public void refreshedSnapshotIsUsedForColdStart(@TempDir Path dir) {
+        Path file = dir.resolve("snapshot.json");
+        publish("v1", item("timeout", "10"));
+        client = client(serverUrl(), file);
+        client.start();
+        client.close();
+
+        // 服务端不可用时从刷新后写入的本地文件启动
+        client = client("http://127.0.0.1:1", file);
+        client.start();
+        assertEquals("v1", client.getSnapshot().getVersion());
+        assertEquals("10", client.get("timeout"));
+    }
+
+    private String serverUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static ConfigMeowClient client(String serverUrl, Path snapshotFile) {
+        return ConfigMeowClient.builder(serverUrl, "client-app", "dev")
+                .snapshotFile(snapshotFile)
+                .connectTimeout(Duration.ofSeconds(1))
+                .pollTimeout(Duration.ofMillis(200))
+                .retryInterval(Duration.ofMillis(50))
+                .build();
+    }
+
+    private void publish(String version, ObjectNode... items) {
+        ArrayNode array = objectMapper.createArrayNode();
+        for (ObjectNode item : items) {
+            array.add(item);
+        }
+        this.items = array;
+        this.version = version;
+    }
+
+    private ObjectNode item(String configKey, String configValue) {
+        return objectMapper.createObjectNode().put("configKey", configKey).put("configValue", configValue);
+    }
+
+    private ObjectNode blobItem(String configKey, String valueRef) {
+        return objectMapper.createObjectNode().put("configKey", configKey).put("valueRef", valueRef);
+    }
+
+    private void snapshot(HttpExchange exchange) throws IOException {
+        String requested = exchange.getRequestHeaders().getFirst("If-None-Match");
+        ifNoneMatch.add(requested == null ? "" : requested);
+        String eTag = "\"" + version + "-gzip\"";
+        exchange.getResponseHeaders().set("ETag", eTag);
+        if (eTag.equals(requested)) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        ObjectNode data = objectMapper.createObjectNode().put("version", version);
+        data.set("items", items);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(body)) {
+            objectMapper.writeValue(out, result(data));
+        }
+        exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        send(exchange, 200, body.toByteArray());
+    }
+
+    private void blob(HttpExchange exchange) throws IOException {
+        String hash = exchange.getRequestURI().getQuery().substring("hash=".length());
+        blobRequests.computeIfAbsent(hash, h -> new AtomicInteger()).incrementAndGet();
+        send(exchange, 200, blobContents.get(hash).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void watch(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            while (in.read() != -1) {
+                // 丢弃请求体
+            }
+        }
+        Boolean changed;
+        try {
+            changed = changes.poll(200, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            changed = null;
+        }
+        if (changed == null) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        send(exchange, 200, objectMapper.writeValueAsBytes(result(objectMapper.createArrayNode())));
+    }
+
+    private ObjectNode result(JsonNode data) {
+        ObjectNode result = objectMapper.createObjectNode().put("code", 200).put("message", "success");
+        result.set("data", data);
+        return result;
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "客户端刷新超时");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
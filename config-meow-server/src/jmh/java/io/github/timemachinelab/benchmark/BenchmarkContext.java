@@ -0,0 +1,40 @@
+package io.github.timemachinelab.benchmark;
+
+import io.github.timemachinelab.ConfigMeowApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 基准测试用的Spring上下文：bench profile，内嵌H2，无Web容器
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * 启动应用上下文
+     * @param args 额外的命令行参数，如 --config-meow.cache.enabled=false
+     * @return 应用上下文，由调用方在 TearDown 中关闭
+     */
+    static ConfigurableApplicationContext start(String... args) {
+        return startWithProfile("bench", args);
+    }
+
+    /**
+     * 以指定profile启动应用上下文，如 standalone 单机存储
+     * @param profile 激活的profile
+     * @param args 额外的命令行参数
+     * @return 应用上下文，由调用方在 TearDown 中关闭
+     */
+    static ConfigurableApplicationContext startWithProfile(String profile, String... args) {
+        String[] allArgs = new String[args.length + 1];
+        allArgs[0] = "--spring.profiles.active=" + profile;
+        System.arraycopy(args, 0, allArgs, 1, args.length);
+        return new SpringApplicationBuilder(ConfigMeowApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(allArgs);
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.timemachinelab.benchmark;
+
+import io.github.timemachinelab.domain.ConfigDomain;
+import io.github.timemachinelab.pojo.dto.BatchItemResult;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConfigDomain 端到端读写路径（内嵌H2，MySQL模式）
+ * 批量写与逐条写均按每个配置项计时，可直接对比吞吐
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigDomainBenchmark {
+
+    private static final String APP_NAME = "bench-app";
+
+    private static final String ENVIRONMENT = "prod";
+
+    private static final int KEY_COUNT = 1000;
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+
+    private ConfigDomain configDomain;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start("--config-meow.cache.enabled=" + cacheEnabled);
+        configDomain = context.getBean(ConfigDomain.class);
+        List<ConfigItemDTO> items = new ArrayList<>(KEY_COUNT);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            items.add(item(i, "initial"));
+        }
+        configDomain.batchSetConfig(items);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ConfigItemDTO getExisting() {
+        return configDomain.getConfigByKey(APP_NAME, ENVIRONMENT, key(randomIndex()));
+    }
+
+    @Benchmark
+    public ConfigItemDTO getMissing() {
+        return configDomain.getConfigByKey(APP_NAME, ENVIRONMENT, "missing." + randomIndex());
+    }
+
+    @Benchmark
+    public boolean setSingle() {
+        return configDomain.setConfig(item(randomIndex(), "v" + System.nanoTime()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int setSequential() {
+        int start = randomIndex();
+        int success = 0;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            if (configDomain.setConfig(item((start + i) % KEY_COUNT, "v" + System.nanoTime()))) {
+                success++;
+            }
+        }
+        return success;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<BatchItemResult> setBatch() {
+        int start = randomIndex();
+        List<ConfigItemDTO> items = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            items.add(item((start + i) % KEY_COUNT, "v" + System.nanoTime()));
+        }
+        return configDomain.batchSetConfig(items);
+    }
+
+    private static int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(KEY_COUNT);
+    }
+
+    private static String key(int i) {
+        return "bench.key." + i;
+    }
+
+    private static ConfigItemDTO item(int i, String value) {
+        return ConfigItemDTO.builder()
+                .appName(APP_NAME)
+                .environment(ENVIRONMENT)
+                .configKey(key(i))
+                .configValue(value)
+                .dataType("string")
+                .isActive(true)
+                .build();
+    }
+}
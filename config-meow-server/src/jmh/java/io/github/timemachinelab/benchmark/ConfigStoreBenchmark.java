@@ -0,0 +1,116 @@
+package io.github.timemachinelab.benchmark;
+
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.domain.ConfigDomain;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.entity.ConfigItemDO;
+import io.github.timemachinelab.store.ConfigStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 存储层读写延迟：jdbc 为 config_item 表（内嵌H2，MySQL模式），mapped 为 standalone 单机存储（临时目录）
+ * 读取直接访问存储，不经过本地缓存；写入经 ConfigDomain，包含修订号分配、历史记录与缓存失效
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigStoreBenchmark {
+
+    private static final NamespaceKey NAMESPACE = new NamespaceKey("bench-app", "prod");
+
+    private static final int KEY_COUNT = 1000;
+
+    @Param({"jdbc", "mapped"})
+    public String store;
+
+    private ConfigurableApplicationContext context;
+
+    private ConfigStore configStore;
+
+    private ConfigDomain configDomain;
+
+    private Path dataDir;
+
+    @Setup
+    public void setup() throws IOException {
+        if ("mapped".equals(store)) {
+            dataDir = Files.createTempDirectory("config-meow-bench");
+            context = BenchmarkContext.startWithProfile("standalone",
+                    "--config-meow.standalone.data-dir=" + dataDir,
+                    "--logging.level.root=WARN");
+        } else {
+            context = BenchmarkContext.start();
+        }
+        configStore = context.getBean(ConfigStore.class);
+        configDomain = context.getBean(ConfigDomain.class);
+        List<ConfigItemDTO> items = new ArrayList<>(KEY_COUNT);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            items.add(item(i, "initial"));
+        }
+        configDomain.batchSetConfig(items);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        if (dataDir != null) {
+            try (Stream<Path> files = Files.walk(dataDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public ConfigItemDO get() {
+        return configStore.get(NAMESPACE, key(randomIndex()));
+    }
+
+    @Benchmark
+    public boolean set() {
+        return configDomain.setConfig(item(randomIndex(), "v" + System.nanoTime()));
+    }
+
+    private static int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(KEY_COUNT);
+    }
+
+    private static String key(int i) {
+        return "bench.key." + i;
+    }
+
+    private static ConfigItemDTO item(int i, String value) {
+        return ConfigItemDTO.builder()
+                .appName(NAMESPACE.getAppName())
+                .environment(NAMESPACE.getEnvironment())
+                .configKey(key(i))
+                .configValue(value)
+                .dataType("string")
+                .isActive(true)
+                .build();
+    }
+}
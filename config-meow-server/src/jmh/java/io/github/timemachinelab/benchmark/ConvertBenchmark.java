@@ -0,0 +1,60 @@
+package io.github.timemachinelab.benchmark;
+
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.entity.ConfigItemDO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO与DO互转（convert2DO 包含一次雪花ID生成）
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConvertBenchmark {
+
+    private ConfigItemDTO dto;
+
+    private ConfigItemDO entity;
+
+    @Setup
+    public void setup() {
+        dto = ConfigItemDTO.builder()
+                .appName("bench-app")
+                .environment("prod")
+                .configKey("db.pool.max")
+                .configValue("20")
+                .description("最大连接数")
+                .dataType("int")
+                .isActive(true)
+                .build();
+        entity = ConfigItemDO.convert2DO(dto);
+        entity.setCreatedTime(LocalDateTime.now());
+        entity.setUpdatedTime(LocalDateTime.now());
+        entity.setVersion(1);
+    }
+
+    @Benchmark
+    public ConfigItemDO convert2DO() {
+        return ConfigItemDO.convert2DO(dto);
+    }
+
+    @Benchmark
+    public ConfigItemDTO convert2DTO() {
+        return ConfigItemDTO.convert2DTO(entity);
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.timemachinelab.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.timemachinelab.common.Result;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result 通过Jackson序列化：单个配置与命名空间快照
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSerializationBenchmark {
+
+    @Param({"10", "1000"})
+    public int snapshotSize;
+
+    private ObjectMapper objectMapper;
+
+    private Result<ConfigItemDTO> single;
+
+    private Result<NamespaceSnapshot> snapshot;
+
+    @Setup
+    public void setup() {
+        // 与Spring MVC默认使用的ObjectMapper配置一致
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        single = Result.success(item(0));
+        List<ConfigItemDTO> items = new ArrayList<>(snapshotSize);
+        for (int i = 0; i < snapshotSize; i++) {
+            items.add(item(i));
+        }
+        snapshot = Result.success(NamespaceSnapshot.of("bench-app", "prod", items));
+    }
+
+    @Benchmark
+    public byte[] serializeSingle() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(single);
+    }
+
+    @Benchmark
+    public byte[] serializeSnapshot() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(snapshot);
+    }
+
+    private static ConfigItemDTO item(int i) {
+        return ConfigItemDTO.builder()
+                .appName("bench-app")
+                .environment("prod")
+                .configKey("bench.key." + i)
+                .configValue("value-" + i)
+                .description("benchmark item " + i)
+                .dataType("string")
+                .isActive(true)
+                .build();
+    }
+}
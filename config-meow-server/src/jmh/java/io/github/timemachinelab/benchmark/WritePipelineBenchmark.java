@@ -0,0 +1,112 @@
+package io.github.timemachinelab.benchmark;
+
+import io.github.timemachinelab.domain.ConfigDomain;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.write.ConfigWritePipeline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 高频单条写入：多个线程反复写入少量热点配置（模拟开关自动化）
+ * 对比直接写库与写入合并管道，每轮迭代结束输出“SQL语句数/写入请求数”，即每个写请求带来的数据库QPS
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class WritePipelineBenchmark {
+
+    private static final String APP_NAME = "bench-app";
+
+    private static final String ENVIRONMENT = "prod";
+
+    private static final int HOT_KEYS = 20;
+
+    @Param({"false", "true"})
+    public boolean pipelineEnabled;
+
+    private ConfigurableApplicationContext context;
+
+    private ConfigDomain configDomain;
+
+    private ConfigWritePipeline writePipeline;
+
+    private MeterRegistry meterRegistry;
+
+    private final LongAdder writes = new LongAdder();
+
+    private long statementsBefore;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start("--config-meow.write-pipeline.enabled=" + pipelineEnabled,
+                "--config-meow.write-pipeline.window=10ms");
+        configDomain = context.getBean(ConfigDomain.class);
+        writePipeline = context.getBean(ConfigWritePipeline.class);
+        meterRegistry = context.getBean(MeterRegistry.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        writes.reset();
+        statementsBefore = sqlStatements();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportStatements() {
+        long statements = sqlStatements() - statementsBefore;
+        long count = writes.sum();
+        // JMH子进程的标准输出编码不确定，这里只输出ASCII
+        System.out.printf("  [pipeline=%s] writes=%d sql=%d sql/write=%.2f%n",
+                pipelineEnabled, count, statements, count == 0 ? 0.0 : (double) statements / count);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean setHotKey() {
+        ConfigItemDTO item = ConfigItemDTO.builder()
+                .appName(APP_NAME)
+                .environment(ENVIRONMENT)
+                .configKey("flag." + ThreadLocalRandom.current().nextInt(HOT_KEYS))
+                .configValue(String.valueOf(ThreadLocalRandom.current().nextBoolean()))
+                .dataType("boolean")
+                .build();
+        boolean result = pipelineEnabled ? writePipeline.set(item) : configDomain.setConfig(item);
+        writes.increment();
+        return result;
+    }
+
+    private long sqlStatements() {
+        long count = 0;
+        for (Timer timer : meterRegistry.find("config.sql").timers()) {
+            count += timer.count();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.timemachinelab.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.config.CacheProperties;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 配置项本地读穿缓存
+ * 按 (appName, environment, configKey) 缓存单个配置，包括不存在的配置（空结果），
+ * 写入或删除配置后由调用方立即失效对应条目。
+ * 未命中时经 {@link SingleFlight} 加载：热点配置变更或过期后的并发读取只产生一次数据库查询。
+ */
+@Component
+public class ConfigCache implements MeterBinder {
+
+    private final boolean enabled;
+
+    private final Cache<ConfigCacheKey, ConfigCacheEntry> cache;
+
+    private final SingleFlight<ConfigCacheKey, ConfigCacheEntry> singleFlight;
+
+    public ConfigCache(CacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        final long ttlNanos = properties.getTtl().toNanos();
+        final long negativeTtlNanos = properties.getNegativeTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfter(new Expiry<ConfigCacheKey, ConfigCacheEntry>() {
+                    @Override
+                    public long expireAfterCreate(ConfigCacheKey key, ConfigCacheEntry value, long currentTime) {
+                        return value.isAbsent() ? negativeTtlNanos : ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ConfigCacheKey key, ConfigCacheEntry value,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ConfigCacheKey key, ConfigCacheEntry value,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        this.singleFlight = new SingleFlight<>(properties.getLoadTimeout().toMillis());
+    }
+
+    /**
+     * 读取配置，未命中时通过loader加载并写入缓存
+     * @param key 缓存键
+     * @param loader 加载函数，返回null表示配置不存在
+     * @return 配置项DTO，不存在时返回null
+     */
+    public ConfigItemDTO get(ConfigCacheKey key, Function<ConfigCacheKey, ConfigItemDTO> loader) {
+        return getEntry(key, loader).getItem();
+    }
+
+    /**
+     * 读取缓存条目，未命中时通过loader加载并写入缓存
+     * 条目上缓存了类型化值，缓存关闭时不写入缓存，但并发加载仍会合并
+     * @param key 缓存键
+     * @param loader 加载函数，返回null表示配置不存在
+     * @return 缓存条目
+     * @throws BizException 等待同一配置进行中的加载超时
+     */
+    public ConfigCacheEntry getEntry(ConfigCacheKey key, Function<ConfigCacheKey, ConfigItemDTO> loader) {
+        ConfigCacheEntry entry = enabled ? cache.getIfPresent(key) : null;
+        if (entry != null) {
+            return entry;
+        }
+        return singleFlight.load(key, k -> ConfigCacheEntry.of(loader.apply(k)), (k, loaded) -> {
+            if (enabled) {
+                cache.put(k, loaded);
+            }
+        });
+    }
+
+    /**
+     * 仅从内存读取缓存条目，不触发加载
+     * @param key 缓存键
+     * @return 缓存条目，未缓存或缓存关闭时返回null
+     */
+    public ConfigCacheEntry getIfPresent(ConfigCacheKey key) {
+        return enabled ? cache.getIfPresent(key) : null;
+    }
+
+    /**
+     * 失效单个配置，同时作废该配置进行中的加载
+     * @param key 缓存键
+     */
+    public void invalidate(ConfigCacheKey key) {
+        singleFlight.invalidate(key, () -> cache.invalidate(key));
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        singleFlight.invalidateAll();
+        cache.invalidateAll();
+    }
+
+    /**
+     * 命中/未命中/淘汰等统计
+     * @return 统计快照
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 当前缓存条目数（近似值）
+     * @return 条目数
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * 注册命中率、淘汰数等缓存指标，标签 cache=config-item；
+     * 以及未命中加载的合并情况 config.cache.loads{result=leader|collapsed|timeout|failure}
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "config-item");
+        registerLoadCounter(registry, "leader", "实际执行的数据库加载数", SingleFlight::loadCount);
+        registerLoadCounter(registry, "collapsed", "并入进行中加载、未访问数据库的读取数", SingleFlight::collapsedCount);
+        registerLoadCounter(registry, "timeout", "等待进行中加载超时的读取数", SingleFlight::timeoutCount);
+        registerLoadCounter(registry, "failure", "失败的数据库加载数", SingleFlight::failureCount);
+    }
+
+    private void registerLoadCounter(MeterRegistry registry, String result, String description,
+                                     ToDoubleFunction<SingleFlight<ConfigCacheKey, ConfigCacheEntry>> count) {
+        FunctionCounter.builder("config.cache.loads", singleFlight, count)
+                .tag("cache", "config-item")
+                .tag("result", result)
+                .description(description)
+                .register(registry);
+    }
+}
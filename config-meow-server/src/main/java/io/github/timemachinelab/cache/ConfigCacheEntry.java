@@ -0,0 +1,57 @@
+package io.github.timemachinelab.cache;
+
+import io.github.timemachinelab.common.ConfigDataType;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+
+/**
+ * 配置缓存值，item为空表示该配置不存在（空结果缓存）
+ * 按 dataType 解析后的类型化值在首次读取时计算并随条目缓存，配置更新时条目整体失效
+ */
+public final class ConfigCacheEntry {
+
+    private static final ConfigCacheEntry ABSENT = new ConfigCacheEntry(null);
+
+    private static final Object UNPARSED = new Object();
+
+    private final ConfigItemDTO item;
+
+    // 解析结果不可变，并发首次读取时重复解析无副作用
+    private volatile Object typedValue = UNPARSED;
+
+    private ConfigCacheEntry(ConfigItemDTO item) {
+        this.item = item;
+    }
+
+    public static ConfigCacheEntry of(ConfigItemDTO item) {
+        return item == null ? ABSENT : new ConfigCacheEntry(item);
+    }
+
+    public ConfigItemDTO getItem() {
+        return item;
+    }
+
+    public boolean isAbsent() {
+        return item == null;
+    }
+
+    /**
+     * 按 dataType 解析后的配置值
+     * @return 解析后的值，配置不存在或配置值为null时返回null
+     * @throws IllegalArgumentException 数据类型不支持或存量配置值与数据类型不匹配
+     */
+    public Object getTypedValue() {
+        Object value = typedValue;
+        if (value == UNPARSED) {
+            if (item == null) {
+                return null;
+            }
+            ConfigDataType type = ConfigDataType.of(item.getDataType());
+            if (type == null) {
+                throw new IllegalArgumentException("不支持的数据类型: " + item.getDataType());
+            }
+            value = type.parse(item.getConfigValue());
+            typedValue = value;
+        }
+        return value;
+    }
+}
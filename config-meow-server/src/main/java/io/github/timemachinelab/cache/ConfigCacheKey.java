@@ -0,0 +1,13 @@
+package io.github.timemachinelab.cache;
+
+import lombok.Value;
+
+/**
+ * 配置缓存键：应用名 + 环境 + 配置键
+ */
+@Value
+public class ConfigCacheKey {
+    String appName;
+    String environment;
+    String configKey;
+}
@@ -0,0 +1,234 @@
+package io.github.timemachinelab.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.timemachinelab.common.Result;
+import io.github.timemachinelab.config.CacheProperties;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 已编码快照响应缓存
+ * 按命名空间、快照版本与编码格式缓存序列化后的 Result 字节，同一版本的重复请求不再重新序列化；
+ * 需要gzip时压缩结果同样随条目缓存。版本即内容摘要，内容变化后旧条目不会再被命中，由容量淘汰。
+ */
+@Component
+public class EncodedSnapshotCache implements MeterBinder {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    public static final MediaType APPLICATION_CBOR = new MediaType("application", "cbor");
+
+    private static final Pattern ZERO_QUALITY = Pattern.compile("q=0(\\.0{0,3})?");
+
+    private final Map<MediaType, ObjectMapper> mappers = new LinkedHashMap<>();
+
+    // 非Web上下文（如基准测试）中不存在，此时不做预压缩
+    private final Compression compression;
+
+    private final boolean enabled;
+
+    private final Cache<EncodedKey, EncodedSnapshot> cache;
+
+    public EncodedSnapshotCache(ObjectMapper objectMapper, MappingJackson2SmileHttpMessageConverter smileConverter,
+                                MappingJackson2CborHttpMessageConverter cborConverter, CacheProperties properties,
+                                ObjectProvider<ServerProperties> serverProperties) {
+        ServerProperties server = serverProperties.getIfAvailable();
+        this.compression = server == null ? null : server.getCompression();
+        // 顺序即Accept同等优先时的选择顺序，JSON优先
+        mappers.put(MediaType.APPLICATION_JSON, objectMapper);
+        mappers.put(APPLICATION_SMILE, smileConverter.getObjectMapper());
+        mappers.put(APPLICATION_CBOR, cborConverter.getObjectMapper());
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getEncodedMaxSize().toBytes())
+                .weigher((EncodedKey key, EncodedSnapshot value) -> value.weight())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 按Accept请求头选择编码格式
+     * @param accept Accept请求头，可为空
+     * @return JSON、Smile或CBOR，无法匹配时返回JSON
+     */
+    public MediaType negotiate(String accept) {
+        if (!StringUtils.hasText(accept)) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() <= 0) {
+                continue;
+            }
+            for (MediaType supported : mappers.keySet()) {
+                if (mediaType.includes(supported)) {
+                    return supported;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * 获取快照响应（Result包装）的编码结果
+     * @param snapshot 命名空间快照
+     * @param mediaType negotiate 返回的编码格式
+     * @return 编码结果
+     */
+    public EncodedSnapshot get(NamespaceSnapshot snapshot, MediaType mediaType) {
+        EncodedKey key = new EncodedKey(snapshot.getAppName(), snapshot.getEnvironment(), snapshot.getVersion(),
+                mediaType);
+        if (!enabled) {
+            return encode(key, snapshot);
+        }
+        return cache.get(key, k -> encode(k, snapshot));
+    }
+
+    /**
+     * 编码快照响应（Result包装），不经过缓存，用于内联了大配置值等非标准形态的快照
+     * @param snapshot 命名空间快照
+     * @param mediaType negotiate 返回的编码格式
+     * @return 编码结果
+     */
+    public EncodedSnapshot encode(NamespaceSnapshot snapshot, MediaType mediaType) {
+        return encode(new EncodedKey(snapshot.getAppName(), snapshot.getEnvironment(), snapshot.getVersion(),
+                mediaType), snapshot);
+    }
+
+    /**
+     * 是否返回预先压缩的响应体：启用了响应压缩、客户端接受gzip且长度达到压缩阈值
+     * 与 server.compression 的判断一致，响应已带 Content-Encoding 时容器不会再次压缩
+     * @param acceptEncoding Accept-Encoding请求头，可为空
+     * @param encoded 编码结果
+     * @return 是否使用gzip
+     */
+    public boolean shouldGzip(String acceptEncoding, EncodedSnapshot encoded) {
+        if (compression == null || !compression.getEnabled()
+                || encoded.getBody().length < compression.getMinResponseSize().toBytes()) {
+            return false;
+        }
+        return acceptsGzip(acceptEncoding);
+    }
+
+    /**
+     * 客户端是否接受gzip编码（未以q=0排除）
+     * @param acceptEncoding Accept-Encoding请求头，可为空
+     * @return 是否接受gzip
+     */
+    public boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : StringUtils.commaDelimitedListToStringArray(acceptEncoding)) {
+            String[] parts = coding.split(";");
+            if (!"gzip".equalsIgnoreCase(parts[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                if (ZERO_QUALITY.matcher(parts[i].trim()).matches()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "encoded-snapshot");
+    }
+
+    private EncodedSnapshot encode(EncodedKey key, NamespaceSnapshot snapshot) {
+        try {
+            return new EncodedSnapshot(key.getMediaType(),
+                    mappers.get(key.getMediaType()).writeValueAsBytes(Result.success(snapshot)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Value
+    private static class EncodedKey {
+        String appName;
+        String environment;
+        String version;
+        MediaType mediaType;
+    }
+
+    /**
+     * 编码后的快照响应，gzip结果在首次需要时生成
+     */
+    public static final class EncodedSnapshot {
+        private final MediaType mediaType;
+        private final byte[] body;
+        private volatile byte[] gzipBody;
+
+        private EncodedSnapshot(MediaType mediaType, byte[] body) {
+            this.mediaType = mediaType;
+            this.body = body;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * gzip压缩后的响应体
+         * @return 压缩结果
+         */
+        public byte[] getGzipBody() {
+            byte[] compressed = gzipBody;
+            if (compressed == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(body);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                compressed = out.toByteArray();
+                gzipBody = compressed;
+            }
+            return compressed;
+        }
+
+        // 按未压缩长度计权，gzip结果通常只有其几分之一
+        private int weight() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.timemachinelab.cache;
+
+import lombok.Value;
+
+/**
+ * 命名空间键：应用名 + 环境
+ */
+@Value
+public class NamespaceKey {
+    String appName;
+    String environment;
+}
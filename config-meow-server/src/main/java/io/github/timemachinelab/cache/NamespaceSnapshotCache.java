@@ -0,0 +1,87 @@
+package io.github.timemachinelab.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.timemachinelab.config.CacheProperties;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * 命名空间快照本地缓存
+ * 命名空间内任一配置写入或删除后由调用方失效整个快照。
+ */
+@Component
+public class NamespaceSnapshotCache implements MeterBinder {
+
+    private final boolean enabled;
+
+    private final Cache<NamespaceKey, NamespaceSnapshot> cache;
+
+    public NamespaceSnapshotCache(CacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getSnapshotMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 读取命名空间快照，未命中时通过loader加载并写入缓存
+     * @param key 命名空间键
+     * @param loader 加载函数
+     * @return 命名空间快照
+     */
+    public NamespaceSnapshot get(NamespaceKey key, Function<NamespaceKey, NamespaceSnapshot> loader) {
+        if (!enabled) {
+            return loader.apply(key);
+        }
+        return cache.get(key, loader);
+    }
+
+    /**
+     * 仅从内存读取命名空间快照，不触发加载
+     * @param key 命名空间键
+     * @return 命名空间快照，未缓存或缓存关闭时返回null
+     */
+    public NamespaceSnapshot getIfPresent(NamespaceKey key) {
+        return enabled ? cache.getIfPresent(key) : null;
+    }
+
+    /**
+     * 失效命名空间快照
+     * @param key 命名空间键
+     */
+    public void invalidate(NamespaceKey key) {
+        cache.invalidate(key);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 命中/未命中/淘汰等统计
+     * @return 统计快照
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 注册命中率、加载耗时、淘汰数等缓存指标，标签 cache=namespace-snapshot
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "namespace-snapshot");
+    }
+}
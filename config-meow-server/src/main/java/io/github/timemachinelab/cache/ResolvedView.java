@@ -0,0 +1,85 @@
+package io.github.timemachinelab.cache;
+
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 命名空间的分层合并视图：各层配置按优先级展平后的不可变Map，单个配置的读取为一次Map查找
+ * 条目上缓存了类型化值；全量快照在首次需要时按配置键排序生成
+ */
+public final class ResolvedView {
+
+    private static final ConfigCacheEntry ABSENT = ConfigCacheEntry.of(null);
+
+    private final NamespaceKey namespace;
+
+    private final Map<String, ConfigCacheEntry> entries;
+
+    private volatile NamespaceSnapshot snapshot;
+
+    public ResolvedView(NamespaceKey namespace, Map<String, ConfigCacheEntry> entries) {
+        this.namespace = namespace;
+        this.entries = Collections.unmodifiableMap(entries);
+    }
+
+    public NamespaceKey getNamespace() {
+        return namespace;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 读取配置
+     * @param configKey 配置键
+     * @return 缓存条目，不存在时返回空条目
+     */
+    public ConfigCacheEntry get(String configKey) {
+        return entries.getOrDefault(configKey, ABSENT);
+    }
+
+    /**
+     * 应用部分配置键的变化，返回新视图
+     * @param changes 配置键 -> 新条目，条目为空条目时移除该配置
+     * @return 新视图
+     */
+    public ResolvedView with(Map<String, ConfigCacheEntry> changes) {
+        Map<String, ConfigCacheEntry> copy = new HashMap<>(entries);
+        for (Map.Entry<String, ConfigCacheEntry> change : changes.entrySet()) {
+            if (change.getValue().isAbsent()) {
+                copy.remove(change.getKey());
+            } else {
+                copy.put(change.getKey(), change.getValue());
+            }
+        }
+        return new ResolvedView(namespace, copy);
+    }
+
+    /**
+     * 合并后的全量快照
+     * @return 按配置键排序的快照
+     */
+    public NamespaceSnapshot toSnapshot() {
+        NamespaceSnapshot current = snapshot;
+        if (current == null) {
+            List<String> keys = new ArrayList<>(entries.keySet());
+            Collections.sort(keys);
+            List<ConfigItemDTO> items = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                ConfigItemDTO item = entries.get(key).getItem();
+                // 与单层快照一致，大配置值只返回哈希
+                items.add(item.getValueRef() == null ? item : item.toBuilder().configValue(null).build());
+            }
+            current = NamespaceSnapshot.of(namespace.getAppName(), namespace.getEnvironment(), items);
+            snapshot = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,168 @@
+package io.github.timemachinelab.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.github.timemachinelab.config.CacheProperties;
+import io.github.timemachinelab.config.LayerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 分层合并视图缓存
+ * 任一层的配置变化时只把受影响视图中的该配置键标记为脏，下次读取时仅重新解析脏配置键并生成新视图，
+ * 而不是整体重建；同一视图的刷新串行执行。
+ */
+@Component
+public class ResolvedViewCache implements MeterBinder {
+
+    private final boolean enabled;
+
+    private final Cache<NamespaceKey, ResolvedView> cache;
+
+    private final ConcurrentHashMap<NamespaceKey, Set<String>> dirtyKeys = new ConcurrentHashMap<>();
+
+    // 正在全量构建的视图，构建期间的变更同样需要标记，构建完成后再刷新
+    private final Set<NamespaceKey> loading = ConcurrentHashMap.newKeySet();
+
+    public ResolvedViewCache(CacheProperties cacheProperties, LayerProperties layerProperties) {
+        this.enabled = cacheProperties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(layerProperties.getViewMaxSize())
+                .expireAfterWrite(cacheProperties.getTtl())
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 视图被淘汰时丢弃其脏配置键
+     * 监听异步执行，期间同一视图可能已重新构建，此时的脏配置键属于新视图，不能丢弃
+     */
+    private void onRemoval(NamespaceKey key, ResolvedView view, RemovalCause cause) {
+        if (cause.wasEvicted()) {
+            dirtyKeys.computeIfPresent(key, (k, dirty) ->
+                    loading.contains(k) || cache.asMap().containsKey(k) ? dirty : null);
+        }
+    }
+
+    /**
+     * 读取合并视图
+     * @param namespace 命名空间
+     * @param loader 全量构建函数
+     * @param refresher 增量刷新函数：根据旧视图与脏配置键生成新视图
+     * @return 合并视图
+     */
+    public ResolvedView get(NamespaceKey namespace, Function<NamespaceKey, ResolvedView> loader,
+                            BiFunction<ResolvedView, List<String>, ResolvedView> refresher) {
+        if (!enabled) {
+            return loader.apply(namespace);
+        }
+        ResolvedView view = load(namespace, loader);
+        Set<String> dirty = dirtyKeys.get(namespace);
+        if (dirty == null || dirty.isEmpty()) {
+            return view;
+        }
+        ResolvedView refreshed = cache.asMap().computeIfPresent(namespace, (k, current) -> {
+            Set<String> pending = dirtyKeys.get(k);
+            List<String> keys = pending == null ? Collections.<String>emptyList() : drain(pending);
+            return keys.isEmpty() ? current : refresher.apply(current, keys);
+        });
+        // 刷新前视图已被淘汰，重新全量构建
+        return refreshed != null ? refreshed : load(namespace, loader);
+    }
+
+    /**
+     * 读取或全量构建视图
+     * 构建开始前清除旧的脏配置键，构建期间的变更照常标记；构建结果写入缓存之后才移出 loading，
+     * 保证任一时刻的变更总能看到正在构建或已缓存的视图
+     */
+    private ResolvedView load(NamespaceKey namespace, Function<NamespaceKey, ResolvedView> loader) {
+        boolean[] built = new boolean[1];
+        try {
+            return cache.get(namespace, k -> {
+                built[0] = true;
+                loading.add(k);
+                dirtyKeys.remove(k);
+                return loader.apply(k);
+            });
+        } finally {
+            if (built[0]) {
+                loading.remove(namespace);
+            }
+        }
+    }
+
+    /**
+     * 仅从内存读取合并视图，不触发构建或刷新
+     * @param namespace 命名空间
+     * @return 合并视图，未缓存、缓存关闭或存在待刷新的配置键时返回null
+     */
+    public ResolvedView getIfPresent(NamespaceKey namespace) {
+        if (!enabled) {
+            return null;
+        }
+        ResolvedView view = cache.getIfPresent(namespace);
+        Set<String> dirty = dirtyKeys.get(namespace);
+        return dirty == null || dirty.isEmpty() ? view : null;
+    }
+
+    /**
+     * 把已缓存或正在构建的视图中的配置键标记为脏，未缓存的视图下次读取时全量构建，无需标记
+     * @param namespace 命名空间
+     * @param configKey 配置键
+     */
+    public void markDirty(NamespaceKey namespace, String configKey) {
+        if (loading.contains(namespace) || cache.asMap().containsKey(namespace)) {
+            dirtyKeys.computeIfAbsent(namespace, k -> ConcurrentHashMap.newKeySet()).add(configKey);
+        }
+    }
+
+    /**
+     * 已缓存及正在构建的视图
+     * @return 命名空间集合
+     */
+    public Set<NamespaceKey> namespaces() {
+        Set<NamespaceKey> namespaces = new HashSet<>(cache.asMap().keySet());
+        namespaces.addAll(loading);
+        return namespaces;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        dirtyKeys.clear();
+    }
+
+    /**
+     * 注册缓存指标，标签 cache=resolved-view
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "resolved-view");
+    }
+
+    private static List<String> drain(Set<String> dirty) {
+        List<String> keys = new ArrayList<>();
+        Iterator<String> iterator = dirty.iterator();
+        while (iterator.hasNext()) {
+            keys.add(iterator.next());
+            iterator.remove();
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.timemachinelab.cache;
+
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 同键并发加载合并（single-flight）
+ * 同一时刻每个键至多一个加载在执行，其余调用方等待并共享其结果；加载线程之外不持有任何锁，
+ * 慢加载不会阻塞其他键。
+ * <ul>
+ *     <li>加载失败：异常原样抛给本次加载的全部等待者，结果不缓存，下一次调用重新加载</li>
+ *     <li>等待超时：等待者抛出 SERVICE_UNAVAILABLE，加载本身继续执行，完成后照常发布结果</li>
+ *     <li>失效：{@link #invalidate} 使进行中的加载作废，其结果只返回给已在等待的调用方、不再发布，
+ *     之后的调用方发起新的加载，避免失效前读到的旧值在失效之后写回缓存</li>
+ * </ul>
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+    private final long timeoutMillis;
+
+    private final LongAdder loadCount = new LongAdder();
+
+    private final LongAdder collapsedCount = new LongAdder();
+
+    private final LongAdder timeoutCount = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    public SingleFlight(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 加载键对应的值，同键已有加载在进行时等待其结果
+     * @param key 键
+     * @param loader 加载函数
+     * @param publisher 加载成功且未被失效时调用（如写入缓存），与 {@link #invalidate} 互斥执行
+     * @return 值
+     * @throws BizException 等待超时或被中断
+     */
+    public V load(K key, Function<K, V> loader, BiConsumer<K, V> publisher) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            collapsedCount.increment();
+            return await(existing);
+        }
+        loadCount.increment();
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            failureCount.increment();
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        flights.computeIfPresent(key, (k, current) -> {
+            if (current != flight) {
+                return current;
+            }
+            publisher.accept(k, value);
+            return null;
+        });
+        flight.complete(value);
+        return value;
+    }
+
+    /**
+     * 作废键上进行中的加载，并在与结果发布互斥的情况下执行失效动作
+     * @param key 键
+     * @param action 失效动作（如删除缓存条目）
+     */
+    public void invalidate(K key, Runnable action) {
+        flights.compute(key, (k, current) -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 作废全部进行中的加载
+     */
+    public void invalidateAll() {
+        flights.clear();
+    }
+
+    public long loadCount() {
+        return loadCount.sum();
+    }
+
+    public long collapsedCount() {
+        return collapsedCount.sum();
+    }
+
+    public long timeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public long failureCount() {
+        return failureCount.sum();
+    }
+
+    private V await(CompletableFuture<V> flight) {
+        try {
+            return flight.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (TimeoutException e) {
+            timeoutCount.increment();
+            throw new BizException(ResultCode.SERVICE_UNAVAILABLE, "等待配置加载超时");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BizException(ResultCode.SERVICE_UNAVAILABLE, "等待配置加载被中断");
+        }
+    }
+}
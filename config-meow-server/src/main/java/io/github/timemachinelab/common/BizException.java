@@ -0,0 +1,22 @@
+package io.github.timemachinelab.common;
+
+/**
+ * 业务异常，由 GlobalExceptionHandler 转换为对应错误码的 Result
+ */
+public class BizException extends RuntimeException {
+
+    private final ResultCode resultCode;
+
+    public BizException(ResultCode resultCode) {
+        this(resultCode, resultCode.getMessage());
+    }
+
+    public BizException(ResultCode resultCode, String message) {
+        super(message);
+        this.resultCode = resultCode;
+    }
+
+    public ResultCode getResultCode() {
+        return resultCode;
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.timemachinelab.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Locale;
+
+/**
+ * 配置值数据类型，对应 config_item.data_type
+ * 负责校验配置值并解析为类型化的值：string -> String，int -> Long，boolean -> Boolean，json -> JsonNode
+ */
+public enum ConfigDataType {
+    STRING("string"),
+    INT("int"),
+    BOOLEAN("boolean"),
+    JSON("json");
+
+    // 拒绝合法JSON之后的多余内容，如 "{}x" 或 "1 2"
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+
+    private final String code;
+
+    ConfigDataType(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * 根据类型编码查找数据类型，编码为空时视为string（与表默认值一致）
+     * @param code 类型编码，忽略大小写
+     * @return 数据类型，不支持的编码返回null
+     */
+    public static ConfigDataType of(String code) {
+        if (code == null || code.isEmpty()) {
+            return STRING;
+        }
+        String normalized = code.toLowerCase(Locale.ROOT);
+        for (ConfigDataType type : values()) {
+            if (type.code.equals(normalized)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按数据类型解析配置值
+     * @param value 配置值字符串，为null时返回null
+     * @return 解析后的值，json类型为只读使用的 JsonNode
+     * @throws IllegalArgumentException 配置值与数据类型不匹配
+     */
+    public Object parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        switch (this) {
+            case INT:
+                try {
+                    return Long.parseLong(value.trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("配置值不是合法的整数: " + value);
+                }
+            case BOOLEAN:
+                String trimmed = value.trim();
+                if ("true".equalsIgnoreCase(trimmed)) {
+                    return Boolean.TRUE;
+                }
+                if ("false".equalsIgnoreCase(trimmed)) {
+                    return Boolean.FALSE;
+                }
+                throw new IllegalArgumentException("配置值不是合法的布尔值: " + value);
+            case JSON:
+                try {
+                    JsonNode node = OBJECT_MAPPER.readTree(value);
+                    // 空白内容解析为 MissingNode，字面量null解析为 NullNode，均不是有效的json配置
+                    if (node == null || node.isMissingNode() || node.isNull()) {
+                        throw new IllegalArgumentException("配置值不是合法的JSON: 内容为空或为null");
+                    }
+                    return node;
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("配置值不是合法的JSON: " + e.getOriginalMessage());
+                }
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * 校验配置值是否符合数据类型
+     * @param dataType 类型编码
+     * @param value 配置值
+     * @return 校验失败信息，通过时返回null
+     */
+    public static String check(String dataType, String value) {
+        ConfigDataType type = of(dataType);
+        if (type == null) {
+            return "不支持的数据类型: " + dataType;
+        }
+        // 字符串无需解析，json值校验阶段也需完整解析一次
+        try {
+            type.parse(value);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.timemachinelab.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 全局异常处理
+ */
+@Slf4j
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    // 服务暂不可用时建议的重试间隔（秒）
+    private static final int SERVICE_UNAVAILABLE_RETRY_AFTER_SECONDS = 1;
+
+    /**
+     * 服务暂不可用（数据库任务排队超时或队列已满、写入队列已满、订阅数已达上限）返回HTTP 503，
+     * Retry-After 为建议的重试间隔（秒）；其他业务异常以HTTP 200返回，错误码见响应体
+     */
+    @ExceptionHandler(BizException.class)
+    public ResponseEntity<Result<?>> handleBizException(BizException e) {
+        log.debug("业务异常: {}", e.getMessage());
+        Result<?> result = Result.error(e.getResultCode().getCode(), e.getMessage());
+        if (e.getResultCode() == ResultCode.SERVICE_UNAVAILABLE) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(SERVICE_UNAVAILABLE_RETRY_AFTER_SECONDS))
+                    .body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 版本冲突的响应数据为当前配置
+     */
+    @ExceptionHandler(VersionConflictException.class)
+    public Result<?> handleVersionConflictException(VersionConflictException e) {
+        log.debug("版本冲突: {}", e.getMessage());
+        Result<Object> result = Result.error(e.getResultCode().getCode(), e.getMessage());
+        result.setData(e.getCurrent());
+        return result;
+    }
+
+    /**
+     * 限流返回HTTP 429，负载均衡与客户端可据此退避，Retry-After 为建议的重试间隔（秒）
+     */
+    @ExceptionHandler(RateLimitException.class)
+    public ResponseEntity<Result<?>> handleRateLimitException(RateLimitException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Result.error(e.getResultCode().getCode(), e.getMessage()));
+    }
+}
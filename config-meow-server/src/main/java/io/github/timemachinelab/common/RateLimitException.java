@@ -0,0 +1,18 @@
+package io.github.timemachinelab.common;
+
+/**
+ * 请求超出限流配额，由 GlobalExceptionHandler 转换为HTTP 429及 TOO_MANY_REQUESTS 的 Result
+ */
+public class RateLimitException extends BizException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitException(String message, long retryAfterSeconds) {
+        super(ResultCode.TOO_MANY_REQUESTS, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -7,7 +7,13 @@ public enum ResultCode {
     CONFLICT(409, "配置已存在"),
     CONFIG_SET_FAILED(410, "配置设置失败"),
     CONFIG_DELETE_FAILED(411, "找不到配置"),
-    SERVER_ERROR(500, "服务器内部错误"), ;
+    CONFIG_VALUE_INVALID(412, "配置值与数据类型不匹配"),
+    HISTORY_NOT_RETAINED(413, "该版本的历史已被清理"),
+    VERSION_CONFLICT(414, "配置版本已变化，请基于最新版本重试"),
+    TOO_MANY_REQUESTS(429, "请求过于频繁，请稍后重试"),
+    SERVER_ERROR(500, "服务器内部错误"),
+    NOT_SUPPORTED(501, "当前存储模式不支持该操作"),
+    SERVICE_UNAVAILABLE(503, "服务繁忙，请稍后重试"), ;
     
     private final int code;
     private final String message;
@@ -0,0 +1,24 @@
+package io.github.timemachinelab.common;
+
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+
+/**
+ * 条件写入时配置的当前版本与期望版本不符
+ * 携带当前配置（含版本号），客户端可据此直接重试而无需再读取一次
+ */
+public class VersionConflictException extends BizException {
+
+    private final ConfigItemDTO current;
+
+    public VersionConflictException(String message, ConfigItemDTO current) {
+        super(ResultCode.VERSION_CONFLICT, message);
+        this.current = current;
+    }
+
+    /**
+     * 当前配置，不存在时为null
+     */
+    public ConfigItemDTO getCurrent() {
+        return current;
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 批量写入参数
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.batch")
+public class BatchProperties {
+
+    // 单次请求最多包含的配置项数
+    private int maxItems = 5000;
+
+    // 每条多行SQL包含的行数
+    private int chunkSize = 500;
+}
@@ -0,0 +1,31 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 大配置值存储参数
+ * 超过阈值的配置值压缩后按内容哈希存入 config_blob，config_item 与历史只保存哈希；
+ * 快照与列表查询不返回这类配置值，由客户端按哈希读取
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.blob")
+public class BlobProperties {
+
+    // 配置值（UTF-8）超过该大小时单独存储
+    private DataSize threshold = DataSize.ofKilobytes(16);
+
+    // 已解压内容的缓存容量（按字符数估算）
+    private DataSize cacheMaxSize = DataSize.ofMegabytes(64);
+
+    // 清理不再被引用的内容前的宽限期，须长于最长的写入事务
+    private Duration purgeGracePeriod = Duration.ofHours(1);
+
+    // 单条删除语句最多删除的行数
+    private int purgeBatchSize = 1000;
+}
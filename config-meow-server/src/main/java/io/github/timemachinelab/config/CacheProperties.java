@@ -0,0 +1,38 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 配置项本地缓存参数
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.cache")
+public class CacheProperties {
+
+    // 是否启用本地缓存
+    private boolean enabled = true;
+
+    // 最大缓存条目数
+    private long maxSize = 100_000;
+
+    // 命中配置的过期时间
+    private Duration ttl = Duration.ofMinutes(10);
+
+    // 不存在的配置（空结果）的过期时间
+    private Duration negativeTtl = Duration.ofSeconds(30);
+
+    // 同一配置并发未命中时，等待进行中的数据库加载的最长时间
+    private Duration loadTimeout = Duration.ofSeconds(5);
+
+    // 最大缓存命名空间快照数
+    private long snapshotMaxSize = 10_000;
+
+    // 已编码快照响应的缓存容量（按字节计）
+    private DataSize encodedMaxSize = DataSize.ofMegabytes(64);
+}
@@ -0,0 +1,30 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 数据库任务执行器参数
+ * 接口中需要访问存储的请求在专用线程池上执行，不占用Web容器工作线程；队列满时立即拒绝
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.db-executor")
+public class DbExecutorProperties {
+
+    // 是否启用，关闭时在请求线程上直接执行
+    private boolean enabled = true;
+
+    // 线程数，与连接池 max-active 一致，多出的线程只会在连接池上等待
+    private int threads = 20;
+
+    // 排队任务数上限，超过时拒绝并返回 SERVICE_UNAVAILABLE
+    private int queueCapacity = 200;
+
+    // 任务排队超过该时间后不再执行并返回 SERVICE_UNAVAILABLE，须明显小于 spring.mvc.async.request-timeout，
+    // 避免请求已超时而任务仍占用连接
+    private Duration queueTimeout = Duration.ofSeconds(5);
+}
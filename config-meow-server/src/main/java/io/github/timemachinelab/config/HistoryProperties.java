@@ -0,0 +1,35 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 配置历史保留参数
+ * 每个命名空间至少保留最近 retainRevisions 个修订号及 retainPeriod 内的全部历史，更早且已被覆盖的历史由定时任务清理
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.history")
+public class HistoryProperties {
+
+    // 每个命名空间至少保留的修订号个数
+    private long retainRevisions = 1000;
+
+    // 至少保留的时间范围
+    private Duration retainPeriod = Duration.ofDays(30);
+
+    // 是否启用历史清理
+    private boolean compactionEnabled = true;
+
+    // 历史清理间隔
+    private Duration compactionInterval = Duration.ofHours(1);
+
+    // 单条删除语句最多删除的行数，避免长时间持有锁
+    private int compactionBatchSize = 1000;
+
+    // 单个配置历史查询最多返回的条数
+    private int maxQueryLimit = 100;
+}
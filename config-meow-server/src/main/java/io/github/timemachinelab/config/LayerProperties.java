@@ -0,0 +1,27 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 分层配置参数
+ * 读取 (app, env) 时依次查找 (app, env)、(app, defaultEnvironment)、(globalApp, defaultEnvironment)，先命中者生效
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.layers")
+public class LayerProperties {
+
+    // 是否启用分层读取，默认关闭，只读取 (app, env) 自身的配置；开启后缺失的配置会继承默认层，改变现有读取结果
+    private boolean enabled = false;
+
+    // 应用级默认配置所在的环境名
+    private String defaultEnvironment = "default";
+
+    // 全局默认配置所在的应用名
+    private String globalApp = "_global";
+
+    // 最大缓存的合并视图数
+    private long viewMaxSize = 10_000;
+}
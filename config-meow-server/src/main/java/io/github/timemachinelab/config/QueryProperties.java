@@ -0,0 +1,20 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按前缀/通配符查询配置的参数
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.query")
+public class QueryProperties {
+
+    // 未指定时每页返回的配置数
+    private int defaultLimit = 100;
+
+    // 每页最多返回的配置数
+    private int maxLimit = 1000;
+}
@@ -0,0 +1,27 @@
+package io.github.timemachinelab.config;
+
+import io.github.timemachinelab.ratelimit.RateLimitInterceptor;
+import io.github.timemachinelab.ratelimit.RateLimiter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 配置接口限流
+ * 限流拦截器只作用于 /config/api/**，管理端点不受影响；请求体为JSON的接口读取请求体后由 RateLimitBodyAdvice 按应用限流；
+ * 拒绝时由 GlobalExceptionHandler 返回429
+ */
+@Configuration
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitConfig(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter)).addPathPatterns("/config/api/**");
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 接口限流参数
+ * 按应用名与客户端IP分别限流，两者均需有余量请求才被放行；apps 中可为个别应用单独设置配额。
+ * 客户端IP取自 request.getRemoteAddr()，经反向代理或负载均衡接入时所有请求都来自代理地址，
+ * 因此IP维度默认关闭；需要开启时应配置 server.forward-headers-strategy=native，
+ * 由 Tomcat RemoteIpValve 只信任内网代理（server.tomcat.remoteip.internal-proxies）传入的 X-Forwarded-For
+ */
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "config-meow.rate-limit")
+public class RateLimitProperties {
+
+    // 是否启用限流
+    private boolean enabled = true;
+
+    // 每个应用的默认配额
+    @Valid
+    private Quota app = new Quota(200, 400);
+
+    // 是否按客户端IP限流，默认关闭，见类注释
+    private boolean ipEnabled = false;
+
+    // 每个客户端IP的配额
+    @Valid
+    private Quota ip = new Quota(100, 200);
+
+    // 按应用名单独设置的配额
+    @Valid
+    private Map<String, Quota> apps = new HashMap<>();
+
+    // 未在 apps 中配置的应用首次出现（或闲置回收后再次出现）时创建限流桶的速率，所有应用共用，
+    // 超出时拒绝请求，避免不断更换应用名为每个请求取得一个新的满额桶
+    @Valid
+    private Quota newApp = new Quota(10, 100);
+
+    // 最多跟踪的限流桶数（应用与IP合计），超出时淘汰最久未访问的
+    private long maxTracked = 100_000;
+
+    // 限流桶闲置多久后回收
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * 令牌桶配额：每秒补充 rate 个令牌，最多积攒 burst 个
+     */
+    @Data
+    public static class Quota {
+
+        // 每秒允许的请求数
+        @DecimalMin(value = "0", inclusive = false, message = "限流速率必须大于0")
+        private double rate;
+
+        // 允许的突发请求数
+        @Min(value = 1, message = "限流突发数不能小于1")
+        private int burst;
+
+        public Quota() {
+        }
+
+        public Quota(double rate, int burst) {
+            this.rate = rate;
+            this.burst = burst;
+        }
+    }
+}
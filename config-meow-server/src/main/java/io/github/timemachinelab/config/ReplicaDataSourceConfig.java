@@ -0,0 +1,27 @@
+package io.github.timemachinelab.config;
+
+import io.github.timemachinelab.datasource.ReplicaRoutingPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 读写分离
+ * 启用后主库数据源被包装为路由数据源，副本的健康检查与指标见 ReplicaHealthChecker
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "config-meow.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    /**
+     * 后置处理器须早于其他Bean创建，这里直接绑定配置而不依赖 ReplicaProperties Bean
+     */
+    @Bean
+    public static ReplicaRoutingPostProcessor replicaRoutingPostProcessor(Environment environment) {
+        return new ReplicaRoutingPostProcessor(Binder.get(environment)
+                .bind("config-meow.replica", ReplicaProperties.class)
+                .orElseGet(ReplicaProperties::new));
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 只读副本参数
+ * 启用后缓存未命中的读取与分页查询路由到健康且延迟不超过 maxLag 的副本，写入及写后读仍走主库。
+ * 副本连接池参数沿用主库的 spring.datasource.druid 配置，只覆盖连接地址与账号。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.replica")
+public class ReplicaProperties {
+
+    // 是否启用读写分离
+    private boolean enabled = false;
+
+    // 只读副本
+    private List<Node> nodes = new ArrayList<>();
+
+    // 可接受的最大复制延迟，命名空间写入后同样时长内的读取走主库；须大于 checkInterval
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    // 健康检查与延迟探测间隔
+    private Duration checkInterval = Duration.ofSeconds(2);
+
+    // 健康检查语句超时
+    private Duration checkTimeout = Duration.ofSeconds(1);
+
+    // 最多跟踪的近期写入命名空间数
+    private long maxTrackedWrites = 100_000;
+
+    /**
+     * 副本连接参数，账号为空时沿用主库账号
+     */
+    @Data
+    public static class Node {
+
+        // 副本名称，用作指标标签
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.timemachinelab.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务开关
+ * 变更日志同步、历史压缩、副本健康检查等定时任务默认开启；
+ * config-meow.scheduling.enabled=false 时全部不调度，由调用方直接触发（如测试中手动同步）
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "config-meow.scheduling", name = "enabled", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,76 @@
+package io.github.timemachinelab.config;
+
+import io.github.timemachinelab.util.SnowflakeIdUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 雪花ID生成器配置
+ * 机器ID依次取自：
+ * <ol>
+ *     <li>config-meow.snowflake.worker-id（环境变量 SNOWFLAKE_WORKER_ID）</li>
+ *     <li>开启 config-meow.snowflake.host-ordinal 时取主机名末尾的 -序号，
+ *     如 Kubernetes StatefulSet 的 config-meow-3 取 3</li>
+ * </ol>
+ * 都无法确定时启动失败，不使用随机值：多实例的随机机器ID可能重复，生成重复主键
+ */
+@Slf4j
+@Configuration
+public class SnowflakeConfig {
+
+    private static final Pattern HOST_ORDINAL = Pattern.compile("-(\\d+)$");
+
+    /**
+     * 按配置的机器ID创建雪花ID生成器，并注册为静态方法使用的默认实例
+     */
+    @Bean
+    public SnowflakeIdUtil snowflakeIdUtil(SnowflakeProperties properties) {
+        long workerId = resolveWorkerId(properties.getWorkerId(), properties.isHostOrdinal() ? hostname() : null);
+        SnowflakeIdUtil snowflakeIdUtil = new SnowflakeIdUtil(workerId, properties.getMaxClockBackward().toMillis());
+        SnowflakeIdUtil.setInstance(snowflakeIdUtil);
+        log.info("雪花算法机器ID：{}", workerId);
+        return snowflakeIdUtil;
+    }
+
+    /**
+     * 确定机器ID
+     * @param configured 配置的机器ID，可为空
+     * @param hostname 用于取序号的主机名，为空表示不按主机名确定
+     * @return 机器ID
+     * @throws IllegalStateException 未配置且无法从主机名取得序号
+     */
+    static long resolveWorkerId(Long configured, String hostname) {
+        if (configured != null) {
+            return configured;
+        }
+        if (hostname != null) {
+            Matcher matcher = HOST_ORDINAL.matcher(hostname);
+            if (matcher.find() && matcher.group(1).length() <= 4) {
+                long ordinal = Long.parseLong(matcher.group(1));
+                log.info("未配置 config-meow.snowflake.worker-id，按主机名{}取机器ID：{}", hostname, ordinal);
+                return ordinal;
+            }
+        }
+        throw new IllegalStateException("未配置 config-meow.snowflake.worker-id（环境变量 SNOWFLAKE_WORKER_ID），"
+                + "也无法从主机名" + hostname + "取得序号，无法确定唯一的机器ID");
+    }
+
+    private static String hostname() {
+        String hostname = System.getenv("HOSTNAME");
+        if (StringUtils.hasText(hostname)) {
+            return hostname;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 雪花算法ID生成参数
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.snowflake")
+public class SnowflakeProperties {
+
+    // 机器ID(0-1023)，集群内每个实例必须唯一；未配置且无法从主机名取得序号时启动失败
+    private Long workerId;
+
+    // 未配置机器ID时取主机名末尾的 -序号，仅用于主机名带唯一序号的部署（如 Kubernetes StatefulSet）
+    private boolean hostOrdinal = false;
+
+    // 时钟回拨容忍窗口，窗口内沿用上次时间戳继续生成，超出时拒绝生成
+    private Duration maxClockBackward = Duration.ofSeconds(5);
+}
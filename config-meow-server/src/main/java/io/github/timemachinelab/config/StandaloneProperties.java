@@ -0,0 +1,33 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 单机存储参数（standalone 环境）
+ * 配置以追加日志持久化在本地目录，定期把内存中的全量状态写成快照并删除已被覆盖的日志
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.standalone")
+public class StandaloneProperties {
+
+    // 数据目录，同一时刻只能由一个进程使用
+    private String dataDir = "./data";
+
+    // 单个日志段文件大小，写满后切换到新段；单条记录超过该大小时按记录大小建段
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    // 每次写入后是否刷盘；关闭时进程崩溃不丢数据，但操作系统崩溃或断电可能丢失最近的写入
+    private boolean forceOnWrite = false;
+
+    // 检查是否需要压缩的间隔
+    private Duration compactionInterval = Duration.ofMinutes(10);
+
+    // 上次快照后的日志条数达到该值且不少于当前配置数时压缩
+    private int compactionMinRecords = 10000;
+}
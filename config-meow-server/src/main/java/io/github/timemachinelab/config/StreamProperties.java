@@ -0,0 +1,37 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * SSE变更推送参数
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.stream")
+public class StreamProperties {
+
+    // 单个连接最长保持时间，到期后由客户端重连
+    private Duration timeout = Duration.ofMinutes(30);
+
+    // 心跳间隔，用于保持连接并及时发现已断开的客户端
+    private Duration heartbeatInterval = Duration.ofSeconds(20);
+
+    // 每个订阅者待发送事件队列容量，队列写满视为慢消费者并断开
+    private int queueCapacity = 256;
+
+    // 发送线程数
+    private int senderThreads = 4;
+
+    // 单次发送的最长阻塞时间，超过视为连接停滞并断开
+    private Duration sendTimeout = Duration.ofSeconds(5);
+
+    // 停滞连接阻塞发送线程期间临时补充的发送线程数上限
+    private int maxStalledSenders = 64;
+
+    // 最大订阅连接数
+    private int maxSubscribers = 20_000;
+}
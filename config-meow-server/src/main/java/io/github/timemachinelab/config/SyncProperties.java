@@ -0,0 +1,44 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 多节点同步参数
+ * 每次变更在写入事务内追加到 config_change_log，各节点按序号增量拉取，失效本地缓存并通知本节点的监听者
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.sync")
+public class SyncProperties {
+
+    // 是否启用变更日志同步，单节点部署可关闭
+    private boolean enabled = true;
+
+    // 节点ID，为空时启动时随机生成
+    private String nodeId;
+
+    // 拉取间隔，即其他节点变更在本节点生效的最大延迟（不含事务提交耗时）
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    // 单次拉取的最大行数
+    private int batchSize = 1000;
+
+    // 序号空洞的等待时间：空洞可能是尚未提交的事务，超过该时间仍未出现则视为已回滚
+    private Duration gapTimeout = Duration.ofSeconds(10);
+
+    // 最多跟踪的序号空洞数
+    private int maxTrackedGaps = 10000;
+
+    // 变更日志保留时间
+    private Duration retainPeriod = Duration.ofDays(1);
+
+    // 变更日志清理间隔
+    private Duration purgeInterval = Duration.ofMinutes(10);
+
+    // 单条删除语句最多删除的行数
+    private int purgeBatchSize = 1000;
+}
@@ -0,0 +1,20 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 命名空间导入导出参数
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.transfer")
+public class TransferProperties {
+
+    // 导入时每个事务写入的配置数，同时决定导入过程中驻留内存的配置数
+    private int chunkSize = 1000;
+
+    // 导入结果中最多列出的变更明细数，超出部分只计数
+    private int maxReportedChanges = 1000;
+}
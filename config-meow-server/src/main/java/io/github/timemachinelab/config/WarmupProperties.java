@@ -0,0 +1,29 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 启动预热参数
+ * 启用后应用启动时先并行加载命名空间到缓存，完成（或超时）后才报告就绪
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.warmup")
+public class WarmupProperties {
+
+    // 是否启用启动预热
+    private boolean enabled = false;
+
+    // 最多预热的命名空间数，按修订号从高到低选取，0表示全部
+    private int maxNamespaces = 0;
+
+    // 并行加载的线程数，不宜超过数据库连接池大小
+    private int parallelism = 4;
+
+    // 预热超时时间，超时后未完成的命名空间在首次读取时加载
+    private Duration timeout = Duration.ofSeconds(60);
+}
@@ -0,0 +1,22 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 长轮询监听参数
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.watch")
+public class WatchProperties {
+
+    // 长轮询挂起超时时间，超时后返回304
+    private Duration timeout = Duration.ofSeconds(30);
+
+    // 变更通知线程数
+    private int notifyThreads = 2;
+}
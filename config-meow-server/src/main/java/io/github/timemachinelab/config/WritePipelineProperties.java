@@ -0,0 +1,32 @@
+package io.github.timemachinelab.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 写入合并参数
+ * 开启后单条设置请求先进入队列，窗口内对同一配置的多次写入合并为一次，再按批在同一事务内提交
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "config-meow.write-pipeline")
+public class WritePipelineProperties {
+
+    // 是否启用写入合并，关闭时每个请求直接写库
+    private boolean enabled = false;
+
+    // 合并窗口：批次中第一条写入等待的最长时间
+    private Duration window = Duration.ofMillis(20);
+
+    // 单批最多包含的配置数，达到后立即提交
+    private int maxBatchSize = 500;
+
+    // 排队中（合并后）的配置数上限，超过时拒绝写入
+    private int maxPending = 10000;
+
+    // 等待写入确认的超时时间
+    private Duration ackTimeout = Duration.ofSeconds(10);
+}
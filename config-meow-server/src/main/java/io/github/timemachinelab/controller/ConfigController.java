@@ -0,0 +1,446 @@
+package io.github.timemachinelab.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.github.timemachinelab.cache.ConfigCacheEntry;
+import io.github.timemachinelab.cache.EncodedSnapshotCache;
+import io.github.timemachinelab.cache.EncodedSnapshotCache.EncodedSnapshot;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.Result;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.BatchProperties;
+import io.github.timemachinelab.datasource.DbExecutor;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import io.github.timemachinelab.pojo.dto.NamespaceVersion;
+import io.github.timemachinelab.pojo.dto.RollbackRequest;
+import io.github.timemachinelab.pojo.dto.WatchRequest;
+import io.github.timemachinelab.service.ConfigService;
+import io.github.timemachinelab.transfer.ConfigFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 配置接口
+ * 需要访问存储的请求（包括流式查询、导出与导入）在 {@link DbExecutor} 上异步执行，Web容器工作线程不阻塞在数据库上；
+ * 命中内存缓存的读取在请求线程上直接完成，不经过该线程池
+ */
+@Slf4j
+@RestController
+@RequestMapping("/config/api")
+@RequiredArgsConstructor
+public class ConfigController {
+    
+    private final ConfigService configService;
+
+    private final BatchProperties batchProperties;
+
+    private final EncodedSnapshotCache encodedSnapshotCache;
+
+    private final ObjectMapper objectMapper;
+
+    private final DbExecutor dbExecutor;
+    
+    /**
+     * 设置配置
+     * 指定 expectedVersion 时为条件写入：当前版本相符才写入并返回新版本号，0表示仅在不存在时创建；
+     * 版本不符时返回 VERSION_CONFLICT，data为当前配置
+     */
+    @PostMapping("/set")
+    public CompletableFuture<Result<?>> setConfig(@Valid @RequestBody ConfigItemDTO configItemDTO,
+                                                  @RequestParam(required = false) Integer expectedVersion) {
+        if (expectedVersion != null) {
+            return dbExecutor.submit(() -> Result.success(
+                    configService.compareAndSetConfig(configItemDTO, expectedVersion)));
+        }
+        return configService.setConfigAsync(configItemDTO).thenApply(success -> {
+            if (!success) {
+                return Result.error(ResultCode.CONFIG_SET_FAILED);
+            } else {
+                return Result.success();
+            }
+        });
+    }
+
+    /**
+     * 根据应用名、环境、配置键获取配置
+     */
+    @GetMapping("/get")
+    public CompletableFuture<Result<?>> getConfigByKey(@RequestParam String appName,
+                                                       @RequestParam String environment,
+                                                       @RequestParam String configKey) {
+        ConfigCacheEntry entry = configService.peekConfig(appName, environment, configKey);
+        if (entry != null) {
+            return CompletableFuture.completedFuture(Result.success(entry.getItem()));
+        }
+        return dbExecutor.submit(() -> Result.success(configService.getConfigByKey(appName, environment, configKey)));
+    }
+    
+    /**
+     * 获取按数据类型解析后的配置值
+     * int返回数字，boolean返回布尔值，json返回JSON对象/数组，解析结果在服务端缓存
+     */
+    @GetMapping("/typed")
+    public CompletableFuture<Result<?>> getTypedConfig(@RequestParam String appName,
+                                                       @RequestParam String environment,
+                                                       @RequestParam String configKey) {
+        ConfigCacheEntry entry = configService.peekConfig(appName, environment, configKey);
+        if (entry != null) {
+            return CompletableFuture.completedFuture(Result.success(
+                    configService.toTypedConfig(appName, environment, configKey, entry)));
+        }
+        return dbExecutor.submit(() -> Result.success(configService.getTypedConfig(appName, environment, configKey)));
+    }
+
+    /**
+     * 删除配置
+     * 指定 expectedVersion 时当前版本相符才删除，版本不符或不存在时返回 VERSION_CONFLICT，data为当前配置
+     */
+    @GetMapping("/delete")
+    public CompletableFuture<Result<?>> deleteConfig(@RequestParam String appName,
+                                                     @RequestParam String environment,
+                                                     @RequestParam String configKey,
+                                                     @RequestParam(required = false) Integer expectedVersion) {
+        if (expectedVersion != null) {
+            return dbExecutor.submit(() -> {
+                configService.compareAndDeleteConfig(appName, environment, configKey, expectedVersion);
+                return Result.success();
+            });
+        }
+        return dbExecutor.submit(() -> Result.success(configService.deleteConfig(appName, environment, configKey)));
+    }
+
+    /**
+     * 批量设置配置，全部条目在同一事务内写入，返回逐条结果
+     */
+    @PostMapping("/batch/set")
+    public CompletableFuture<Result<?>> batchSetConfig(@RequestBody List<ConfigItemDTO> items) {
+        Result<?> error = checkBatchSize(items);
+        if (error != null) {
+            return CompletableFuture.completedFuture(error);
+        }
+        return dbExecutor.submit(() -> Result.success(configService.batchSetConfig(items)));
+    }
+
+    /**
+     * 批量删除配置，全部条目在同一事务内删除，返回逐条结果
+     */
+    @PostMapping("/batch/delete")
+    public CompletableFuture<Result<?>> batchDeleteConfig(@RequestBody List<ConfigItemDTO> items) {
+        Result<?> error = checkBatchSize(items);
+        if (error != null) {
+            return CompletableFuture.completedFuture(error);
+        }
+        return dbExecutor.submit(() -> Result.success(configService.batchDeleteConfig(items)));
+    }
+
+    /**
+     * 获取命名空间（应用名+环境）下全部配置
+     * 响应携带ETag，客户端通过If-None-Match回传，未变化时返回304且无响应体；
+     * 按Accept返回JSON、Smile或CBOR，同一快照版本的编码（及gzip）结果缓存复用；
+     * 超过阈值的大配置值默认只返回valueRef，客户端按需通过 /blob 读取，inlineLarge=true 时内联返回（不缓存编码结果）；
+     * 快照已缓存且无需内联时在请求线程上直接应答
+     */
+    @GetMapping("/snapshot")
+    public CompletableFuture<ResponseEntity<byte[]>> getNamespaceSnapshot(@RequestParam String appName,
+                                                                          @RequestParam String environment,
+                                                                          @RequestParam(defaultValue = "false") boolean inlineLarge,
+                                                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        NamespaceSnapshot cached = inlineLarge ? null : configService.peekNamespaceSnapshot(appName, environment);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(snapshotResponse(cached, false, accept, acceptEncoding));
+        }
+        return dbExecutor.submit(() -> snapshotResponse(configService.getNamespaceSnapshot(appName, environment),
+                inlineLarge, accept, acceptEncoding));
+    }
+
+    /**
+     * 快照响应以快照版本作为ETag，与If-None-Match相符时由框架改写为304
+     * ETag是强校验值，同一版本的不同表示（编码格式、gzip、内联大配置值）须互不相同，
+     * 见 {@link #snapshotETag}；JSON未压缩的表示仍为快照版本本身
+     */
+    private ResponseEntity<byte[]> snapshotResponse(NamespaceSnapshot snapshot, boolean inlineLarge,
+                                                    String accept, String acceptEncoding) {
+        MediaType mediaType = encodedSnapshotCache.negotiate(accept);
+        EncodedSnapshot encoded = inlineLarge
+                ? encodedSnapshotCache.encode(configService.inlineLargeValues(snapshot), mediaType)
+                : encodedSnapshotCache.get(snapshot, mediaType);
+        boolean gzip = encodedSnapshotCache.shouldGzip(acceptEncoding, encoded);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(snapshotETag(snapshot.getVersion(), mediaType, inlineLarge, gzip))
+                .contentType(encoded.getMediaType())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.getGzipBody());
+        }
+        return response.body(encoded.getBody());
+    }
+
+    /**
+     * 快照表示的ETag：快照版本，非JSON时追加编码格式，内联大配置值时追加 inline，gzip时追加 gzip
+     * @return 如 v1、v1-cbor、v1-inline-gzip
+     */
+    static String snapshotETag(String version, MediaType mediaType, boolean inlineLarge, boolean gzip) {
+        StringBuilder eTag = new StringBuilder(version);
+        if (!MediaType.APPLICATION_JSON.equalsTypeAndSubtype(mediaType)) {
+            eTag.append('-').append(mediaType.getSubtype().replace("x-jackson-", ""));
+        }
+        if (inlineLarge) {
+            eTag.append("-inline");
+        }
+        if (gzip) {
+            eTag.append("-gzip");
+        }
+        return eTag.toString();
+    }
+
+    /**
+     * 按内容哈希（快照、查询结果中的valueRef）读取大配置值，返回原始文本
+     * 内容不可变，以哈希作为ETag并允许长期缓存；客户端接受gzip时直接返回存储的压缩数据
+     */
+    @GetMapping("/blob")
+    public CompletableFuture<ResponseEntity<byte[]>> getConfigBlob(@RequestParam String hash,
+                                                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                                   WebRequest webRequest) {
+        if (webRequest.checkNotModified(hash)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        }
+        return dbExecutor.submit(() -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic()
+                            .getHeaderValue() + ", immutable")
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            if (encodedSnapshotCache.acceptsGzip(acceptEncoding)) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .body(configService.getCompressedConfigBlob(hash));
+            }
+            return response.body(configService.getConfigBlob(hash).getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    /**
+     * 按配置键前缀（prefix=db.pool.）或通配符（pattern=db.*.max）分页查询命名空间自身的配置
+     * 按配置键排序，下一页以返回的nextCursor作为after参数
+     */
+    @GetMapping("/query")
+    public CompletableFuture<Result<?>> queryConfigs(@RequestParam String appName,
+                                                     @RequestParam String environment,
+                                                     @RequestParam(required = false) String prefix,
+                                                     @RequestParam(required = false) String pattern,
+                                                     @RequestParam(required = false) String after,
+                                                     @RequestParam(required = false) Integer limit) {
+        return dbExecutor.submit(() -> Result.success(
+                configService.queryConfigs(appName, environment, prefix, pattern, after, limit)));
+    }
+
+    /**
+     * 按配置键前缀或通配符流式返回全部匹配的配置，NDJSON格式，每行一个配置
+     * 边读边写，结果集不在服务端内存中累积
+     */
+    @GetMapping("/query/stream")
+    public CompletableFuture<Void> streamConfigs(@RequestParam String appName,
+                                                 @RequestParam String environment,
+                                                 @RequestParam(required = false) String prefix,
+                                                 @RequestParam(required = false) String pattern,
+                                                 HttpServletResponse response) {
+        if (prefix != null && pattern != null) {
+            // 响应开始写出后无法再返回错误，参数须在此校验
+            throw new BizException(ResultCode.PARAM_ERROR, "前缀与通配符至多指定一个");
+        }
+        ObjectWriter writer = objectMapper.writerFor(ConfigItemDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return stream(response, MediaType.APPLICATION_NDJSON, null,
+                out -> configService.scanConfigs(appName, environment, prefix, pattern, item -> {
+                    try {
+                        writer.writeValue(out, item);
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+    }
+
+    /**
+     * 导出命名空间自身的全部配置（format=ndjson/properties/yaml），经数据库游标边读边写
+     */
+    @GetMapping("/export")
+    public CompletableFuture<Void> exportConfigs(@RequestParam String appName,
+                                                 @RequestParam String environment,
+                                                 @RequestParam(defaultValue = "ndjson") String format,
+                                                 HttpServletResponse response) {
+        ConfigFormat configFormat = parseFormat(format);
+        String contentDisposition = ContentDisposition.attachment()
+                .filename(appName + "-" + environment + "." + configFormat.getCode())
+                .build().toString();
+        return stream(response, configFormat.getMediaType(), contentDisposition,
+                out -> configService.exportConfigs(appName, environment, configFormat, out));
+    }
+
+    /**
+     * 导入配置到命名空间，请求体为导出格式的内容，逐块比对后只写入新增与修改的配置
+     * dryRun=true 时只返回将产生的变更，不写入；
+     * 请求体先在请求线程上转存到临时文件，上传快慢不占用数据库任务线程，比对与写入在 {@link DbExecutor} 上执行
+     */
+    @PostMapping("/import")
+    public CompletableFuture<Result<?>> importConfigs(@RequestParam String appName,
+                                                      @RequestParam String environment,
+                                                      @RequestParam(defaultValue = "ndjson") String format,
+                                                      @RequestParam(defaultValue = "false") boolean dryRun,
+                                                      InputStream body) throws IOException {
+        ConfigFormat configFormat = parseFormat(format);
+        Path file = Files.createTempFile("config-import-", "." + configFormat.getCode());
+        try {
+            Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+            CompletableFuture<Result<?>> result = dbExecutor.submit(() -> {
+                try (InputStream in = Files.newInputStream(file)) {
+                    return Result.success(configService.importConfigs(appName, environment, configFormat, in, dryRun));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return result.whenComplete((r, e) -> deleteQuietly(file));
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    /**
+     * 查询单个配置的变更历史，按修订号倒序
+     */
+    @GetMapping("/history")
+    public CompletableFuture<Result<?>> getConfigHistory(@RequestParam String appName,
+                                                         @RequestParam String environment,
+                                                         @RequestParam String configKey,
+                                                         @RequestParam(defaultValue = "20") int limit) {
+        return dbExecutor.submit(() -> Result.success(
+                configService.getConfigHistory(appName, environment, configKey, limit)));
+    }
+
+    /**
+     * 获取命名空间在指定修订号或时间点（ISO格式，如2025-08-14T14:00:00）的快照
+     */
+    @GetMapping("/snapshot/history")
+    public CompletableFuture<Result<?>> getNamespaceSnapshotAt(@RequestParam String appName,
+                                                               @RequestParam String environment,
+                                                               @RequestParam(required = false) Long revision,
+                                                               @RequestParam(required = false)
+                                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime time) {
+        if ((revision == null) == (time == null)) {
+            return CompletableFuture.completedFuture(
+                    Result.error(ResultCode.PARAM_ERROR.getCode(), "修订号与时间点须且仅须指定一个"));
+        }
+        return dbExecutor.submit(() -> Result.success(revision != null
+                ? configService.getNamespaceSnapshotAt(appName, environment, revision)
+                : configService.getNamespaceSnapshotAt(appName, environment, time)));
+    }
+
+    /**
+     * 将命名空间整体回滚到指定修订号
+     */
+    @PostMapping("/rollback")
+    public CompletableFuture<Result<?>> rollbackNamespace(@Valid @RequestBody RollbackRequest rollbackRequest) {
+        return dbExecutor.submit(() -> Result.success(configService.rollbackNamespace(rollbackRequest.getAppName(),
+                rollbackRequest.getEnvironment(), rollbackRequest.getRevision())));
+    }
+
+    /**
+     * 长轮询监听命名空间变更
+     * 客户端上报已知的快照版本，任一命名空间版本不一致或发生变更时立即返回变更列表，
+     * 否则挂起直到超时并返回304
+     */
+    @PostMapping("/watch")
+    public DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> watch(
+            @Valid @RequestBody WatchRequest watchRequest) {
+        return configService.watch(watchRequest.getNamespaces());
+    }
+
+    /**
+     * 以SSE订阅命名空间变更
+     * 首个事件为ready（携带当前快照版本），之后每个变更推送一条change事件，事件ID为命名空间修订号；
+     * 消费过慢的连接会被断开，客户端重连后应先比对快照版本
+     */
+    @GetMapping("/stream")
+    public SseEmitter stream(@RequestParam String appName,
+                             @RequestParam String environment) {
+        return configService.subscribe(appName, environment);
+    }
+
+    /**
+     * 在数据库任务线程上写出流式响应，边读边写期间占用的连接计入 {@link DbExecutor} 的线程数上限，
+     * 执行器繁忙时与其他数据库请求一样排队或返回503；响应头在开始执行时才设置，排队超时的请求仍返回503
+     */
+    private CompletableFuture<Void> stream(HttpServletResponse response, MediaType mediaType,
+                                           String contentDisposition, StreamingResponseBody body) {
+        return dbExecutor.submit(() -> {
+            response.setContentType(mediaType.toString());
+            if (contentDisposition != null) {
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+            }
+            try {
+                OutputStream out = response.getOutputStream();
+                body.writeTo(out);
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除导入临时文件失败: {}", file, e);
+        }
+    }
+
+    private static ConfigFormat parseFormat(String format) {
+        ConfigFormat configFormat = ConfigFormat.of(format);
+        if (configFormat == null) {
+            throw new BizException(ResultCode.PARAM_ERROR, "不支持的格式: " + format);
+        }
+        return configFormat;
+    }
+
+    private Result<?> checkBatchSize(List<ConfigItemDTO> items) {
+        if (items == null || items.isEmpty()) {
+            return Result.error(ResultCode.PARAM_ERROR.getCode(), "配置项列表不能为空");
+        }
+        if (items.size() > batchProperties.getMaxItems()) {
+            return Result.error(ResultCode.PARAM_ERROR.getCode(),
+                    "单次最多提交" + batchProperties.getMaxItems() + "条配置");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.timemachinelab.datasource;
+
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.DbExecutorProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 数据库任务执行器
+ * 需要访问存储的请求在固定大小的专用线程池上执行，线程数与连接池一致，排队数有上限；
+ * 数据库变慢时请求在此排队或被立即拒绝，Web容器工作线程不会阻塞在获取连接上，可由内存应答的请求不受影响。
+ * 排队超过 queueTimeout 的任务开始执行时直接失败，不再获取连接：此时请求多半已接近异步超时，结果无人等待。
+ */
+@Slf4j
+@Component
+public class DbExecutor implements MeterBinder {
+
+    private final boolean enabled;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long queueTimeoutNanos;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final LongAdder expiredCount = new LongAdder();
+
+    public DbExecutor(DbExecutorProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.queueTimeoutNanos = properties.getQueueTimeout().toNanos();
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory("config-db-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 提交数据库任务，未启用时在调用线程上直接执行
+     * @param task 任务
+     * @return 任务完成后完成，任务抛出的异常包装为 CompletionException；排队超时时以 BizException 失败
+     * @throws BizException 排队任务数已达上限
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(task.get());
+        }
+        long deadline = System.nanoTime() + queueTimeoutNanos;
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                if (System.nanoTime() - deadline > 0) {
+                    expiredCount.increment();
+                    throw new BizException(ResultCode.SERVICE_UNAVAILABLE, "数据库任务排队超时");
+                }
+                return task.get();
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            throw new BizException(ResultCode.SERVICE_UNAVAILABLE, "数据库任务队列已满");
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("config.db.executor.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("执行中的数据库任务数")
+                .register(registry);
+        Gauge.builder("config.db.executor.queued", executor, e -> e.getQueue().size())
+                .description("排队中的数据库任务数")
+                .register(registry);
+        FunctionCounter.builder("config.db.executor.completed", executor, ThreadPoolExecutor::getCompletedTaskCount)
+                .description("已完成的数据库任务数")
+                .register(registry);
+        FunctionCounter.builder("config.db.executor.rejected", rejectedCount, LongAdder::sum)
+                .description("因队列已满被拒绝的数据库任务数")
+                .register(registry);
+        FunctionCounter.builder("config.db.executor.expired", expiredCount, LongAdder::sum)
+                .description("因排队超时未执行的数据库任务数")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("数据库任务执行器关闭超时，仍有任务未完成");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.timemachinelab.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.config.ReplicaProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * 读请求路由
+ * 只有经 {@link #read} 发起且不在事务中的查询才可能路由到副本；命名空间在本节点写入或收到其他节点的变更后，
+ * maxLag + checkInterval 内的读取仍走主库，保证失效缓存后重新加载的不是副本上的旧值（写后读一致）。
+ */
+@Component
+public class ReadRouting {
+
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+    private final boolean enabled;
+
+    private final Cache<NamespaceKey, Boolean> recentWrites;
+
+    public ReadRouting(ReplicaProperties properties) {
+        this.enabled = properties.isEnabled() && !properties.getNodes().isEmpty();
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedWrites())
+                .expireAfterWrite(properties.getMaxLag().plus(properties.getCheckInterval()))
+                .build();
+    }
+
+    /**
+     * 执行可由副本承担的查询
+     * @param namespace 查询的命名空间
+     * @param query 查询
+     * @return 查询结果
+     */
+    public <T> T read(NamespaceKey namespace, Supplier<T> query) {
+        if (!enabled || REPLICA_READ.get() != null
+                || TransactionSynchronizationManager.isActualTransactionActive()
+                || recentWrites.getIfPresent(namespace) != null) {
+            return query.get();
+        }
+        REPLICA_READ.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            REPLICA_READ.remove();
+        }
+    }
+
+    /**
+     * 标记命名空间刚发生变更，须在失效缓存之前调用
+     * @param namespace 命名空间
+     */
+    public void markWritten(NamespaceKey namespace) {
+        if (enabled) {
+            recentWrites.put(namespace, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 当前线程的查询是否可以路由到副本
+     */
+    static boolean isReplicaRead() {
+        return REPLICA_READ.get() != null;
+    }
+}
@@ -0,0 +1,167 @@
+package io.github.timemachinelab.datasource;
+
+import io.github.timemachinelab.config.ReplicaProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 副本健康检查与复制延迟探测
+ * 每次先读取主库 config_change_log 的最大序号，再读取各副本的最大序号，与此前各次检查记录的主库样本比对：
+ * 副本复制到某个样本的序号，说明延迟不超过该样本至今的时长，以复制到的最近一个样本估计延迟上界。
+ * 只有复制到了至少一次检查之前的样本、且上界不超过 maxLag 的副本参与路由；刚启动尚无此前样本、
+ * 未复制到任何此前样本或不可达的副本不参与路由，因此 maxLag 须大于 checkInterval。
+ * 延迟探测依赖变更日志（config-meow.sync.enabled），关闭同步时只检查可达性。
+ */
+@Slf4j
+@Component
+@Profile("!standalone")
+public class ReplicaHealthChecker implements MeterBinder {
+
+    private static final String MAX_SEQ_SQL = "SELECT MAX(seq) FROM config_change_log";
+
+    private final ReplicaRoutingDataSource routing;
+
+    private final long maxLagNanos;
+
+    private final long horizonNanos;
+
+    private final int timeoutSeconds;
+
+    // 主库序号样本 {nanoTime, seq}，只在 check 中访问
+    private final Deque<long[]> samples = new ArrayDeque<>();
+
+    public ReplicaHealthChecker(DataSource dataSource, ReplicaProperties properties) {
+        this.routing = dataSource instanceof ReplicaRoutingDataSource ? (ReplicaRoutingDataSource) dataSource : null;
+        this.maxLagNanos = properties.getMaxLag().toNanos();
+        this.horizonNanos = properties.getMaxLag().plus(properties.getCheckInterval()).toNanos();
+        this.timeoutSeconds = (int) Math.max(1L, properties.getCheckTimeout().getSeconds());
+    }
+
+    @Scheduled(fixedDelayString = "#{@replicaProperties.checkInterval.toMillis()}")
+    public synchronized void check() {
+        if (routing == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long primarySeq;
+        try {
+            primarySeq = maxSeq(routing.getPrimary());
+        } catch (SQLException e) {
+            // 主库不可用时保持副本状态不变
+            log.warn("读取主库变更序号失败", e);
+            return;
+        }
+        // 保留窗口内的样本及窗口外最近的一个
+        while (samples.size() > 1 && now - secondSampleTime() > horizonNanos) {
+            samples.removeFirst();
+        }
+
+        for (ReplicaNode replica : routing.getReplicas()) {
+            long replicaSeq;
+            try {
+                replicaSeq = maxSeq(replica.getDataSource());
+            } catch (SQLException e) {
+                if (replica.isHealthy()) {
+                    log.warn("只读副本不可用，读取回退主库: {}", replica.getName(), e);
+                }
+                replica.update(false, -1);
+                continue;
+            }
+            long lagNanos = lagNanos(replicaSeq, primarySeq, now);
+            boolean healthy = lagNanos >= 0 && lagNanos <= maxLagNanos;
+            long lagMillis = lagNanos >= 0 ? TimeUnit.NANOSECONDS.toMillis(lagNanos) : minLagMillis(now);
+            if (replica.isHealthy() != healthy) {
+                log.info("只读副本{}: {}, 复制延迟{}ms", healthy ? "恢复" : "延迟过大", replica.getName(), lagMillis);
+            }
+            replica.update(healthy, lagMillis);
+        }
+        // 本次样本只用于之后的检查
+        samples.addLast(new long[]{now, primarySeq});
+    }
+
+    private long secondSampleTime() {
+        Iterator<long[]> iterator = samples.iterator();
+        iterator.next();
+        return iterator.next()[0];
+    }
+
+    /**
+     * 复制延迟的上界：副本已复制到的最近一个此前样本至今的时长，副本已追上本次读取的主库序号时为0
+     * @return 尚无此前的样本或副本未复制到任何此前样本时延迟无法确定，返回-1
+     */
+    private long lagNanos(long replicaSeq, long primarySeq, long now) {
+        if (samples.isEmpty()) {
+            return -1L;
+        }
+        if (replicaSeq >= primarySeq) {
+            return 0L;
+        }
+        Iterator<long[]> iterator = samples.descendingIterator();
+        while (iterator.hasNext()) {
+            long[] sample = iterator.next();
+            if (sample[1] <= replicaSeq) {
+                return now - sample[0];
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * 延迟无法确定时的下界：最早样本至今的时长，尚无样本时为-1
+     */
+    private long minLagMillis(long now) {
+        return samples.isEmpty() ? -1L : TimeUnit.NANOSECONDS.toMillis(now - samples.getFirst()[0]);
+    }
+
+    private long maxSeq(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(timeoutSeconds);
+            try (ResultSet rs = statement.executeQuery(MAX_SEQ_SQL)) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (routing == null) {
+            return;
+        }
+        for (ReplicaNode replica : routing.getReplicas()) {
+            Gauge.builder("config.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .tag("replica", replica.getName())
+                    .description("副本是否参与读路由")
+                    .register(registry);
+            TimeGauge.builder("config.replica.lag", replica, TimeUnit.MILLISECONDS, ReplicaNode::getLagMillis)
+                    .tag("replica", replica.getName())
+                    .description("最近一次探测的复制延迟，不可达或尚无主库样本时为负")
+                    .register(registry);
+        }
+        FunctionCounter.builder("config.replica.reads", routing, ReplicaRoutingDataSource::getReplicaReads)
+                .tag("target", "replica")
+                .description("路由到副本的读连接数")
+                .register(registry);
+        FunctionCounter.builder("config.replica.reads", routing, ReplicaRoutingDataSource::getFallbackReads)
+                .tag("target", "fallback")
+                .description("无健康副本而回退主库的读连接数")
+                .register(registry);
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.timemachinelab.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+
+/**
+ * 只读副本及其健康状态，状态由 {@link ReplicaHealthChecker} 更新
+ */
+public final class ReplicaNode {
+
+    private final String name;
+
+    private final DruidDataSource dataSource;
+
+    private volatile boolean healthy;
+
+    private volatile long lagMillis = -1;
+
+    ReplicaNode(String name, DruidDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DruidDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * 最近一次探测的复制延迟上界，无法确定时为已知的下界，不可达或尚无主库样本时为-1
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    void update(boolean healthy, long lagMillis) {
+        this.lagMillis = lagMillis;
+        this.healthy = healthy;
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.timemachinelab.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 主库与只读副本的路由数据源
+ * 默认使用主库；{@link ReadRouting#read} 范围内获取的连接在健康副本间轮询，没有健康副本时回退主库。
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    private final DruidDataSource primary;
+
+    private final List<ReplicaNode> replicas;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final LongAdder replicaReads = new LongAdder();
+
+    private final LongAdder fallbackReads = new LongAdder();
+
+    public ReplicaRoutingDataSource(DruidDataSource primary, List<ReplicaNode> replicas) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableList(replicas);
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (ReplicaNode replica : replicas) {
+            targets.put(replica.getName(), replica.getDataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!ReadRouting.isReplicaRead()) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = next.getAndIncrement() & Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            ReplicaNode replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                replicaReads.increment();
+                return replica.getName();
+            }
+        }
+        fallbackReads.increment();
+        return PRIMARY;
+    }
+
+    public DruidDataSource getPrimary() {
+        return primary;
+    }
+
+    public List<ReplicaNode> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * 路由到副本的连接数
+     */
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    /**
+     * 可读副本但因无健康副本回退主库的连接数
+     */
+    public long getFallbackReads() {
+        return fallbackReads.sum();
+    }
+
+    @Override
+    public void close() {
+        for (ReplicaNode replica : replicas) {
+            replica.getDataSource().close();
+        }
+        primary.close();
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.timemachinelab.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import io.github.timemachinelab.config.ReplicaProperties;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.StringUtils;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 把 Druid 自动配置的主库数据源包装为 {@link ReplicaRoutingDataSource}
+ * 副本连接池由主库连接池克隆而来，沿用全部池参数与过滤器，只替换连接地址与账号。
+ */
+public class ReplicaRoutingPostProcessor implements BeanPostProcessor {
+
+    private final ReplicaProperties properties;
+
+    public ReplicaRoutingPostProcessor(ReplicaProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DruidDataSource) || !"dataSource".equals(beanName)) {
+            return bean;
+        }
+        DruidDataSource primary = (DruidDataSource) bean;
+        List<ReplicaNode> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getNodes().size(); i++) {
+            ReplicaProperties.Node node = properties.getNodes().get(i);
+            String name = StringUtils.hasText(node.getName()) ? node.getName() : "replica-" + i;
+            DruidDataSource replica = primary.cloneDruidDataSource();
+            replica.setName(name);
+            replica.setUrl(node.getUrl());
+            if (StringUtils.hasText(node.getUsername())) {
+                replica.setUsername(node.getUsername());
+                replica.setPassword(node.getPassword());
+            }
+            try {
+                replica.init();
+            } catch (SQLException e) {
+                throw new BeanCreationException(beanName, "只读副本连接池初始化失败: " + name, e);
+            }
+            replicas.add(new ReplicaNode(name, replica));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas);
+    }
+}
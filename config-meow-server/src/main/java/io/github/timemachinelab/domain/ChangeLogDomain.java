@@ -0,0 +1,156 @@
+package io.github.timemachinelab.domain;
+
+import io.github.timemachinelab.config.BatchProperties;
+import io.github.timemachinelab.config.SyncProperties;
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.mapper.ChangeLogMapper;
+import io.github.timemachinelab.pojo.entity.ConfigChangeLogDO;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 配置变更日志
+ * 写入事务内的变更先缓存在事务资源中，提交前一次性多行插入 config_change_log，与配置写入同时提交或回滚；
+ * 各节点按自增序号增量拉取其他节点的变更，只依赖MySQL，不需要额外的消息中间件。
+ */
+@Slf4j
+@Component
+@Profile("!standalone")
+public class ChangeLogDomain {
+
+    private final ChangeLogMapper changeLogMapper;
+
+    private final SyncProperties syncProperties;
+
+    private final BatchProperties batchProperties;
+
+    private final String nodeId;
+
+    public ChangeLogDomain(ChangeLogMapper changeLogMapper, SyncProperties syncProperties,
+                           BatchProperties batchProperties) {
+        this.changeLogMapper = changeLogMapper;
+        this.syncProperties = syncProperties;
+        this.batchProperties = batchProperties;
+        this.nodeId = StringUtils.hasText(syncProperties.getNodeId())
+                ? syncProperties.getNodeId() : UUID.randomUUID().toString();
+        log.info("配置变更日志节点ID: {}", nodeId);
+    }
+
+    /**
+     * 当前节点ID
+     * @return 节点ID
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 追加变更日志
+     * 处于事务中时推迟到提交之前统一写入，否则立即写入
+     * @param event 变更事件
+     */
+    public void append(ConfigChangeEvent event) {
+        if (!syncProperties.isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(Collections.singletonList(event));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<ConfigChangeEvent> pending = (List<ConfigChangeEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<ConfigChangeEvent> buffer = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(buffer);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLogDomain.this);
+                }
+            });
+            pending = buffer;
+        }
+        pending.add(event);
+    }
+
+    private void insert(List<ConfigChangeEvent> events) {
+        int chunkSize = batchProperties.getChunkSize();
+        for (int from = 0; from < events.size(); from += chunkSize) {
+            changeLogMapper.batchInsert(nodeId, events.subList(from, Math.min(from + chunkSize, events.size())));
+        }
+    }
+
+    /**
+     * 拉取起点：保留窗口内尚未提交的事务可能占用更小的序号，因此从最近 gapTimeout 内写入的最小序号之前开始
+     * @return 起始序号（不含）
+     */
+    public long startSeq() {
+        Long since = changeLogMapper.selectMinSeqSince(LocalDateTime.now().minus(syncProperties.getGapTimeout()));
+        if (since != null) {
+            return since - 1;
+        }
+        Long max = changeLogMapper.selectMaxSeq();
+        return max == null ? 0L : max;
+    }
+
+    /**
+     * 按序号拉取变更日志
+     * @param afterSeq 起始序号（不含）
+     * @param limit 最多返回行数
+     * @return 按序号升序的变更日志
+     */
+    public List<ConfigChangeLogDO> fetchAfter(long afterSeq, int limit) {
+        QueryWrapper<ConfigChangeLogDO> queryWrapper = new QueryWrapper<>();
+        queryWrapper.gt("seq", afterSeq)
+                   .orderByAsc("seq")
+                   .last("LIMIT " + limit);
+        return changeLogMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * 按序号查询变更日志，用于补齐此前未提交的空洞
+     * @param seqs 序号，不能为空
+     * @return 已提交的变更日志
+     */
+    public List<ConfigChangeLogDO> fetchIn(Collection<Long> seqs) {
+        QueryWrapper<ConfigChangeLogDO> queryWrapper = new QueryWrapper<>();
+        queryWrapper.in("seq", seqs)
+                   .orderByAsc("seq");
+        return changeLogMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * 清理超过保留时间的变更日志
+     * 多实例部署时各实例都会执行，清理操作幂等
+     * @return 删除行数
+     */
+    public long purge() {
+        LocalDateTime before = LocalDateTime.now().minus(syncProperties.getRetainPeriod());
+        int batchSize = syncProperties.getPurgeBatchSize();
+        long removed = 0;
+        int deleted;
+        do {
+            deleted = changeLogMapper.deleteBefore(before, batchSize);
+            removed += deleted;
+        } while (deleted >= batchSize);
+        return removed;
+    }
+}
@@ -0,0 +1,228 @@
+package io.github.timemachinelab.domain;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.BlobProperties;
+import io.github.timemachinelab.mapper.ConfigBlobMapper;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import io.github.timemachinelab.pojo.entity.ConfigBlobDO;
+import io.github.timemachinelab.pojo.entity.ConfigItemDO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 大配置值存储
+ * 超过阈值的配置值以gzip压缩后按内容的SHA-256存入 config_blob，相同内容（如多个环境共用的路由表）只存一份；
+ * config_item 与历史只保存哈希，命名空间快照与列表查询因此不再读取大字段。
+ * 内容不可变，解压结果按哈希缓存，多个命名空间引用同一内容时共享同一个字符串。
+ * standalone 环境下没有 config_blob 表，配置值由存储原样保存，这里只剩内联与比对。
+ */
+@Slf4j
+@Component
+public class ConfigBlobDomain implements MeterBinder {
+
+    /**
+     * standalone 环境下为null
+     */
+    private final ConfigBlobMapper blobMapper;
+
+    private final BlobProperties blobProperties;
+
+    private final long thresholdBytes;
+
+    private final Cache<String, String> contents;
+
+    public ConfigBlobDomain(ObjectProvider<ConfigBlobMapper> blobMapper, BlobProperties blobProperties) {
+        this.blobMapper = blobMapper.getIfAvailable();
+        this.blobProperties = blobProperties;
+        this.thresholdBytes = blobProperties.getThreshold().toBytes();
+        this.contents = Caffeine.newBuilder()
+                .maximumWeight(blobProperties.getCacheMaxSize().toBytes())
+                .weigher((String hash, String value) -> 2 * value.length())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 写入前处理：配置值超过阈值时存入 config_blob 并改为引用，须在写入配置的同一事务内调用
+     * 配置值为空（不修改配置值）时清除引用，避免沿用请求中携带的哈希
+     * @param configItem 待写入的配置项
+     */
+    public void externalize(ConfigItemDO configItem) {
+        String value = configItem.getConfigValue();
+        configItem.setValueRef(null);
+        // 每个char编码为UTF-8最多3字节，短值无需编码即可判定未超过阈值
+        if (value == null || value.length() * 3L <= thresholdBytes) {
+            return;
+        }
+        byte[] raw = value.getBytes(StandardCharsets.UTF_8);
+        if (raw.length <= thresholdBytes) {
+            return;
+        }
+        String hash = hash(raw);
+        blobMapper.upsert(ConfigBlobDO.builder()
+                .contentHash(hash)
+                .content(gzip(raw))
+                .rawSize(raw.length)
+                .build());
+        contents.put(hash, value);
+        configItem.setValueRef(hash);
+        configItem.setConfigValue(null);
+    }
+
+    /**
+     * 按内容哈希读取配置值
+     * @param hash 内容哈希
+     * @return 配置值
+     * @throws BizException 内容不存在
+     */
+    public String load(String hash) {
+        String value = blobMapper == null ? null : contents.get(hash, h -> {
+            ConfigBlobDO blob = blobMapper.selectById(h);
+            return blob == null ? null : new String(gunzip(blob.getContent()), StandardCharsets.UTF_8);
+        });
+        if (value == null) {
+            throw new BizException(ResultCode.NOT_FOUND, "配置值内容不存在: " + hash);
+        }
+        return value;
+    }
+
+    /**
+     * 读取压缩后的内容，用于直接以gzip编码响应
+     * @param hash 内容哈希
+     * @return 压缩内容
+     * @throws BizException 内容不存在
+     */
+    public byte[] loadCompressed(String hash) {
+        ConfigBlobDO blob = blobMapper == null ? null : blobMapper.selectById(hash);
+        if (blob == null) {
+            throw new BizException(ResultCode.NOT_FOUND, "配置值内容不存在: " + hash);
+        }
+        return blob.getContent();
+    }
+
+    /**
+     * 内联大配置值
+     * @param item 配置项，可为null
+     * @return 已带配置值的配置项，无需内联时返回原对象
+     */
+    public ConfigItemDTO inline(ConfigItemDTO item) {
+        if (item == null || item.getValueRef() == null || item.getConfigValue() != null) {
+            return item;
+        }
+        return item.toBuilder().configValue(load(item.getValueRef())).build();
+    }
+
+    /**
+     * 内联快照中的全部大配置值，版本号不变
+     * @param snapshot 命名空间快照
+     * @return 内联后的快照
+     */
+    public NamespaceSnapshot inline(NamespaceSnapshot snapshot) {
+        List<ConfigItemDTO> items = new ArrayList<>(snapshot.getItems().size());
+        for (ConfigItemDTO item : snapshot.getItems()) {
+            items.add(inline(item));
+        }
+        return new NamespaceSnapshot(snapshot.getAppName(), snapshot.getEnvironment(), snapshot.getVersion(),
+                items, snapshot.getRevision());
+    }
+
+    /**
+     * 配置值与已存储的配置内容是否相同
+     * @param value 配置值
+     * @param current 当前配置
+     * @return 是否相同
+     */
+    public static boolean sameValue(String value, ConfigItemDO current) {
+        if (current.getValueRef() == null) {
+            return value.equals(current.getConfigValue());
+        }
+        return hash(value.getBytes(StandardCharsets.UTF_8)).equals(current.getValueRef());
+    }
+
+    /**
+     * 清理不再被引用的内容，只处理宽限期之前最后一次被引用的内容，避免误删进行中写入事务刚引用的内容
+     * @return 删除行数
+     */
+    public long purge() {
+        if (blobMapper == null) {
+            return 0;
+        }
+        LocalDateTime before = LocalDateTime.now().minus(blobProperties.getPurgeGracePeriod());
+        int batchSize = blobProperties.getPurgeBatchSize();
+        long removed = 0;
+        int deleted;
+        do {
+            deleted = blobMapper.deleteUnreferenced(before, batchSize);
+            removed += deleted;
+        } while (deleted >= batchSize);
+        if (removed > 0) {
+            log.info("清理未引用的配置值内容 removed={}", removed);
+        }
+        return removed;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, contents, "config-blob");
+    }
+
+    static String hash(byte[] raw) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder sb = new StringBuilder(64);
+        for (byte b : md.digest(raw)) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static byte[] gzip(byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] compressed) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
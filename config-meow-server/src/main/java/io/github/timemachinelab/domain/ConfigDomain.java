@@ -0,0 +1,504 @@
+package io.github.timemachinelab.domain;
+
+import io.github.timemachinelab.cache.ConfigCache;
+import io.github.timemachinelab.cache.ConfigCacheEntry;
+import io.github.timemachinelab.cache.ConfigCacheKey;
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.cache.NamespaceSnapshotCache;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ConfigDataType;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.common.VersionConflictException;
+import io.github.timemachinelab.datasource.ReadRouting;
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.pojo.dto.BatchItemResult;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import io.github.timemachinelab.pojo.dto.RollbackResult;
+import io.github.timemachinelab.pojo.dto.TypedConfigValue;
+import io.github.timemachinelab.pojo.entity.ConfigItemDO;
+import io.github.timemachinelab.store.ConditionalWriteResult;
+import io.github.timemachinelab.store.ConfigStore;
+import io.github.timemachinelab.store.WriteResult;
+import io.github.timemachinelab.util.SnowflakeIdUtil;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+@Component
+public class ConfigDomain {
+
+    // 多个命名空间的修订号按固定顺序分配（加锁），避免并发批量写入互相死锁
+    private static final Comparator<NamespaceKey> NAMESPACE_ORDER =
+            Comparator.comparing(NamespaceKey::getAppName).thenComparing(NamespaceKey::getEnvironment);
+    
+    private final ConfigStore configStore;
+
+    private final ConfigCache configCache;
+
+    private final NamespaceSnapshotCache snapshotCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Validator validator;
+
+    private final ReadRouting readRouting;
+
+    private final ConfigBlobDomain blobDomain;
+
+    public ConfigDomain(ConfigStore configStore, ConfigCache configCache, NamespaceSnapshotCache snapshotCache,
+                        ApplicationEventPublisher eventPublisher, Validator validator, ReadRouting readRouting,
+                        ConfigBlobDomain blobDomain) {
+        this.configStore = configStore;
+        this.configCache = configCache;
+        this.snapshotCache = snapshotCache;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.readRouting = readRouting;
+        this.blobDomain = blobDomain;
+    }
+
+    /**
+     * 设置配置项（插入或更新），数据库存储在同一事务内记录历史
+     * @param configItemDTO 配置项DTO
+     * @return 是否成功
+     * @throws BizException 配置值与数据类型不匹配
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public boolean setConfig(ConfigItemDTO configItemDTO) {
+        String typeViolation = checkValueType(configItemDTO);
+        if (typeViolation != null) {
+            throw new BizException(ResultCode.CONFIG_VALUE_INVALID, typeViolation);
+        }
+        NamespaceKey namespace = new NamespaceKey(configItemDTO.getAppName(), configItemDTO.getEnvironment());
+        long revision = configStore.set(namespace,
+                Collections.singletonList(ConfigItemDO.convert2DO(configItemDTO)));
+        publishChange(configItemDTO.getAppName(), configItemDTO.getEnvironment(), configItemDTO.getConfigKey(),
+                ConfigChangeEvent.ChangeType.SET, revision);
+        return true;
+    }
+
+    /**
+     * 根据应用名、环境、配置键获取配置项
+     * @param appName 应用名
+     * @param environment 环境
+     * @param configKey 配置键
+     * @return 配置项DTO
+     */
+    public ConfigItemDTO getConfigByKey(String appName, String environment, String configKey) {
+        return configCache.get(new ConfigCacheKey(appName, environment, configKey), this::loadConfig);
+    }
+
+    /**
+     * 获取按 dataType 解析后的配置值
+     * 解析结果随缓存条目缓存，命中时不再重复解析
+     * @param appName 应用名
+     * @param environment 环境
+     * @param configKey 配置键
+     * @return 类型化配置值，配置不存在时返回null
+     * @throws BizException 存量配置值与数据类型不匹配
+     */
+    public TypedConfigValue getTypedConfig(String appName, String environment, String configKey) {
+        ConfigCacheEntry entry = configCache.getEntry(new ConfigCacheKey(appName, environment, configKey),
+                this::loadConfig);
+        return toTypedConfig(appName, environment, configKey, entry);
+    }
+
+    /**
+     * 仅从缓存读取配置，不访问存储
+     * @param appName 应用名
+     * @param environment 环境
+     * @param configKey 配置键
+     * @return 缓存条目，未缓存时返回null
+     */
+    public ConfigCacheEntry peekConfig(String appName, String environment, String configKey) {
+        return configCache.getIfPresent(new ConfigCacheKey(appName, environment, configKey));
+    }
+
+    /**
+     * 把缓存条目转换为类型化配置值
+     * @param appName 应用名
+     * @param environment 环境
+     * @param configKey 配置键
+     * @param entry 缓存条目
+     * @return 类型化配置值，配置不存在时返回null
+     * @throws BizException 存量配置值与数据类型不匹配
+     */
+    public static TypedConfigValue toTypedConfig(String appName, String environment, String configKey,
+                                                 ConfigCacheEntry entry) {
+        if (entry.isAbsent()) {
+            return null;
+        }
+        Object value;
+        try {
+            value = entry.getTypedValue();
+        } catch (IllegalArgumentException e) {
+            throw new BizException(ResultCode.CONFIG_VALUE_INVALID, e.getMessage());
+        }
+        return new TypedConfigValue(appName, environment, configKey,
+                ConfigDataType.of(entry.getItem().getDataType()).getCode(), value);
+    }
+
+    /**
+     * 从存储加载配置项（缓存未命中时调用），启用读写分离时可由副本承担
+     * 大配置值在此内联，单个配置的读取总是返回完整配置值
+     * @param key 缓存键
+     * @return 配置项DTO，不存在或未激活时返回null
+     */
+    private ConfigItemDTO loadConfig(ConfigCacheKey key) {
+        NamespaceKey namespace = new NamespaceKey(key.getAppName(), key.getEnvironment());
+        ConfigItemDO configItem = readRouting.read(namespace, () -> configStore.get(namespace, key.getConfigKey()));
+        
+        if (configItem == null || !Boolean.TRUE.equals(configItem.getIsActive())) {
+            return null;
+        }
+        
+        return blobDomain.inline(ConfigItemDTO.convert2DTO(configItem));
+    }
+
+    /**
+     * 根据应用名、环境、配置键删除配置项（物理删除），数据库存储在同一事务内记录历史
+     * @param appName 应用名
+     * @param environment 环境
+     * @param configKey 配置键
+     * @return 是否成功
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public ConfigItemDTO deleteConfig(String appName, String environment, String configKey) {
+        WriteResult result = configStore.delete(new NamespaceKey(appName, environment),
+                Collections.singletonList(configKey));
+        if (result.getDeletedKeys().isEmpty()) {
+            return null;
+        }
+        publishChange(appName, environment, configKey, ConfigChangeEvent.ChangeType.DELETE, result.getRevision());
+        return ConfigItemDTO.builder().appName(appName).environment(environment).configKey(configKey).build();
+    }
+
+    /**
+     * 条件设置配置项：当前版本等于期望版本时才写入，检查与写入由存储原子完成
+     * 期望版本为0表示仅在配置不存在时创建
+     * @param configItemDTO 配置项DTO
+     * @param expectedVersion 期望版本
+     * @return 写入后的版本号
+     * @throws VersionConflictException 当前版本与期望版本不符，携带当前配置
+     * @throws BizException 配置值与数据类型不匹配
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int compareAndSetConfig(ConfigItemDTO configItemDTO, int expectedVersion) {
+        String typeViolation = checkValueType(configItemDTO);
+        if (typeViolation != null) {
+            throw new BizException(ResultCode.CONFIG_VALUE_INVALID, typeViolation);
+        }
+        NamespaceKey namespace = new NamespaceKey(configItemDTO.getAppName(), configItemDTO.getEnvironment());
+        ConditionalWriteResult written = configStore.compareAndSet(namespace, ConfigItemDO.convert2DO(configItemDTO),
+                expectedVersion);
+        if (written == null) {
+            // 抛出异常回滚已分配的修订号
+            throw versionConflict(namespace, configItemDTO.getConfigKey(), expectedVersion);
+        }
+        publishChange(configItemDTO.getAppName(), configItemDTO.getEnvironment(), configItemDTO.getConfigKey(),
+                ConfigChangeEvent.ChangeType.SET, written.getRevision());
+        return written.getVersion();
+    }
+
+    /**
+     * 条件删除配置项：当前版本等于期望版本时才删除
+     * @param appName 应用名
+     * @param environment 环境
+     * @param configKey 配置键
+     * @param expectedVersion 期望版本
+     * @throws VersionConflictException 当前版本与期望版本不符或配置不存在，携带当前配置
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void compareAndDeleteConfig(String appName, String environment, String configKey, int expectedVersion) {
+        NamespaceKey namespace = new NamespaceKey(appName, environment);
+        long revision = configStore.compareAndDelete(namespace, configKey, expectedVersion);
+        if (revision < 0) {
+            throw versionConflict(namespace, configKey, expectedVersion);
+        }
+        publishChange(appName, environment, configKey, ConfigChangeEvent.ChangeType.DELETE, revision);
+    }
+
+    /**
+     * 读取冲突时的当前配置（含未激活），数据库存储下命名空间行锁保证读到的是与本次写入比较时相同的状态
+     */
+    private VersionConflictException versionConflict(NamespaceKey namespace, String configKey, int expectedVersion) {
+        ConfigItemDTO current = blobDomain.inline(ConfigItemDTO.convert2DTO(configStore.get(namespace, configKey)));
+        String actual = current == null ? "不存在" : "当前版本为" + current.getVersion();
+        return new VersionConflictException("期望版本" + expectedVersion + "，" + actual, current);
+    }
+
+    /**
+     * 批量设置配置项，在同一事务内按命名空间写入，每个命名空间分配一个修订号
+     * 同一批次中重复的配置键以最后一条为准；校验失败的条目跳过，不影响其余条目。
+     * 单机存储没有事务，只保证每个命名空间的写入整体生效：跨命名空间的批次中途失败（如磁盘写满）时，
+     * 已写入的命名空间不会撤销，调用方收到异常时应重新读取以确认哪些配置已生效
+     * @param items 配置项DTO列表
+     * @return 与入参顺序一致的逐条结果
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<BatchItemResult> batchSetConfig(List<ConfigItemDTO> items) {
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        Map<ConfigCacheKey, Integer> lastIndex = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            ConfigItemDTO item = items.get(i);
+            String violation = validate(item);
+            if (violation != null) {
+                results[i] = BatchItemResult.invalid(item, violation);
+                continue;
+            }
+            violation = checkValueType(item);
+            if (violation != null) {
+                results[i] = BatchItemResult.invalid(item, violation);
+                continue;
+            }
+            lastIndex.put(new ConfigCacheKey(item.getAppName(), item.getEnvironment(), item.getConfigKey()), i);
+        }
+
+        long[] ids = SnowflakeIdUtil.generateIds(lastIndex.size());
+        int idIndex = 0;
+        Map<NamespaceKey, List<ConfigItemDO>> namespaceItems = new TreeMap<>(NAMESPACE_ORDER);
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            ConfigItemDTO item = items.get(i);
+            if (lastIndex.get(new ConfigCacheKey(item.getAppName(), item.getEnvironment(), item.getConfigKey())) != i) {
+                results[i] = BatchItemResult.of(item, true, "已被同批次后续条目覆盖");
+                continue;
+            }
+            namespaceItems.computeIfAbsent(new NamespaceKey(item.getAppName(), item.getEnvironment()),
+                    k -> new ArrayList<>()).add(ConfigItemDO.convert2DO(item, ids[idIndex++]));
+            results[i] = BatchItemResult.success(item);
+        }
+
+        for (Map.Entry<NamespaceKey, List<ConfigItemDO>> entry : namespaceItems.entrySet()) {
+            NamespaceKey namespace = entry.getKey();
+            List<String> keys = new ArrayList<>(entry.getValue().size());
+            for (ConfigItemDO configItem : entry.getValue()) {
+                keys.add(configItem.getConfigKey());
+            }
+            long revision = configStore.set(namespace, entry.getValue());
+            for (String configKey : keys) {
+                publishChange(namespace.getAppName(), namespace.getEnvironment(), configKey,
+                        ConfigChangeEvent.ChangeType.SET, revision);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 批量删除配置项（物理删除），在同一事务内按命名空间执行；单机存储下跨命名空间的删除不是原子的，同 batchSetConfig
+     * @param items 待删除的配置项，仅使用应用名、环境、配置键
+     * @return 与入参顺序一致的逐条结果，配置不存在时该条失败
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<BatchItemResult> batchDeleteConfig(List<ConfigItemDTO> items) {
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        Map<NamespaceKey, Set<String>> namespaces = new TreeMap<>(NAMESPACE_ORDER);
+        for (int i = 0; i < items.size(); i++) {
+            ConfigItemDTO item = items.get(i);
+            String violation = validate(item);
+            if (violation != null) {
+                results[i] = BatchItemResult.invalid(item, violation);
+                continue;
+            }
+            namespaces.computeIfAbsent(new NamespaceKey(item.getAppName(), item.getEnvironment()),
+                    k -> new LinkedHashSet<>()).add(item.getConfigKey());
+        }
+
+        Set<ConfigCacheKey> deleted = new HashSet<>();
+        for (Map.Entry<NamespaceKey, Set<String>> entry : namespaces.entrySet()) {
+            NamespaceKey namespace = entry.getKey();
+            WriteResult result = configStore.delete(namespace, entry.getValue());
+            for (String configKey : result.getDeletedKeys()) {
+                deleted.add(new ConfigCacheKey(namespace.getAppName(), namespace.getEnvironment(), configKey));
+                publishChange(namespace.getAppName(), namespace.getEnvironment(), configKey,
+                        ConfigChangeEvent.ChangeType.DELETE, result.getRevision());
+            }
+        }
+
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            ConfigItemDTO item = items.get(i);
+            boolean success = deleted.contains(
+                    new ConfigCacheKey(item.getAppName(), item.getEnvironment(), item.getConfigKey()));
+            results[i] = BatchItemResult.of(item, success, success ? null : "找不到配置");
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 将命名空间整体回滚到指定修订号时的状态，回滚本身产生一个新修订号并记录历史
+     * 仅改写与目标状态不同的配置，目标状态中不存在的配置被删除
+     * @param appName 应用名
+     * @param environment 环境
+     * @param targetRevision 目标修订号
+     * @return 回滚结果
+     * @throws BizException 修订号超出范围、历史已被清理或存储不保留历史
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public RollbackResult rollbackNamespace(String appName, String environment, long targetRevision) {
+        WriteResult result = configStore.rollback(new NamespaceKey(appName, environment), targetRevision);
+        for (String configKey : result.getSetKeys()) {
+            publishChange(appName, environment, configKey, ConfigChangeEvent.ChangeType.SET, result.getRevision());
+        }
+        for (String configKey : result.getDeletedKeys()) {
+            publishChange(appName, environment, configKey, ConfigChangeEvent.ChangeType.DELETE, result.getRevision());
+        }
+        return new RollbackResult(appName, environment, targetRevision, result.getRevision(),
+                result.getSetKeys().size(), result.getDeletedKeys().size());
+    }
+
+    /**
+     * 获取命名空间下全部激活配置的快照
+     * 大配置值只有哈希（valueRef），需要时通过 {@link ConfigBlobDomain#load} 读取
+     * @param appName 应用名
+     * @param environment 环境
+     * @return 命名空间快照，命名空间不存在时items为空
+     */
+    public NamespaceSnapshot getNamespaceSnapshot(String appName, String environment) {
+        return snapshotCache.get(new NamespaceKey(appName, environment), this::loadSnapshot);
+    }
+
+    /**
+     * 仅从缓存读取命名空间快照，不访问存储
+     * @param appName 应用名
+     * @param environment 环境
+     * @return 命名空间快照，未缓存时返回null
+     */
+    public NamespaceSnapshot peekNamespaceSnapshot(String appName, String environment) {
+        return snapshotCache.getIfPresent(new NamespaceKey(appName, environment));
+    }
+
+    /**
+     * 预热命名空间：加载快照，并以快照中的配置填充单个配置的缓存（已缓存的不覆盖）
+     * @param appName 应用名
+     * @param environment 环境
+     * @return 命名空间快照
+     */
+    public NamespaceSnapshot preload(String appName, String environment) {
+        NamespaceSnapshot snapshot = getNamespaceSnapshot(appName, environment);
+        for (ConfigItemDTO item : snapshot.getItems()) {
+            configCache.get(new ConfigCacheKey(appName, environment, item.getConfigKey()), k -> blobDomain.inline(item));
+        }
+        return snapshot;
+    }
+
+    /**
+     * 从存储加载命名空间快照，启用读写分离时可由副本承担
+     * @param key 命名空间键
+     * @return 命名空间快照
+     */
+    private NamespaceSnapshot loadSnapshot(NamespaceKey key) {
+        List<ConfigItemDO> configItems = readRouting.read(key, () -> configStore.list(key, true));
+        List<ConfigItemDTO> items = new ArrayList<>(configItems.size());
+        for (ConfigItemDO configItem : configItems) {
+            items.add(ConfigItemDTO.convert2DTO(configItem));
+        }
+        return NamespaceSnapshot.of(key.getAppName(), key.getEnvironment(), items);
+    }
+
+    /**
+     * 应用其他节点写入的变更：失效本地缓存并向本节点的监听者发布变更事件
+     * @param event 变更事件
+     */
+    public void applyRemoteChange(ConfigChangeEvent event) {
+        invalidate(event);
+        eventPublisher.publishEvent(event);
+    }
+
+    /**
+     * 配置变更后记录变更日志、失效相关缓存并发布变更事件
+     * 处于事务中时推迟到提交之后失效，避免并发读取在提交前把旧值重新写回缓存
+     */
+    private void publishChange(String appName, String environment, String configKey,
+                               ConfigChangeEvent.ChangeType type, long revision) {
+        ConfigChangeEvent event = new ConfigChangeEvent(appName, environment, configKey, type, revision);
+        configStore.recordChange(event);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(event);
+                }
+
+                // 先于各变更监听执行，监听中读到的都是失效后的缓存
+                @Override
+                public int getOrder() {
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+            });
+        } else {
+            invalidate(event);
+        }
+        eventPublisher.publishEvent(event);
+    }
+
+    private void invalidate(ConfigChangeEvent event) {
+        // 先于失效标记，之后重新加载的读取走主库，不会把副本上的旧值写回缓存
+        readRouting.markWritten(event.namespace());
+        configCache.invalidate(new ConfigCacheKey(event.getAppName(), event.getEnvironment(), event.getConfigKey()));
+        snapshotCache.invalidate(event.namespace());
+    }
+
+    /**
+     * 校验配置项
+     * @return 第一条校验失败信息，通过时返回null
+     */
+    private String validate(ConfigItemDTO item) {
+        if (item == null) {
+            return "配置项不能为空";
+        }
+        Set<ConstraintViolation<ConfigItemDTO>> violations = validator.validate(item);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    /**
+     * 校验写入后的配置值是否符合数据类型
+     * 配置值或数据类型未提交时不会被覆盖，此时与存储中的当前配置（含未激活）合并后再校验；
+     * 当前配置直接读主存储而不经缓存或副本，在写入方法的事务内调用时与随后的写入看到同一份数据
+     * @param item 待写入的配置项
+     * @return 校验失败信息，通过时返回null
+     */
+    public String checkValueType(ConfigItemDTO item) {
+        String dataType = item.getDataType();
+        String configValue = item.getConfigValue();
+        if (dataType == null && configValue == null) {
+            return null;
+        }
+        if (dataType == null || configValue == null) {
+            ConfigItemDO current = configStore.get(new NamespaceKey(item.getAppName(), item.getEnvironment()),
+                    item.getConfigKey());
+            if (current != null) {
+                if (dataType == null) {
+                    dataType = current.getDataType();
+                } else {
+                    // 只有需要当前配置值时才读取外置的大配置值
+                    configValue = blobDomain.inline(ConfigItemDTO.convert2DTO(current)).getConfigValue();
+                }
+            }
+        }
+        return ConfigDataType.check(dataType, configValue);
+    }
+}
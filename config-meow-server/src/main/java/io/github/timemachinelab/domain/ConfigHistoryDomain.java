@@ -0,0 +1,229 @@
+package io.github.timemachinelab.domain;
+
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.HistoryProperties;
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.mapper.ConfigHistoryMapper;
+import io.github.timemachinelab.mapper.NamespaceMapper;
+import io.github.timemachinelab.pojo.dto.ConfigHistoryDTO;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import io.github.timemachinelab.pojo.entity.ConfigHistoryDO;
+import io.github.timemachinelab.pojo.entity.ConfigNamespaceDO;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 配置历史
+ * 每次写入或删除在同一事务内递增命名空间修订号，并把受影响配置的完整状态追加到 config_item_history，
+ * 据此支持按修订号或时间点读取命名空间、整体回滚，以及按保留策略清理已被覆盖的旧历史。
+ */
+@Slf4j
+@Component
+@Profile("!standalone")
+public class ConfigHistoryDomain {
+
+    private final ConfigHistoryMapper historyMapper;
+
+    private final NamespaceMapper namespaceMapper;
+
+    private final HistoryProperties historyProperties;
+
+    public ConfigHistoryDomain(ConfigHistoryMapper historyMapper, NamespaceMapper namespaceMapper,
+                               HistoryProperties historyProperties) {
+        this.historyMapper = historyMapper;
+        this.namespaceMapper = namespaceMapper;
+        this.historyProperties = historyProperties;
+    }
+
+    /**
+     * 分配新的命名空间修订号，须在事务内调用
+     * 命名空间行的写锁持有到事务结束，同一命名空间的写入按修订号顺序提交
+     * @param namespace 命名空间
+     * @return 新修订号
+     */
+    public long nextRevision(NamespaceKey namespace) {
+        namespaceMapper.incrementRevision(namespace.getAppName(), namespace.getEnvironment());
+        return getNamespace(namespace).getRevision();
+    }
+
+    /**
+     * 记录写入后的配置状态，须在写入之后、同一事务内调用
+     * @param namespace 命名空间
+     * @param revision 修订号
+     * @param configKeys 配置键
+     */
+    public void recordSet(NamespaceKey namespace, long revision, Collection<String> configKeys) {
+        record(namespace, revision, configKeys, ConfigChangeEvent.ChangeType.SET);
+    }
+
+    /**
+     * 记录删除前的配置状态，须在删除之前、同一事务内调用
+     * @param namespace 命名空间
+     * @param revision 修订号
+     * @param configKeys 配置键
+     * @return 记录数，即实际存在的配置数
+     */
+    public int recordDelete(NamespaceKey namespace, long revision, Collection<String> configKeys) {
+        return record(namespace, revision, configKeys, ConfigChangeEvent.ChangeType.DELETE);
+    }
+
+    private int record(NamespaceKey namespace, long revision, Collection<String> configKeys,
+                       ConfigChangeEvent.ChangeType type) {
+        if (configKeys.isEmpty()) {
+            return 0;
+        }
+        return historyMapper.insertFromItems(namespace.getAppName(), namespace.getEnvironment(), configKeys,
+                revision, type.name());
+    }
+
+    /**
+     * 查询单个配置的变更历史，按修订号倒序
+     * @param appName 应用名
+     * @param environment 环境
+     * @param configKey 配置键
+     * @param limit 最多返回条数
+     * @return 历史记录
+     */
+    public List<ConfigHistoryDTO> getHistory(String appName, String environment, String configKey, int limit) {
+        int size = Math.max(1, Math.min(limit, historyProperties.getMaxQueryLimit()));
+        QueryWrapper<ConfigHistoryDO> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("app_name", appName)
+                   .eq("environment", environment)
+                   .eq("config_key", configKey)
+                   .orderByDesc("revision")
+                   .last("LIMIT " + size);
+
+        List<ConfigHistoryDO> histories = historyMapper.selectList(queryWrapper);
+        List<ConfigHistoryDTO> result = new ArrayList<>(histories.size());
+        for (ConfigHistoryDO history : histories) {
+            result.add(ConfigHistoryDTO.convert2DTO(history));
+        }
+        return result;
+    }
+
+    /**
+     * 读取命名空间在指定修订号时的全部激活配置
+     * @param appName 应用名
+     * @param environment 环境
+     * @param revision 修订号
+     * @return 历史快照
+     * @throws BizException 修订号超出范围或历史已被清理
+     */
+    public NamespaceSnapshot getSnapshotAt(String appName, String environment, long revision) {
+        List<ConfigItemDTO> items = new ArrayList<>();
+        for (ConfigHistoryDO history : loadState(new NamespaceKey(appName, environment), revision)) {
+            if (Boolean.FALSE.equals(history.getIsActive())) {
+                continue;
+            }
+            items.add(toItem(history));
+        }
+        return NamespaceSnapshot.of(appName, environment, items, revision);
+    }
+
+    /**
+     * 读取命名空间在指定时间点的全部激活配置
+     * @param appName 应用名
+     * @param environment 环境
+     * @param time 时间点
+     * @return 历史快照
+     * @throws BizException 历史已被清理
+     */
+    public NamespaceSnapshot getSnapshotAt(String appName, String environment, LocalDateTime time) {
+        Long revision = historyMapper.selectRevisionAt(appName, environment, time);
+        return getSnapshotAt(appName, environment, revision == null ? 0L : revision);
+    }
+
+    /**
+     * 读取命名空间在指定修订号时的全部配置（含未激活），按配置键排序
+     * @param namespace 命名空间
+     * @param revision 修订号
+     * @return 每个配置键在该修订号时的最后一条SET记录
+     * @throws BizException 修订号超出范围或历史已被清理
+     */
+    public List<ConfigHistoryDO> loadState(NamespaceKey namespace, long revision) {
+        ConfigNamespaceDO current = getNamespace(namespace);
+        long latest = current == null ? 0L : current.getRevision();
+        long minRevision = current == null ? 0L : current.getMinRevision();
+        if (revision < 0 || revision > latest) {
+            throw new BizException(ResultCode.PARAM_ERROR, "修订号超出范围，当前修订号为" + latest);
+        }
+        if (revision < minRevision) {
+            throw new BizException(ResultCode.HISTORY_NOT_RETAINED, "修订号" + revision + "的历史已被清理，最早可用修订号为" + minRevision);
+        }
+        return historyMapper.selectAsOf(namespace.getAppName(), namespace.getEnvironment(), revision);
+    }
+
+    /**
+     * 按保留策略清理全部命名空间的历史
+     * 保留下限取“最近N个修订号”与“保留期内最早修订号”中较早者，先上调下限再分批删除，
+     * 下限及之后任一修订号的时点读取结果不受影响
+     * @return 删除的历史行数
+     */
+    public long compact() {
+        long removed = 0;
+        for (ConfigNamespaceDO namespace : namespaceMapper.selectList(null)) {
+            try {
+                removed += compact(namespace);
+            } catch (Exception e) {
+                log.error("清理配置历史失败, namespace={}/{}", namespace.getAppName(), namespace.getEnvironment(), e);
+            }
+        }
+        return removed;
+    }
+
+    private long compact(ConfigNamespaceDO namespace) {
+        String appName = namespace.getAppName();
+        String environment = namespace.getEnvironment();
+        Long expiredRevision = historyMapper.selectRevisionAt(appName, environment,
+                LocalDateTime.now().minus(historyProperties.getRetainPeriod()));
+        long floor = Math.min(namespace.getRevision() - historyProperties.getRetainRevisions(),
+                expiredRevision == null ? 0L : expiredRevision);
+        if (floor <= namespace.getMinRevision()) {
+            return 0;
+        }
+        namespaceMapper.raiseMinRevision(appName, environment, floor);
+
+        int batchSize = historyProperties.getCompactionBatchSize();
+        long removed = 0;
+        int deleted;
+        do {
+            deleted = historyMapper.deleteCompacted(appName, environment, floor, batchSize);
+            removed += deleted;
+        } while (deleted >= batchSize);
+        if (removed > 0) {
+            log.info("清理配置历史 namespace={}/{} minRevision={} removed={}", appName, environment, floor, removed);
+        }
+        return removed;
+    }
+
+    private ConfigNamespaceDO getNamespace(NamespaceKey namespace) {
+        QueryWrapper<ConfigNamespaceDO> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("app_name", namespace.getAppName())
+                   .eq("environment", namespace.getEnvironment());
+        return namespaceMapper.selectOne(queryWrapper);
+    }
+
+    public static ConfigItemDTO toItem(ConfigHistoryDO history) {
+        return ConfigItemDTO.builder()
+                .appName(history.getAppName())
+                .environment(history.getEnvironment())
+                .configKey(history.getConfigKey())
+                .configValue(history.getConfigValue())
+                .valueRef(history.getValueRef())
+                .description(history.getDescription())
+                .dataType(history.getDataType())
+                .isActive(history.getIsActive())
+                .build();
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.timemachinelab.domain;
+
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.QueryProperties;
+import io.github.timemachinelab.datasource.ReadRouting;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.ConfigPage;
+import io.github.timemachinelab.pojo.entity.ConfigItemDO;
+import io.github.timemachinelab.store.ConfigStore;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 按配置键前缀或通配符查询
+ * 配置键按层级命名（如 db.pool.max），查询条件转换为以固定前缀开头的LIKE模式，在 uk_app_env_key 索引上范围扫描；
+ * 分页以上一页最后一个配置键为游标（键集分页），翻页代价与页码无关；全量导出经存储逐行处理（数据库存储走MyBatis游标），不在堆内累积结果。
+ * 查询的是命名空间自身的配置，不做分层合并。
+ */
+@Component
+public class ConfigQueryDomain {
+
+    private final ConfigStore configStore;
+
+    private final QueryProperties queryProperties;
+
+    private final ReadRouting readRouting;
+
+    public ConfigQueryDomain(ConfigStore configStore, QueryProperties queryProperties, ReadRouting readRouting) {
+        this.configStore = configStore;
+        this.queryProperties = queryProperties;
+        this.readRouting = readRouting;
+    }
+
+    /**
+     * 分页查询配置
+     * @param appName 应用名
+     * @param environment 环境
+     * @param prefix 配置键前缀，与pattern至多指定一个
+     * @param pattern 配置键通配符，* 匹配任意个字符，? 匹配单个字符
+     * @param after 上一页返回的游标，为空时从头开始
+     * @param limit 每页条数，超出上限时按上限返回
+     * @return 一页配置
+     * @throws BizException 同时指定了前缀与通配符
+     */
+    public ConfigPage query(String appName, String environment, String prefix, String pattern,
+                            String after, Integer limit) {
+        int size = limit == null ? queryProperties.getDefaultLimit()
+                : Math.max(1, Math.min(limit, queryProperties.getMaxLimit()));
+        // 多取一条用于判断是否还有下一页
+        String likePattern = toLikePattern(prefix, pattern);
+        NamespaceKey namespace = new NamespaceKey(appName, environment);
+        List<ConfigItemDO> rows = readRouting.read(namespace,
+                () -> configStore.page(namespace, likePattern, after, size + 1));
+        boolean hasMore = rows.size() > size;
+        List<ConfigItemDTO> items = new ArrayList<>(Math.min(rows.size(), size));
+        for (int i = 0; i < rows.size() && i < size; i++) {
+            items.add(ConfigItemDTO.convert2DTO(rows.get(i)));
+        }
+        String nextCursor = hasMore ? items.get(items.size() - 1).getConfigKey() : null;
+        return new ConfigPage(items, nextCursor);
+    }
+
+    /**
+     * 按配置键顺序逐条处理匹配的配置，结果不在内存中累积
+     * 数据库存储下游标在只读事务内打开，处理期间占用一个数据库连接
+     * @param appName 应用名
+     * @param environment 环境
+     * @param prefix 配置键前缀，与pattern至多指定一个
+     * @param pattern 配置键通配符
+     * @param consumer 逐条处理
+     * @return 处理的配置数
+     * @throws BizException 同时指定了前缀与通配符
+     */
+    @Transactional(readOnly = true)
+    public long scan(String appName, String environment, String prefix, String pattern,
+                     Consumer<ConfigItemDTO> consumer) {
+        return scan(appName, environment, toLikePattern(prefix, pattern), true, consumer);
+    }
+
+    /**
+     * 按配置键顺序逐条处理命名空间下的配置，须在事务内调用
+     * @param appName 应用名
+     * @param environment 环境
+     * @param likePattern LIKE模式，为空时不过滤
+     * @param activeOnly 是否只处理激活的配置
+     * @param consumer 逐条处理
+     * @return 处理的配置数
+     */
+    public long scan(String appName, String environment, String likePattern, boolean activeOnly,
+              Consumer<ConfigItemDTO> consumer) {
+        return configStore.scan(new NamespaceKey(appName, environment), likePattern, activeOnly,
+                row -> consumer.accept(ConfigItemDTO.convert2DTO(row)));
+    }
+
+    /**
+     * 把前缀或通配符转换为LIKE模式，LIKE的元字符按默认转义符（反斜杠）转义
+     * @return LIKE模式，两者均为空时返回null（不过滤）
+     */
+    static String toLikePattern(String prefix, String pattern) {
+        if (prefix != null && pattern != null) {
+            throw new BizException(ResultCode.PARAM_ERROR, "前缀与通配符至多指定一个");
+        }
+        if (prefix != null) {
+            return escape(prefix, false) + "%";
+        }
+        if (pattern != null) {
+            return escape(pattern, true);
+        }
+        return null;
+    }
+
+    private static String escape(String value, boolean glob) {
+        StringBuilder sb = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (glob && c == '*') {
+                sb.append('%');
+            } else if (glob && c == '?') {
+                sb.append('_');
+            } else {
+                if (c == '%' || c == '_' || c == '\\') {
+                    sb.append('\\');
+                }
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
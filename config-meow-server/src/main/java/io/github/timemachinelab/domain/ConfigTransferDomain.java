@@ -0,0 +1,228 @@
+package io.github.timemachinelab.domain;
+
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ConfigDataType;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.TransferProperties;
+import io.github.timemachinelab.pojo.dto.BatchItemResult;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.ImportChange;
+import io.github.timemachinelab.pojo.dto.ImportResult;
+import io.github.timemachinelab.pojo.entity.ConfigItemDO;
+import io.github.timemachinelab.store.ConfigStore;
+import io.github.timemachinelab.transfer.ConfigCodec;
+import io.github.timemachinelab.transfer.ConfigFormat;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 命名空间导入导出
+ * 导出经存储游标逐条编码写出；导入逐条解析，每攒满一块就与现有配置比对，只把新增与修改的配置批量写入，
+ * 两者驻留内存的配置数都与命名空间大小无关。每块在独立事务内写入并产生一个修订号，
+ * 中途失败时已写入的块不回滚，可修正后重新导入（内容一致的配置不会重复写入）。
+ */
+@Component
+public class ConfigTransferDomain {
+
+    private static final String OP_ADD = "ADD";
+
+    private static final String OP_UPDATE = "UPDATE";
+
+    private static final String OP_FAILED = "FAILED";
+
+    private final ConfigDomain configDomain;
+
+    private final ConfigQueryDomain queryDomain;
+
+    private final ConfigStore configStore;
+
+    private final ConfigCodec codec;
+
+    private final TransferProperties transferProperties;
+
+    private final ConfigBlobDomain blobDomain;
+
+    public ConfigTransferDomain(ConfigDomain configDomain, ConfigQueryDomain queryDomain, ConfigStore configStore,
+                                ConfigCodec codec, TransferProperties transferProperties,
+                                ConfigBlobDomain blobDomain) {
+        this.configDomain = configDomain;
+        this.queryDomain = queryDomain;
+        this.configStore = configStore;
+        this.codec = codec;
+        this.transferProperties = transferProperties;
+        this.blobDomain = blobDomain;
+    }
+
+    /**
+     * 导出命名空间自身的全部配置（含未激活），按配置键排序，大配置值内联导出
+     * 导出期间在只读事务内占用一个数据库连接
+     * @param appName 应用名
+     * @param environment 环境
+     * @param format 格式
+     * @param out 输出流（不关闭）
+     * @return 导出的配置数
+     */
+    @Transactional(readOnly = true)
+    public long export(String appName, String environment, ConfigFormat format, OutputStream out) throws IOException {
+        ConfigCodec.ItemWriter writer = codec.open(format, out);
+        long count = queryDomain.scan(appName, environment, null, false, item -> {
+            try {
+                writer.write(blobDomain.inline(item));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.finish();
+        return count;
+    }
+
+    /**
+     * 导入配置到命名空间，条目中的应用名与环境被忽略
+     * 未提交的可选字段（如properties格式中的数据类型与描述）保持库中原值
+     * @param appName 应用名
+     * @param environment 环境
+     * @param format 格式
+     * @param in 输入流
+     * @param dryRun 为true时只比对不写入
+     * @return 导入结果
+     * @throws BizException 内容不符合格式，此前的块已写入
+     */
+    public ImportResult importConfigs(String appName, String environment, ConfigFormat format, InputStream in,
+                                      boolean dryRun) {
+        ImportResult result = new ImportResult(appName, environment, dryRun);
+        int chunkSize = transferProperties.getChunkSize();
+        // 同一块内重复的配置键以最后一条为准
+        Map<String, ConfigItemDTO> chunk = new LinkedHashMap<>();
+        try {
+            codec.read(format, in, item -> {
+                result.setTotal(result.getTotal() + 1);
+                item.setAppName(appName);
+                item.setEnvironment(environment);
+                chunk.remove(item.getConfigKey());
+                chunk.put(item.getConfigKey(), item);
+                if (chunk.size() >= chunkSize) {
+                    importChunk(appName, environment, chunk, dryRun, result);
+                    chunk.clear();
+                }
+            });
+        } catch (IOException e) {
+            throw new BizException(ResultCode.PARAM_ERROR, "第" + (result.getTotal() + 1) + "条配置解析失败（此前"
+                    + (result.getAdded() + result.getUpdated()) + "条变更" + (dryRun ? "未写入" : "已写入") + "）: "
+                    + e.getMessage());
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(appName, environment, chunk, dryRun, result);
+        }
+        return result;
+    }
+
+    private void importChunk(String appName, String environment, Map<String, ConfigItemDTO> chunk, boolean dryRun,
+                             ImportResult result) {
+        Map<String, ConfigItemDO> existing = loadExisting(appName, environment, chunk.keySet());
+        List<ConfigItemDTO> writes = new ArrayList<>();
+        List<ImportChange> writeChanges = new ArrayList<>();
+        List<ImportChange> changes = new ArrayList<>();
+        for (ConfigItemDTO item : chunk.values()) {
+            ConfigItemDO current = existing.get(item.getConfigKey());
+            String oldValue = currentValue(current);
+            String violation = check(item, current);
+            if (violation != null) {
+                changes.add(new ImportChange(item.getConfigKey(), OP_FAILED, oldValue, item.getConfigValue(), violation));
+            } else if (current != null && sameContent(item, current)) {
+                result.setUnchanged(result.getUnchanged() + 1);
+            } else {
+                ImportChange change = new ImportChange(item.getConfigKey(), current == null ? OP_ADD : OP_UPDATE,
+                        oldValue, item.getConfigValue(), null);
+                writes.add(item);
+                writeChanges.add(change);
+                changes.add(change);
+            }
+        }
+        if (!dryRun && !writes.isEmpty()) {
+            List<BatchItemResult> written = configDomain.batchSetConfig(writes);
+            for (int i = 0; i < written.size(); i++) {
+                if (!Boolean.TRUE.equals(written.get(i).getSuccess())) {
+                    writeChanges.get(i).setOp(OP_FAILED);
+                    writeChanges.get(i).setMessage(written.get(i).getMessage());
+                }
+            }
+        }
+        for (ImportChange change : changes) {
+            if (OP_ADD.equals(change.getOp())) {
+                result.setAdded(result.getAdded() + 1);
+            } else if (OP_UPDATE.equals(change.getOp())) {
+                result.setUpdated(result.getUpdated() + 1);
+            } else {
+                result.setFailed(result.getFailed() + 1);
+            }
+            if (result.getChanges().size() < transferProperties.getMaxReportedChanges()) {
+                result.getChanges().add(change);
+            } else {
+                result.setTruncated(true);
+            }
+        }
+    }
+
+    /**
+     * 查询块内配置键在库中的现有配置（含未激活），走 uk_app_env_key 索引
+     */
+    private Map<String, ConfigItemDO> loadExisting(String appName, String environment, Iterable<String> configKeys) {
+        List<String> keys = new ArrayList<>();
+        for (String configKey : configKeys) {
+            if (configKey != null && !configKey.trim().isEmpty()) {
+                keys.add(configKey);
+            }
+        }
+        Map<String, ConfigItemDO> existing = new HashMap<>();
+        if (keys.isEmpty()) {
+            return existing;
+        }
+        for (ConfigItemDO configItem : configStore.getAll(new NamespaceKey(appName, environment), keys)) {
+            existing.put(configItem.getConfigKey(), configItem);
+        }
+        return existing;
+    }
+
+    /**
+     * 校验导入的配置，配置值或数据类型未提交时与库中现有配置合并后校验
+     * @return 校验失败信息，通过时返回null
+     */
+    private String check(ConfigItemDTO item, ConfigItemDO current) {
+        if (item.getConfigKey() == null || item.getConfigKey().trim().isEmpty()) {
+            return "配置键不能为空";
+        }
+        String dataType = item.getDataType() != null ? item.getDataType()
+                : current != null ? current.getDataType() : null;
+        String configValue = item.getConfigValue() != null ? item.getConfigValue() : currentValue(current);
+        return ConfigDataType.check(dataType, configValue);
+    }
+
+    /**
+     * 导入的配置中已提交的字段是否与现有配置一致
+     */
+    private static boolean sameContent(ConfigItemDTO item, ConfigItemDO current) {
+        return (item.getConfigValue() == null || ConfigBlobDomain.sameValue(item.getConfigValue(), current))
+                && (item.getDescription() == null || Objects.equals(item.getDescription(), current.getDescription()))
+                && (item.getDataType() == null || Objects.equals(item.getDataType(), current.getDataType()))
+                && (item.getIsActive() == null || Objects.equals(item.getIsActive(), current.getIsActive()));
+    }
+
+    private String currentValue(ConfigItemDO current) {
+        if (current == null) {
+            return null;
+        }
+        return current.getValueRef() != null ? blobDomain.load(current.getValueRef()) : current.getConfigValue();
+    }
+}
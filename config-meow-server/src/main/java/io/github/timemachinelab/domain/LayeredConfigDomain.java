@@ -0,0 +1,245 @@
+package io.github.timemachinelab.domain;
+
+import io.github.timemachinelab.cache.ConfigCacheEntry;
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.cache.ResolvedView;
+import io.github.timemachinelab.cache.ResolvedViewCache;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.config.LayerProperties;
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import io.github.timemachinelab.pojo.dto.TypedConfigValue;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分层配置读取
+ * (app, env) 覆盖 (app, default)，(app, default) 覆盖 (_global, default)；写入、历史与回滚仍按单个命名空间进行。
+ * 读取走按 (app, env) 预先展平的合并视图，单个配置为一次Map查找，不再逐层查询；
+ * 某一层的配置变化时只增量刷新受影响视图中的该配置键。合并结果中的配置项归属于被读取的 (app, env)。
+ */
+@Component
+public class LayeredConfigDomain {
+
+    // 脏配置键超过视图大小的该比例时整体重建，比逐个解析更快
+    private static final int REBUILD_RATIO = 4;
+
+    private final ConfigDomain configDomain;
+
+    private final ResolvedViewCache viewCache;
+
+    private final LayerProperties layerProperties;
+
+    private final ConfigBlobDomain blobDomain;
+
+    public LayeredConfigDomain(ConfigDomain configDomain, ResolvedViewCache viewCache,
+                               LayerProperties layerProperties, ConfigBlobDomain blobDomain) {
+        this.configDomain = configDomain;
+        this.viewCache = viewCache;
+        this.layerProperties = layerProperties;
+        this.blobDomain = blobDomain;
+    }
+
+    /**
+     * 读取配置（分层合并后）
+     * @param appName 应用名
+     * @param environment 环境
+     * @param configKey 配置键
+     * @return 配置项DTO，各层均不存在时返回null
+     */
+    public ConfigItemDTO getConfig(String appName, String environment, String configKey) {
+        if (!layerProperties.isEnabled()) {
+            return configDomain.getConfigByKey(appName, environment, configKey);
+        }
+        return view(new NamespaceKey(appName, environment)).get(configKey).getItem();
+    }
+
+    /**
+     * 获取按 dataType 解析后的配置值（分层合并后）
+     * @param appName 应用名
+     * @param environment 环境
+     * @param configKey 配置键
+     * @return 类型化配置值，各层均不存在时返回null
+     * @throws BizException 存量配置值与数据类型不匹配
+     */
+    public TypedConfigValue getTypedConfig(String appName, String environment, String configKey) {
+        if (!layerProperties.isEnabled()) {
+            return configDomain.getTypedConfig(appName, environment, configKey);
+        }
+        return ConfigDomain.toTypedConfig(appName, environment, configKey,
+                view(new NamespaceKey(appName, environment)).get(configKey));
+    }
+
+    /**
+     * 获取命名空间快照（分层合并后），版本号随合并结果变化
+     * @param appName 应用名
+     * @param environment 环境
+     * @return 命名空间快照
+     */
+    public NamespaceSnapshot getSnapshot(String appName, String environment) {
+        if (!layerProperties.isEnabled()) {
+            return configDomain.getNamespaceSnapshot(appName, environment);
+        }
+        return view(new NamespaceKey(appName, environment)).toSnapshot();
+    }
+
+    /**
+     * 仅从内存读取配置（分层合并后），不访问存储
+     * @param appName 应用名
+     * @param environment 环境
+     * @param configKey 配置键
+     * @return 缓存条目，合并视图未缓存或待刷新时返回null
+     */
+    public ConfigCacheEntry peekConfig(String appName, String environment, String configKey) {
+        if (!layerProperties.isEnabled()) {
+            return configDomain.peekConfig(appName, environment, configKey);
+        }
+        ResolvedView view = viewCache.getIfPresent(new NamespaceKey(appName, environment));
+        return view == null ? null : view.get(configKey);
+    }
+
+    /**
+     * 仅从内存读取命名空间快照（分层合并后），不访问存储
+     * @param appName 应用名
+     * @param environment 环境
+     * @return 命名空间快照，合并视图未缓存或待刷新时返回null
+     */
+    public NamespaceSnapshot peekSnapshot(String appName, String environment) {
+        if (!layerProperties.isEnabled()) {
+            return configDomain.peekNamespaceSnapshot(appName, environment);
+        }
+        ResolvedView view = viewCache.getIfPresent(new NamespaceKey(appName, environment));
+        return view == null ? null : view.toSnapshot();
+    }
+
+    /**
+     * 预热命名空间：启用分层时构建合并视图（同时加载各层快照），否则加载快照并填充单个配置的缓存
+     * @param appName 应用名
+     * @param environment 环境
+     * @return 读取时返回的快照
+     */
+    public NamespaceSnapshot preload(String appName, String environment) {
+        if (!layerProperties.isEnabled()) {
+            return configDomain.preload(appName, environment);
+        }
+        return getSnapshot(appName, environment);
+    }
+
+    /**
+     * 从候选命名空间中找出读取结果受某一层变化影响的命名空间
+     * @param layer 发生变化的命名空间
+     * @param candidates 候选命名空间，如有监听者的命名空间
+     * @return 受影响的命名空间，包含layer自身（若在候选中）
+     */
+    public List<NamespaceKey> affectedNamespaces(NamespaceKey layer, Collection<NamespaceKey> candidates) {
+        if (!layerProperties.isEnabled() || !isDefaultLayer(layer)) {
+            return candidates.contains(layer) ? Collections.singletonList(layer) : Collections.emptyList();
+        }
+        List<NamespaceKey> affected = new ArrayList<>();
+        for (NamespaceKey namespace : candidates) {
+            if (layers(namespace).contains(layer)) {
+                affected.add(namespace);
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * 配置变更后标记受影响视图中的该配置键（事务提交之后，缓存失效之后）
+     * 先于其他变更监听执行，长轮询与SSE推送读取到的已是新的合并结果
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfigChange(ConfigChangeEvent event) {
+        if (!layerProperties.isEnabled()) {
+            return;
+        }
+        for (NamespaceKey namespace : affectedNamespaces(event.namespace(), viewCache.namespaces())) {
+            viewCache.markDirty(namespace, event.getConfigKey());
+        }
+    }
+
+    /**
+     * 命名空间的查找顺序，优先级从高到低
+     */
+    private Set<NamespaceKey> layers(NamespaceKey namespace) {
+        Set<NamespaceKey> layers = new LinkedHashSet<>(4);
+        layers.add(namespace);
+        layers.add(new NamespaceKey(namespace.getAppName(), layerProperties.getDefaultEnvironment()));
+        layers.add(new NamespaceKey(layerProperties.getGlobalApp(), layerProperties.getDefaultEnvironment()));
+        return layers;
+    }
+
+    private boolean isDefaultLayer(NamespaceKey namespace) {
+        return layerProperties.getDefaultEnvironment().equals(namespace.getEnvironment());
+    }
+
+    private ResolvedView view(NamespaceKey namespace) {
+        return viewCache.get(namespace, this::build, this::refresh);
+    }
+
+    /**
+     * 全量构建：由低到高依次覆盖各层快照（各层快照本身有缓存，全局层被所有视图共用）
+     * 快照中的大配置值只有哈希，视图中内联，内容相同的配置值在各视图间共享
+     */
+    private ResolvedView build(NamespaceKey namespace) {
+        List<NamespaceKey> layers = new ArrayList<>(layers(namespace));
+        Map<String, ConfigCacheEntry> entries = new HashMap<>();
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            NamespaceKey layer = layers.get(i);
+            for (ConfigItemDTO item : configDomain.getNamespaceSnapshot(layer.getAppName(), layer.getEnvironment()).getItems()) {
+                entries.put(item.getConfigKey(), ConfigCacheEntry.of(flatten(blobDomain.inline(item), namespace)));
+            }
+        }
+        return new ResolvedView(namespace, entries);
+    }
+
+    /**
+     * 增量刷新：逐个重新解析脏配置键（逐层读取单个配置，命中配置缓存）
+     */
+    private ResolvedView refresh(ResolvedView view, List<String> configKeys) {
+        if (configKeys.size() * REBUILD_RATIO > view.size()) {
+            return build(view.getNamespace());
+        }
+        NamespaceKey namespace = view.getNamespace();
+        Set<NamespaceKey> layers = layers(namespace);
+        Map<String, ConfigCacheEntry> changes = new HashMap<>();
+        for (String configKey : configKeys) {
+            ConfigItemDTO resolved = null;
+            for (NamespaceKey layer : layers) {
+                resolved = configDomain.getConfigByKey(layer.getAppName(), layer.getEnvironment(), configKey);
+                if (resolved != null) {
+                    break;
+                }
+            }
+            changes.put(configKey, ConfigCacheEntry.of(resolved == null ? null : flatten(resolved, namespace)));
+        }
+        return view.with(changes);
+    }
+
+    private static ConfigItemDTO flatten(ConfigItemDTO item, NamespaceKey namespace) {
+        if (item.getAppName().equals(namespace.getAppName())
+                && item.getEnvironment().equals(namespace.getEnvironment())) {
+            return item;
+        }
+        // 版本号属于配置所在的层，不随继承带出
+        return item.toBuilder()
+                .appName(namespace.getAppName())
+                .environment(namespace.getEnvironment())
+                .version(null)
+                .build();
+    }
+}
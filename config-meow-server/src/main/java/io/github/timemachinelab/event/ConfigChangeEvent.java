@@ -0,0 +1,28 @@
+package io.github.timemachinelab.event;
+
+import io.github.timemachinelab.cache.NamespaceKey;
+import lombok.Value;
+
+/**
+ * 配置变更事件，由 ConfigDomain 在配置写入或删除成功后发布
+ */
+@Value
+public class ConfigChangeEvent {
+    String appName;
+    String environment;
+    String configKey;
+    ChangeType type;
+    long revision;      // 变更所属的命名空间修订号
+
+    public NamespaceKey namespace() {
+        return new NamespaceKey(appName, environment);
+    }
+
+    /**
+     * 变更类型
+     */
+    public enum ChangeType {
+        SET,
+        DELETE
+    }
+}
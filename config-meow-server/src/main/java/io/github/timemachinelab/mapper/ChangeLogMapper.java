@@ -0,0 +1,45 @@
+package io.github.timemachinelab.mapper;
+
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.pojo.entity.ConfigChangeLogDO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+@Mapper
+public interface ChangeLogMapper extends BaseMapper<ConfigChangeLogDO> {
+
+    /**
+     * 多行插入变更日志
+     * @param nodeId 写入节点ID
+     * @param events 变更事件，不能为空
+     * @return 写入行数
+     */
+    int batchInsert(@Param("nodeId") String nodeId, @Param("events") List<ConfigChangeEvent> events);
+
+    /**
+     * 查询最大序号
+     * @return 最大序号，表为空时返回null
+     */
+    Long selectMaxSeq();
+
+    /**
+     * 查询指定时间之后写入的最小序号
+     * @param time 时间点
+     * @return 最小序号，不存在时返回null
+     */
+    Long selectMinSeqSince(@Param("time") LocalDateTime time);
+
+    /**
+     * 删除早于指定时间的变更日志，按序号从小到大分批删除
+     * @param time 时间点
+     * @param limit 单批最多删除行数
+     * @return 删除行数
+     */
+    int deleteBefore(@Param("time") LocalDateTime time, @Param("limit") int limit);
+}
@@ -0,0 +1,29 @@
+package io.github.timemachinelab.mapper;
+
+import io.github.timemachinelab.pojo.entity.ConfigBlobDO;
+
+import java.time.LocalDateTime;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+@Mapper
+public interface ConfigBlobMapper extends BaseMapper<ConfigBlobDO> {
+
+    /**
+     * 写入内容，已存在时只刷新引用时间
+     * @param blob 内容
+     * @return 影响行数
+     */
+    int upsert(ConfigBlobDO blob);
+
+    /**
+     * 删除早于指定时间被引用、且已不被任何配置或历史引用的内容
+     * @param before 引用时间上限
+     * @param limit 单批最多删除行数
+     * @return 删除行数
+     */
+    int deleteUnreferenced(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
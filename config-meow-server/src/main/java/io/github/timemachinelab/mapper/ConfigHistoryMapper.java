@@ -0,0 +1,63 @@
+package io.github.timemachinelab.mapper;
+
+import io.github.timemachinelab.pojo.entity.ConfigHistoryDO;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+@Mapper
+public interface ConfigHistoryMapper extends BaseMapper<ConfigHistoryDO> {
+
+    /**
+     * 从 config_item 复制配置项当前状态写入历史（INSERT ... SELECT，数据不经过应用）
+     * SET在写入之后调用，DELETE在删除之前调用
+     * @param appName 应用名
+     * @param environment 环境
+     * @param configKeys 配置键，不能为空
+     * @param revision 命名空间修订号
+     * @param opType 操作类型
+     * @return 写入行数
+     */
+    int insertFromItems(@Param("appName") String appName, @Param("environment") String environment,
+                        @Param("configKeys") Collection<String> configKeys,
+                        @Param("revision") long revision, @Param("opType") String opType);
+
+    /**
+     * 查询命名空间在指定修订号时的全部配置（每个配置键取不晚于该修订号的最后一条历史，已删除的不返回）
+     * 走 uk_ns_key_revision 索引
+     * @param appName 应用名
+     * @param environment 环境
+     * @param revision 修订号
+     * @return 按配置键排序的历史记录
+     */
+    List<ConfigHistoryDO> selectAsOf(@Param("appName") String appName, @Param("environment") String environment,
+                                     @Param("revision") long revision);
+
+    /**
+     * 查询指定时间点命名空间的修订号
+     * @param appName 应用名
+     * @param environment 环境
+     * @param time 时间点
+     * @return 不晚于该时间的最大修订号，不存在时返回null
+     */
+    Long selectRevisionAt(@Param("appName") String appName, @Param("environment") String environment,
+                          @Param("time") LocalDateTime time);
+
+    /**
+     * 删除保留下限之前已被覆盖的历史：早于下限且在下限之前（含）已有更新记录的行，以及早于下限的删除记录
+     * 按修订号从小到大分批删除，保证下限及之后的时点读取结果不变
+     * @param appName 应用名
+     * @param environment 环境
+     * @param minRevision 保留下限
+     * @param limit 单批最多删除行数
+     * @return 删除行数
+     */
+    int deleteCompacted(@Param("appName") String appName, @Param("environment") String environment,
+                        @Param("minRevision") long minRevision, @Param("limit") int limit);
+}
@@ -0,0 +1,90 @@
+package io.github.timemachinelab.mapper;
+
+import io.github.timemachinelab.pojo.entity.ConfigItemDO;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+@Mapper
+public interface ConfigMapper extends BaseMapper<ConfigItemDO> {
+    
+    /**
+     * 插入或更新配置项（基于唯一索引：app_name, environment, config_key）
+     * @param configItem 配置项实体
+     * @return 影响行数
+     */
+    int insertOrUpdate(ConfigItemDO configItem);
+
+    /**
+     * 批量插入或更新配置项（多行 INSERT ... ON DUPLICATE KEY UPDATE）
+     * 同一批次内各条目的可选字段（configValue/description/dataType/isActive）是否为空须保持一致，
+     * 列清单以第一条为准
+     * @param items 配置项实体列表，不能为空
+     * @return 影响行数（插入计1，更新计2，未变化计0）
+     */
+    int batchInsertOrUpdate(@Param("items") List<ConfigItemDO> items);
+
+    /**
+     * 批量写入配置项的完整状态（用于回滚），已存在时覆盖全部内容字段，包括为空的字段
+     * @param items 配置项实体列表，不能为空
+     * @return 影响行数
+     */
+    int batchRestore(@Param("items") List<ConfigItemDO> items);
+
+    /**
+     * 插入新配置项（普通INSERT，版本号为1）
+     * @param configItem 配置项实体
+     * @return 插入行数
+     * @throws org.springframework.dao.DuplicateKeyException 配置已存在或主键冲突
+     */
+    int insertIfAbsent(ConfigItemDO configItem);
+
+    /**
+     * 版本号等于期望版本时更新配置项，版本号更新为期望版本+1，为空的可选字段保持原值
+     * @param configItem 配置项实体
+     * @param expectedVersion 期望版本
+     * @return 更新行数，版本不符或配置不存在时为0
+     */
+    int updateIfVersion(@Param("item") ConfigItemDO configItem, @Param("expectedVersion") int expectedVersion);
+
+    /**
+     * 版本号等于期望版本时删除配置项
+     * @param appName 应用名
+     * @param environment 环境
+     * @param configKey 配置键
+     * @param expectedVersion 期望版本
+     * @return 删除行数，版本不符或配置不存在时为0
+     */
+    int deleteIfVersion(@Param("appName") String appName, @Param("environment") String environment,
+                        @Param("configKey") String configKey, @Param("expectedVersion") int expectedVersion);
+
+    /**
+     * 按配置键模式分页查询激活的配置，按配置键排序（键集分页，走 uk_app_env_key 索引范围扫描）
+     * @param appName 应用名
+     * @param environment 环境
+     * @param pattern LIKE模式，为空时不过滤；以固定前缀开头时按前缀范围扫描
+     * @param after 上一页最后一个配置键，为空时从头开始
+     * @param limit 最多返回条数
+     * @return 配置项实体列表
+     */
+    List<ConfigItemDO> selectByPattern(@Param("appName") String appName, @Param("environment") String environment,
+                                       @Param("pattern") String pattern, @Param("after") String after,
+                                       @Param("limit") int limit);
+
+    /**
+     * 按配置键模式流式读取配置，按配置键排序，须在事务内使用并在读取完毕后关闭
+     * MySQL下需在连接串中开启 useCursorFetch=true，驱动才会按 fetchSize 分批拉取而非一次读入全部结果
+     * @param appName 应用名
+     * @param environment 环境
+     * @param pattern LIKE模式，为空时不过滤
+     * @param activeOnly 是否只读取激活的配置
+     * @return 游标
+     */
+    Cursor<ConfigItemDO> scanByPattern(@Param("appName") String appName, @Param("environment") String environment,
+                                       @Param("pattern") String pattern, @Param("activeOnly") boolean activeOnly);
+}
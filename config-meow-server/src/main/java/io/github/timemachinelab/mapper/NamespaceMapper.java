@@ -0,0 +1,40 @@
+package io.github.timemachinelab.mapper;
+
+import io.github.timemachinelab.pojo.entity.ConfigNamespaceDO;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+@Mapper
+public interface NamespaceMapper extends BaseMapper<ConfigNamespaceDO> {
+
+    /**
+     * 命名空间修订号加一，命名空间不存在时创建（修订号为1）
+     * 同时对命名空间行加写锁，直到事务结束，同一命名空间的写入因此串行提交
+     * @param appName 应用名
+     * @param environment 环境
+     * @return 影响行数
+     */
+    int incrementRevision(@Param("appName") String appName, @Param("environment") String environment);
+
+    /**
+     * 上调历史保留下限
+     * @param appName 应用名
+     * @param environment 环境
+     * @param minRevision 新的保留下限，不大于当前值时不更新
+     * @return 影响行数
+     */
+    int raiseMinRevision(@Param("appName") String appName, @Param("environment") String environment,
+                         @Param("minRevision") long minRevision);
+
+    /**
+     * 查询需要预热的命名空间：config_item 中存在配置的全部命名空间，按修订号（变更频繁程度）从高到低排序
+     * @param limit 最多返回个数，0表示全部
+     * @return 命名空间（仅应用名与环境）
+     */
+    List<ConfigNamespaceDO> selectWarmupNamespaces(@Param("limit") int limit);
+}
@@ -0,0 +1,57 @@
+package io.github.timemachinelab.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConfigDomain 方法耗时统计
+ * 指标 config.domain，标签 method 为方法名，exception 为异常类名（正常返回时为none）。
+ * 直方图分桶由 management.metrics.distribution.percentiles-histogram 配置开启。
+ */
+@Aspect
+@Component
+public class DomainTimingAspect {
+
+    private static final String METRIC_NAME = "config.domain";
+
+    // 延迟获取：MeterRegistry 初始化时会绑定依赖 ConfigDomain 的 MeterBinder，直接注入会形成循环依赖
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    // 正常返回的计时器按方法名缓存，避免热路径上每次构建Meter ID
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public DomainTimingAspect(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * io.github.timemachinelab.domain.ConfigDomain.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            timers.computeIfAbsent(method, m -> timer(m, "none"))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(method, e.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(String method, String exception) {
+        return Timer.builder(METRIC_NAME)
+                .description("ConfigDomain方法耗时")
+                .tag("method", method)
+                .tag("exception", exception)
+                .register(meterRegistry.getObject());
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.timemachinelab.metrics;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import io.github.timemachinelab.datasource.ReplicaNode;
+import io.github.timemachinelab.datasource.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Druid连接池指标，标签 pool 为数据源Bean名称，启用读写分离时副本连接池的标签为副本名称
+ * druid.pool.active / idle / max：活跃、空闲、最大连接数
+ * druid.pool.pending：等待获取连接的线程数
+ * druid.pool.wait：因池空而等待的次数与累计等待时间
+ * druid.pool.errors：获取或创建连接失败次数
+ */
+@Component
+@Profile("!standalone")
+public class DruidPoolMetrics implements MeterBinder {
+
+    private final Map<String, DataSource> dataSources;
+
+    public DruidPoolMetrics(Map<String, DataSource> dataSources) {
+        this.dataSources = dataSources;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Map.Entry<String, DataSource> entry : dataSources.entrySet()) {
+            if (entry.getValue() instanceof DruidDataSource) {
+                bind(registry, entry.getKey(), (DruidDataSource) entry.getValue());
+            } else if (entry.getValue() instanceof ReplicaRoutingDataSource) {
+                ReplicaRoutingDataSource routing = (ReplicaRoutingDataSource) entry.getValue();
+                bind(registry, entry.getKey(), routing.getPrimary());
+                for (ReplicaNode replica : routing.getReplicas()) {
+                    bind(registry, replica.getName(), replica.getDataSource());
+                }
+            }
+        }
+    }
+
+    private void bind(MeterRegistry registry, String pool, DruidDataSource dataSource) {
+        Gauge.builder("druid.pool.active", dataSource, DruidDataSource::getActiveCount)
+                .tag("pool", pool).description("活跃连接数").register(registry);
+        Gauge.builder("druid.pool.idle", dataSource, DruidDataSource::getPoolingCount)
+                .tag("pool", pool).description("空闲连接数").register(registry);
+        Gauge.builder("druid.pool.max", dataSource, DruidDataSource::getMaxActive)
+                .tag("pool", pool).description("最大连接数").register(registry);
+        Gauge.builder("druid.pool.pending", dataSource, DruidDataSource::getWaitThreadCount)
+                .tag("pool", pool).description("等待获取连接的线程数").register(registry);
+        FunctionTimer.builder("druid.pool.wait", dataSource,
+                        DruidDataSource::getNotEmptyWaitCount,
+                        DruidDataSource::getNotEmptyWaitMillis, TimeUnit.MILLISECONDS)
+                .tag("pool", pool).description("池空时等待连接的次数与耗时").register(registry);
+        FunctionCounter.builder("druid.pool.errors", dataSource,
+                        ds -> ds.getErrorCount() + ds.getCreateErrorCount())
+                .tag("pool", pool).description("获取或创建连接失败次数").register(registry);
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.timemachinelab.metrics;
+
+import io.github.timemachinelab.util.SnowflakeIdUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 雪花ID生成器指标
+ * snowflake.sequence.exhausted：同一毫秒序列号耗尽次数
+ * snowflake.clock.backward：时钟回拨超出容忍窗口而拒绝生成的次数
+ */
+@Component
+public class SnowflakeMetrics implements MeterBinder {
+
+    private final SnowflakeIdUtil snowflakeIdUtil;
+
+    public SnowflakeMetrics(SnowflakeIdUtil snowflakeIdUtil) {
+        this.snowflakeIdUtil = snowflakeIdUtil;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("snowflake.sequence.exhausted", snowflakeIdUtil,
+                        SnowflakeIdUtil::getSequenceExhaustedCount)
+                .description("序列号耗尽次数").register(registry);
+        FunctionCounter.builder("snowflake.clock.backward", snowflakeIdUtil,
+                        SnowflakeIdUtil::getClockBackwardCount)
+                .description("时钟回拨拒绝次数").register(registry);
+    }
+}
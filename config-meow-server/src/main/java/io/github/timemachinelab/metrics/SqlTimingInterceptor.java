@@ -0,0 +1,73 @@
+package io.github.timemachinelab.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按Mapper语句统计SQL执行耗时
+ * 指标 config.sql，标签 statement 为语句ID（如 ConfigMapper.selectOne），command 为 SELECT/INSERT/UPDATE/DELETE。
+ * 语句ID集合固定，标签基数有限；由 mybatis-plus 自动配置注册为插件。
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+                        CacheKey.class, BoundSql.class})
+})
+public class SqlTimingInterceptor implements Interceptor {
+
+    private static final String METRIC_NAME = "config.sql";
+
+    // 延迟获取：MeterRegistry 初始化时会绑定依赖 ConfigDomain 的 MeterBinder，直接注入会形成循环依赖
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public SqlTimingInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            timers.computeIfAbsent(statement.getId(), id -> Timer.builder(METRIC_NAME)
+                            .description("Mapper语句执行耗时")
+                            .tag("statement", shortId(id))
+                            .tag("command", statement.getSqlCommandType().name())
+                            .register(meterRegistry.getObject()))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 去掉包名，保留 Mapper类名.方法名
+     */
+    private static String shortId(String id) {
+        int methodDot = id.lastIndexOf('.');
+        int classDot = methodDot > 0 ? id.lastIndexOf('.', methodDot - 1) : -1;
+        return classDot >= 0 ? id.substring(classDot + 1) : id;
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.timemachinelab.pojo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量操作中单个配置项的处理结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+    private String appName;        // 应用名称
+    private String environment;    // 环境(dev/test/prod)
+    private String configKey;      // 配置键
+    private Boolean success;       // 是否成功
+    private String message;        // 失败原因或说明
+
+    public static BatchItemResult success(ConfigItemDTO item) {
+        return of(item, true, null);
+    }
+
+    /**
+     * 未通过校验的条目，条目本身可能为空
+     */
+    public static BatchItemResult invalid(ConfigItemDTO item, String violation) {
+        if (item == null) {
+            return new BatchItemResult(null, null, null, false, violation);
+        }
+        return of(item, false, violation);
+    }
+
+    public static BatchItemResult of(ConfigItemDTO item, boolean success, String message) {
+        return new BatchItemResult(item.getAppName(), item.getEnvironment(), item.getConfigKey(), success, message);
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.timemachinelab.pojo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 推送给订阅者的配置变更
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigChangeMessage {
+    private String appName;        // 应用名称
+    private String environment;    // 环境(dev/test/prod)
+    private String configKey;      // 配置键
+    private String type;           // 变更类型(SET/DELETE)
+    private Long revision;         // 命名空间修订号
+    private ConfigItemDTO item;    // 变更后的配置，DELETE或已不再激活时为null
+}
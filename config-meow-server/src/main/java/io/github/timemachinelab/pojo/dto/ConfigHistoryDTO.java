@@ -0,0 +1,46 @@
+package io.github.timemachinelab.pojo.dto;
+
+import io.github.timemachinelab.pojo.entity.ConfigHistoryDO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigHistoryDTO {
+    private String appName;        // 应用名称
+    private String environment;    // 环境(dev/test/prod)
+    private String configKey;      // 配置键
+    private Long revision;         // 命名空间修订号
+    private String opType;         // 操作类型(SET/DELETE)
+    private String configValue;    // 写入后的配置值，DELETE时为删除前的值
+    private String valueRef;       // 大配置值的内容哈希，非空时configValue为空，按需通过 /blob 读取
+    private String description;    // 配置描述
+    private String dataType;       // 数据类型
+    private Boolean isActive;      // 是否激活
+    private LocalDateTime createdTime; // 写入时间
+
+    public static ConfigHistoryDTO convert2DTO(ConfigHistoryDO historyDO) {
+        if (historyDO == null) {
+            return null;
+        }
+        return ConfigHistoryDTO.builder()
+        .appName(historyDO.getAppName())
+        .environment(historyDO.getEnvironment())
+        .configKey(historyDO.getConfigKey())
+        .revision(historyDO.getRevision())
+        .opType(historyDO.getOpType())
+        .configValue(historyDO.getConfigValue())
+        .valueRef(historyDO.getValueRef())
+        .description(historyDO.getDescription())
+        .dataType(historyDO.getDataType())
+        .isActive(historyDO.getIsActive())
+        .createdTime(historyDO.getCreatedTime())
+        .build();
+    }
+}
@@ -9,7 +9,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ConfigItemDTO {
@@ -20,9 +20,11 @@ public class ConfigItemDTO {
     @NotBlank(message = "配置键不能为空")
     private String configKey;      // 配置键
     private String configValue;    // 配置值
+    private String valueRef;       // 大配置值的内容哈希；快照与列表中这类配置的configValue为空，按需通过 /blob 读取
     private String description;    // 配置描述
     private String dataType;       // 数据类型(string/int/boolean/json)
     private Boolean isActive;      // 是否激活
+    private Integer version;       // 版本号，条件写入时作为期望版本；继承自其他层的配置为空
 
     public static ConfigItemDTO convert2DTO(ConfigItemDO configItemDO) {
         if (configItemDO == null) {
@@ -33,9 +35,11 @@ public class ConfigItemDTO {
         .environment(configItemDO.getEnvironment())
         .configKey(configItemDO.getConfigKey())
         .configValue(configItemDO.getConfigValue())
+        .valueRef(configItemDO.getValueRef())
         .description(configItemDO.getDescription())
         .dataType(configItemDO.getDataType())
         .isActive(configItemDO.getIsActive())
+        .version(configItemDO.getVersion())
         .build();
     }
 }
@@ -0,0 +1,19 @@
+package io.github.timemachinelab.pojo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 按配置键分页的查询结果
+ * 下一页以 nextCursor 作为 after 参数继续查询，nextCursor 为空表示已无更多结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigPage {
+    private List<ConfigItemDTO> items;   // 本页配置，按配置键排序
+    private String nextCursor;           // 下一页游标（本页最后一个配置键）
+}
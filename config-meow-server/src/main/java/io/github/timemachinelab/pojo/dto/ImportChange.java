@@ -0,0 +1,19 @@
+package io.github.timemachinelab.pojo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 导入时单个配置的变更明细
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportChange {
+    private String configKey;      // 配置键
+    private String op;             // ADD/UPDATE/FAILED
+    private String oldValue;       // 导入前的配置值
+    private String newValue;       // 导入的配置值
+    private String message;        // 失败原因
+}
@@ -0,0 +1,32 @@
+package io.github.timemachinelab.pojo.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 命名空间导入结果
+ * dryRun 为true时只比对不写入，计数与明细为实际导入时将产生的变更
+ */
+@Data
+@NoArgsConstructor
+public class ImportResult {
+    private String appName;        // 应用名称
+    private String environment;    // 环境(dev/test/prod)
+    private Boolean dryRun;        // 是否仅比对
+    private long total;            // 解析出的配置数
+    private long added;            // 新增数
+    private long updated;          // 修改数
+    private long unchanged;        // 内容一致、未写入的配置数
+    private long failed;           // 校验或写入失败数
+    private List<ImportChange> changes = new ArrayList<>();   // 变更明细（新增、修改、失败），按导入顺序
+    private boolean truncated;     // 明细是否因数量上限被截断
+
+    public ImportResult(String appName, String environment, boolean dryRun) {
+        this.appName = appName;
+        this.environment = environment;
+        this.dryRun = dryRun;
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.timemachinelab.pojo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * 命名空间全量快照：某应用某环境下的全部激活配置
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NamespaceSnapshot {
+    private String appName;        // 应用名称
+    private String environment;    // 环境(dev/test/prod)
+    private String version;        // 聚合版本号（内容摘要），用作ETag
+    private List<ConfigItemDTO> items; // 配置项列表，按配置键排序
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long revision;         // 历史快照对应的命名空间修订号，当前快照为null
+
+    /**
+     * 构建快照并根据配置内容计算聚合版本号
+     * @param appName 应用名
+     * @param environment 环境
+     * @param items 按配置键排序的配置项
+     * @return 命名空间快照
+     */
+    public static NamespaceSnapshot of(String appName, String environment, List<ConfigItemDTO> items) {
+        return new NamespaceSnapshot(appName, environment, digest(items), items, null);
+    }
+
+    /**
+     * 构建历史快照
+     * @param appName 应用名
+     * @param environment 环境
+     * @param items 按配置键排序的配置项
+     * @param revision 命名空间修订号
+     * @return 命名空间快照
+     */
+    public static NamespaceSnapshot of(String appName, String environment, List<ConfigItemDTO> items, long revision) {
+        return new NamespaceSnapshot(appName, environment, digest(items), items, revision);
+    }
+
+    private static String digest(List<ConfigItemDTO> items) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (ConfigItemDTO item : items) {
+            update(md, item.getConfigKey());
+            // 大配置值按内容哈希计入，与是否内联了配置值无关
+            update(md, item.getValueRef() == null ? item.getConfigValue() : null);
+            update(md, item.getValueRef());
+            update(md, item.getDataType());
+            update(md, item.getDescription());
+        }
+        StringBuilder sb = new StringBuilder(32);
+        for (byte b : md.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static void update(MessageDigest md, String value) {
+        // 先写入长度（null记为-1），避免相邻字段拼接产生歧义
+        byte[] bytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes == null ? -1 : bytes.length;
+        md.update((byte) (length >>> 24));
+        md.update((byte) (length >>> 16));
+        md.update((byte) (length >>> 8));
+        md.update((byte) length);
+        if (bytes != null) {
+            md.update(bytes);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.timemachinelab.pojo.dto;
+
+import javax.validation.constraints.NotBlank;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NamespaceVersion {
+    @NotBlank(message = "应用名称不能为空")
+    private String appName;        // 应用名称
+    @NotBlank(message = "环境不能为空")
+    private String environment;    // 环境(dev/test/prod)
+    private String version;        // 客户端已知的快照版本号，为空表示尚未拉取
+}
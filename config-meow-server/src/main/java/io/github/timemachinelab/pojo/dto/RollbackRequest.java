@@ -0,0 +1,23 @@
+package io.github.timemachinelab.pojo.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+/**
+ * 命名空间回滚请求
+ */
+@Data
+public class RollbackRequest {
+    @NotBlank(message = "应用名称不能为空")
+    private String appName;
+
+    @NotBlank(message = "环境不能为空")
+    private String environment;
+
+    @NotNull(message = "目标修订号不能为空")
+    @Min(value = 0, message = "目标修订号不能为负数")
+    private Long revision;
+}
@@ -0,0 +1,20 @@
+package io.github.timemachinelab.pojo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 命名空间回滚结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollbackResult {
+    private String appName;        // 应用名称
+    private String environment;    // 环境(dev/test/prod)
+    private Long targetRevision;   // 回滚目标修订号
+    private Long revision;         // 回滚产生的新修订号
+    private Integer restored;      // 恢复或改写的配置数
+    private Integer deleted;       // 删除的配置数
+}
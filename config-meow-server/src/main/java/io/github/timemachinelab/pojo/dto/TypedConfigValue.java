@@ -0,0 +1,20 @@
+package io.github.timemachinelab.pojo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 类型化配置值
+ * value 按 dataType 解析：string -> 字符串，int -> 整数，boolean -> 布尔，json -> JSON树
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypedConfigValue {
+    private String appName;        // 应用名称
+    private String environment;    // 环境
+    private String configKey;      // 配置键
+    private String dataType;       // 数据类型
+    private Object value;          // 解析后的配置值
+}
@@ -0,0 +1,17 @@
+package io.github.timemachinelab.pojo.dto;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+import lombok.Data;
+
+@Data
+public class WatchRequest {
+    @Valid
+    @NotEmpty(message = "监听的命名空间不能为空")
+    @Size(max = 100, message = "单次最多监听100个命名空间")
+    private List<NamespaceVersion> namespaces;
+}
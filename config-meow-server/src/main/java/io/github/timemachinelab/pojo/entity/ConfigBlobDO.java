@@ -0,0 +1,25 @@
+package io.github.timemachinelab.pojo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("config_blob")
+public class ConfigBlobDO {
+    @TableId(type = IdType.INPUT)
+    private String contentHash;    // 原始内容（UTF-8）的SHA-256
+    private byte[] content;        // gzip压缩后的内容
+    private Integer rawSize;       // 原始字节数
+    private LocalDateTime referencedTime; // 最近一次被写入引用的时间
+}
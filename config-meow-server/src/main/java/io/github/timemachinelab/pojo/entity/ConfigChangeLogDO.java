@@ -0,0 +1,29 @@
+package io.github.timemachinelab.pojo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("config_change_log")
+public class ConfigChangeLogDO {
+    @TableId(type = IdType.AUTO)
+    private Long seq;              // 变更序号
+    private String appName;        // 应用名称
+    private String environment;    // 环境(dev/test/prod)
+    private String configKey;      // 配置键
+    private String opType;         // 操作类型(SET/DELETE)
+    private Long revision;         // 变更所属的命名空间修订号
+    private String nodeId;         // 写入节点ID
+    private LocalDateTime createdTime;
+}
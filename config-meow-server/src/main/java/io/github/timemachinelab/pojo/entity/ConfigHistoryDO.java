@@ -0,0 +1,33 @@
+package io.github.timemachinelab.pojo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("config_item_history")
+public class ConfigHistoryDO {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private String appName;        // 应用名称
+    private String environment;    // 环境(dev/test/prod)
+    private String configKey;      // 配置键
+    private Long revision;         // 写入时的命名空间修订号
+    private String opType;         // 操作类型(SET/DELETE)
+    private String configValue;    // 写入后的配置值，DELETE时为删除前的值
+    private String valueRef;       // 大配置值在 config_blob 中的内容哈希
+    private String description;    // 配置描述
+    private String dataType;       // 数据类型
+    private Boolean isActive;      // 是否激活
+    private LocalDateTime createdTime;
+}
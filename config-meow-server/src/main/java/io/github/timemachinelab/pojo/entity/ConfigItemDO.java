@@ -16,7 +16,7 @@ import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
 import io.github.timemachinelab.util.SnowflakeIdUtil;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @TableName("config_item")
@@ -27,6 +27,7 @@ public class ConfigItemDO {
     private String environment;    // 环境(dev/test/prod)
     private String configKey;      // 配置键
     private String configValue;    // 配置值
+    private String valueRef;       // 大配置值在 config_blob 中的内容哈希，非空时configValue为空
     private String description;    // 配置描述
     private String dataType;       // 数据类型(string/int/boolean/json)
     private Boolean isActive;      // 是否激活
@@ -39,15 +40,23 @@ public class ConfigItemDO {
     private Integer version;       // 版本号，用于乐观锁
 
     public static ConfigItemDO convert2DO(ConfigItemDTO configItemDTO) {
+        if (configItemDTO == null) {
+            return null;
+        }
+        return convert2DO(configItemDTO, SnowflakeIdUtil.generateId());
+    }
+
+    public static ConfigItemDO convert2DO(ConfigItemDTO configItemDTO, long id) {
         if (configItemDTO == null) {
             return null;
         }
         return ConfigItemDO.builder()
-        .id(String.valueOf(SnowflakeIdUtil.generateId()))
+        .id(String.valueOf(id))
         .appName(configItemDTO.getAppName())
         .environment(configItemDTO.getEnvironment())
         .configKey(configItemDTO.getConfigKey())
         .configValue(configItemDTO.getConfigValue())
+        .valueRef(configItemDTO.getValueRef())
         .description(configItemDTO.getDescription())
         .dataType(configItemDTO.getDataType())
         .isActive(configItemDTO.getIsActive())
@@ -0,0 +1,23 @@
+package io.github.timemachinelab.pojo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("config_namespace")
+public class ConfigNamespaceDO {
+    private String appName;        // 应用名称
+    private String environment;    // 环境(dev/test/prod)
+    private Long revision;         // 命名空间修订号
+    private Long minRevision;      // 历史保留下限
+    private LocalDateTime updatedTime;
+}
@@ -0,0 +1,76 @@
+package io.github.timemachinelab.ratelimit;
+
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.controller.ConfigController;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.NamespaceVersion;
+import io.github.timemachinelab.pojo.dto.RollbackRequest;
+import io.github.timemachinelab.pojo.dto.WatchRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 按请求体中的应用名限流
+ * 批量请求涉及多个应用时每个应用各取一个令牌；请求体中没有应用名的请求被拒绝
+ */
+@ControllerAdvice(assignableTypes = ConfigController.class)
+public class RateLimitBodyAdvice extends RequestBodyAdviceAdapter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitBodyAdvice(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return rateLimiter.isEnabled();
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        Set<String> appNames = new LinkedHashSet<>();
+        collectAppNames(body, appNames);
+        if (appNames.isEmpty()) {
+            throw new BizException(ResultCode.PARAM_ERROR, "请求体中缺少应用名称");
+        }
+        for (String appName : appNames) {
+            rateLimiter.acquire(appName, null);
+        }
+        return body;
+    }
+
+    private static void collectAppNames(Object body, Set<String> appNames) {
+        if (body instanceof ConfigItemDTO) {
+            add(appNames, ((ConfigItemDTO) body).getAppName());
+        } else if (body instanceof RollbackRequest) {
+            add(appNames, ((RollbackRequest) body).getAppName());
+        } else if (body instanceof WatchRequest) {
+            collectAppNames(((WatchRequest) body).getNamespaces(), appNames);
+        } else if (body instanceof NamespaceVersion) {
+            add(appNames, ((NamespaceVersion) body).getAppName());
+        } else if (body instanceof Collection) {
+            for (Object element : (Collection<?>) body) {
+                collectAppNames(element, appNames);
+            }
+        }
+    }
+
+    private static void add(Set<String> appNames, String appName) {
+        if (StringUtils.hasText(appName)) {
+            appNames.add(appName);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.timemachinelab.ratelimit;
+
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import org.springframework.core.MethodParameter;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 配置接口限流拦截器
+ * 请求体为JSON的接口，应用名以请求体为准，此处只按IP限流，读取请求体后由 {@link RateLimitBodyAdvice} 按应用限流；
+ * 其他接口的应用名取自请求参数 appName，其次为请求头 X-Config-App，两者都没有的请求被拒绝。
+ * 长轮询与SSE的异步派发不重复计数。
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    public static final String APP_HEADER = "X-Config-App";
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !rateLimiter.isEnabled()) {
+            return true;
+        }
+        if (hasRequestBody(handler)) {
+            rateLimiter.acquire(null, request.getRemoteAddr());
+            return true;
+        }
+        String appName = request.getParameter("appName");
+        if (!StringUtils.hasText(appName)) {
+            appName = request.getHeader(APP_HEADER);
+        }
+        if (!StringUtils.hasText(appName)) {
+            throw new BizException(ResultCode.PARAM_ERROR, "缺少应用标识，请通过参数 appName 或请求头 " + APP_HEADER + " 提供");
+        }
+        rateLimiter.acquire(appName, request.getRemoteAddr());
+        return true;
+    }
+
+    private static boolean hasRequestBody(Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return false;
+        }
+        for (MethodParameter parameter : ((HandlerMethod) handler).getMethodParameters()) {
+            if (parameter.hasParameterAnnotation(RequestBody.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
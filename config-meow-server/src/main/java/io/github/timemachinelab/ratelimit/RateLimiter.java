@@ -0,0 +1,123 @@
+package io.github.timemachinelab.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.timemachinelab.common.RateLimitException;
+import io.github.timemachinelab.config.RateLimitProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按应用名与客户端IP的令牌桶限流
+ * 每个应用、每个IP各一个桶，开启IP维度时请求须同时从两个桶取得令牌；桶按最久未访问淘汰，闲置超时后回收。
+ * 未在 apps 中配置的应用，新建桶须先从所有应用共用的 newApp 桶取得令牌，不断更换应用名不能绕过限流。
+ * 热路径只有一次缓存查找与一次CAS，不加锁。
+ */
+@Component
+public class RateLimiter implements MeterBinder {
+
+    private final RateLimitProperties properties;
+
+    private final Cache<String, TokenBucket> appBuckets;
+
+    private final Cache<String, TokenBucket> ipBuckets;
+
+    private final LongAdder appRejected = new LongAdder();
+
+    private final LongAdder ipRejected = new LongAdder();
+
+    private final LongAdder newAppRejected = new LongAdder();
+
+    // 为未单独配置的应用创建限流桶的配额
+    private final TokenBucket newAppBucket;
+
+    public RateLimiter(RateLimitProperties properties) {
+        this.properties = properties;
+        this.appBuckets = newBuckets(properties);
+        this.ipBuckets = newBuckets(properties);
+        this.newAppBucket = newBucket(properties.getNewApp(), System.nanoTime());
+    }
+
+    private static Cache<String, TokenBucket> newBuckets(RateLimitProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(Math.max(1L, properties.getMaxTracked() / 2))
+                .expireAfterAccess(properties.getIdleTimeout().toNanos(), TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 为一次请求取令牌
+     * 先检查IP再检查应用，被IP拒绝的请求不消耗应用配额
+     * @param appName 应用名，为空时只按IP限流
+     * @param clientIp 客户端IP，为空或未开启IP维度时只按应用限流
+     * @throws RateLimitException 任一维度超出配额，或新应用创建限流桶过于频繁
+     */
+    public void acquire(String appName, String clientIp) {
+        long now = System.nanoTime();
+        if (clientIp != null && properties.isIpEnabled()) {
+            TokenBucket bucket = ipBuckets.get(clientIp, k -> newBucket(properties.getIp(), now));
+            long wait = bucket.tryAcquire(now);
+            if (wait > 0) {
+                ipRejected.increment();
+                throw new RateLimitException("客户端请求过于频繁: " + clientIp, retryAfterSeconds(wait));
+            }
+        }
+        if (appName != null) {
+            TokenBucket bucket = appBuckets.get(appName, k -> createAppBucket(k, now));
+            long wait = bucket.tryAcquire(now);
+            if (wait > 0) {
+                appRejected.increment();
+                throw new RateLimitException("应用请求超出配额: " + appName, retryAfterSeconds(wait));
+            }
+        }
+    }
+
+    /**
+     * 创建应用的限流桶；未单独配置的应用须先取得新建配额，被拒绝时不缓存桶
+     */
+    private TokenBucket createAppBucket(String appName, long now) {
+        RateLimitProperties.Quota quota = properties.getApps().get(appName);
+        if (quota != null) {
+            return newBucket(quota, now);
+        }
+        long wait = newAppBucket.tryAcquire(now);
+        if (wait > 0) {
+            newAppRejected.increment();
+            throw new RateLimitException("新接入的应用过多，请稍后重试: " + appName, retryAfterSeconds(wait));
+        }
+        return newBucket(properties.getApp(), now);
+    }
+
+    private static TokenBucket newBucket(RateLimitProperties.Quota quota, long now) {
+        return new TokenBucket(quota.getRate(), quota.getBurst(), now);
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("config.ratelimit.rejected", appRejected, LongAdder::sum)
+                .tag("dimension", "app")
+                .description("因应用配额被拒绝的请求数")
+                .register(registry);
+        FunctionCounter.builder("config.ratelimit.rejected", ipRejected, LongAdder::sum)
+                .tag("dimension", "ip")
+                .description("因客户端IP配额被拒绝的请求数")
+                .register(registry);
+        FunctionCounter.builder("config.ratelimit.rejected", newAppRejected, LongAdder::sum)
+                .tag("dimension", "new-app")
+                .description("因新应用创建限流桶过于频繁被拒绝的请求数")
+                .register(registry);
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.timemachinelab.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ * 以GCRA（通用信元速率算法）实现，与令牌桶等价：只保存“理论到达时间”一个long，
+ * 每次请求一次CAS，不持有锁，也不需要后台线程补充令牌。
+ */
+final class TokenBucket {
+
+    // 间隔与容差之和的上限，保证与 System.nanoTime 相加、相减时不溢出
+    private static final long MAX_SPAN_NANOS = Long.MAX_VALUE / 4;
+
+    // 相邻两个令牌的间隔
+    private final long intervalNanos;
+
+    // 允许提前到达的时长，即可突发的请求数 - 1 个间隔
+    private final long toleranceNanos;
+
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param rate 每秒补充的令牌数，须大于0
+     * @param burst 最多积攒的令牌数，须不小于1
+     * @param nowNanos 当前时间（System.nanoTime）
+     * @throws IllegalArgumentException 配额不合法，或速率过低、突发数过大以致时间计算溢出
+     */
+    TokenBucket(double rate, int burst, long nowNanos) {
+        if (!(rate > 0) || burst < 1) {
+            throw new IllegalArgumentException("限流配额不合法: rate=" + rate + ", burst=" + burst);
+        }
+        double interval = Math.max(1.0, 1_000_000_000.0 / rate);
+        if (interval * burst > MAX_SPAN_NANOS) {
+            throw new IllegalArgumentException("限流配额超出范围: rate=" + rate + ", burst=" + burst);
+        }
+        this.intervalNanos = (long) interval;
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 尝试获取一个令牌
+     * @param nowNanos 当前时间（System.nanoTime）
+     * @return 0表示获取成功，否则为需要等待的纳秒数
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = tat - nowNanos > 0 ? tat : nowNanos;
+            long wait = base - toleranceNanos - nowNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.timemachinelab.service;
+
+import io.github.timemachinelab.cache.ConfigCacheEntry;
+import io.github.timemachinelab.common.Result;
+import io.github.timemachinelab.pojo.dto.BatchItemResult;
+import io.github.timemachinelab.pojo.dto.ConfigHistoryDTO;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.ConfigPage;
+import io.github.timemachinelab.pojo.dto.ImportResult;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import io.github.timemachinelab.pojo.dto.NamespaceVersion;
+import io.github.timemachinelab.pojo.dto.RollbackResult;
+import io.github.timemachinelab.pojo.dto.TypedConfigValue;
+import io.github.timemachinelab.transfer.ConfigFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public interface ConfigService {
+    // 设置配置
+    Boolean setConfig(ConfigItemDTO configItemDTO);
+
+    // 异步设置配置，启用写入合并时只在入队前的校验期间占用数据库任务线程
+    CompletableFuture<Boolean> setConfigAsync(ConfigItemDTO configItemDTO);
+
+    // 根据应用名、环境、配置键获取配置
+    ConfigItemDTO getConfigByKey(String appName, String environment, String configKey);
+
+    // 获取按数据类型解析后的配置值
+    TypedConfigValue getTypedConfig(String appName, String environment, String configKey);
+
+    // 仅从内存读取配置，未缓存时返回null
+    ConfigCacheEntry peekConfig(String appName, String environment, String configKey);
+
+    // 把缓存条目转换为类型化配置值
+    TypedConfigValue toTypedConfig(String appName, String environment, String configKey, ConfigCacheEntry entry);
+    
+    // 删除配置
+    ConfigItemDTO deleteConfig(String appName, String environment, String configKey);
+
+    // 条件设置配置，返回写入后的版本号
+    int compareAndSetConfig(ConfigItemDTO configItemDTO, int expectedVersion);
+
+    // 条件删除配置
+    void compareAndDeleteConfig(String appName, String environment, String configKey, int expectedVersion);
+
+    // 批量设置配置
+    List<BatchItemResult> batchSetConfig(List<ConfigItemDTO> items);
+
+    // 批量删除配置
+    List<BatchItemResult> batchDeleteConfig(List<ConfigItemDTO> items);
+
+    // 按配置键前缀或通配符分页查询
+    ConfigPage queryConfigs(String appName, String environment, String prefix, String pattern,
+                            String after, Integer limit);
+
+    // 按配置键前缀或通配符流式读取
+    long scanConfigs(String appName, String environment, String prefix, String pattern,
+                     Consumer<ConfigItemDTO> consumer);
+
+    // 导出命名空间
+    long exportConfigs(String appName, String environment, ConfigFormat format, OutputStream out) throws IOException;
+
+    // 导入命名空间，dryRun时只比对不写入
+    ImportResult importConfigs(String appName, String environment, ConfigFormat format, InputStream in,
+                               boolean dryRun);
+
+    // 获取命名空间下全部配置的快照
+    NamespaceSnapshot getNamespaceSnapshot(String appName, String environment);
+
+    // 仅从内存读取命名空间快照，未缓存时返回null
+    NamespaceSnapshot peekNamespaceSnapshot(String appName, String environment);
+
+    // 内联快照中以引用返回的大配置值
+    NamespaceSnapshot inlineLargeValues(NamespaceSnapshot snapshot);
+
+    // 按内容哈希读取大配置值
+    String getConfigBlob(String hash);
+
+    // 按内容哈希读取gzip压缩后的大配置值
+    byte[] getCompressedConfigBlob(String hash);
+
+    // 查询单个配置的变更历史
+    List<ConfigHistoryDTO> getConfigHistory(String appName, String environment, String configKey, int limit);
+
+    // 获取命名空间在指定修订号时的快照
+    NamespaceSnapshot getNamespaceSnapshotAt(String appName, String environment, long revision);
+
+    // 获取命名空间在指定时间点的快照
+    NamespaceSnapshot getNamespaceSnapshotAt(String appName, String environment, LocalDateTime time);
+
+    // 将命名空间回滚到指定修订号
+    RollbackResult rollbackNamespace(String appName, String environment, long revision);
+
+    // 长轮询监听命名空间变更
+    DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> watch(List<NamespaceVersion> namespaces);
+
+    // 以SSE订阅命名空间变更
+    SseEmitter subscribe(String appName, String environment);
+}
@@ -0,0 +1,233 @@
+package io.github.timemachinelab.service.impl;
+
+import io.github.timemachinelab.cache.ConfigCacheEntry;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.Result;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.datasource.DbExecutor;
+import io.github.timemachinelab.domain.ConfigBlobDomain;
+import io.github.timemachinelab.domain.ConfigDomain;
+import io.github.timemachinelab.domain.ConfigHistoryDomain;
+import io.github.timemachinelab.domain.ConfigQueryDomain;
+import io.github.timemachinelab.domain.ConfigTransferDomain;
+import io.github.timemachinelab.domain.LayeredConfigDomain;
+import io.github.timemachinelab.pojo.dto.BatchItemResult;
+import io.github.timemachinelab.pojo.dto.ConfigHistoryDTO;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.ConfigPage;
+import io.github.timemachinelab.pojo.dto.ImportResult;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import io.github.timemachinelab.pojo.dto.NamespaceVersion;
+import io.github.timemachinelab.pojo.dto.RollbackResult;
+import io.github.timemachinelab.pojo.dto.TypedConfigValue;
+import io.github.timemachinelab.service.ConfigService;
+import io.github.timemachinelab.transfer.ConfigFormat;
+import io.github.timemachinelab.watch.ChangeStreamDispatcher;
+import io.github.timemachinelab.watch.LongPollRegistry;
+import io.github.timemachinelab.write.ConfigWritePipeline;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+@Service
+public class ConfigServiceImpl implements ConfigService {
+    private final ConfigDomain configDomain;
+
+    /**
+     * standalone 环境下不保留历史，为null
+     */
+    private final ConfigHistoryDomain historyDomain;
+
+    private final LayeredConfigDomain layeredDomain;
+
+    private final ConfigQueryDomain queryDomain;
+
+    private final ConfigTransferDomain transferDomain;
+
+    private final LongPollRegistry longPollRegistry;
+
+    private final ChangeStreamDispatcher changeStreamDispatcher;
+
+    private final ConfigWritePipeline writePipeline;
+
+    private final ConfigBlobDomain blobDomain;
+
+    private final DbExecutor dbExecutor;
+
+    public ConfigServiceImpl(ConfigDomain configDomain, ObjectProvider<ConfigHistoryDomain> historyDomain,
+                             LayeredConfigDomain layeredDomain, ConfigQueryDomain queryDomain,
+                             ConfigTransferDomain transferDomain, LongPollRegistry longPollRegistry,
+                             ChangeStreamDispatcher changeStreamDispatcher, ConfigWritePipeline writePipeline,
+                             ConfigBlobDomain blobDomain, DbExecutor dbExecutor) {
+        this.configDomain = configDomain;
+        this.historyDomain = historyDomain.getIfAvailable();
+        this.layeredDomain = layeredDomain;
+        this.queryDomain = queryDomain;
+        this.transferDomain = transferDomain;
+        this.longPollRegistry = longPollRegistry;
+        this.changeStreamDispatcher = changeStreamDispatcher;
+        this.writePipeline = writePipeline;
+        this.blobDomain = blobDomain;
+        this.dbExecutor = dbExecutor;
+    }
+    
+    @Override
+    public Boolean setConfig(ConfigItemDTO configItemDTO) {
+        if (writePipeline.isEnabled()) {
+            return writePipeline.set(configItemDTO);
+        }
+        return configDomain.setConfig(configItemDTO);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setConfigAsync(ConfigItemDTO configItemDTO) {
+        if (writePipeline.isEnabled()) {
+            // 入队前的类型校验可能读取存储，在数据库任务线程上完成；
+            // 合并管道自有刷写线程，等待确认期间无需占用数据库任务线程
+            return dbExecutor.submit(() -> writePipeline.submit(configItemDTO)).thenCompose(ack -> ack);
+        }
+        return dbExecutor.submit(() -> configDomain.setConfig(configItemDTO));
+    }
+
+    @Override
+    public ConfigItemDTO getConfigByKey(String appName, String environment, String configKey) {
+        return layeredDomain.getConfig(appName, environment, configKey);
+    }
+
+    @Override
+    public TypedConfigValue getTypedConfig(String appName, String environment, String configKey) {
+        return layeredDomain.getTypedConfig(appName, environment, configKey);
+    }
+
+    @Override
+    public ConfigCacheEntry peekConfig(String appName, String environment, String configKey) {
+        return layeredDomain.peekConfig(appName, environment, configKey);
+    }
+
+    @Override
+    public TypedConfigValue toTypedConfig(String appName, String environment, String configKey,
+                                          ConfigCacheEntry entry) {
+        return ConfigDomain.toTypedConfig(appName, environment, configKey, entry);
+    }
+
+    @Override
+    public ConfigItemDTO deleteConfig(String appName, String environment, String configKey) {
+        return configDomain.deleteConfig(appName, environment, configKey);
+    }
+
+    @Override
+    public int compareAndSetConfig(ConfigItemDTO configItemDTO, int expectedVersion) {
+        return configDomain.compareAndSetConfig(configItemDTO, expectedVersion);
+    }
+
+    @Override
+    public void compareAndDeleteConfig(String appName, String environment, String configKey, int expectedVersion) {
+        configDomain.compareAndDeleteConfig(appName, environment, configKey, expectedVersion);
+    }
+
+    @Override
+    public List<BatchItemResult> batchSetConfig(List<ConfigItemDTO> items) {
+        return configDomain.batchSetConfig(items);
+    }
+
+    @Override
+    public List<BatchItemResult> batchDeleteConfig(List<ConfigItemDTO> items) {
+        return configDomain.batchDeleteConfig(items);
+    }
+
+    @Override
+    public ConfigPage queryConfigs(String appName, String environment, String prefix, String pattern,
+                                   String after, Integer limit) {
+        return queryDomain.query(appName, environment, prefix, pattern, after, limit);
+    }
+
+    @Override
+    public long scanConfigs(String appName, String environment, String prefix, String pattern,
+                            Consumer<ConfigItemDTO> consumer) {
+        return queryDomain.scan(appName, environment, prefix, pattern, consumer);
+    }
+
+    @Override
+    public long exportConfigs(String appName, String environment, ConfigFormat format, OutputStream out)
+            throws IOException {
+        return transferDomain.export(appName, environment, format, out);
+    }
+
+    @Override
+    public ImportResult importConfigs(String appName, String environment, ConfigFormat format, InputStream in,
+                                      boolean dryRun) {
+        return transferDomain.importConfigs(appName, environment, format, in, dryRun);
+    }
+
+    @Override
+    public NamespaceSnapshot getNamespaceSnapshot(String appName, String environment) {
+        return layeredDomain.getSnapshot(appName, environment);
+    }
+
+    @Override
+    public NamespaceSnapshot peekNamespaceSnapshot(String appName, String environment) {
+        return layeredDomain.peekSnapshot(appName, environment);
+    }
+
+    @Override
+    public NamespaceSnapshot inlineLargeValues(NamespaceSnapshot snapshot) {
+        return blobDomain.inline(snapshot);
+    }
+
+    @Override
+    public String getConfigBlob(String hash) {
+        return blobDomain.load(hash);
+    }
+
+    @Override
+    public byte[] getCompressedConfigBlob(String hash) {
+        return blobDomain.loadCompressed(hash);
+    }
+
+    @Override
+    public List<ConfigHistoryDTO> getConfigHistory(String appName, String environment, String configKey, int limit) {
+        return historyDomain().getHistory(appName, environment, configKey, limit);
+    }
+
+    @Override
+    public NamespaceSnapshot getNamespaceSnapshotAt(String appName, String environment, long revision) {
+        return historyDomain().getSnapshotAt(appName, environment, revision);
+    }
+
+    @Override
+    public NamespaceSnapshot getNamespaceSnapshotAt(String appName, String environment, LocalDateTime time) {
+        return historyDomain().getSnapshotAt(appName, environment, time);
+    }
+
+    @Override
+    public RollbackResult rollbackNamespace(String appName, String environment, long revision) {
+        return configDomain.rollbackNamespace(appName, environment, revision);
+    }
+
+    @Override
+    public DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> watch(List<NamespaceVersion> namespaces) {
+        return longPollRegistry.watch(namespaces);
+    }
+
+    @Override
+    public SseEmitter subscribe(String appName, String environment) {
+        return changeStreamDispatcher.subscribe(appName, environment);
+    }
+
+    private ConfigHistoryDomain historyDomain() {
+        if (historyDomain == null) {
+            throw new BizException(ResultCode.NOT_SUPPORTED, "当前存储模式不保留配置历史");
+        }
+        return historyDomain;
+    }
+}
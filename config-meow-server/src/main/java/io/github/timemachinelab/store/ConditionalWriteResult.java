@@ -0,0 +1,12 @@
+package io.github.timemachinelab.store;
+
+import lombok.Value;
+
+/**
+ * 条件写入结果：分配的修订号及写入后的版本号
+ */
+@Value
+public class ConditionalWriteResult {
+    long revision;
+    int version;
+}
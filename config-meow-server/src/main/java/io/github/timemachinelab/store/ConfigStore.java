@@ -0,0 +1,113 @@
+package io.github.timemachinelab.store;
+
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.pojo.entity.ConfigItemDO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 配置存储
+ * 命名空间（应用名+环境）下当前配置的持久化与修订号分配，缓存、校验与变更通知由 ConfigDomain 负责。
+ * 默认实现 {@link JdbcConfigStore} 基于 config_item 表，写入时在调用方事务内记录历史并外置大配置值；
+ * standalone 环境下为 {@link MappedConfigStore}，以内存映射的追加日志持久化，不依赖数据库。
+ * 写入方法各自分配一个新修订号，同一命名空间的写入按修订号顺序生效；读取返回的实体归调用方所有，修改不影响存储。
+ */
+public interface ConfigStore {
+
+    /**
+     * 读取配置（含未激活）
+     * @param namespace 命名空间
+     * @param configKey 配置键
+     * @return 配置，不存在时返回null
+     */
+    ConfigItemDO get(NamespaceKey namespace, String configKey);
+
+    /**
+     * 读取多个配置（含未激活）
+     * @param namespace 命名空间
+     * @param configKeys 配置键
+     * @return 存在的配置，顺序不定
+     */
+    List<ConfigItemDO> getAll(NamespaceKey namespace, Collection<String> configKeys);
+
+    /**
+     * 读取命名空间下的配置，按配置键排序
+     * @param namespace 命名空间
+     * @param activeOnly 是否只返回激活的配置
+     * @return 配置
+     */
+    List<ConfigItemDO> list(NamespaceKey namespace, boolean activeOnly);
+
+    /**
+     * 按配置键顺序分页读取匹配的激活配置
+     * @param namespace 命名空间
+     * @param likePattern LIKE模式（反斜杠转义），为空时不过滤
+     * @param after 游标，只返回大于该配置键的配置，为空时从头开始
+     * @param limit 最多返回条数
+     * @return 配置
+     */
+    List<ConfigItemDO> page(NamespaceKey namespace, String likePattern, String after, int limit);
+
+    /**
+     * 按配置键顺序逐条处理匹配的配置，结果不在内存中累积；数据库实现须在事务内调用
+     * @param namespace 命名空间
+     * @param likePattern LIKE模式，为空时不过滤
+     * @param activeOnly 是否只处理激活的配置
+     * @param consumer 逐条处理
+     * @return 处理的配置数
+     */
+    long scan(NamespaceKey namespace, String likePattern, boolean activeOnly, Consumer<ConfigItemDO> consumer);
+
+    /**
+     * 插入或更新配置，已存在的配置只改写已提交（非空）的字段并递增版本号
+     * @param namespace 命名空间
+     * @param items 配置，配置键互不相同
+     * @return 修订号
+     */
+    long set(NamespaceKey namespace, List<ConfigItemDO> items);
+
+    /**
+     * 条件写入：当前版本等于期望版本时才写入，期望版本为0表示仅在不存在时创建
+     * @param namespace 命名空间
+     * @param item 配置
+     * @param expectedVersion 期望版本
+     * @return 修订号及写入后的版本号，版本不符时返回null，此时调用方须抛出异常回滚事务
+     */
+    ConditionalWriteResult compareAndSet(NamespaceKey namespace, ConfigItemDO item, int expectedVersion);
+
+    /**
+     * 条件删除：当前版本等于期望版本时才删除
+     * @param namespace 命名空间
+     * @param configKey 配置键
+     * @param expectedVersion 期望版本
+     * @return 修订号，版本不符或配置不存在时返回-1，此时调用方须抛出异常回滚事务
+     */
+    long compareAndDelete(NamespaceKey namespace, String configKey, int expectedVersion);
+
+    /**
+     * 删除配置（物理删除）
+     * @param namespace 命名空间
+     * @param configKeys 配置键
+     * @return 写入结果，deletedKeys 为实际存在并被删除的配置键，均不存在时修订号为0
+     */
+    WriteResult delete(NamespaceKey namespace, Collection<String> configKeys);
+
+    /**
+     * 把命名空间回滚到指定修订号时的状态
+     * @param namespace 命名空间
+     * @param targetRevision 目标修订号
+     * @return 写入结果
+     * @throws BizException 修订号超出范围、历史已被清理或存储不保留历史
+     */
+    WriteResult rollback(NamespaceKey namespace, long targetRevision);
+
+    /**
+     * 记录变更供其他节点同步，在写入的同一事务内调用；单机存储无需记录
+     * @param event 变更事件
+     */
+    void recordChange(ConfigChangeEvent event);
+}
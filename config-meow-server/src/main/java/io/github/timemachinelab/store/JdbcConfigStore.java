@@ -0,0 +1,310 @@
+package io.github.timemachinelab.store;
+
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.BatchProperties;
+import io.github.timemachinelab.domain.ChangeLogDomain;
+import io.github.timemachinelab.domain.ConfigBlobDomain;
+import io.github.timemachinelab.domain.ConfigHistoryDomain;
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.mapper.ConfigMapper;
+import io.github.timemachinelab.pojo.entity.ConfigHistoryDO;
+import io.github.timemachinelab.pojo.entity.ConfigItemDO;
+import io.github.timemachinelab.util.SnowflakeIdUtil;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * 基于 config_item 表的配置存储
+ * 写入须在调用方事务内进行：先递增命名空间修订号（持有命名空间行锁到事务结束），写入后在同一事务内记录历史；
+ * 超过阈值的配置值写入前外置到 config_blob，批量写入按块合并为多行语句。
+ */
+@Component
+@Profile("!standalone")
+public class JdbcConfigStore implements ConfigStore {
+
+    private final ConfigMapper configMapper;
+
+    private final ConfigHistoryDomain historyDomain;
+
+    private final ChangeLogDomain changeLogDomain;
+
+    private final ConfigBlobDomain blobDomain;
+
+    private final BatchProperties batchProperties;
+
+    public JdbcConfigStore(ConfigMapper configMapper, ConfigHistoryDomain historyDomain,
+                           ChangeLogDomain changeLogDomain, ConfigBlobDomain blobDomain,
+                           BatchProperties batchProperties) {
+        this.configMapper = configMapper;
+        this.historyDomain = historyDomain;
+        this.changeLogDomain = changeLogDomain;
+        this.blobDomain = blobDomain;
+        this.batchProperties = batchProperties;
+    }
+
+    @Override
+    public ConfigItemDO get(NamespaceKey namespace, String configKey) {
+        QueryWrapper<ConfigItemDO> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("app_name", namespace.getAppName())
+                   .eq("environment", namespace.getEnvironment())
+                   .eq("config_key", configKey);
+        return configMapper.selectOne(queryWrapper);
+    }
+
+    @Override
+    public List<ConfigItemDO> getAll(NamespaceKey namespace, Collection<String> configKeys) {
+        if (configKeys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        QueryWrapper<ConfigItemDO> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("app_name", namespace.getAppName())
+                   .eq("environment", namespace.getEnvironment())
+                   .in("config_key", configKeys);
+        return configMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * 走 idx_app_env 索引
+     */
+    @Override
+    public List<ConfigItemDO> list(NamespaceKey namespace, boolean activeOnly) {
+        QueryWrapper<ConfigItemDO> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("app_name", namespace.getAppName())
+                   .eq("environment", namespace.getEnvironment())
+                   .eq(activeOnly, "is_active", true)
+                   .orderByAsc("config_key");
+        return configMapper.selectList(queryWrapper);
+    }
+
+    @Override
+    public List<ConfigItemDO> page(NamespaceKey namespace, String likePattern, String after, int limit) {
+        return configMapper.selectByPattern(namespace.getAppName(), namespace.getEnvironment(), likePattern,
+                after, limit);
+    }
+
+    @Override
+    public long scan(NamespaceKey namespace, String likePattern, boolean activeOnly,
+                     Consumer<ConfigItemDO> consumer) {
+        long count = 0;
+        try (Cursor<ConfigItemDO> cursor = configMapper.scanByPattern(namespace.getAppName(),
+                namespace.getEnvironment(), likePattern, activeOnly)) {
+            for (ConfigItemDO row : cursor) {
+                consumer.accept(row);
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    /**
+     * 单条走 insertOrUpdate；多条时可选字段的空值分布决定SQL列清单，分布相同的条目按块合并到同一条语句
+     */
+    @Override
+    public long set(NamespaceKey namespace, List<ConfigItemDO> items) {
+        long revision = historyDomain.nextRevision(namespace);
+        int chunkSize = batchProperties.getChunkSize();
+        if (items.size() == 1) {
+            ConfigItemDO configItem = items.get(0);
+            blobDomain.externalize(configItem);
+            configMapper.insertOrUpdate(configItem);
+        } else {
+            Map<Integer, List<ConfigItemDO>> groups = new LinkedHashMap<>();
+            for (ConfigItemDO configItem : items) {
+                int signature = fieldSignature(configItem);
+                blobDomain.externalize(configItem);
+                groups.computeIfAbsent(signature, k -> new ArrayList<>()).add(configItem);
+            }
+            for (List<ConfigItemDO> group : groups.values()) {
+                for (int from = 0; from < group.size(); from += chunkSize) {
+                    configMapper.batchInsertOrUpdate(group.subList(from, Math.min(from + chunkSize, group.size())));
+                }
+            }
+        }
+        List<String> keys = new ArrayList<>(items.size());
+        for (ConfigItemDO configItem : items) {
+            keys.add(configItem.getConfigKey());
+        }
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            historyDomain.recordSet(namespace, revision, keys.subList(from, Math.min(from + chunkSize, keys.size())));
+        }
+        return revision;
+    }
+
+    /**
+     * 检查与写入由同一条语句完成，写入后的版本号即该语句写入的版本号：新建为1，更新为期望版本+1
+     */
+    @Override
+    public ConditionalWriteResult compareAndSet(NamespaceKey namespace, ConfigItemDO item, int expectedVersion) {
+        long revision = historyDomain.nextRevision(namespace);
+        blobDomain.externalize(item);
+        int written = expectedVersion == 0
+                ? insertIfAbsent(namespace, item)
+                : configMapper.updateIfVersion(item, expectedVersion);
+        if (written == 0) {
+            return null;
+        }
+        historyDomain.recordSet(namespace, revision, Collections.singletonList(item.getConfigKey()));
+        return new ConditionalWriteResult(revision, expectedVersion == 0 ? 1 : expectedVersion + 1);
+    }
+
+    @Override
+    public long compareAndDelete(NamespaceKey namespace, String configKey, int expectedVersion) {
+        long revision = historyDomain.nextRevision(namespace);
+        // 历史须在删除前记录，版本不符时随事务回滚
+        historyDomain.recordDelete(namespace, revision, Collections.singletonList(configKey));
+        if (configMapper.deleteIfVersion(namespace.getAppName(), namespace.getEnvironment(), configKey,
+                expectedVersion) == 0) {
+            return -1;
+        }
+        return revision;
+    }
+
+    /**
+     * 按块查询实际存在的配置，首个存在配置的块才分配修订号，全部不存在时不改变修订号
+     */
+    @Override
+    public WriteResult delete(NamespaceKey namespace, Collection<String> configKeys) {
+        int chunkSize = batchProperties.getChunkSize();
+        List<String> keys = new ArrayList<>(configKeys);
+        List<String> deleted = new ArrayList<>();
+        long revision = 0;
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            List<String> chunk = keys.subList(from, Math.min(from + chunkSize, keys.size()));
+            QueryWrapper<ConfigItemDO> existsWrapper = new QueryWrapper<>();
+            existsWrapper.select("config_key")
+                       .eq("app_name", namespace.getAppName())
+                       .eq("environment", namespace.getEnvironment())
+                       .in("config_key", chunk);
+            List<ConfigItemDO> existing = configMapper.selectList(existsWrapper);
+            if (existing.isEmpty()) {
+                continue;
+            }
+            if (revision == 0) {
+                revision = historyDomain.nextRevision(namespace);
+            }
+            List<String> existingKeys = new ArrayList<>(existing.size());
+            for (ConfigItemDO configItem : existing) {
+                existingKeys.add(configItem.getConfigKey());
+            }
+            historyDomain.recordDelete(namespace, revision, existingKeys);
+            deleteKeys(namespace, chunk);
+            deleted.addAll(existingKeys);
+        }
+        return WriteResult.deleted(revision, deleted);
+    }
+
+    /**
+     * 仅改写与目标状态不同的配置，目标状态中不存在的配置被删除；回滚本身产生一个新修订号并记录历史
+     */
+    @Override
+    public WriteResult rollback(NamespaceKey namespace, long targetRevision) {
+        long revision = historyDomain.nextRevision(namespace);
+        if (targetRevision >= revision) {
+            throw new BizException(ResultCode.PARAM_ERROR, "目标修订号须小于当前修订号" + revision);
+        }
+        List<ConfigHistoryDO> target = historyDomain.loadState(namespace, targetRevision);
+
+        Map<String, ConfigItemDO> current = new HashMap<>();
+        for (ConfigItemDO configItem : list(namespace, false)) {
+            current.put(configItem.getConfigKey(), configItem);
+        }
+
+        List<ConfigHistoryDO> changed = new ArrayList<>();
+        for (ConfigHistoryDO history : target) {
+            ConfigItemDO existing = current.remove(history.getConfigKey());
+            if (existing == null || !sameContent(existing, history)) {
+                changed.add(history);
+            }
+        }
+        List<String> removed = new ArrayList<>(current.keySet());
+
+        int chunkSize = batchProperties.getChunkSize();
+        long[] ids = SnowflakeIdUtil.generateIds(changed.size());
+        List<String> restored = new ArrayList<>(changed.size());
+        for (int from = 0; from < changed.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, changed.size());
+            List<ConfigItemDO> chunk = new ArrayList<>(to - from);
+            List<String> keys = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                chunk.add(ConfigItemDO.convert2DO(ConfigHistoryDomain.toItem(changed.get(i)), ids[i]));
+                keys.add(changed.get(i).getConfigKey());
+            }
+            configMapper.batchRestore(chunk);
+            historyDomain.recordSet(namespace, revision, keys);
+            restored.addAll(keys);
+        }
+        for (int from = 0; from < removed.size(); from += chunkSize) {
+            List<String> keys = removed.subList(from, Math.min(from + chunkSize, removed.size()));
+            historyDomain.recordDelete(namespace, revision, keys);
+            deleteKeys(namespace, keys);
+        }
+        return new WriteResult(revision, restored, removed);
+    }
+
+    @Override
+    public void recordChange(ConfigChangeEvent event) {
+        changeLogDomain.append(event);
+    }
+
+    /**
+     * 仅在配置已存在（违反 uk_app_env_key）时视为版本冲突；截断、非空约束、主键冲突等错误照常抛出
+     */
+    private int insertIfAbsent(NamespaceKey namespace, ConfigItemDO item) {
+        try {
+            return configMapper.insertIfAbsent(item);
+        } catch (DuplicateKeyException e) {
+            if (get(namespace, item.getConfigKey()) != null) {
+                return 0;
+            }
+            throw e;
+        }
+    }
+
+    private void deleteKeys(NamespaceKey namespace, List<String> configKeys) {
+        QueryWrapper<ConfigItemDO> deleteWrapper = new QueryWrapper<>();
+        deleteWrapper.eq("app_name", namespace.getAppName())
+                   .eq("environment", namespace.getEnvironment())
+                   .in("config_key", configKeys);
+        configMapper.delete(deleteWrapper);
+    }
+
+    /**
+     * 当前配置与历史记录的内容是否一致
+     */
+    private static boolean sameContent(ConfigItemDO configItem, ConfigHistoryDO history) {
+        return Objects.equals(configItem.getConfigValue(), history.getConfigValue())
+                && Objects.equals(configItem.getValueRef(), history.getValueRef())
+                && Objects.equals(configItem.getDescription(), history.getDescription())
+                && Objects.equals(configItem.getDataType(), history.getDataType())
+                && Objects.equals(configItem.getIsActive(), history.getIsActive());
+    }
+
+    /**
+     * 可选字段的空值分布签名，须在外置大配置值之前计算
+     */
+    private static int fieldSignature(ConfigItemDO configItem) {
+        return (configItem.getConfigValue() != null ? 1 : 0)
+                | (configItem.getDescription() != null ? 2 : 0)
+                | (configItem.getDataType() != null ? 4 : 0)
+                | (configItem.getIsActive() != null ? 8 : 0);
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.timemachinelab.store;
+
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.pojo.entity.ConfigItemDO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 单机存储的日志记录：一次写入在一个命名空间内产生的全部变更
+ * 写入的配置保存合并后的完整状态，重放时直接覆盖，与重放次数无关；快照文件中每个命名空间也是一条记录。
+ * 字符串以长度（-1表示null）加UTF-8字节编码，时间以UTC毫秒编码。
+ */
+final class LogEntry {
+
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    final long revision;
+
+    final NamespaceKey namespace;
+
+    final List<ConfigItemDO> puts;
+
+    final List<String> deletes;
+
+    LogEntry(long revision, NamespaceKey namespace, List<ConfigItemDO> puts, List<String> deletes) {
+        this.revision = revision;
+        this.namespace = namespace;
+        this.puts = puts;
+        this.deletes = deletes;
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 256 * puts.size() + 32 * deletes.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeLong(revision);
+            writeString(out, namespace.getAppName());
+            writeString(out, namespace.getEnvironment());
+            out.writeInt(puts.size());
+            for (ConfigItemDO item : puts) {
+                writeString(out, item.getId());
+                writeString(out, item.getConfigKey());
+                writeString(out, item.getConfigValue());
+                writeString(out, item.getDescription());
+                writeString(out, item.getDataType());
+                out.writeByte(item.getIsActive() == null ? -1 : item.getIsActive() ? 1 : 0);
+                writeString(out, item.getCreatedBy());
+                writeString(out, item.getUpdatedBy());
+                out.writeLong(toMillis(item.getCreatedTime()));
+                out.writeLong(toMillis(item.getUpdatedTime()));
+                out.writeInt(item.getVersion() == null ? 0 : item.getVersion());
+            }
+            out.writeInt(deletes.size());
+            for (String configKey : deletes) {
+                writeString(out, configKey);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static LogEntry decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        long revision = in.getLong();
+        String appName = readString(in);
+        String environment = readString(in);
+        int putCount = in.getInt();
+        List<ConfigItemDO> puts = new ArrayList<>(putCount);
+        for (int i = 0; i < putCount; i++) {
+            ConfigItemDO.ConfigItemDOBuilder builder = ConfigItemDO.builder()
+                    .appName(appName)
+                    .environment(environment)
+                    .id(readString(in))
+                    .configKey(readString(in))
+                    .configValue(readString(in))
+                    .description(readString(in))
+                    .dataType(readString(in));
+            byte active = in.get();
+            puts.add(builder
+                    .isActive(active < 0 ? null : active == 1)
+                    .createdBy(readString(in))
+                    .updatedBy(readString(in))
+                    .createdTime(fromMillis(in.getLong()))
+                    .updatedTime(fromMillis(in.getLong()))
+                    .version(in.getInt())
+                    .build());
+        }
+        int deleteCount = in.getInt();
+        List<String> deletes = deleteCount == 0 ? Collections.emptyList() : new ArrayList<>(deleteCount);
+        for (int i = 0; i < deleteCount; i++) {
+            deletes.add(readString(in));
+        }
+        return new LogEntry(revision, new NamespaceKey(appName, environment), puts, deletes);
+    }
+
+    static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? NULL_TIME : time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        if (millis == NULL_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+}
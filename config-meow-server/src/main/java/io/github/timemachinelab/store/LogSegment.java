@@ -0,0 +1,130 @@
+package io.github.timemachinelab.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * 内存映射的日志段文件
+ * 文件头为魔数与格式版本，之后依次为 [长度][CRC32][记录]，长度为0处即有效数据的结尾。
+ * 建段时按固定大小预分配（内容全为0），追加时先写记录与CRC、最后写长度；
+ * 进程崩溃时已写入映射区的数据由操作系统落盘，未完整落盘的末尾记录在重放时由CRC识别并丢弃。
+ * 只由持有写锁的线程追加，不是线程安全的。
+ */
+final class LogSegment implements Closeable {
+
+    static final int MAGIC = 0x434D4C47;
+
+    static final int FORMAT_VERSION = 1;
+
+    private static final int FILE_HEADER_BYTES = 8;
+
+    private static final int FRAME_HEADER_BYTES = 8;
+
+    final long generation;
+
+    final Path path;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private LogSegment(long generation, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.generation = generation;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * 新建日志段
+     * @param path 文件路径，不能已存在
+     * @param generation 段序号
+     * @param size 文件大小，上限为2GB
+     */
+    static LogSegment create(Path path, long generation, long size) throws IOException {
+        int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(size, FILE_HEADER_BYTES + FRAME_HEADER_BYTES));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+            buffer.force();
+            return new LogSegment(generation, path, channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 容纳一条记录所需的最小段大小
+     */
+    static long capacityFor(int payloadLength) {
+        return (long) FILE_HEADER_BYTES + FRAME_HEADER_BYTES + payloadLength;
+    }
+
+    /**
+     * 追加一条记录
+     * @return 段内剩余空间不足时返回false，此时不写入任何内容
+     */
+    boolean append(byte[] payload) {
+        int position = buffer.position();
+        if ((long) position + FRAME_HEADER_BYTES + payload.length > buffer.capacity()) {
+            return false;
+        }
+        // 长度暂为0，记录写完后再写入
+        buffer.putInt(0).putInt(LogEntry.crc(payload)).put(payload);
+        buffer.putInt(position, payload.length);
+        return true;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * 按顺序读取日志段中的有效记录，遇到结尾或损坏的记录时停止
+     * @param path 文件路径
+     * @param consumer 逐条处理记录
+     * @return 读取的记录数，文件头无效时返回-1
+     */
+    static int replay(Path path, Consumer<byte[]> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = Math.min(channel.size(), Integer.MAX_VALUE);
+            if (size < FILE_HEADER_BYTES) {
+                return -1;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return -1;
+            }
+            int count = 0;
+            while (buffer.remaining() >= FRAME_HEADER_BYTES) {
+                int length = buffer.getInt();
+                int crc = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                if (LogEntry.crc(payload) != crc) {
+                    break;
+                }
+                consumer.accept(payload);
+                count++;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,630 @@
+package io.github.timemachinelab.store;
+
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.StandaloneProperties;
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.pojo.entity.ConfigItemDO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * 单机配置存储（standalone 环境），不依赖数据库
+ * 全部配置驻留内存，按命名空间以有序跳表索引，读取无锁；写入串行执行，先追加到内存映射的日志段再更新索引，
+ * 每次写入在日志中是一条带CRC的完整记录，崩溃恢复时读取最新快照并按顺序重放其后的日志段。
+ * 日志条数超过阈值时把当前状态写成快照（临时文件刷盘后原子改名），随后删除快照之前的日志段与旧快照。
+ * 不保留配置历史（回滚不可用），不支持多节点共享同一数据目录，大配置值原样保存。
+ * 一条日志记录只属于一个命名空间，没有跨命名空间的事务：批量写入涉及多个命名空间时逐个命名空间生效，
+ * 中途失败不会撤销已写入的命名空间，崩溃恢复后同样只能看到其中一部分。
+ * 索引中的实体只由写入线程替换、从不修改，读取返回副本，调用方修改返回值不影响存储。
+ * 指标 config.store.items、config.store.log.entries、config.store.compactions。
+ */
+@Slf4j
+@Component
+@Profile("standalone")
+public class MappedConfigStore implements ConfigStore, MeterBinder, Closeable {
+
+    private static final String LOG_PREFIX = "config-";
+
+    private static final String LOG_SUFFIX = ".log";
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private static final int SNAPSHOT_MAGIC = 0x434D5350;
+
+    private final StandaloneProperties properties;
+
+    private final Path dataDir;
+
+    private final FileChannel lockChannel;
+
+    private final FileLock fileLock;
+
+    private final Map<NamespaceKey, ConcurrentSkipListMap<String, ConfigItemDO>> namespaces =
+            new ConcurrentHashMap<>();
+
+    private final Map<NamespaceKey, Long> revisions = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final Object compactionMonitor = new Object();
+
+    private final AtomicLong itemCount = new AtomicLong();
+
+    private final AtomicLong entriesSinceSnapshot = new AtomicLong();
+
+    private final AtomicLong compactions = new AtomicLong();
+
+    /**
+     * 当前日志段，由持有写锁的线程访问
+     */
+    private LogSegment segment;
+
+    private long nextGeneration;
+
+    public MappedConfigStore(StandaloneProperties properties) {
+        this.properties = properties;
+        this.dataDir = Paths.get(properties.getDataDir()).toAbsolutePath();
+        try {
+            Files.createDirectories(dataDir);
+            this.lockChannel = FileChannel.open(dataDir.resolve("LOCK"), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法打开数据目录: " + dataDir, e);
+        }
+        try {
+            this.fileLock = lockChannel.tryLock();
+            if (fileLock == null) {
+                throw new IllegalStateException("数据目录已被其他进程使用: " + dataDir);
+            }
+            recover();
+            this.segment = LogSegment.create(logPath(nextGeneration), nextGeneration, segmentSize());
+            nextGeneration++;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(lockChannel);
+            if (e instanceof IOException) {
+                throw new UncheckedIOException("恢复单机存储失败: " + dataDir, (IOException) e);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    @Override
+    public ConfigItemDO get(NamespaceKey namespace, String configKey) {
+        return copy(find(namespace, configKey));
+    }
+
+    @Override
+    public List<ConfigItemDO> getAll(NamespaceKey namespace, Collection<String> configKeys) {
+        NavigableMap<String, ConfigItemDO> items = namespaces.get(namespace);
+        if (items == null) {
+            return Collections.emptyList();
+        }
+        List<ConfigItemDO> result = new ArrayList<>(configKeys.size());
+        for (String configKey : configKeys) {
+            ConfigItemDO item = items.get(configKey);
+            if (item != null) {
+                result.add(copy(item));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<ConfigItemDO> list(NamespaceKey namespace, boolean activeOnly) {
+        NavigableMap<String, ConfigItemDO> items = namespaces.get(namespace);
+        if (items == null) {
+            return Collections.emptyList();
+        }
+        List<ConfigItemDO> result = new ArrayList<>();
+        for (ConfigItemDO item : items.values()) {
+            if (!activeOnly || Boolean.TRUE.equals(item.getIsActive())) {
+                result.add(copy(item));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<ConfigItemDO> page(NamespaceKey namespace, String likePattern, String after, int limit) {
+        List<ConfigItemDO> result = new ArrayList<>(Math.min(limit, 256));
+        forEachMatch(namespace, likePattern, after, true, item -> {
+            result.add(copy(item));
+            return result.size() < limit;
+        });
+        return result;
+    }
+
+    @Override
+    public long scan(NamespaceKey namespace, String likePattern, boolean activeOnly,
+                     Consumer<ConfigItemDO> consumer) {
+        long[] count = new long[1];
+        forEachMatch(namespace, likePattern, null, activeOnly, item -> {
+            consumer.accept(copy(item));
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    @Override
+    public long set(NamespaceKey namespace, List<ConfigItemDO> items) {
+        writeLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<ConfigItemDO> merged = new ArrayList<>(items.size());
+            for (ConfigItemDO item : items) {
+                merged.add(merge(find(namespace, item.getConfigKey()), item, now));
+            }
+            return append(namespace, merged, Collections.emptyList());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public ConditionalWriteResult compareAndSet(NamespaceKey namespace, ConfigItemDO item, int expectedVersion) {
+        writeLock.lock();
+        try {
+            ConfigItemDO existing = find(namespace, item.getConfigKey());
+            if (expectedVersion == 0 ? existing != null
+                    : existing == null || existing.getVersion() != expectedVersion) {
+                return null;
+            }
+            ConfigItemDO merged = merge(existing, item, LocalDateTime.now());
+            long revision = append(namespace, Collections.singletonList(merged), Collections.emptyList());
+            return new ConditionalWriteResult(revision, merged.getVersion());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public long compareAndDelete(NamespaceKey namespace, String configKey, int expectedVersion) {
+        writeLock.lock();
+        try {
+            ConfigItemDO existing = find(namespace, configKey);
+            if (existing == null || existing.getVersion() != expectedVersion) {
+                return -1;
+            }
+            return append(namespace, Collections.emptyList(), Collections.singletonList(configKey));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public WriteResult delete(NamespaceKey namespace, Collection<String> configKeys) {
+        writeLock.lock();
+        try {
+            List<String> existing = new ArrayList<>();
+            for (String configKey : new LinkedHashSet<>(configKeys)) {
+                if (find(namespace, configKey) != null) {
+                    existing.add(configKey);
+                }
+            }
+            if (existing.isEmpty()) {
+                return WriteResult.deleted(0, Collections.emptyList());
+            }
+            return WriteResult.deleted(append(namespace, Collections.emptyList(), existing), existing);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public WriteResult rollback(NamespaceKey namespace, long targetRevision) {
+        throw new BizException(ResultCode.NOT_SUPPORTED, "单机存储不保留配置历史，无法回滚");
+    }
+
+    /**
+     * 单节点部署，变更由本节点的事件监听者直接处理
+     */
+    @Override
+    public void recordChange(ConfigChangeEvent event) {
+    }
+
+    /**
+     * 上次快照后的日志条数达到阈值时压缩
+     */
+    @Scheduled(initialDelayString = "#{@standaloneProperties.compactionInterval.toMillis()}",
+               fixedDelayString = "#{@standaloneProperties.compactionInterval.toMillis()}")
+    public void compactIfNeeded() {
+        if (entriesSinceSnapshot.get() < Math.max(properties.getCompactionMinRecords(), itemCount.get())) {
+            return;
+        }
+        try {
+            compact();
+        } catch (Exception e) {
+            log.error("单机存储压缩失败", e);
+        }
+    }
+
+    /**
+     * 把当前状态写成快照，并删除快照之前的日志段与旧快照
+     * 切换日志段与复制索引在写锁内完成，写快照文件期间不阻塞写入
+     */
+    public void compact() {
+        synchronized (compactionMonitor) {
+            long generation;
+            long replaced;
+            List<LogEntry> state = new ArrayList<>(revisions.size());
+            writeLock.lock();
+            try {
+                rotate(0);
+                generation = segment.generation;
+                for (Map.Entry<NamespaceKey, Long> entry : revisions.entrySet()) {
+                    NamespaceKey namespace = entry.getKey();
+                    state.add(new LogEntry(entry.getValue(), namespace,
+                            new ArrayList<>(namespaces.get(namespace).values()), Collections.emptyList()));
+                }
+                replaced = entriesSinceSnapshot.getAndSet(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                writeLock.unlock();
+            }
+            try {
+                writeSnapshot(generation, state);
+            } catch (IOException | RuntimeException e) {
+                entriesSinceSnapshot.addAndGet(replaced);
+                if (e instanceof IOException) {
+                    throw new UncheckedIOException((IOException) e);
+                }
+                throw (RuntimeException) e;
+            }
+            deleteBefore(generation);
+            compactions.incrementAndGet();
+            log.info("单机存储压缩完成 snapshot={} namespaces={} replacedEntries={}", generation, state.size(),
+                    replaced);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            segment.close();
+        } finally {
+            writeLock.unlock();
+            fileLock.release();
+            lockChannel.close();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("config.store.items", itemCount, AtomicLong::get)
+                .description("单机存储中的配置数").register(registry);
+        Gauge.builder("config.store.log.entries", entriesSinceSnapshot, AtomicLong::get)
+                .description("上次快照后的日志条数").register(registry);
+        FunctionCounter.builder("config.store.compactions", compactions, AtomicLong::get)
+                .description("压缩次数").register(registry);
+    }
+
+    /**
+     * 读取索引中的实体，不复制，仅供内部使用
+     */
+    private ConfigItemDO find(NamespaceKey namespace, String configKey) {
+        NavigableMap<String, ConfigItemDO> items = namespaces.get(namespace);
+        return items == null ? null : items.get(configKey);
+    }
+
+    private static ConfigItemDO copy(ConfigItemDO item) {
+        return item == null ? null : item.toBuilder().build();
+    }
+
+    /**
+     * 写入日志并更新索引，须持有写锁
+     * 日志写入失败时索引不变
+     */
+    private long append(NamespaceKey namespace, List<ConfigItemDO> puts, List<String> deletes) {
+        long revision = revisions.getOrDefault(namespace, 0L) + 1;
+        LogEntry entry = new LogEntry(revision, namespace, puts, deletes);
+        byte[] payload = entry.encode();
+        try {
+            if (!segment.append(payload)) {
+                rotate(payload.length);
+                segment.append(payload);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入单机存储日志失败", e);
+        }
+        if (properties.isForceOnWrite()) {
+            segment.force();
+        }
+        apply(entry);
+        entriesSinceSnapshot.incrementAndGet();
+        return revision;
+    }
+
+    private void apply(LogEntry entry) {
+        NavigableMap<String, ConfigItemDO> items = namespaces.computeIfAbsent(entry.namespace,
+                k -> new ConcurrentSkipListMap<>());
+        for (ConfigItemDO item : entry.puts) {
+            if (items.put(item.getConfigKey(), item) == null) {
+                itemCount.incrementAndGet();
+            }
+        }
+        for (String configKey : entry.deletes) {
+            if (items.remove(configKey) != null) {
+                itemCount.decrementAndGet();
+            }
+        }
+        revisions.merge(entry.namespace, entry.revision, Math::max);
+    }
+
+    /**
+     * 与 insertOrUpdate 语义一致：新建时补齐默认值，更新时只改写已提交（非空）的字段并递增版本号
+     */
+    private static ConfigItemDO merge(ConfigItemDO existing, ConfigItemDO item, LocalDateTime now) {
+        if (existing == null) {
+            return item.toBuilder()
+                    .valueRef(null)
+                    .dataType(item.getDataType() != null ? item.getDataType() : "string")
+                    .isActive(item.getIsActive() != null ? item.getIsActive() : Boolean.TRUE)
+                    .createdTime(now)
+                    .updatedTime(now)
+                    .version(1)
+                    .build();
+        }
+        ConfigItemDO.ConfigItemDOBuilder builder = existing.toBuilder()
+                .updatedBy(item.getUpdatedBy())
+                .updatedTime(now)
+                .version(existing.getVersion() + 1);
+        if (item.getConfigValue() != null) {
+            builder.configValue(item.getConfigValue());
+        }
+        if (item.getDescription() != null) {
+            builder.description(item.getDescription());
+        }
+        if (item.getDataType() != null) {
+            builder.dataType(item.getDataType());
+        }
+        if (item.getIsActive() != null) {
+            builder.isActive(item.getIsActive());
+        }
+        return builder.build();
+    }
+
+    /**
+     * 按配置键顺序遍历匹配的配置：LIKE模式的固定前缀转换为范围扫描，其余部分按正则匹配
+     * @param visitor 返回false时停止遍历
+     */
+    private void forEachMatch(NamespaceKey namespace, String likePattern, String after, boolean activeOnly,
+                              Predicate<ConfigItemDO> visitor) {
+        ConcurrentSkipListMap<String, ConfigItemDO> items = namespaces.get(namespace);
+        if (items == null) {
+            return;
+        }
+        StringBuilder prefix = new StringBuilder();
+        Pattern regex = likePattern == null ? null : toRegex(likePattern, prefix);
+        String start = prefix.toString();
+        NavigableMap<String, ConfigItemDO> range = after != null && after.compareTo(start) >= 0
+                ? items.tailMap(after, false) : items.tailMap(start, true);
+        for (Map.Entry<String, ConfigItemDO> entry : range.entrySet()) {
+            String configKey = entry.getKey();
+            if (!configKey.startsWith(start)) {
+                break;
+            }
+            ConfigItemDO item = entry.getValue();
+            if (activeOnly && !Boolean.TRUE.equals(item.getIsActive())) {
+                continue;
+            }
+            if (regex != null && !regex.matcher(configKey).matches()) {
+                continue;
+            }
+            if (!visitor.test(item)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 把LIKE模式（反斜杠转义）转换为正则
+     * @param prefix 输出模式开头的固定前缀
+     * @return 正则，模式只是“前缀%”时返回null
+     */
+    static Pattern toRegex(String likePattern, StringBuilder prefix) {
+        StringBuilder regex = new StringBuilder(likePattern.length() + 8);
+        boolean literal = true;
+        boolean prefixOnly = false;
+        for (int i = 0; i < likePattern.length(); i++) {
+            char c = likePattern.charAt(i);
+            if (c == '\\' && i + 1 < likePattern.length()) {
+                c = likePattern.charAt(++i);
+            } else if (c == '%' || c == '_') {
+                prefixOnly = literal && c == '%' && i == likePattern.length() - 1;
+                literal = false;
+                regex.append(c == '%' ? ".*" : ".");
+                continue;
+            }
+            if (literal) {
+                prefix.append(c);
+            }
+            if (!Character.isLetterOrDigit(c)) {
+                regex.append('\\');
+            }
+            regex.append(c);
+        }
+        return prefixOnly ? null : Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private void recover() throws IOException {
+        TreeMap<Long, Path> logs = new TreeMap<>();
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dataDir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TMP_SUFFIX)) {
+                    // 压缩中途退出留下的快照临时文件
+                    Files.delete(file);
+                } else if (name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX)) {
+                    logs.put(parseGeneration(name, LOG_PREFIX, LOG_SUFFIX), file);
+                } else if (name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)) {
+                    snapshots.put(parseGeneration(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX), file);
+                }
+            }
+        }
+        long snapshotGeneration = 0;
+        if (!snapshots.isEmpty()) {
+            snapshotGeneration = snapshots.lastKey();
+            readSnapshot(snapshots.lastEntry().getValue());
+        }
+        long replayed = 0;
+        for (Path file : logs.tailMap(snapshotGeneration, true).values()) {
+            int count = LogSegment.replay(file, payload -> apply(LogEntry.decode(payload)));
+            if (count < 0) {
+                throw new IllegalStateException("日志段文件头无效: " + file);
+            }
+            if (count == 0) {
+                // 未写入过的段（如重启后未发生写入）
+                Files.delete(file);
+            }
+            replayed += count;
+        }
+        entriesSinceSnapshot.set(replayed);
+        long maxGeneration = Math.max(logs.isEmpty() ? 0 : logs.lastKey(), snapshotGeneration);
+        this.nextGeneration = maxGeneration + 1;
+        deleteBefore(snapshotGeneration);
+        log.info("单机存储恢复完成 dir={} snapshot={} replayedEntries={} items={}", dataDir, snapshotGeneration,
+                replayed, itemCount.get());
+    }
+
+    private void readSnapshot(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 65536))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != LogSegment.FORMAT_VERSION) {
+                throw new IllegalStateException("快照文件头无效: " + path);
+            }
+            int length;
+            while ((length = in.readInt()) != 0) {
+                int crc = in.readInt();
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                if (LogEntry.crc(payload) != crc) {
+                    throw new IllegalStateException("快照文件已损坏: " + path);
+                }
+                apply(LogEntry.decode(payload));
+            }
+        }
+    }
+
+    private void writeSnapshot(long generation, List<LogEntry> state) throws IOException {
+        Path target = dataDir.resolve(SNAPSHOT_PREFIX + generation + SNAPSHOT_SUFFIX);
+        Path tmp = dataDir.resolve(target.getFileName() + TMP_SUFFIX);
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 65536))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(LogSegment.FORMAT_VERSION);
+            for (LogEntry entry : state) {
+                byte[] payload = entry.encode();
+                out.writeInt(payload.length);
+                out.writeInt(LogEntry.crc(payload));
+                out.write(payload);
+            }
+            out.writeInt(0);
+            out.flush();
+            file.getChannel().force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * 删除序号小于指定快照的日志段与快照，删除失败不影响正确性，下次压缩时重试
+     */
+    private void deleteBefore(long generation) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dataDir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long fileGeneration;
+                if (name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX)) {
+                    fileGeneration = parseGeneration(name, LOG_PREFIX, LOG_SUFFIX);
+                } else if (name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)) {
+                    fileGeneration = parseGeneration(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+                } else {
+                    continue;
+                }
+                if (fileGeneration < generation) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("删除已被快照覆盖的文件失败 dir={}", dataDir, e);
+        }
+    }
+
+    /**
+     * 切换到新的日志段，须持有写锁
+     * @param payloadLength 新段须能容纳的记录大小
+     */
+    private void rotate(int payloadLength) throws IOException {
+        segment.close();
+        long generation = nextGeneration++;
+        segment = LogSegment.create(logPath(generation), generation,
+                Math.max(segmentSize(), LogSegment.capacityFor(payloadLength)));
+    }
+
+    private long segmentSize() {
+        return properties.getSegmentSize().toBytes();
+    }
+
+    private Path logPath(long generation) {
+        return dataDir.resolve(LOG_PREFIX + generation + LOG_SUFFIX);
+    }
+
+    private static long parseGeneration(String name, String prefix, String suffix) {
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // 启动失败时的清理
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.timemachinelab.store;
+
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 存储写入结果：分配的修订号及写入、删除的配置键
+ */
+@Value
+public class WriteResult {
+    long revision;
+    List<String> setKeys;
+    List<String> deletedKeys;
+
+    public static WriteResult deleted(long revision, List<String> deletedKeys) {
+        return new WriteResult(revision, Collections.emptyList(), deletedKeys);
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.timemachinelab.task;
+
+import io.github.timemachinelab.config.WarmupProperties;
+import io.github.timemachinelab.domain.LayeredConfigDomain;
+import io.github.timemachinelab.mapper.NamespaceMapper;
+import io.github.timemachinelab.pojo.entity.ConfigNamespaceDO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动预热
+ * 在 ApplicationRunner 阶段把命名空间并行加载到缓存：命名空间按修订号从高到低排列后交错分给各线程，
+ * 每个线程逐个按 idx_app_env 索引加载。Spring Boot 在全部 ApplicationRunner 执行完后才把就绪状态置为
+ * ACCEPTING_TRAFFIC，因此预热完成（或超时）前 /actuator/health/readiness 报告未就绪，负载均衡不会导入流量。
+ */
+@Slf4j
+@Component
+@Profile("!standalone")
+public class CacheWarmupRunner implements ApplicationRunner, MeterBinder {
+
+    private final LayeredConfigDomain layeredDomain;
+
+    private final NamespaceMapper namespaceMapper;
+
+    private final WarmupProperties warmupProperties;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicInteger loadedCount = new AtomicInteger();
+
+    private volatile long durationMillis;
+
+    public CacheWarmupRunner(LayeredConfigDomain layeredDomain, NamespaceMapper namespaceMapper,
+                             WarmupProperties warmupProperties, ApplicationEventPublisher eventPublisher) {
+        this.layeredDomain = layeredDomain;
+        this.namespaceMapper = namespaceMapper;
+        this.warmupProperties = warmupProperties;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!warmupProperties.isEnabled()) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        long start = System.nanoTime();
+        try {
+            warmUp();
+        } catch (Exception e) {
+            // 预热失败不影响启动，未加载的命名空间在首次读取时加载
+            log.warn("缓存预热失败", e);
+        } finally {
+            durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        log.info("缓存预热结束，加载命名空间{}个，耗时{}ms", loadedCount.get(), durationMillis);
+    }
+
+    private void warmUp() throws InterruptedException {
+        List<ConfigNamespaceDO> namespaces = namespaceMapper.selectWarmupNamespaces(warmupProperties.getMaxNamespaces());
+        if (namespaces.isEmpty()) {
+            return;
+        }
+        int parallelism = Math.max(1, Math.min(warmupProperties.getParallelism(), namespaces.size()));
+        List<Callable<Void>> partitions = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            int partition = i;
+            partitions.add(() -> {
+                for (int j = partition; j < namespaces.size() && !Thread.currentThread().isInterrupted();
+                     j += parallelism) {
+                    load(namespaces.get(j));
+                }
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                new CustomizableThreadFactory("config-warmup-"));
+        try {
+            // 超时后未完成的分区被取消
+            executor.invokeAll(partitions, warmupProperties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (loadedCount.get() < namespaces.size()) {
+            log.warn("缓存预热未全部完成，已加载{}/{}个命名空间", loadedCount.get(), namespaces.size());
+        }
+    }
+
+    private void load(ConfigNamespaceDO namespace) {
+        try {
+            layeredDomain.preload(namespace.getAppName(), namespace.getEnvironment());
+            loadedCount.incrementAndGet();
+        } catch (Exception e) {
+            log.warn("预热命名空间失败, namespace={}/{}", namespace.getAppName(), namespace.getEnvironment(), e);
+        }
+    }
+
+    /**
+     * 注册预热指标 config.warmup.duration、config.warmup.namespaces
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("config.warmup.duration", this, TimeUnit.MILLISECONDS, runner -> runner.durationMillis)
+                .description("启动预热耗时")
+                .register(registry);
+        Gauge.builder("config.warmup.namespaces", loadedCount, AtomicInteger::get)
+                .description("启动预热加载的命名空间数")
+                .register(registry);
+    }
+}
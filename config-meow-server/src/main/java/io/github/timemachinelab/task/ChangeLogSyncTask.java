@@ -0,0 +1,153 @@
+package io.github.timemachinelab.task;
+
+import io.github.timemachinelab.config.SyncProperties;
+import io.github.timemachinelab.domain.ChangeLogDomain;
+import io.github.timemachinelab.domain.ConfigDomain;
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.pojo.entity.ConfigChangeLogDO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多节点变更同步
+ * 按序号增量拉取 config_change_log，把其他节点写入的变更应用到本节点（失效缓存、通知长轮询与SSE订阅者）。
+ * 自增序号在插入时分配而非提交时，序号较小的事务可能晚提交，读到的序号不连续时把缺失的序号记为空洞，
+ * 之后每次拉取时补查，超过 gapTimeout 仍未出现则视为事务已回滚。
+ */
+@Slf4j
+@Component
+@Profile("!standalone")
+public class ChangeLogSyncTask implements MeterBinder {
+
+    private final ChangeLogDomain changeLogDomain;
+
+    private final ConfigDomain configDomain;
+
+    private final SyncProperties syncProperties;
+
+    // 已读取的最大序号，-1表示尚未初始化
+    private long lastSeq = -1;
+
+    // 空洞序号 -> 放弃等待的时间点
+    private final Map<Long, Long> gaps = new TreeMap<>();
+
+    private final LongAdder appliedCount = new LongAdder();
+
+    public ChangeLogSyncTask(ChangeLogDomain changeLogDomain, ConfigDomain configDomain,
+                             SyncProperties syncProperties) {
+        this.changeLogDomain = changeLogDomain;
+        this.configDomain = configDomain;
+        this.syncProperties = syncProperties;
+    }
+
+    @Scheduled(fixedDelayString = "#{@syncProperties.pollInterval.toMillis()}")
+    public synchronized void poll() {
+        if (!syncProperties.isEnabled()) {
+            return;
+        }
+        try {
+            if (lastSeq < 0) {
+                lastSeq = changeLogDomain.startSeq();
+                log.info("开始同步配置变更日志，起始序号{}", lastSeq);
+            }
+            fillGaps();
+            int batchSize = syncProperties.getBatchSize();
+            List<ConfigChangeLogDO> changes;
+            do {
+                changes = changeLogDomain.fetchAfter(lastSeq, batchSize);
+                for (ConfigChangeLogDO change : changes) {
+                    trackGaps(change.getSeq());
+                    apply(change);
+                    lastSeq = change.getSeq();
+                }
+            } while (changes.size() >= batchSize);
+        } catch (Exception e) {
+            log.warn("同步配置变更日志失败，下次拉取时重试", e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "#{@syncProperties.purgeInterval.toMillis()}",
+               fixedDelayString = "#{@syncProperties.purgeInterval.toMillis()}")
+    public void purge() {
+        if (!syncProperties.isEnabled()) {
+            return;
+        }
+        long removed = changeLogDomain.purge();
+        log.debug("配置变更日志清理完成，删除{}行", removed);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("config.sync.applied", appliedCount, LongAdder::sum)
+                .description("已应用的其他节点变更数")
+                .register(registry);
+        Gauge.builder("config.sync.gaps", this, ChangeLogSyncTask::gapCount)
+                .description("等待中的变更日志序号空洞数")
+                .register(registry);
+    }
+
+    private synchronized int gapCount() {
+        return gaps.size();
+    }
+
+    /**
+     * 补查此前的空洞，已提交的按原样应用，超时的放弃
+     */
+    private void fillGaps() {
+        if (gaps.isEmpty()) {
+            return;
+        }
+        List<Long> missing = new ArrayList<>(gaps.keySet());
+        int batchSize = syncProperties.getBatchSize();
+        for (int from = 0; from < missing.size(); from += batchSize) {
+            for (ConfigChangeLogDO change : changeLogDomain.fetchIn(
+                    missing.subList(from, Math.min(from + batchSize, missing.size())))) {
+                gaps.remove(change.getSeq());
+                apply(change);
+            }
+        }
+        long now = System.currentTimeMillis();
+        Iterator<Long> deadlines = gaps.values().iterator();
+        while (deadlines.hasNext()) {
+            if (deadlines.next() <= now) {
+                deadlines.remove();
+            }
+        }
+    }
+
+    private void trackGaps(long seq) {
+        long deadline = System.currentTimeMillis() + syncProperties.getGapTimeout().toMillis();
+        int maxTrackedGaps = syncProperties.getMaxTrackedGaps();
+        for (long missing = lastSeq + 1; missing < seq; missing++) {
+            if (gaps.size() >= maxTrackedGaps) {
+                log.warn("变更日志序号空洞过多，放弃跟踪序号{}至{}", missing, seq - 1);
+                break;
+            }
+            gaps.put(missing, deadline);
+        }
+    }
+
+    private void apply(ConfigChangeLogDO change) {
+        if (changeLogDomain.getNodeId().equals(change.getNodeId())) {
+            // 本节点的变更已在写入时处理
+            return;
+        }
+        configDomain.applyRemoteChange(new ConfigChangeEvent(change.getAppName(), change.getEnvironment(),
+                change.getConfigKey(), ConfigChangeEvent.ChangeType.valueOf(change.getOpType()),
+                change.getRevision()));
+        appliedCount.increment();
+    }
+}
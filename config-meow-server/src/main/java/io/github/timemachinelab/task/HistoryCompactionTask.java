@@ -0,0 +1,48 @@
+package io.github.timemachinelab.task;
+
+import io.github.timemachinelab.config.HistoryProperties;
+import io.github.timemachinelab.domain.ConfigBlobDomain;
+import io.github.timemachinelab.domain.ConfigHistoryDomain;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 配置历史定时清理，历史清理后回收不再被引用的大配置值
+ * 多实例部署时各实例都会执行，清理操作幂等
+ */
+@Slf4j
+@Component
+@Profile("!standalone")
+public class HistoryCompactionTask {
+
+    private final ConfigHistoryDomain historyDomain;
+
+    private final HistoryProperties historyProperties;
+
+    private final ConfigBlobDomain blobDomain;
+
+    public HistoryCompactionTask(ConfigHistoryDomain historyDomain, HistoryProperties historyProperties,
+                                 ConfigBlobDomain blobDomain) {
+        this.historyDomain = historyDomain;
+        this.historyProperties = historyProperties;
+        this.blobDomain = blobDomain;
+    }
+
+    @Scheduled(initialDelayString = "#{@historyProperties.compactionInterval.toMillis()}",
+               fixedDelayString = "#{@historyProperties.compactionInterval.toMillis()}")
+    public void compact() {
+        if (!historyProperties.isCompactionEnabled()) {
+            return;
+        }
+        long removed = historyDomain.compact();
+        log.debug("配置历史清理完成，删除{}行", removed);
+        try {
+            long purged = blobDomain.purge();
+            log.debug("大配置值回收完成，删除{}条", purged);
+        } catch (Exception e) {
+            log.error("回收大配置值失败", e);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package io.github.timemachinelab.transfer;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+/**
+ * 配置项的流式编解码
+ * 写出时逐条编码，读取时逐条解析后交给回调，内存占用与配置数无关
+ * ndjson 每行一个配置项；yaml 为配置项序列；properties 为 key=value，转义规则与 java.util.Properties 一致，按UTF-8编码
+ */
+@Component
+public class ConfigCodec {
+
+    private final ObjectMapper jsonMapper;
+
+    private final ObjectMapper yamlMapper;
+
+    public ConfigCodec(Jackson2ObjectMapperBuilder builder) {
+        this.jsonMapper = builder.build();
+        this.jsonMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.yamlMapper = builder.createXmlMapper(false).factory(new YAMLFactory()).build();
+        this.yamlMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    /**
+     * 打开写出器，调用方负责在写完后调用 finish（不关闭输出流）
+     * @param format 格式
+     * @param out 输出流
+     * @return 写出器
+     */
+    public ItemWriter open(ConfigFormat format, OutputStream out) throws IOException {
+        switch (format) {
+            case NDJSON:
+                return new NdjsonWriter(out);
+            case YAML:
+                return new YamlWriter(out);
+            case PROPERTIES:
+                return new PropertiesWriter(out);
+            default:
+                throw new IllegalArgumentException("不支持的格式: " + format);
+        }
+    }
+
+    /**
+     * 逐条解析配置项
+     * @param format 格式
+     * @param in 输入流（不关闭）
+     * @param consumer 逐条处理
+     * @return 解析的配置项数
+     * @throws IOException 读取失败或内容不符合格式
+     */
+    public long read(ConfigFormat format, InputStream in, Consumer<ConfigItemDTO> consumer) throws IOException {
+        switch (format) {
+            case NDJSON:
+                return readValues(jsonMapper, in, consumer);
+            case YAML:
+                return readValues(yamlMapper, in, consumer);
+            case PROPERTIES:
+                return readProperties(in, consumer);
+            default:
+                throw new IllegalArgumentException("不支持的格式: " + format);
+        }
+    }
+
+    private static long readValues(ObjectMapper mapper, InputStream in, Consumer<ConfigItemDTO> consumer)
+            throws IOException {
+        ObjectReader reader = mapper.readerFor(ConfigItemDTO.class)
+                .without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        long count = 0;
+        // 根节点为数组或序列时逐个读取其元素，否则读取以空白分隔的多个根值
+        try (MappingIterator<ConfigItemDTO> iterator = reader.readValues(in)) {
+            while (iterator.hasNextValue()) {
+                ConfigItemDTO item = iterator.nextValue();
+                if (item != null) {
+                    consumer.accept(item);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static long readProperties(InputStream in, Consumer<ConfigItemDTO> consumer) throws IOException {
+        long[] count = {0};
+        // Properties.load 每解析出一条就调用一次 put，拦截后不在Map中保留
+        Properties streaming = new Properties() {
+            @Override
+            public synchronized Object put(Object key, Object value) {
+                consumer.accept(ConfigItemDTO.builder()
+                        .configKey((String) key)
+                        .configValue((String) value)
+                        .build());
+                count[0]++;
+                return null;
+            }
+        };
+        streaming.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return count[0];
+    }
+
+    /**
+     * 配置项写出器
+     */
+    public interface ItemWriter {
+
+        void write(ConfigItemDTO item) throws IOException;
+
+        /**
+         * 写出剩余内容并刷新，不关闭输出流
+         */
+        void finish() throws IOException;
+    }
+
+    private final class NdjsonWriter implements ItemWriter {
+        private final OutputStream out;
+        private final ObjectWriter writer;
+
+        private NdjsonWriter(OutputStream out) {
+            this.out = out;
+            this.writer = jsonMapper.writerFor(ConfigItemDTO.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(ConfigItemDTO item) throws IOException {
+            writer.writeValue(out, item);
+            out.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.flush();
+        }
+    }
+
+    private final class YamlWriter implements ItemWriter {
+        private final SequenceWriter writer;
+
+        private YamlWriter(OutputStream out) throws IOException {
+            this.writer = yamlMapper.writerFor(ConfigItemDTO.class)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .writeValuesAsArray(out);
+        }
+
+        @Override
+        public void write(ConfigItemDTO item) throws IOException {
+            writer.write(item);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static final class PropertiesWriter implements ItemWriter {
+        private final Writer writer;
+
+        private PropertiesWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void write(ConfigItemDTO item) throws IOException {
+            if (Boolean.FALSE.equals(item.getIsActive())) {
+                return;
+            }
+            if (item.getDescription() != null) {
+                writer.write("# ");
+                writer.write(item.getDescription().replace('\n', ' ').replace('\r', ' '));
+                writer.write('\n');
+            }
+            escape(writer, item.getConfigKey(), true);
+            writer.write('=');
+            escape(writer, item.getConfigValue() == null ? "" : item.getConfigValue(), false);
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        /**
+         * 与 Properties.store 相同的转义（非ASCII字符按UTF-8原样写出）
+         */
+        private static void escape(Writer writer, String value, boolean key) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case ' ':
+                        if (i == 0 || key) {
+                            writer.write('\\');
+                        }
+                        writer.write(' ');
+                        break;
+                    case '\t':
+                        writer.write("\\t");
+                        break;
+                    case '\n':
+                        writer.write("\\n");
+                        break;
+                    case '\r':
+                        writer.write("\\r");
+                        break;
+                    case '\f':
+                        writer.write("\\f");
+                        break;
+                    case '\\':
+                    case '=':
+                    case ':':
+                    case '#':
+                    case '!':
+                        writer.write('\\');
+                        writer.write(c);
+                        break;
+                    default:
+                        writer.write(c);
+                }
+            }
+        }
+    }
+}
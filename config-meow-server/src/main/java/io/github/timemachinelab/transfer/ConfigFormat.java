@@ -0,0 +1,50 @@
+package io.github.timemachinelab.transfer;
+
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 命名空间导入导出格式
+ * ndjson、yaml 携带配置项全部字段；properties 只携带配置键与配置值，导出时跳过未激活的配置
+ */
+public enum ConfigFormat {
+
+    NDJSON("ndjson", MediaType.APPLICATION_NDJSON),
+    PROPERTIES("properties", new MediaType("text", "plain", StandardCharsets.UTF_8)),
+    YAML("yaml", new MediaType("application", "x-yaml", StandardCharsets.UTF_8));
+
+    private final String code;
+
+    private final MediaType mediaType;
+
+    ConfigFormat(String code, MediaType mediaType) {
+        this.code = code;
+        this.mediaType = mediaType;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * 按格式名查找
+     * @param code 格式名，不区分大小写
+     * @return 格式，不支持时返回null
+     */
+    public static ConfigFormat of(String code) {
+        if (code == null) {
+            return null;
+        }
+        for (ConfigFormat format : values()) {
+            if (format.code.equalsIgnoreCase(code)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,297 @@
+package io.github.timemachinelab.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * 雪花算法ID生成器
+ * 64位ID结构：1位符号位 + 41位时间戳 + 10位机器ID + 12位序列号
+ * 时间戳与序列号打包在同一个 AtomicLong 中，通过CAS无锁推进；
+ * 同一毫秒序列号耗尽时借用下一毫秒，时钟在容忍窗口内回拨时沿用上次时间戳继续递增。
+ */
+@Slf4j
+public class SnowflakeIdUtil {
+
+    // 起始时间戳 (2023-01-01 00:00:00)
+    private static final long START_TIMESTAMP = 1672531200000L;
+
+    // 机器ID位数
+    private static final long MACHINE_ID_BITS = 10L;
+
+    // 序列号位数
+    private static final long SEQUENCE_BITS = 12L;
+
+    // 机器ID最大值
+    private static final long MAX_MACHINE_ID = ~(-1L << MACHINE_ID_BITS);
+
+    // 序列号最大值
+    private static final long MAX_SEQUENCE = ~(-1L << SEQUENCE_BITS);
+
+    // 机器ID左移位数
+    private static final long MACHINE_ID_SHIFT = SEQUENCE_BITS;
+
+    // 时间戳左移位数
+    private static final long TIMESTAMP_SHIFT = SEQUENCE_BITS + MACHINE_ID_BITS;
+
+    // 默认时钟回拨容忍窗口（毫秒）
+    private static final long DEFAULT_MAX_BACKWARD_MILLIS = 5000L;
+
+    // 机器ID
+    private final long machineId;
+
+    // 时钟回拨容忍窗口，同时也是序列号耗尽时逻辑时间允许领先系统时间的上限
+    private final long maxBackwardMillis;
+
+    // 时间源
+    private final LongSupplier clock;
+
+    // 上次使用的时间戳（相对起始时间）<< SEQUENCE_BITS | 上次使用的序列号
+    private final AtomicLong state = new AtomicLong(-1L << SEQUENCE_BITS | MAX_SEQUENCE);
+
+    // 序列号耗尽（借用下一毫秒或等待）次数
+    private final LongAdder sequenceExhaustedCount = new LongAdder();
+
+    // 时钟回拨超出容忍窗口而拒绝生成的次数
+    private final LongAdder clockBackwardCount = new LongAdder();
+
+    /**
+     * 构造函数
+     * @param machineId 机器ID (0-1023)
+     */
+    public SnowflakeIdUtil(long machineId) {
+        this(machineId, DEFAULT_MAX_BACKWARD_MILLIS);
+    }
+
+    /**
+     * 构造函数
+     * @param machineId 机器ID (0-1023)
+     * @param maxBackwardMillis 时钟回拨容忍窗口（毫秒），超出时拒绝生成ID
+     */
+    public SnowflakeIdUtil(long machineId, long maxBackwardMillis) {
+        this(machineId, maxBackwardMillis, System::currentTimeMillis);
+    }
+
+    SnowflakeIdUtil(long machineId, long maxBackwardMillis, LongSupplier clock) {
+        if (machineId > MAX_MACHINE_ID || machineId < 0) {
+            throw new IllegalArgumentException(
+                String.format("机器ID必须在0到%d之间", MAX_MACHINE_ID));
+        }
+        if (maxBackwardMillis < 0) {
+            throw new IllegalArgumentException("时钟回拨容忍窗口不能为负数");
+        }
+        this.machineId = machineId;
+        this.maxBackwardMillis = maxBackwardMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * 生成下一个ID
+     * @return 雪花ID
+     */
+    public long nextId() {
+        long reserved = reserve(1);
+        return compose(reserved >>> SEQUENCE_BITS, reserved & MAX_SEQUENCE);
+    }
+
+    /**
+     * 批量生成ID，每次CAS预留当前毫秒内的一段连续序列号，适用于批量插入
+     * @param count 数量
+     * @return 单调递增的雪花ID
+     */
+    public long[] nextIds(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("数量不能为负数");
+        }
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            long reserved = reserve(count - filled);
+            long timestamp = reserved >>> SEQUENCE_BITS;
+            long firstSequence = reserved & MAX_SEQUENCE;
+            long lastSequence = Math.min(MAX_SEQUENCE, firstSequence + (count - filled) - 1);
+            for (long sequence = firstSequence; sequence <= lastSequence; sequence++) {
+                ids[filled++] = compose(timestamp, sequence);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 预留至多count个连续序列号，实际个数为 min(count, MAX_SEQUENCE - 起始序列号 + 1)
+     * @param count 期望个数
+     * @return 时间戳（相对起始时间） << SEQUENCE_BITS | 起始序列号
+     */
+    private long reserve(int count) {
+        boolean waited = false;
+        for (;;) {
+            long current = state.get();
+            long lastTimestamp = current >> SEQUENCE_BITS;
+            long lastSequence = current & MAX_SEQUENCE;
+            long now = clock.getAsLong() - START_TIMESTAMP;
+
+            long timestamp;
+            long firstSequence;
+            boolean borrowed = false;
+            if (now > lastTimestamp) {
+                // 新的毫秒，序列号重置
+                timestamp = now;
+                firstSequence = 0L;
+            } else {
+                // 逻辑时间领先系统时间：同一毫秒、时钟回拨或此前借用了后续毫秒
+                long lag = lastTimestamp - now;
+                if (lag > maxBackwardMillis) {
+                    clockBackwardCount.increment();
+                    throw new IllegalStateException(
+                        String.format("时钟回拨超出容忍窗口，拒绝生成ID。当前时间戳：%d，上次时间戳：%d",
+                            now + START_TIMESTAMP, lastTimestamp + START_TIMESTAMP));
+                }
+                if (lastSequence < MAX_SEQUENCE) {
+                    timestamp = lastTimestamp;
+                    firstSequence = lastSequence + 1;
+                } else if (lag < maxBackwardMillis) {
+                    // 序列号溢出，借用下一毫秒而不是自旋等待
+                    timestamp = lastTimestamp + 1;
+                    firstSequence = 0L;
+                    borrowed = true;
+                } else {
+                    // 已借用到窗口上限，让出CPU等待系统时间追上
+                    if (!waited) {
+                        sequenceExhaustedCount.increment();
+                        waited = true;
+                    }
+                    LockSupport.parkNanos(50_000L);
+                    continue;
+                }
+            }
+
+            long lastReserved = Math.min(MAX_SEQUENCE, firstSequence + count - 1);
+            if (state.compareAndSet(current, timestamp << SEQUENCE_BITS | lastReserved)) {
+                if (borrowed && !waited) {
+                    sequenceExhaustedCount.increment();
+                }
+                return timestamp << SEQUENCE_BITS | firstSequence;
+            }
+        }
+    }
+
+    private long compose(long timestamp, long sequence) {
+        return (timestamp << TIMESTAMP_SHIFT)
+                | (machineId << MACHINE_ID_SHIFT)
+                | sequence;
+    }
+
+    /**
+     * 机器ID
+     * @return 机器ID
+     */
+    public long getMachineId() {
+        return machineId;
+    }
+
+    /**
+     * 序列号耗尽（借用下一毫秒或等待）的累计次数
+     * @return 次数
+     */
+    public long getSequenceExhaustedCount() {
+        return sequenceExhaustedCount.sum();
+    }
+
+    /**
+     * 时钟回拨超出容忍窗口而拒绝生成的累计次数
+     * @return 次数
+     */
+    public long getClockBackwardCount() {
+        return clockBackwardCount.sum();
+    }
+
+    /**
+     * 解析雪花ID
+     * @param id 雪花ID
+     * @return ID信息
+     */
+    public IdInfo parseId(long id) {
+        long timestamp = (id >> TIMESTAMP_SHIFT) + START_TIMESTAMP;
+        long machineId = (id >> MACHINE_ID_SHIFT) & MAX_MACHINE_ID;
+        long sequence = id & MAX_SEQUENCE;
+
+        return new IdInfo(timestamp, machineId, sequence);
+    }
+
+    /**
+     * ID信息类
+     */
+    public static class IdInfo {
+        private final long timestamp;
+        private final long machineId;
+        private final long sequence;
+
+        public IdInfo(long timestamp, long machineId, long sequence) {
+            this.timestamp = timestamp;
+            this.machineId = machineId;
+            this.sequence = sequence;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getMachineId() {
+            return machineId;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("IdInfo{timestamp=%d, machineId=%d, sequence=%d, time=%s}",
+                timestamp, machineId, sequence,
+                new java.util.Date(timestamp).toString());
+        }
+    }
+
+    /**
+     * 静态方法，快速生成ID
+     * 默认实例由 SnowflakeConfig 按配置的机器ID注册；未注册时退化为随机机器ID
+     */
+    private static volatile SnowflakeIdUtil instance;
+
+    /**
+     * 注册静态方法使用的默认实例
+     * @param snowflakeIdUtil 按配置创建的生成器
+     */
+    public static void setInstance(SnowflakeIdUtil snowflakeIdUtil) {
+        instance = snowflakeIdUtil;
+    }
+
+    /**
+     * 获取静态方法使用的默认实例
+     * @return 生成器
+     */
+    public static SnowflakeIdUtil getInstance() {
+        if (instance == null) {
+            synchronized (SnowflakeIdUtil.class) {
+                if (instance == null) {
+                    long machineId = ThreadLocalRandom.current().nextLong(MAX_MACHINE_ID + 1);
+                    log.warn("未配置雪花算法机器ID，使用随机机器ID：{}", machineId);
+                    instance = new SnowflakeIdUtil(machineId);
+                }
+            }
+        }
+        return instance;
+    }
+
+    public static long generateId() {
+        return getInstance().nextId();
+    }
+
+    public static long[] generateIds(int count) {
+        return getInstance().nextIds(count);
+    }
+}
@@ -0,0 +1,488 @@
+package io.github.timemachinelab.watch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.StreamProperties;
+import io.github.timemachinelab.datasource.DbExecutor;
+import io.github.timemachinelab.domain.LayeredConfigDomain;
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.pojo.dto.ConfigChangeMessage;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SSE变更推送分发器
+ * 每个变更只查询一次变更后的配置、只序列化一次，再把同一份事件放入该命名空间全部订阅者的队列；
+ * 订阅者队列有界，只在队列非空时占用发送线程，每次至多连续发送一批后让出线程，队列写满的慢消费者被断开，
+ * 由客户端重连后重新同步快照。单次发送阻塞超过 sendTimeout 的停滞连接同样被断开，
+ * 其占用的发送线程在写入返回前由临时线程替补，少数停滞连接不会耗尽发送线程、拖慢其他订阅者。
+ */
+@Slf4j
+@Component
+public class ChangeStreamDispatcher implements MeterBinder {
+
+    // 每次占用发送线程时最多连续发送的事件数
+    private static final int SEND_BATCH_SIZE = 64;
+
+    private static final StreamEvent HEARTBEAT = StreamEvent.comment("heartbeat");
+
+    private final ConcurrentHashMap<NamespaceKey, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private final LongAdder stalledCount = new LongAdder();
+
+    private final LayeredConfigDomain layeredDomain;
+
+    private final DbExecutor dbExecutor;
+
+    private final ObjectMapper objectMapper;
+
+    private final StreamProperties properties;
+
+    // 单线程按变更顺序分发，保证各订阅者收到的事件顺序一致
+    private final ExecutorService dispatchExecutor;
+
+    private final ThreadPoolExecutor senderExecutor;
+
+    private final ScheduledExecutorService heartbeatExecutor;
+
+    // 当前被停滞连接占用、已由临时线程替补的发送线程数
+    private int replacedSenders;
+
+    public ChangeStreamDispatcher(LayeredConfigDomain layeredDomain, DbExecutor dbExecutor, ObjectMapper objectMapper,
+                                  StreamProperties properties) {
+        this.layeredDomain = layeredDomain;
+        this.dbExecutor = dbExecutor;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.dispatchExecutor = Executors.newSingleThreadExecutor(
+                new CustomizableThreadFactory("config-stream-dispatch-"));
+        this.senderExecutor = new ThreadPoolExecutor(properties.getSenderThreads(),
+                properties.getSenderThreads() + properties.getMaxStalledSenders(), 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("config-stream-"));
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("config-stream-heartbeat-"));
+        long heartbeatMillis = properties.getHeartbeatInterval().toMillis();
+        this.heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis,
+                TimeUnit.MILLISECONDS);
+        long checkMillis = Math.max(properties.getSendTimeout().toMillis() / 2, 50L);
+        this.heartbeatExecutor.scheduleWithFixedDelay(this::checkStalled, checkMillis, checkMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 订阅命名空间变更
+     * 首个事件为ready，携带订阅时的快照版本，客户端据此判断是否需要先拉取一次全量快照
+     * @param appName 应用名
+     * @param environment 环境
+     * @return SSE连接
+     * @throws BizException 订阅连接数已达上限，或需要读取存储而数据库任务队列已满
+     */
+    public SseEmitter subscribe(String appName, String environment) {
+        return subscribe(new NamespaceKey(appName, environment), new SseEmitter(properties.getTimeout().toMillis()));
+    }
+
+    /**
+     * 先计算快照版本并放入ready，再注册接收变更，ready总是第一个事件；
+     * 计算版本与注册之间发生的变更不会推送给该订阅者，注册后版本已变化时再发送一次ready，客户端据此重新拉取快照。
+     * 快照已缓存时在请求线程上完成，否则在 {@link DbExecutor} 上读取快照版本后再注册
+     */
+    SseEmitter subscribe(NamespaceKey namespace, SseEmitter emitter) {
+        if (subscriberCount.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            throw new BizException(ResultCode.SERVICE_UNAVAILABLE, "订阅连接数已达上限");
+        }
+        Subscriber subscriber = new Subscriber(namespace, emitter, properties.getQueueCapacity());
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(e -> unregister(subscriber));
+        try {
+            String version = cachedVersion(namespace);
+            if (version != null) {
+                register(subscriber, version, false);
+            } else {
+                dbExecutor.submit(() -> {
+                    register(subscriber, snapshotVersion(namespace), true);
+                    return null;
+                }).whenComplete((v, e) -> {
+                    if (e != null) {
+                        fail(subscriber, e);
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            unregister(subscriber);
+            throw e;
+        }
+        return emitter;
+    }
+
+    /**
+     * 放入ready并注册接收变更，再比对注册后的版本
+     * @param onDbThread 是否在数据库任务线程上，否则注册后的版本只从缓存读取，缓存失效时交给 {@link DbExecutor}
+     */
+    private void register(Subscriber subscriber, String version, boolean onDbThread) {
+        NamespaceKey namespace = subscriber.namespace;
+        subscriber.offer(prepare(null, "ready", Collections.singletonMap("version", version)));
+        subscribers.computeIfAbsent(namespace, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        if (subscriber.removed.get()) {
+            // 注册前连接已结束
+            subscribers.computeIfPresent(namespace, (k, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+            return;
+        }
+        String current = onDbThread ? snapshotVersion(namespace) : cachedVersion(namespace);
+        if (current != null) {
+            resendIfMoved(subscriber, version, current);
+            return;
+        }
+        dbExecutor.submit(() -> {
+            resendIfMoved(subscriber, version, snapshotVersion(namespace));
+            return null;
+        }).whenComplete((v, e) -> {
+            if (e != null) {
+                fail(subscriber, e);
+            }
+        });
+    }
+
+    private void resendIfMoved(Subscriber subscriber, String version, String current) {
+        if (!current.equals(version)) {
+            subscriber.offer(prepare(null, "ready", Collections.singletonMap("version", current)));
+        }
+    }
+
+    /**
+     * 请求线程返回后读取快照失败：连接已建立，只能断开，由客户端重连
+     */
+    private void fail(Subscriber subscriber, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.warn("SSE订阅读取快照版本失败，断开连接 namespace={}", subscriber.namespace, cause);
+        unregister(subscriber);
+        subscriber.emitter.completeWithError(cause);
+    }
+
+    /**
+     * 配置变更时推送给读取结果受影响的命名空间的全部订阅者（事务提交之后）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfigChange(ConfigChangeEvent event) {
+        for (NamespaceKey namespace : layeredDomain.affectedNamespaces(event.namespace(), subscribers.keySet())) {
+            dispatchExecutor.execute(() -> dispatch(namespace, event));
+        }
+    }
+
+    /**
+     * 当前订阅连接数
+     * @return 连接数
+     */
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * 因队列写满或发送停滞被断开的订阅者数
+     * @return 累计断开数
+     */
+    public long droppedCount() {
+        return droppedCount.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("config.stream.subscribers", this, ChangeStreamDispatcher::subscriberCount)
+                .description("SSE订阅连接数")
+                .register(registry);
+        FunctionCounter.builder("config.stream.dropped", droppedCount, LongAdder::sum)
+                .description("因队列写满或发送停滞被断开的订阅者数")
+                .register(registry);
+        FunctionCounter.builder("config.stream.stalled", stalledCount, LongAdder::sum)
+                .description("单次发送阻塞超时的订阅者数")
+                .register(registry);
+    }
+
+    private String cachedVersion(NamespaceKey namespace) {
+        NamespaceSnapshot snapshot = layeredDomain.peekSnapshot(namespace.getAppName(), namespace.getEnvironment());
+        return snapshot == null ? null : snapshot.getVersion();
+    }
+
+    private String snapshotVersion(NamespaceKey namespace) {
+        return layeredDomain.getSnapshot(namespace.getAppName(), namespace.getEnvironment()).getVersion();
+    }
+
+    /**
+     * 推送合并后的变更：对继承该层的命名空间，变更后仍可解析到配置即为SET，否则为DELETE；
+     * 修订号只对变更所在的命名空间有意义，推送给其他命名空间时不携带
+     */
+    private void dispatch(NamespaceKey namespace, ConfigChangeEvent event) {
+        Set<Subscriber> set = subscribers.get(namespace);
+        if (set == null || set.isEmpty()) {
+            return;
+        }
+        try {
+            Long revision = namespace.equals(event.namespace()) ? event.getRevision() : null;
+            ConfigItemDTO item = layeredDomain.getConfig(namespace.getAppName(), namespace.getEnvironment(),
+                    event.getConfigKey());
+            ConfigChangeEvent.ChangeType type = item != null
+                    ? ConfigChangeEvent.ChangeType.SET : ConfigChangeEvent.ChangeType.DELETE;
+            ConfigChangeMessage message = new ConfigChangeMessage(namespace.getAppName(), namespace.getEnvironment(),
+                    event.getConfigKey(), type.name(), revision, item);
+            StreamEvent prepared = prepare(revision, "change", message);
+            for (Subscriber subscriber : set) {
+                subscriber.offer(prepared);
+            }
+        } catch (Exception e) {
+            log.error("推送配置变更失败, namespace={}, key={}", namespace, event.getConfigKey(), e);
+        }
+    }
+
+    private void heartbeat() {
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                subscriber.offer(HEARTBEAT);
+            }
+        }
+    }
+
+    /**
+     * 断开单次发送阻塞超时的订阅者，并为其占用的发送线程补充临时线程
+     * 阻塞中的连接持有SseEmitter的锁，此处不调用其方法，由发送线程在写入返回后结束连接
+     */
+    private void checkStalled() {
+        long timeoutNanos = properties.getSendTimeout().toNanos();
+        long now = System.nanoTime();
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                subscriber.checkStalled(now, timeoutNanos);
+            }
+        }
+    }
+
+    private synchronized boolean replaceSender() {
+        if (replacedSenders >= properties.getMaxStalledSenders()) {
+            return false;
+        }
+        replacedSenders++;
+        senderExecutor.setCorePoolSize(properties.getSenderThreads() + replacedSenders);
+        return true;
+    }
+
+    private synchronized void releaseSender() {
+        replacedSenders--;
+        senderExecutor.setCorePoolSize(properties.getSenderThreads() + replacedSenders);
+    }
+
+    /**
+     * 序列化一次，各订阅者发送时共用
+     */
+    private StreamEvent prepare(Long id, String name, Object data) {
+        try {
+            return StreamEvent.of(id == null ? null : id.toString(), name, objectMapper.writeValueAsString(data));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (!subscriber.removed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.namespace, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatExecutor.shutdownNow();
+        dispatchExecutor.shutdownNow();
+        senderExecutor.shutdownNow();
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * 一个SSE订阅：有界队列 + 同一时刻至多一个发送任务
+     */
+    private final class Subscriber implements Runnable {
+        private final NamespaceKey namespace;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<StreamEvent> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+        private final AtomicBoolean stalled = new AtomicBoolean();
+        private volatile boolean overflowed;
+        // 以下由本对象的锁保护
+        private boolean sending;
+        private long sendStartedAt;
+        private boolean replaced;
+
+        private Subscriber(NamespaceKey namespace, SseEmitter emitter, int capacity) {
+            this.namespace = namespace;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void offer(StreamEvent event) {
+            if (overflowed || removed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                overflowed = true;
+                droppedCount.increment();
+                log.info("SSE订阅者消费过慢，断开连接 namespace={}", namespace);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                senderExecutor.execute(this);
+            }
+        }
+
+        /**
+         * 由检查线程调用：发送阻塞超时时停止接收新事件，发送线程被阻塞期间由临时线程替补
+         */
+        private void checkStalled(long now, long timeoutNanos) {
+            synchronized (this) {
+                if (!sending || now - sendStartedAt <= timeoutNanos || !stalled.compareAndSet(false, true)) {
+                    return;
+                }
+                replaced = replaceSender();
+            }
+            stalledCount.increment();
+            droppedCount.increment();
+            log.info("SSE订阅者发送阻塞超时，断开连接 namespace={}", namespace);
+            unregister(this);
+            queue.clear();
+        }
+
+        private synchronized void beginSend() {
+            sendStartedAt = System.nanoTime();
+            sending = true;
+        }
+
+        private void endSend() {
+            boolean release;
+            synchronized (this) {
+                sending = false;
+                release = replaced;
+                replaced = false;
+            }
+            if (release) {
+                releaseSender();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                StreamEvent event;
+                for (int i = 0; i < SEND_BATCH_SIZE && !overflowed && !stalled.get()
+                        && (event = queue.poll()) != null; i++) {
+                    beginSend();
+                    try {
+                        emitter.send(event.toBuilder());
+                    } finally {
+                        endSend();
+                    }
+                }
+                if (overflowed || stalled.get()) {
+                    close();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // 客户端已断开或连接已结束
+                queue.clear();
+                unregister(this);
+            } finally {
+                scheduled.set(false);
+            }
+            if ((!queue.isEmpty() || overflowed) && !removed.get()) {
+                schedule();
+            }
+        }
+
+        private void close() {
+            queue.clear();
+            unregister(this);
+            emitter.complete();
+        }
+    }
+
+    /**
+     * 已序列化的SSE事件，发送时按 {@link SseEmitter#event()} 构建
+     * SseEventBuilder 每次 build() 都会追加结束符，不能在多个连接间复用，各连接各自构建，序列化结果共用
+     */
+    private static final class StreamEvent {
+        private final String id;
+        private final String name;
+        private final String data;
+        private final String comment;
+
+        private StreamEvent(String id, String name, String data, String comment) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+            this.comment = comment;
+        }
+
+        private static StreamEvent of(String id, String name, String data) {
+            return new StreamEvent(id, name, data, null);
+        }
+
+        private static StreamEvent comment(String comment) {
+            return new StreamEvent(null, null, null, comment);
+        }
+
+        private SseEmitter.SseEventBuilder toBuilder() {
+            SseEmitter.SseEventBuilder builder = SseEmitter.event();
+            if (comment != null) {
+                return builder.comment(comment);
+            }
+            if (id != null) {
+                builder.id(id);
+            }
+            return builder.name(name).data(data);
+        }
+    }
+}
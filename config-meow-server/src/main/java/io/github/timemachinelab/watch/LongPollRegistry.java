@@ -0,0 +1,229 @@
+package io.github.timemachinelab.watch;
+
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.Result;
+import io.github.timemachinelab.config.WatchProperties;
+import io.github.timemachinelab.datasource.DbExecutor;
+import io.github.timemachinelab.domain.LayeredConfigDomain;
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import io.github.timemachinelab.pojo.dto.NamespaceVersion;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 长轮询监听注册表
+ * 请求挂起为 DeferredResult 后立即释放Servlet线程，命名空间发生变更或超时时才写回响应，
+ * 因此挂起的连接数只受连接数上限约束，与Servlet线程池大小无关。
+ */
+@Slf4j
+@Component
+public class LongPollRegistry implements MeterBinder {
+
+    private static final ResponseEntity<Result<List<NamespaceVersion>>> NOT_MODIFIED =
+            ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+
+    private final ConcurrentHashMap<NamespaceKey, Set<Watch>> watchers = new ConcurrentHashMap<>();
+
+    private final LayeredConfigDomain layeredDomain;
+
+    private final DbExecutor dbExecutor;
+
+    private final long timeoutMillis;
+
+    private final ExecutorService notifyExecutor;
+
+    public LongPollRegistry(LayeredConfigDomain layeredDomain, DbExecutor dbExecutor, WatchProperties properties) {
+        this.layeredDomain = layeredDomain;
+        this.dbExecutor = dbExecutor;
+        this.timeoutMillis = properties.getTimeout().toMillis();
+        this.notifyExecutor = Executors.newFixedThreadPool(properties.getNotifyThreads(),
+                new CustomizableThreadFactory("config-notify-"));
+    }
+
+    /**
+     * 监听一组命名空间
+     * 先注册再比对版本，避免比对与注册之间发生的变更被遗漏；
+     * 快照已缓存的命名空间在请求线程上比对，其余的在 {@link DbExecutor} 上读取后比对。
+     * @param namespaces 客户端已知的命名空间版本
+     * @return 挂起的结果：有变更时返回变更的命名空间及新版本，超时返回304
+     * @throws BizException 需要读取存储而数据库任务队列已满
+     */
+    public DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> watch(List<NamespaceVersion> namespaces) {
+        DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> result =
+                new DeferredResult<>(timeoutMillis, NOT_MODIFIED);
+        List<NamespaceKey> keys = new ArrayList<>(namespaces.size());
+        for (NamespaceVersion namespace : namespaces) {
+            keys.add(new NamespaceKey(namespace.getAppName(), namespace.getEnvironment()));
+        }
+        Watch watch = new Watch(result, keys);
+        result.onCompletion(() -> unregister(watch));
+        register(watch);
+
+        List<NamespaceVersion> changed = new ArrayList<>();
+        List<NamespaceVersion> uncached = new ArrayList<>();
+        for (NamespaceVersion namespace : namespaces) {
+            NamespaceSnapshot snapshot = layeredDomain.peekSnapshot(namespace.getAppName(), namespace.getEnvironment());
+            if (snapshot == null) {
+                uncached.add(namespace);
+            } else if (!Objects.equals(snapshot.getVersion(), namespace.getVersion())) {
+                changed.add(new NamespaceVersion(namespace.getAppName(), namespace.getEnvironment(),
+                        snapshot.getVersion()));
+            }
+        }
+        if (!changed.isEmpty() || uncached.isEmpty()) {
+            answerIfChanged(watch, changed);
+            return result;
+        }
+        try {
+            dbExecutor.submit(() -> changedVersions(uncached)).whenComplete((changedLater, e) -> {
+                if (e != null) {
+                    unregister(watch);
+                    result.setErrorResult(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                } else {
+                    answerIfChanged(watch, changedLater);
+                }
+            });
+        } catch (RuntimeException e) {
+            unregister(watch);
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * 配置变更时唤醒读取结果受影响的命名空间下的全部监听（事务提交之后）
+     * 默认层的变更会唤醒继承该层的各命名空间
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfigChange(ConfigChangeEvent event) {
+        for (NamespaceKey namespace : layeredDomain.affectedNamespaces(event.namespace(), watchers.keySet())) {
+            notifyExecutor.execute(() -> notifyWatchers(namespace));
+        }
+    }
+
+    /**
+     * 当前挂起的监听数
+     * @return 监听数
+     */
+    public int watchCount() {
+        int count = 0;
+        for (Set<Watch> set : watchers.values()) {
+            count += set.size();
+        }
+        return count;
+    }
+
+    /**
+     * 注册挂起监听数指标 config.watch.pending
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("config.watch.pending", this, LongPollRegistry::watchCount)
+                .description("挂起的长轮询监听数")
+                .register(registry);
+    }
+
+    private void notifyWatchers(NamespaceKey namespace) {
+        Set<Watch> set = watchers.remove(namespace);
+        if (set == null || set.isEmpty()) {
+            return;
+        }
+        try {
+            String version = currentVersion(namespace.getAppName(), namespace.getEnvironment());
+            ResponseEntity<Result<List<NamespaceVersion>>> response = ResponseEntity.ok(Result.success(
+                    Collections.singletonList(
+                            new NamespaceVersion(namespace.getAppName(), namespace.getEnvironment(), version))));
+            for (Watch watch : set) {
+                watch.result.setResult(response);
+            }
+        } catch (Exception e) {
+            log.error("长轮询通知失败, namespace={}", namespace, e);
+            for (Watch watch : set) {
+                watch.result.setErrorResult(e);
+            }
+        }
+    }
+
+    private List<NamespaceVersion> changedVersions(List<NamespaceVersion> namespaces) {
+        List<NamespaceVersion> changed = new ArrayList<>();
+        for (NamespaceVersion namespace : namespaces) {
+            String current = currentVersion(namespace.getAppName(), namespace.getEnvironment());
+            if (!Objects.equals(current, namespace.getVersion())) {
+                changed.add(new NamespaceVersion(namespace.getAppName(), namespace.getEnvironment(), current));
+            }
+        }
+        return changed;
+    }
+
+    private void answerIfChanged(Watch watch, List<NamespaceVersion> changed) {
+        if (!changed.isEmpty()) {
+            watch.result.setResult(ResponseEntity.ok(Result.success(changed)));
+            unregister(watch);
+        }
+    }
+
+    private String currentVersion(String appName, String environment) {
+        return layeredDomain.getSnapshot(appName, environment).getVersion();
+    }
+
+    private void register(Watch watch) {
+        for (NamespaceKey key : watch.namespaces) {
+            watchers.compute(key, (k, set) -> {
+                if (set == null) {
+                    set = ConcurrentHashMap.newKeySet();
+                }
+                set.add(watch);
+                return set;
+            });
+        }
+    }
+
+    private void unregister(Watch watch) {
+        for (NamespaceKey key : watch.namespaces) {
+            watchers.computeIfPresent(key, (k, set) -> {
+                set.remove(watch);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        notifyExecutor.shutdownNow();
+    }
+
+    /**
+     * 一次长轮询请求
+     */
+    private static final class Watch {
+        private final DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> result;
+        private final List<NamespaceKey> namespaces;
+
+        private Watch(DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> result,
+                      List<NamespaceKey> namespaces) {
+            this.result = result;
+            this.namespaces = namespaces;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package io.github.timemachinelab.write;
+
+import io.github.timemachinelab.cache.ConfigCacheKey;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ConfigDataType;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.WritePipelineProperties;
+import io.github.timemachinelab.domain.ConfigDomain;
+import io.github.timemachinelab.pojo.dto.BatchItemResult;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 写入合并管道
+ * 单条设置请求先单独校验配置值与数据类型，通过后才放入按配置键去重的待写集合，
+ * 同一配置在窗口内的多次写入逐字段合并（后写的非空字段覆盖先写的），与已排队内容合并后不合法的写入单独拒绝，
+ * 窗口到期或达到批大小时由单个刷写线程通过 batchSetConfig 在一个事务内提交，事务提交后才确认调用方，
+ * 因此确认即持久化；被合并的请求共享同一个结果。刷写线程唯一，同一配置的先后批次按提交顺序落库。
+ */
+@Slf4j
+@Component
+public class ConfigWritePipeline implements MeterBinder {
+
+    private final ConfigDomain configDomain;
+
+    private final WritePipelineProperties properties;
+
+    private final ScheduledExecutorService flushExecutor;
+
+    private final Object lock = new Object();
+
+    private Map<ConfigCacheKey, PendingWrite> pending = new LinkedHashMap<>();
+
+    private final LongAdder submittedCount = new LongAdder();
+
+    private final LongAdder writtenCount = new LongAdder();
+
+    private final LongAdder flushCount = new LongAdder();
+
+    public ConfigWritePipeline(ConfigDomain configDomain, WritePipelineProperties properties) {
+        this.configDomain = configDomain;
+        this.properties = properties;
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("config-write-pipeline-"));
+    }
+
+    /**
+     * 是否启用写入合并
+     * @return 是否启用
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 提交写入并等待所在批次提交
+     * @param item 配置项
+     * @return 是否成功
+     * @throws BizException 配置值与数据类型不匹配、写入队列已满或等待确认超时
+     */
+    public boolean set(ConfigItemDTO item) {
+        CompletableFuture<Boolean> ack = submit(item);
+        try {
+            return ack.get(properties.getAckTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (TimeoutException e) {
+            throw new BizException(ResultCode.SERVICE_UNAVAILABLE, "等待写入确认超时，写入结果未知");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BizException(ResultCode.SERVICE_UNAVAILABLE, "等待写入确认被中断，写入结果未知");
+        }
+    }
+
+    /**
+     * 提交写入
+     * 入队前的类型校验可能读取存储，请求路径上应在数据库任务线程上调用
+     * @param item 配置项
+     * @return 所在批次提交后完成
+     * @throws BizException 配置值与数据类型不匹配（单独或与同一配置已排队的写入合并后），或写入队列已满
+     */
+    public CompletableFuture<Boolean> submit(ConfigItemDTO item) {
+        // 读取当前配置可能访问存储，在锁外完成
+        String violation = configDomain.checkValueType(item);
+        if (violation != null) {
+            throw new BizException(ResultCode.CONFIG_VALUE_INVALID, violation);
+        }
+        ConfigCacheKey key = new ConfigCacheKey(item.getAppName(), item.getEnvironment(), item.getConfigKey());
+        synchronized (lock) {
+            PendingWrite write = pending.get(key);
+            if (write != null) {
+                violation = write.checkMerge(item);
+                if (violation != null) {
+                    throw new BizException(ResultCode.CONFIG_VALUE_INVALID, violation);
+                }
+                write.merge(item);
+            } else {
+                if (pending.size() >= properties.getMaxPending()) {
+                    throw new BizException(ResultCode.SERVICE_UNAVAILABLE, "写入队列已满");
+                }
+                write = new PendingWrite(item);
+                pending.put(key, write);
+                if (pending.size() == 1) {
+                    flushExecutor.schedule(this::flush, properties.getWindow().toMillis(), TimeUnit.MILLISECONDS);
+                } else if (pending.size() == properties.getMaxBatchSize()) {
+                    flushExecutor.execute(this::flush);
+                }
+            }
+            submittedCount.increment();
+            return write.ack;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("config.write.pipeline.submitted", submittedCount, LongAdder::sum)
+                .description("进入写入合并管道的请求数")
+                .register(registry);
+        FunctionCounter.builder("config.write.pipeline.written", writtenCount, LongAdder::sum)
+                .description("合并后实际写库的配置数")
+                .register(registry);
+        FunctionCounter.builder("config.write.pipeline.flushes", flushCount, LongAdder::sum)
+                .description("批量提交次数")
+                .register(registry);
+        Gauge.builder("config.write.pipeline.pending", this, ConfigWritePipeline::pendingCount)
+                .description("排队中的配置数")
+                .register(registry);
+    }
+
+    private int pendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    private void flush() {
+        List<PendingWrite> writes;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            writes = new ArrayList<>(pending.values());
+            pending = new LinkedHashMap<>();
+        }
+        // 上一批提交期间积压的写入可能超过批大小，按批大小拆成多个事务
+        int batchSize = properties.getMaxBatchSize();
+        for (int from = 0; from < writes.size(); from += batchSize) {
+            commit(writes.subList(from, Math.min(from + batchSize, writes.size())));
+        }
+    }
+
+    private void commit(List<PendingWrite> writes) {
+        List<ConfigItemDTO> items = new ArrayList<>(writes.size());
+        for (PendingWrite write : writes) {
+            items.add(write.item);
+        }
+        List<BatchItemResult> results;
+        try {
+            results = configDomain.batchSetConfig(items);
+        } catch (Exception e) {
+            log.error("写入合并批次提交失败，size={}", writes.size(), e);
+            for (PendingWrite write : writes) {
+                write.ack.completeExceptionally(e);
+            }
+            return;
+        }
+        flushCount.increment();
+        writtenCount.add(writes.size());
+        for (int i = 0; i < writes.size(); i++) {
+            BatchItemResult result = results.get(i);
+            if (Boolean.TRUE.equals(result.getSuccess())) {
+                writes.get(i).ack.complete(true);
+            } else {
+                writes.get(i).ack.completeExceptionally(
+                        new BizException(ResultCode.CONFIG_VALUE_INVALID, result.getMessage()));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // 已排期的刷写在关闭后仍会执行，等待排队中的写入落库
+        flushExecutor.execute(this::flush);
+        flushExecutor.shutdown();
+        if (!flushExecutor.awaitTermination(properties.getAckTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("写入合并管道关闭超时，仍有写入未提交");
+        }
+    }
+
+    /**
+     * 同一配置的待写入内容及其确认
+     */
+    private static final class PendingWrite {
+        private final ConfigItemDTO item;
+        private final CompletableFuture<Boolean> ack = new CompletableFuture<>();
+
+        private PendingWrite(ConfigItemDTO item) {
+            this.item = ConfigItemDTO.builder()
+                    .appName(item.getAppName())
+                    .environment(item.getEnvironment())
+                    .configKey(item.getConfigKey())
+                    .configValue(item.getConfigValue())
+                    .description(item.getDescription())
+                    .dataType(item.getDataType())
+                    .isActive(item.getIsActive())
+                    .build();
+        }
+
+        /**
+         * 校验合并后的配置值与数据类型
+         * 两者均已确定时直接校验；否则缺失的一项取自当前配置，而提供另一项的写入已与当前配置一起校验过
+         * @return 校验失败信息，通过时返回null
+         */
+        private String checkMerge(ConfigItemDTO later) {
+            String dataType = later.getDataType() != null ? later.getDataType() : item.getDataType();
+            String configValue = later.getConfigValue() != null ? later.getConfigValue() : item.getConfigValue();
+            if (dataType == null || configValue == null) {
+                return null;
+            }
+            return ConfigDataType.check(dataType, configValue);
+        }
+
+        /**
+         * 与逐条执行 insertOrUpdate 的结果一致：未提交的字段保持先前的值
+         */
+        private void merge(ConfigItemDTO later) {
+            if (later.getConfigValue() != null) {
+                item.setConfigValue(later.getConfigValue());
+            }
+            if (later.getDescription() != null) {
+                item.setDescription(later.getDescription());
+            }
+            if (later.getDataType() != null) {
+                item.setDataType(later.getDataType());
+            }
+            if (later.getIsActive() != null) {
+                item.setIsActive(later.getIsActive());
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.timemachinelab.cache;
+
+import io.github.timemachinelab.config.CacheProperties;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConfigCacheTest {
+
+    private static final ConfigCacheKey KEY = new ConfigCacheKey("cache-app", "dev", "timeout");
+
+    private static final ConfigCacheKey MISSING = new ConfigCacheKey("cache-app", "dev", "missing");
+
+    // 模拟存储：配置键 -> 配置值
+    private final Map<String, String> store = new HashMap<>();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<ConfigCacheKey, ConfigItemDTO> loader = key -> {
+        loads.incrementAndGet();
+        String value = store.get(key.getConfigKey());
+        return value == null ? null : item(key.getConfigKey(), value);
+    };
+
+    @Test
+    public void readsGoThroughOnceAndCacheAbsentConfigs() {
+        ConfigCache cache = new ConfigCache(new CacheProperties());
+        store.put("timeout", "10");
+
+        assertEquals("10", cache.get(KEY, loader).getConfigValue());
+        assertEquals("10", cache.get(KEY, loader).getConfigValue());
+        assertEquals(1, loads.get());
+        assertNotNull(cache.getIfPresent(KEY));
+
+        // 不存在的配置同样缓存，避免反复查库
+        assertNull(cache.get(MISSING, loader));
+        assertNull(cache.get(MISSING, loader));
+        assertEquals(2, loads.get());
+        assertTrue(cache.getIfPresent(MISSING).isAbsent());
+    }
+
+    @Test
+    public void invalidateForcesReload() {
+        ConfigCache cache = new ConfigCache(new CacheProperties());
+        store.put("timeout", "10");
+        cache.get(KEY, loader);
+
+        store.put("timeout", "20");
+        assertEquals("10", cache.get(KEY, loader).getConfigValue());
+        cache.invalidate(KEY);
+        assertNull(cache.getIfPresent(KEY));
+        assertEquals("20", cache.get(KEY, loader).getConfigValue());
+        assertEquals(2, loads.get());
+
+        cache.get(MISSING, loader);
+        cache.invalidateAll();
+        assertNull(cache.getIfPresent(KEY));
+        assertNull(cache.getIfPresent(MISSING));
+    }
+
+    @Test
+    public void invalidationDuringLoadIsNotOverwrittenByStaleValue() {
+        ConfigCache cache = new ConfigCache(new CacheProperties());
+        store.put("timeout", "10");
+
+        // 加载读到旧值后、写入缓存前配置被修改并失效
+        ConfigItemDTO loaded = cache.get(KEY, key -> {
+            ConfigItemDTO stale = loader.apply(key);
+            store.put("timeout", "20");
+            cache.invalidate(key);
+            return stale;
+        });
+        assertEquals("10", loaded.getConfigValue());
+        assertNull(cache.getIfPresent(KEY));
+        assertEquals("20", cache.get(KEY, loader).getConfigValue());
+    }
+
+    @Test
+    public void disabledCacheAlwaysLoads() {
+        CacheProperties properties = new CacheProperties();
+        properties.setEnabled(false);
+        ConfigCache cache = new ConfigCache(properties);
+        store.put("timeout", "10");
+
+        cache.get(KEY, loader);
+        cache.get(KEY, loader);
+        assertEquals(2, loads.get());
+        assertNull(cache.getIfPresent(KEY));
+    }
+
+    private static ConfigItemDTO item(String configKey, String configValue) {
+        return ConfigItemDTO.builder()
+                .appName("cache-app")
+                .environment("dev")
+                .configKey(configKey)
+                .configValue(configValue)
+                .build();
+    }
+}
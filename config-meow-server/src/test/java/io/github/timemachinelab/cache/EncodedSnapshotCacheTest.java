@@ -0,0 +1,84 @@
+package io.github.timemachinelab.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.timemachinelab.cache.EncodedSnapshotCache.EncodedSnapshot;
+import io.github.timemachinelab.config.CacheProperties;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EncodedSnapshotCacheTest {
+
+    @Test
+    public void negotiatesByAcceptQualityAndFallsBackToJson() {
+        EncodedSnapshotCache cache = cache(null);
+        assertEquals(MediaType.APPLICATION_JSON, cache.negotiate(null));
+        assertEquals(MediaType.APPLICATION_JSON, cache.negotiate("*/*"));
+        assertEquals(MediaType.APPLICATION_JSON, cache.negotiate("text/html"));
+        assertEquals(MediaType.APPLICATION_JSON, cache.negotiate("not a media type;;"));
+        assertEquals(EncodedSnapshotCache.APPLICATION_CBOR, cache.negotiate("application/cbor"));
+        assertEquals(EncodedSnapshotCache.APPLICATION_SMILE,
+                cache.negotiate("application/json;q=0.5, application/x-jackson-smile"));
+        // q=0 表示不接受
+        assertEquals(MediaType.APPLICATION_JSON, cache.negotiate("application/cbor;q=0, */*;q=0.1"));
+    }
+
+    @Test
+    public void acceptsGzipUnlessExcluded() {
+        EncodedSnapshotCache cache = cache(null);
+        assertTrue(cache.acceptsGzip("gzip"));
+        assertTrue(cache.acceptsGzip("deflate, GZIP;q=0.8"));
+        assertFalse(cache.acceptsGzip(null));
+        assertFalse(cache.acceptsGzip("br, deflate"));
+        assertFalse(cache.acceptsGzip("gzip;q=0"));
+        assertFalse(cache.acceptsGzip("gzip; q=0.000"));
+    }
+
+    @Test
+    public void gzipsOnlyWhenEnabledAndAboveThreshold() {
+        ServerProperties server = new ServerProperties();
+        server.getCompression().setEnabled(true);
+        EncodedSnapshotCache cache = cache(server);
+        EncodedSnapshot small = cache.get(snapshot(1), MediaType.APPLICATION_JSON);
+        EncodedSnapshot large = cache.get(snapshot(200), MediaType.APPLICATION_JSON);
+
+        assertFalse(cache.shouldGzip("gzip", small));
+        assertTrue(cache.shouldGzip("gzip", large));
+        assertFalse(cache.shouldGzip("identity", large));
+        assertFalse(cache(null).shouldGzip("gzip", large));
+        // 同一版本与编码格式的结果复用
+        assertSame(large, cache.get(snapshot(200), MediaType.APPLICATION_JSON));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EncodedSnapshotCache cache(ServerProperties server) {
+        ObjectProvider<ServerProperties> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(server);
+        return new EncodedSnapshotCache(new ObjectMapper(), new MappingJackson2SmileHttpMessageConverter(),
+                new MappingJackson2CborHttpMessageConverter(), new CacheProperties(), provider);
+    }
+
+    private static NamespaceSnapshot snapshot(int size) {
+        List<ConfigItemDTO> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(ConfigItemDTO.builder().appName("enc-app").environment("dev")
+                    .configKey("key." + i).configValue("value-" + i).build());
+        }
+        return NamespaceSnapshot.of("enc-app", "dev", items);
+    }
+}
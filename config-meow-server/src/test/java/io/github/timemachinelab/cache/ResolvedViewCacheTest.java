@@ -0,0 +1,98 @@
+package io.github.timemachinelab.cache;
+
+import io.github.timemachinelab.config.CacheProperties;
+import io.github.timemachinelab.config.LayerProperties;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ResolvedViewCacheTest {
+
+    private static final NamespaceKey NAMESPACE = new NamespaceKey("view-app", "dev");
+
+    private final ResolvedViewCache viewCache = new ResolvedViewCache(new CacheProperties(), new LayerProperties());
+
+    // 每次增量刷新收到的脏配置键
+    private final List<List<String>> refreshed = new ArrayList<>();
+
+    private final BiFunction<ResolvedView, List<String>, ResolvedView> refresher = (view, keys) -> {
+        refreshed.add(new ArrayList<>(keys));
+        Map<String, ConfigCacheEntry> changes = new HashMap<>();
+        for (String key : keys) {
+            changes.put(key, ConfigCacheEntry.of(item(key, "refreshed")));
+        }
+        return view.with(changes);
+    };
+
+    @Test
+    public void changeDuringBuildIsRefreshedOnNextRead() {
+        ResolvedView built = viewCache.get(NAMESPACE, namespace -> {
+            // 构建读取的是变更前的数据，变更在构建期间提交
+            viewCache.markDirty(namespace, "a");
+            return view("a", "stale");
+        }, refresher);
+
+        assertEquals("refreshed", built.get("a").getItem().getConfigValue());
+        assertEquals(Collections.singletonList(Collections.singletonList("a")), refreshed);
+        assertSame(built, viewCache.getIfPresent(NAMESPACE));
+    }
+
+    @Test
+    public void dirtyKeysAreRefreshedOnceWithoutRebuild() {
+        AtomicInteger builds = new AtomicInteger();
+        viewCache.get(NAMESPACE, namespace -> {
+            builds.incrementAndGet();
+            return view("a", "1");
+        }, refresher);
+
+        viewCache.markDirty(NAMESPACE, "a");
+        viewCache.markDirty(NAMESPACE, "b");
+        // 待刷新的视图不从内存直接返回
+        assertNull(viewCache.getIfPresent(NAMESPACE));
+
+        ResolvedView view = viewCache.get(NAMESPACE, namespace -> {
+            builds.incrementAndGet();
+            return view("a", "rebuilt");
+        }, refresher);
+        assertEquals(1, builds.get());
+        assertEquals(1, refreshed.size());
+        assertEquals(2, refreshed.get(0).size());
+        assertEquals("refreshed", view.get("b").getItem().getConfigValue());
+        assertSame(view, viewCache.getIfPresent(NAMESPACE));
+    }
+
+    @Test
+    public void uncachedViewIsNotMarked() {
+        viewCache.markDirty(NAMESPACE, "a");
+        assertEquals(Collections.emptySet(), viewCache.namespaces());
+
+        viewCache.get(NAMESPACE, namespace -> view("a", "1"), refresher);
+        assertEquals(Collections.emptyList(), refreshed);
+    }
+
+    private static ResolvedView view(String configKey, String configValue) {
+        Map<String, ConfigCacheEntry> entries = new HashMap<>();
+        entries.put(configKey, ConfigCacheEntry.of(item(configKey, configValue)));
+        return new ResolvedView(NAMESPACE, entries);
+    }
+
+    private static ConfigItemDTO item(String configKey, String configValue) {
+        return ConfigItemDTO.builder()
+                .appName(NAMESPACE.getAppName())
+                .environment(NAMESPACE.getEnvironment())
+                .configKey(configKey)
+                .configValue(configValue)
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.timemachinelab.cache;
+
+import io.github.timemachinelab.common.BizException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleFlightTest {
+
+    private static final int THREADS = 16;
+
+    private final Map<String, String> published = new ConcurrentHashMap<>();
+
+    @Test
+    public void concurrentMissesShareOneLoad() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(5000);
+        AtomicInteger loads = new AtomicInteger();
+        List<Future<String>> results = runConcurrently(() -> flight.load("k", k -> {
+            loads.incrementAndGet();
+            awaitFollowers(flight);
+            return "v";
+        }, published::put));
+        for (Future<String> result : results) {
+            assertEquals("v", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(THREADS - 1, flight.collapsedCount());
+        assertEquals("v", published.get("k"));
+    }
+
+    @Test
+    public void failureReachesWaitersAndIsNotRetained() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(5000);
+        List<Future<String>> results = runConcurrently(() -> flight.load("k", k -> {
+            awaitFollowers(flight);
+            throw new IllegalStateException("db down");
+        }, published::put));
+        for (Future<String> result : results) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(1, flight.failureCount());
+        assertEquals("v2", flight.load("k", k -> "v2", published::put));
+    }
+
+    @Test
+    public void invalidationDuringLoadDropsResult() {
+        SingleFlight<String, String> flight = new SingleFlight<>(5000);
+        String value = flight.load("k", k -> {
+            flight.invalidate(k, () -> published.remove(k));
+            return "stale";
+        }, published::put);
+        assertEquals("stale", value);
+        assertFalse(published.containsKey("k"));
+    }
+
+    @Test
+    public void waiterTimesOut() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> flight.load("k", k -> {
+                started.countDown();
+                await(release);
+                return "v";
+            }, published::put));
+            started.await();
+            assertThrows(BizException.class, () -> flight.load("k", k -> "other", published::put));
+            assertEquals(1, flight.timeoutCount());
+            release.countDown();
+            assertEquals("v", leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Future<String>> runConcurrently(Callable<String> task) {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(task));
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    /**
+     * 加载线程在其余线程全部加入等待后才返回，保证每个调用方都走合并路径
+     */
+    private static void awaitFollowers(SingleFlight<?, ?> flight) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.collapsedCount() < THREADS - 1) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new AssertionError("等待者未全部加入");
+            }
+            Thread.yield();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.timemachinelab.common;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConfigDataTypeTest {
+
+    @Test
+    public void parsesValuesByType() {
+        assertEquals("abc", ConfigDataType.STRING.parse("abc"));
+        assertEquals(42L, ConfigDataType.INT.parse(" 42 "));
+        assertEquals(Boolean.TRUE, ConfigDataType.BOOLEAN.parse("TRUE"));
+        JsonNode json = (JsonNode) ConfigDataType.JSON.parse("{\"a\":[1,2]}");
+        assertEquals(2, json.get("a").size());
+        assertNull(ConfigDataType.INT.parse(null));
+    }
+
+    @Test
+    public void rejectsMismatchedValues() {
+        assertThrows(IllegalArgumentException.class, () -> ConfigDataType.INT.parse("1.5"));
+        assertThrows(IllegalArgumentException.class, () -> ConfigDataType.BOOLEAN.parse("yes"));
+        assertThrows(IllegalArgumentException.class, () -> ConfigDataType.JSON.parse("{a:"));
+    }
+
+    @Test
+    public void rejectsTrailingTokensInJson() {
+        assertThrows(IllegalArgumentException.class, () -> ConfigDataType.JSON.parse("{\"a\":1}x"));
+        assertThrows(IllegalArgumentException.class, () -> ConfigDataType.JSON.parse("{} {}"));
+        assertThrows(IllegalArgumentException.class, () -> ConfigDataType.JSON.parse("1 2"));
+        assertNull(ConfigDataType.check("json", " {\"a\":1}\n"));
+    }
+
+    @Test
+    public void rejectsBlankOrNullJson() {
+        assertThrows(IllegalArgumentException.class, () -> ConfigDataType.JSON.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> ConfigDataType.JSON.parse("   "));
+        assertThrows(IllegalArgumentException.class, () -> ConfigDataType.JSON.parse("null"));
+        assertNotNull(ConfigDataType.check("json", " null "));
+    }
+
+    @Test
+    public void checkResolvesTypeCodes() {
+        assertNull(ConfigDataType.check(null, "anything"));
+        assertNull(ConfigDataType.check("Int", "7"));
+        assertNotNull(ConfigDataType.check("int", "seven"));
+        assertTrue(ConfigDataType.check("double", "1.0").startsWith("不支持的数据类型"));
+    }
+}
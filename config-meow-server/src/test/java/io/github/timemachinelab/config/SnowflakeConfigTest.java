@@ -0,0 +1,29 @@
+package io.github.timemachinelab.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SnowflakeConfigTest {
+
+    @Test
+    public void configuredWorkerIdWins() {
+        assertEquals(5L, SnowflakeConfig.resolveWorkerId(5L, "config-meow-3"));
+    }
+
+    @Test
+    public void workerIdFallsBackToHostOrdinal() {
+        assertEquals(3L, SnowflakeConfig.resolveWorkerId(null, "config-meow-3"));
+        assertEquals(0L, SnowflakeConfig.resolveWorkerId(null, "config-meow-0"));
+    }
+
+    @Test
+    public void missingWorkerIdFailsFast() {
+        assertThrows(IllegalStateException.class, () -> SnowflakeConfig.resolveWorkerId(null, "config-meow"));
+        assertThrows(IllegalStateException.class, () -> SnowflakeConfig.resolveWorkerId(null, "7f3a9c2e1b"));
+        assertThrows(IllegalStateException.class, () -> SnowflakeConfig.resolveWorkerId(null, null));
+        // 序号位数过长时直接拒绝，不截断
+        assertThrows(IllegalStateException.class, () -> SnowflakeConfig.resolveWorkerId(null, "web-123456"));
+    }
+}
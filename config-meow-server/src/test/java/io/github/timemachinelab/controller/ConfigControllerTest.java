@@ -0,0 +1,337 @@
+package io.github.timemachinelab.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.timemachinelab.cache.ConfigCacheEntry;
+import io.github.timemachinelab.cache.EncodedSnapshotCache;
+import io.github.timemachinelab.common.GlobalExceptionHandler;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.common.VersionConflictException;
+import io.github.timemachinelab.config.BatchProperties;
+import io.github.timemachinelab.config.CacheProperties;
+import io.github.timemachinelab.config.DbExecutorProperties;
+import io.github.timemachinelab.config.RateLimitProperties;
+import io.github.timemachinelab.datasource.DbExecutor;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.ImportResult;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import io.github.timemachinelab.pojo.dto.TypedConfigValue;
+import io.github.timemachinelab.ratelimit.RateLimitBodyAdvice;
+import io.github.timemachinelab.ratelimit.RateLimitInterceptor;
+import io.github.timemachinelab.ratelimit.RateLimiter;
+import io.github.timemachinelab.service.ConfigService;
+import io.github.timemachinelab.transfer.ConfigFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ConfigControllerTest {
+
+    private final ConfigService configService = mock(ConfigService.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private DbExecutor dbExecutor;
+
+    @AfterEach
+    public void shutdown() throws InterruptedException {
+        if (dbExecutor != null) {
+            dbExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void cacheHitsAreServedWithoutExecutor() throws Exception {
+        DbExecutor executor = mock(DbExecutor.class);
+        MockMvc mockMvc = mockMvc(executor);
+        ConfigCacheEntry entry = ConfigCacheEntry.of(item("30"));
+        when(configService.peekConfig("ctl-app", "dev", "timeout")).thenReturn(entry);
+        when(configService.toTypedConfig("ctl-app", "dev", "timeout", entry))
+                .thenReturn(new TypedConfigValue("ctl-app", "dev", "timeout", "int", 30L));
+        when(configService.peekNamespaceSnapshot("ctl-app", "dev"))
+                .thenReturn(NamespaceSnapshot.of("ctl-app", "dev", Collections.singletonList(item("30"))));
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/config/api/get")
+                        .param("appName", "ctl-app").param("environment", "dev").param("configKey", "timeout"))
+                        .andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.configValue").value("30"));
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/config/api/typed")
+                        .param("appName", "ctl-app").param("environment", "dev").param("configKey", "timeout"))
+                        .andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.value").value(30));
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/config/api/snapshot")
+                        .param("appName", "ctl-app").param("environment", "dev"))
+                        .andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.data.items[0].configKey").value("timeout"));
+
+        verify(executor, never()).submit(any());
+        verify(configService, never()).getConfigByKey(any(), any(), any());
+        verify(configService, never()).getNamespaceSnapshot(any(), any());
+    }
+
+    @Test
+    public void versionConflictCarriesCurrentItemThroughAsyncPath() throws Exception {
+        dbExecutor = new DbExecutor(new DbExecutorProperties());
+        MockMvc mockMvc = mockMvc(dbExecutor);
+        when(configService.compareAndSetConfig(any(ConfigItemDTO.class), eq(1)))
+                .thenThrow(new VersionConflictException("期望版本1，当前版本为2", item("31")));
+
+        MvcResult pending = mockMvc.perform(post("/config/api/set").param("expectedVersion", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item("32"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(ResultCode.VERSION_CONFLICT.getCode()))
+                .andExpect(jsonPath("$.data.configValue").value("31"))
+                .andExpect(jsonPath("$.data.version").value(2));
+        verify(configService).compareAndSetConfig(any(ConfigItemDTO.class), anyInt());
+    }
+
+    @Test
+    public void snapshotETagDiffersPerRepresentation() throws Exception {
+        MockMvc mockMvc = mockMvc(mock(DbExecutor.class));
+        NamespaceSnapshot snapshot = NamespaceSnapshot.of("ctl-app", "dev", Collections.singletonList(item("30")));
+        when(configService.peekNamespaceSnapshot("ctl-app", "dev")).thenReturn(snapshot);
+        String version = "\"" + snapshot.getVersion() + "\"";
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/config/api/snapshot")
+                        .param("appName", "ctl-app").param("environment", "dev")
+                        .header("If-None-Match", version))
+                        .andReturn()))
+                .andExpect(status().isNotModified());
+        // CBOR表示的ETag不同，不能用JSON表示的ETag得到304
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/config/api/snapshot")
+                        .param("appName", "ctl-app").param("environment", "dev")
+                        .header("Accept", "application/cbor")
+                        .header("If-None-Match", version))
+                        .andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + snapshot.getVersion() + "-cbor\""));
+
+        assertEquals("v1-smile-inline-gzip", ConfigController.snapshotETag("v1",
+                EncodedSnapshotCache.APPLICATION_SMILE, true, true));
+        assertEquals("v1-gzip", ConfigController.snapshotETag("v1", MediaType.APPLICATION_JSON, false, true));
+    }
+
+    @Test
+    public void snapshotIsNotModifiedUntilContentChanges() throws Exception {
+        dbExecutor = new DbExecutor(new DbExecutorProperties());
+        MockMvc mockMvc = mockMvc(dbExecutor);
+        NamespaceSnapshot v1 = NamespaceSnapshot.of("ctl-app", "dev", Collections.singletonList(item("30")));
+        // 缓存未命中，经数据库执行器读取快照
+        when(configService.getNamespaceSnapshot("ctl-app", "dev")).thenReturn(v1);
+
+        MvcResult first = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/config/api/snapshot")
+                        .param("appName", "ctl-app").param("environment", "dev"))
+                        .andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + v1.getVersion() + "\""))
+                .andExpect(jsonPath("$.data.version").value(v1.getVersion()))
+                .andReturn();
+        String eTag = first.getResponse().getHeader("ETag");
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/config/api/snapshot")
+                        .param("appName", "ctl-app").param("environment", "dev")
+                        .header("If-None-Match", "\"stale\", " + eTag))
+                        .andReturn()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag));
+
+        // 配置值变化后快照版本随之变化，旧ETag不再命中
+        NamespaceSnapshot v2 = NamespaceSnapshot.of("ctl-app", "dev", Collections.singletonList(item("31")));
+        when(configService.getNamespaceSnapshot("ctl-app", "dev")).thenReturn(v2);
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/config/api/snapshot")
+                        .param("appName", "ctl-app").param("environment", "dev")
+                        .header("If-None-Match", eTag))
+                        .andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + v2.getVersion() + "\""))
+                .andExpect(jsonPath("$.data.items[0].configValue").value("31"));
+    }
+
+    @Test
+    public void jsonBodyRequestsAreLimitedByTheAppInTheBody() throws Exception {
+        dbExecutor = new DbExecutor(new DbExecutorProperties());
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setApp(new RateLimitProperties.Quota(0.001, 1));
+        MockMvc mockMvc = mockMvc(dbExecutor, new RateLimiter(properties));
+        when(configService.batchSetConfig(any())).thenReturn(Collections.emptyList());
+        when(configService.setConfigAsync(any(ConfigItemDTO.class)))
+                .thenReturn(CompletableFuture.completedFuture(true));
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(post("/config/api/batch/set")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Collections.singletonList(item("30")))))
+                        .andReturn()))
+                .andExpect(jsonPath("$.code").value(ResultCode.SUCCESS.getCode()));
+        // 同一应用换用单条写入仍计入该应用的配额
+        mockMvc.perform(post("/config/api/set")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item("31"))))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        mockMvc.perform(asyncDispatch(mockMvc.perform(post("/config/api/set")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item("31").toBuilder().appName("other-app").build())))
+                        .andReturn()))
+                .andExpect(jsonPath("$.code").value(ResultCode.SUCCESS.getCode()));
+
+        // 缺少应用标识的请求被拒绝
+        mockMvc.perform(post("/config/api/batch/set").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(jsonPath("$.code").value(ResultCode.PARAM_ERROR.getCode()));
+        mockMvc.perform(get("/config/api/blob").param("hash", "h1"))
+                .andExpect(jsonPath("$.code").value(ResultCode.PARAM_ERROR.getCode()));
+        verify(configService, never()).getConfigBlob(any());
+    }
+
+    @Test
+    public void exportAndImportRunOnDbExecutor() throws Exception {
+        dbExecutor = new DbExecutor(new DbExecutorProperties());
+        MockMvc mockMvc = mockMvc(dbExecutor);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        when(configService.exportConfigs(eq("ctl-app"), eq("dev"), eq(ConfigFormat.PROPERTIES), any()))
+                .thenAnswer(invocation -> {
+                    threads.add(Thread.currentThread().getName());
+                    OutputStream out = invocation.getArgument(3);
+                    out.write("timeout=30\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+        AtomicReference<String> imported = new AtomicReference<>();
+        when(configService.importConfigs(eq("ctl-app"), eq("dev"), eq(ConfigFormat.PROPERTIES), any(), eq(true)))
+                .thenAnswer(invocation -> {
+                    threads.add(Thread.currentThread().getName());
+                    InputStream in = invocation.getArgument(3);
+                    imported.set(StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+                    return new ImportResult("ctl-app", "dev", true);
+                });
+
+        MvcResult export = mockMvc.perform(get("/config/api/export")
+                        .param("appName", "ctl-app").param("environment", "dev").param("format", "properties"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"ctl-app-dev.properties\""));
+        assertEquals("timeout=30\n", export.getResponse().getContentAsString(StandardCharsets.UTF_8));
+
+        // 请求体转存后在数据库任务线程上读取
+        mockMvc.perform(asyncDispatch(mockMvc.perform(post("/config/api/import")
+                        .param("appName", "ctl-app").param("environment", "dev")
+                        .param("format", "properties").param("dryRun", "true")
+                        .content("timeout=31\n"))
+                        .andReturn()))
+                .andExpect(jsonPath("$.code").value(ResultCode.SUCCESS.getCode()))
+                .andExpect(jsonPath("$.data.dryRun").value(true));
+        assertEquals("timeout=31\n", imported.get());
+        assertEquals(2, threads.size(), threads.toString());
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("config-db-")), threads.toString());
+    }
+
+    @Test
+    public void saturatedDbExecutorAnswers503WithRetryAfter() throws Exception {
+        DbExecutorProperties properties = new DbExecutorProperties();
+        properties.setThreads(1);
+        properties.setQueueCapacity(1);
+        dbExecutor = new DbExecutor(properties);
+        MockMvc mockMvc = mockMvc(dbExecutor);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // 唯一的线程被占用、队列已满
+            dbExecutor.submit(() -> {
+                try {
+                    return release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            });
+            dbExecutor.submit(() -> true);
+
+            mockMvc.perform(get("/config/api/history")
+                            .param("appName", "ctl-app").param("environment", "dev").param("configKey", "timeout"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.code").value(ResultCode.SERVICE_UNAVAILABLE.getCode()));
+            mockMvc.perform(get("/config/api/export").param("appName", "ctl-app").param("environment", "dev"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().doesNotExist("Content-Disposition"));
+            verify(configService, never()).exportConfigs(any(), any(), any(), any());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private MockMvc mockMvc(DbExecutor executor) {
+        return mockMvc(executor, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private MockMvc mockMvc(DbExecutor executor, RateLimiter rateLimiter) {
+        EncodedSnapshotCache encodedSnapshotCache = new EncodedSnapshotCache(objectMapper,
+                new MappingJackson2SmileHttpMessageConverter(), new MappingJackson2CborHttpMessageConverter(),
+                new CacheProperties(), mock(ObjectProvider.class));
+        ConfigController controller = new ConfigController(configService, new BatchProperties(),
+                encodedSnapshotCache, objectMapper, executor);
+        if (rateLimiter == null) {
+            return MockMvcBuilders.standaloneSetup(controller)
+                    .setControllerAdvice(new GlobalExceptionHandler())
+                    .build();
+        }
+        return MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler(), new RateLimitBodyAdvice(rateLimiter))
+                .addInterceptors(new RateLimitInterceptor(rateLimiter))
+                .build();
+    }
+
+    private static ConfigItemDTO item(String configValue) {
+        return ConfigItemDTO.builder()
+                .appName("ctl-app")
+                .environment("dev")
+                .configKey("timeout")
+                .configValue(configValue)
+                .dataType("int")
+                .version(2)
+                .build();
+    }
+}
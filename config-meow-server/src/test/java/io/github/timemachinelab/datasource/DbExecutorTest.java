@@ -0,0 +1,97 @@
+package io.github.timemachinelab.datasource;
+
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.DbExecutorProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DbExecutorTest {
+
+    @Test
+    public void rejectsImmediatelyWhenQueueIsFull() throws Exception {
+        DbExecutorProperties properties = new DbExecutorProperties();
+        properties.setThreads(1);
+        properties.setQueueCapacity(1);
+        DbExecutor executor = new DbExecutor(properties);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> running = executor.submit(() -> {
+                await(release);
+                return "running";
+            });
+            CompletableFuture<String> queued = executor.submit(() -> "queued");
+
+            BizException e = assertThrows(BizException.class, () -> executor.submit(() -> "rejected"));
+            assertEquals(ResultCode.SERVICE_UNAVAILABLE, e.getResultCode());
+
+            release.countDown();
+            assertEquals("running", running.get(5, TimeUnit.SECONDS));
+            assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void skipsTaskThatWaitedTooLongInQueue() throws Exception {
+        DbExecutorProperties properties = new DbExecutorProperties();
+        properties.setThreads(1);
+        properties.setQueueTimeout(Duration.ofMillis(50));
+        DbExecutor executor = new DbExecutor(properties);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+        try {
+            CompletableFuture<String> running = executor.submit(() -> {
+                await(release);
+                return "running";
+            });
+            CompletableFuture<String> expired = executor.submit(() -> {
+                ran.set(true);
+                return "expired";
+            });
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals("running", running.get(5, TimeUnit.SECONDS));
+            ExecutionException e = assertThrows(ExecutionException.class, () -> expired.get(5, TimeUnit.SECONDS));
+            assertEquals(ResultCode.SERVICE_UNAVAILABLE, ((BizException) e.getCause()).getResultCode());
+            assertFalse(ran.get());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void runsOnCallerThreadWhenDisabled() throws Exception {
+        DbExecutorProperties properties = new DbExecutorProperties();
+        properties.setEnabled(false);
+        DbExecutor executor = new DbExecutor(properties);
+        Thread caller = Thread.currentThread();
+        CompletableFuture<Boolean> result = executor.submit(() -> Thread.currentThread() == caller);
+        assertTrue(result.isDone());
+        assertTrue(result.get());
+        executor.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
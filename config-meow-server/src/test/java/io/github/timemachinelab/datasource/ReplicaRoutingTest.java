@@ -0,0 +1,156 @@
+package io.github.timemachinelab.datasource;
+
+import io.github.timemachinelab.ConfigMeowApplication;
+import io.github.timemachinelab.config.ReplicaProperties;
+import io.github.timemachinelab.domain.ConfigDomain;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 两个内嵌数据库分别作为主库与副本，两者之间没有复制，以各自写入不同的值区分读取来源
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ReplicaRoutingTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:config_meow_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:config_meow_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static Connection replicaHolder;
+
+    private static ConfigurableApplicationContext context;
+
+    private static ReplicaRoutingDataSource routing;
+
+    @BeforeAll
+    public static void start() throws Exception {
+        replicaHolder = DriverManager.getConnection(REPLICA_URL, "sa", "");
+        try (Statement statement = replicaHolder.createStatement()) {
+            statement.execute("RUNSCRIPT FROM 'classpath:schema-h2.sql'");
+        }
+        context = new SpringApplicationBuilder(ConfigMeowApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=" + PRIMARY_URL,
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.druid.filters=stat",
+                        "--spring.sql.init.mode=always",
+                        "--spring.sql.init.schema-locations=classpath:schema-h2.sql",
+                        "--mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                        "--config-meow.snowflake.worker-id=3",
+                        "--config-meow.scheduling.enabled=false",
+                        "--config-meow.replica.enabled=true",
+                        "--config-meow.replica.nodes[0].name=replica-1",
+                        "--config-meow.replica.nodes[0].url=" + REPLICA_URL,
+                        "--config-meow.replica.max-lag=200ms",
+                        "--config-meow.replica.check-interval=1h");
+        routing = (ReplicaRoutingDataSource) context.getBean(DataSource.class);
+    }
+
+    @AfterAll
+    public static void stop() throws Exception {
+        context.close();
+        replicaHolder.close();
+    }
+
+    @Test
+    @Order(1)
+    public void cacheMissReadsReplicaUntilNamespaceIsWritten() {
+        insert(routing.getPrimary(), "ryw-app", "db.url", "primary");
+        insert(routing.getReplicas().get(0).getDataSource(), "ryw-app", "db.url", "replica");
+        ReplicaHealthChecker checker = context.getBean(ReplicaHealthChecker.class);
+        // 首次检查没有此前的主库样本，副本暂不参与路由
+        checker.check();
+        assertFalse(routing.getReplicas().get(0).isHealthy());
+        checker.check();
+        assertTrue(routing.getReplicas().get(0).isHealthy());
+
+        ConfigDomain domain = context.getBean(ConfigDomain.class);
+        assertEquals("replica", domain.getConfigByKey("ryw-app", "dev", "db.url").getConfigValue());
+
+        // 写入后副本尚未复制，重新加载走主库
+        domain.setConfig(item("ryw-app", "db.url", "written"));
+        assertEquals("written", domain.getConfigByKey("ryw-app", "dev", "db.url").getConfigValue());
+    }
+
+    @Test
+    @Order(2)
+    public void laggingReplicaFallsBackToPrimary() throws InterruptedException {
+        ConfigDomain domain = context.getBean(ConfigDomain.class);
+        ReplicaHealthChecker checker = context.getBean(ReplicaHealthChecker.class);
+        domain.setConfig(item("other-app", "k", "v"));
+        checker.check();
+        Thread.sleep(300);
+        checker.check();
+        assertFalse(routing.getReplicas().get(0).isHealthy());
+
+        insert(routing.getPrimary(), "lag-app", "db.url", "primary");
+        insert(routing.getReplicas().get(0).getDataSource(), "lag-app", "db.url", "replica");
+        assertEquals("primary", domain.getConfigByKey("lag-app", "dev", "db.url").getConfigValue());
+        assertTrue(routing.getFallbackReads() > 0);
+    }
+
+    @Test
+    @Order(3)
+    public void replicaBehindPrimaryIsNotHealthyUntilItReachesAnEarlierSample() {
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setMaxLag(Duration.ofSeconds(5));
+        ReplicaHealthChecker checker = new ReplicaHealthChecker(routing, properties);
+        ReplicaNode replica = routing.getReplicas().get(0);
+        long primarySeq = new JdbcTemplate(routing.getPrimary())
+                .queryForObject("SELECT MAX(seq) FROM config_change_log", Long.class);
+        assertTrue(primarySeq > 0);
+
+        // 刚启动时主库的样本与副本读取来自同一次检查，远远落后的副本不能以延迟为0视为健康
+        checker.check();
+        assertFalse(replica.isHealthy());
+        assertEquals(-1, replica.getLagMillis());
+        // 仍未复制到任何此前的样本
+        checker.check();
+        assertFalse(replica.isHealthy());
+        assertTrue(replica.getLagMillis() >= 0);
+
+        // 副本复制到此前样本的序号后恢复
+        new JdbcTemplate(replica.getDataSource()).update("INSERT INTO config_change_log (seq, app_name, environment,"
+                + " config_key, op_type, revision, node_id, created_time)"
+                + " VALUES (?, 'other-app', 'dev', 'k', 'SET', 1, 'test', CURRENT_TIMESTAMP)", primarySeq);
+        checker.check();
+        assertTrue(replica.isHealthy());
+        assertEquals(0, replica.getLagMillis());
+    }
+
+    private static void insert(DataSource dataSource, String appName, String configKey, String configValue) {
+        new JdbcTemplate(dataSource).update("INSERT INTO config_item (id, app_name, environment, config_key, config_value)"
+                + " VALUES (?, ?, 'dev', ?, ?)", appName + "/" + configKey, appName, configKey, configValue);
+    }
+
+    private static ConfigItemDTO item(String appName, String configKey, String configValue) {
+        return ConfigItemDTO.builder()
+                .appName(appName)
+                .environment("dev")
+                .configKey(configKey)
+                .configValue(configValue)
+                .build();
+    }
+}
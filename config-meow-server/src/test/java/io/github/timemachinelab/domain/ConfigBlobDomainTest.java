@@ -0,0 +1,101 @@
+package io.github.timemachinelab.domain;
+
+import io.github.timemachinelab.ConfigMeowApplication;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ConfigBlobDomainTest {
+
+    private static ConfigurableApplicationContext context;
+
+    private static ConfigDomain domain;
+
+    private static ConfigBlobDomain blobDomain;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    public static void start() {
+        context = new SpringApplicationBuilder(ConfigMeowApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:config_meow_blob;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.druid.filters=stat",
+                        "--spring.sql.init.mode=always",
+                        "--spring.sql.init.schema-locations=classpath:schema-h2.sql",
+                        "--mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                        "--config-meow.blob.threshold=1KB",
+                        "--config-meow.blob.purge-grace-period=0s",
+                        "--config-meow.snowflake.worker-id=5");
+        domain = context.getBean(ConfigDomain.class);
+        blobDomain = context.getBean(ConfigBlobDomain.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @AfterAll
+    public static void stop() {
+        context.close();
+    }
+
+    @Test
+    public void largeValuesAreStoredOnceAndReadLazily() {
+        String large = randomText(8192);
+        domain.setConfig(item("a", large));
+        domain.setConfig(item("b", large));
+        domain.setConfig(item("small", "1"));
+
+        ConfigItemDTO a = domain.getConfigByKey("blob-app", "dev", "a");
+        assertEquals(large, a.getConfigValue());
+        assertNotNull(a.getValueRef());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM config_blob", Integer.class));
+
+        NamespaceSnapshot snapshot = domain.getNamespaceSnapshot("blob-app", "dev");
+        for (ConfigItemDTO item : snapshot.getItems()) {
+            if (!"small".equals(item.getConfigKey())) {
+                assertNull(item.getConfigValue());
+                assertEquals(a.getValueRef(), item.getValueRef());
+            }
+        }
+        assertEquals(large, blobDomain.inline(snapshot).getItems().get(0).getConfigValue());
+
+        // 历史仍引用时不回收
+        domain.deleteConfig("blob-app", "dev", "a");
+        domain.setConfig(item("b", "2"));
+        assertEquals(0, blobDomain.purge());
+        assertEquals(large, blobDomain.load(a.getValueRef()));
+    }
+
+    private static String randomText(int length) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    private static ConfigItemDTO item(String configKey, String configValue) {
+        return ConfigItemDTO.builder()
+                .appName("blob-app")
+                .environment("dev")
+                .configKey(configKey)
+                .configValue(configValue)
+                .build();
+    }
+}
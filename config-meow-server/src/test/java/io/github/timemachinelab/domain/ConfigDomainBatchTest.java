@@ -0,0 +1,141 @@
+package io.github.timemachinelab.domain;
+
+import io.github.timemachinelab.ConfigMeowApplication;
+import io.github.timemachinelab.pojo.dto.BatchItemResult;
+import io.github.timemachinelab.pojo.dto.ConfigHistoryDTO;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量写入：分块大小设为2，使少量条目即跨越多个多行SQL
+ */
+public class ConfigDomainBatchTest {
+
+    private static ConfigurableApplicationContext context;
+
+    private static ConfigDomain domain;
+
+    private static ConfigHistoryDomain historyDomain;
+
+    @BeforeAll
+    public static void start() {
+        context = new SpringApplicationBuilder(ConfigMeowApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:config_meow_batch;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.druid.filters=stat",
+                        "--spring.sql.init.mode=always",
+                        "--spring.sql.init.schema-locations=classpath:schema-h2.sql",
+                        "--mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                        "--config-meow.batch.chunk-size=2",
+                        "--config-meow.snowflake.worker-id=9");
+        domain = context.getBean(ConfigDomain.class);
+        historyDomain = context.getBean(ConfigHistoryDomain.class);
+    }
+
+    @AfterAll
+    public static void stop() {
+        context.close();
+    }
+
+    @Test
+    public void duplicateKeysLastWins() {
+        List<BatchItemResult> results = domain.batchSetConfig(Arrays.asList(
+                item("dup-app", "k", "1"), item("dup-app", "other", "x"), item("dup-app", "k", "2")));
+
+        assertTrue(results.get(0).getSuccess());
+        assertEquals("已被同批次后续条目覆盖", results.get(0).getMessage());
+        assertTrue(results.get(1).getSuccess());
+        assertTrue(results.get(2).getSuccess());
+        assertNull(results.get(2).getMessage());
+        assertEquals("2", domain.getConfigByKey("dup-app", "dev", "k").getConfigValue());
+        // 被覆盖的条目不单独写入，只产生一条历史
+        assertEquals(1, historyDomain.getHistory("dup-app", "dev", "k", 10).size());
+    }
+
+    @Test
+    public void invalidItemsFailWithoutAffectingOthers() {
+        ConfigItemDTO typed = item("invalid-app", "port", "not-a-number");
+        typed.setDataType("int");
+        List<BatchItemResult> results = domain.batchSetConfig(Arrays.asList(
+                null, item("invalid-app", "", "1"), typed, item("invalid-app", "ok", "1")));
+
+        BatchItemResult missing = results.get(0);
+        assertFalse(missing.getSuccess());
+        assertNull(missing.getAppName());
+        assertNotNull(missing.getMessage());
+        assertFalse(results.get(1).getSuccess());
+        assertEquals("invalid-app", results.get(1).getAppName());
+        assertFalse(results.get(2).getSuccess());
+        assertEquals("port", results.get(2).getConfigKey());
+        assertTrue(results.get(3).getSuccess());
+        assertNull(domain.getConfigByKey("invalid-app", "dev", "port"));
+        assertEquals("1", domain.getConfigByKey("invalid-app", "dev", "ok").getConfigValue());
+
+        List<BatchItemResult> deleted = domain.batchDeleteConfig(Arrays.asList(
+                item("invalid-app", "ok", null), item("invalid-app", "absent", null), null));
+        assertTrue(deleted.get(0).getSuccess());
+        assertFalse(deleted.get(1).getSuccess());
+        assertEquals("找不到配置", deleted.get(1).getMessage());
+        assertFalse(deleted.get(2).getSuccess());
+        assertNull(domain.getConfigByKey("invalid-app", "dev", "ok"));
+    }
+
+    @Test
+    public void batchesLargerThanChunkSizeAreWrittenCompletely() {
+        List<ConfigItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            items.add(item("chunk-app", "key." + i, "v" + i));
+        }
+        items.add(item("chunk-other", "key.0", "o"));
+        for (BatchItemResult result : domain.batchSetConfig(items)) {
+            assertTrue(result.getSuccess());
+        }
+
+        // 跨越多个分块的写入仍属于同一命名空间修订号
+        Set<Long> revisions = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            assertEquals("v" + i, domain.getConfigByKey("chunk-app", "dev", "key." + i).getConfigValue());
+            List<ConfigHistoryDTO> history = historyDomain.getHistory("chunk-app", "dev", "key." + i, 10);
+            assertEquals(1, history.size());
+            revisions.add(history.get(0).getRevision());
+        }
+        assertEquals(1, revisions.size());
+        assertEquals("o", domain.getConfigByKey("chunk-other", "dev", "key.0").getConfigValue());
+
+        for (BatchItemResult result : domain.batchDeleteConfig(items.subList(0, 5))) {
+            assertTrue(result.getSuccess());
+        }
+        assertTrue(domain.getNamespaceSnapshot("chunk-app", "dev").getItems().isEmpty());
+        assertEquals("o", domain.getConfigByKey("chunk-other", "dev", "key.0").getConfigValue());
+    }
+
+    private static ConfigItemDTO item(String appName, String configKey, String configValue) {
+        return ConfigItemDTO.builder()
+                .appName(appName)
+                .environment("dev")
+                .configKey(configKey)
+                .configValue(configValue)
+                .build();
+    }
+}
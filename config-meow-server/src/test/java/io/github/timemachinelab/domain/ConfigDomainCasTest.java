@@ -0,0 +1,167 @@
+package io.github.timemachinelab.domain;
+
+import io.github.timemachinelab.ConfigMeowApplication;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.common.VersionConflictException;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ConfigDomainCasTest {
+
+    private static final int WRITERS = 4;
+
+    private static final int INCREMENTS = 10;
+
+    private static ConfigurableApplicationContext context;
+
+    private static ConfigDomain domain;
+
+    @BeforeAll
+    public static void start() {
+        context = new SpringApplicationBuilder(ConfigMeowApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:config_meow_cas;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.druid.filters=stat",
+                        "--spring.sql.init.mode=always",
+                        "--spring.sql.init.schema-locations=classpath:schema-h2.sql",
+                        "--mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                        "--config-meow.snowflake.worker-id=4");
+        domain = context.getBean(ConfigDomain.class);
+    }
+
+    @AfterAll
+    public static void stop() {
+        context.close();
+    }
+
+    @Test
+    public void conflictCarriesCurrentItem() {
+        assertEquals(1, domain.compareAndSetConfig(item("k", "a"), 0));
+        VersionConflictException conflict = assertThrows(VersionConflictException.class,
+                () -> domain.compareAndSetConfig(item("k", "b"), 0));
+        assertEquals("a", conflict.getCurrent().getConfigValue());
+        assertEquals(1, conflict.getCurrent().getVersion());
+        // 版本冲突与配置已存在使用不同的错误码
+        assertEquals(414, conflict.getResultCode().getCode());
+        assertNotEquals(ResultCode.CONFLICT.getCode(), conflict.getResultCode().getCode());
+
+        // 返回存储写入的版本号
+        assertEquals(2, domain.compareAndSetConfig(item("k", "b"), 1));
+        assertEquals(2, domain.getConfigByKey("cas-app", "dev", "k").getVersion());
+        assertThrows(VersionConflictException.class, () -> domain.compareAndDeleteConfig("cas-app", "dev", "k", 1));
+        domain.compareAndDeleteConfig("cas-app", "dev", "k", 2);
+        assertNull(domain.getConfigByKey("cas-app", "dev", "k"));
+    }
+
+    @Test
+    public void createFailureIsNotReportedAsConflict() {
+        StringBuilder longKey = new StringBuilder();
+        for (int i = 0; i < 201; i++) {
+            longKey.append('k');
+        }
+        // 超长配置键违反列长度，不应被当作“已存在”的版本冲突
+        assertThrows(DataIntegrityViolationException.class,
+                () -> domain.compareAndSetConfig(item(longKey.toString(), "a"), 0));
+        assertNull(domain.getConfigByKey("cas-app", "dev", longKey.toString()));
+    }
+
+    @Test
+    public void valueTypeIsCheckedAgainstInactiveConfig() {
+        domain.setConfig(item("inactive-port", "8080").toBuilder().dataType("int").isActive(false).build());
+        assertNull(domain.getConfigByKey("cas-app", "dev", "inactive-port"));
+
+        // 未提交 dataType 时沿用存储中未激活配置的类型
+        BizException e = assertThrows(BizException.class, () -> domain.setConfig(item("inactive-port", "abc")));
+        assertEquals(ResultCode.CONFIG_VALUE_INVALID, e.getResultCode());
+        assertNull(domain.checkValueType(item("inactive-port", "9090")));
+    }
+
+    @Test
+    public void writesInvalidateCachedReads() {
+        assertNull(domain.getConfigByKey("cas-app", "dev", "cached"));
+        // 不存在的结果也被缓存，写入后必须失效
+        assertNotNull(domain.peekConfig("cas-app", "dev", "cached"));
+        domain.setConfig(item("cached", "1"));
+        assertNull(domain.peekConfig("cas-app", "dev", "cached"));
+        assertEquals("1", domain.getConfigByKey("cas-app", "dev", "cached").getConfigValue());
+
+        domain.setConfig(item("cached", "2"));
+        assertEquals("2", domain.getConfigByKey("cas-app", "dev", "cached").getConfigValue());
+        domain.deleteConfig("cas-app", "dev", "cached");
+        assertNull(domain.getConfigByKey("cas-app", "dev", "cached"));
+    }
+
+    @Test
+    public void concurrentIncrementsAreNotLost() throws Exception {
+        domain.compareAndSetConfig(item("counter", "0"), 0);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                tasks.add(() -> {
+                    for (int n = 0; n < INCREMENTS; n++) {
+                        increment();
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        ConfigItemDTO counter = domain.getConfigByKey("cas-app", "dev", "counter");
+        assertEquals(String.valueOf(WRITERS * INCREMENTS), counter.getConfigValue());
+        assertEquals(WRITERS * INCREMENTS + 1, counter.getVersion());
+    }
+
+    /**
+     * 乐观并发：冲突时直接使用返回的当前配置重试，不额外读取
+     */
+    private static void increment() {
+        ConfigItemDTO current = domain.getConfigByKey("cas-app", "dev", "counter");
+        while (true) {
+            int next = Integer.parseInt(current.getConfigValue()) + 1;
+            try {
+                domain.compareAndSetConfig(item("counter", String.valueOf(next)), current.getVersion());
+                return;
+            } catch (VersionConflictException e) {
+                current = e.getCurrent();
+            }
+        }
+    }
+
+    private static ConfigItemDTO item(String configKey, String configValue) {
+        return ConfigItemDTO.builder()
+                .appName("cas-app")
+                .environment("dev")
+                .configKey(configKey)
+                .configValue(configValue)
+                .build();
+    }
+}
@@ -0,0 +1,184 @@
+package io.github.timemachinelab.domain;
+
+import io.github.timemachinelab.ConfigMeowApplication;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.HistoryProperties;
+import io.github.timemachinelab.pojo.dto.ConfigHistoryDTO;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import io.github.timemachinelab.pojo.dto.RollbackResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConfigHistoryDomainTest {
+
+    private static ConfigurableApplicationContext context;
+
+    private static ConfigDomain domain;
+
+    private static ConfigHistoryDomain historyDomain;
+
+    @BeforeAll
+    public static void start() {
+        context = new SpringApplicationBuilder(ConfigMeowApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:config_meow_history;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.druid.filters=stat",
+                        "--spring.sql.init.mode=always",
+                        "--spring.sql.init.schema-locations=classpath:schema-h2.sql",
+                        "--mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                        "--config-meow.blob.threshold=1KB",
+                        "--config-meow.history.compaction-enabled=false",
+                        "--config-meow.snowflake.worker-id=7");
+        domain = context.getBean(ConfigDomain.class);
+        historyDomain = context.getBean(ConfigHistoryDomain.class);
+    }
+
+    @AfterAll
+    public static void stop() {
+        context.close();
+    }
+
+    @Test
+    public void historyAndPointInTimeSnapshots() {
+        LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+        domain.setConfig(item("history-app", "a", "1"));
+        domain.setConfig(item("history-app", "b", "2"));
+        domain.setConfig(item("history-app", "a", "3"));
+        domain.deleteConfig("history-app", "dev", "b");
+
+        List<ConfigHistoryDTO> historyOfA = historyDomain.getHistory("history-app", "dev", "a", 10);
+        assertEquals(Arrays.asList(3L, 1L), revisions(historyOfA));
+        assertEquals("3", historyOfA.get(0).getConfigValue());
+        List<ConfigHistoryDTO> historyOfB = historyDomain.getHistory("history-app", "dev", "b", 10);
+        assertEquals(Arrays.asList(4L, 2L), revisions(historyOfB));
+        assertEquals(Arrays.asList("DELETE", "SET"), Arrays.asList(historyOfB.get(0).getOpType(),
+                historyOfB.get(1).getOpType()));
+        assertEquals(1, historyDomain.getHistory("history-app", "dev", "a", 1).size());
+
+        Map<String, String> atTwo = values(historyDomain.getSnapshotAt("history-app", "dev", 2));
+        assertEquals("1", atTwo.get("a"));
+        assertEquals("2", atTwo.get("b"));
+        Map<String, String> atFour = values(historyDomain.getSnapshotAt("history-app", "dev", 4));
+        assertEquals("3", atFour.get("a"));
+        assertEquals(1, atFour.size());
+        // 时点快照：写入之前为空，之后与最新修订号一致
+        assertTrue(historyDomain.getSnapshotAt("history-app", "dev", before).getItems().isEmpty());
+        assertEquals(atFour, values(historyDomain.getSnapshotAt("history-app", "dev",
+                LocalDateTime.now().plusMinutes(1))));
+
+        BizException e = assertThrows(BizException.class,
+                () -> historyDomain.getSnapshotAt("history-app", "dev", 5));
+        assertEquals(ResultCode.PARAM_ERROR, e.getResultCode());
+    }
+
+    @Test
+    public void rollbackRestoresChangedKeysOnly() {
+        String large = randomText(4096);
+        domain.setConfig(item("rollback-app", "big", large));
+        domain.setConfig(item("rollback-app", "x", "1"));
+        domain.setConfig(item("rollback-app", "x", "2"));
+        domain.setConfig(item("rollback-app", "y", "3"));
+        assertNotNull(historyDomain.getSnapshotAt("rollback-app", "dev", 2).getItems().get(0).getValueRef());
+
+        RollbackResult result = domain.rollbackNamespace("rollback-app", "dev", 2);
+        // 大配置值按 valueRef 比较，未变化时不重写
+        assertEquals(Integer.valueOf(1), result.getRestored());
+        assertEquals(Integer.valueOf(1), result.getDeleted());
+        assertEquals(Long.valueOf(5), result.getRevision());
+
+        assertEquals("1", domain.getConfigByKey("rollback-app", "dev", "x").getConfigValue());
+        assertEquals(large, domain.getConfigByKey("rollback-app", "dev", "big").getConfigValue());
+        assertNull(domain.getConfigByKey("rollback-app", "dev", "y"));
+        assertEquals(Collections.singletonList(1L), revisions(historyDomain.getHistory("rollback-app", "dev", "big", 10)));
+        assertEquals(Arrays.asList(5L, 3L, 2L), revisions(historyDomain.getHistory("rollback-app", "dev", "x", 10)));
+    }
+
+    @Test
+    public void compactionKeepsRetainedRevisionsReadable() {
+        domain.setConfig(item("compact-app", "keep", "1"));
+        for (int i = 2; i <= 6; i++) {
+            domain.setConfig(item("compact-app", "k", "v" + i));
+        }
+        HistoryProperties properties = context.getBean(HistoryProperties.class);
+        long retainRevisions = properties.getRetainRevisions();
+        Duration retainPeriod = properties.getRetainPeriod();
+        properties.setRetainRevisions(2);
+        properties.setRetainPeriod(Duration.ZERO);
+        try {
+            historyDomain.compact();
+        } finally {
+            properties.setRetainRevisions(retainRevisions);
+            properties.setRetainPeriod(retainPeriod);
+        }
+
+        // 保留下限为修订号4：更早且已被覆盖的历史被删除，未被覆盖的 keep 保留
+        assertEquals(Arrays.asList(6L, 5L, 4L), revisions(historyDomain.getHistory("compact-app", "dev", "k", 10)));
+        assertEquals(1, historyDomain.getHistory("compact-app", "dev", "keep", 10).size());
+        Map<String, String> atFour = values(historyDomain.getSnapshotAt("compact-app", "dev", 4));
+        assertEquals("1", atFour.get("keep"));
+        assertEquals("v4", atFour.get("k"));
+        BizException e = assertThrows(BizException.class,
+                () -> historyDomain.getSnapshotAt("compact-app", "dev", 3));
+        assertEquals(ResultCode.HISTORY_NOT_RETAINED, e.getResultCode());
+    }
+
+    private static List<Long> revisions(List<ConfigHistoryDTO> histories) {
+        List<Long> revisions = new ArrayList<>(histories.size());
+        for (ConfigHistoryDTO history : histories) {
+            revisions.add(history.getRevision());
+        }
+        return revisions;
+    }
+
+    private static Map<String, String> values(NamespaceSnapshot snapshot) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (ConfigItemDTO item : snapshot.getItems()) {
+            values.put(item.getConfigKey(), item.getConfigValue());
+        }
+        return values;
+    }
+
+    private static ConfigItemDTO item(String appName, String configKey, String configValue) {
+        return ConfigItemDTO.builder()
+                .appName(appName)
+                .environment("dev")
+                .configKey(configKey)
+                .configValue(configValue)
+                .build();
+    }
+
+    private static String randomText(int length) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.timemachinelab.domain;
+
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ConfigQueryDomainTest {
+
+    @Test
+    public void prefixEscapesLikeMetacharacters() {
+        assertEquals("db.%", ConfigQueryDomain.toLikePattern("db.", null));
+        assertEquals("100\\%\\_off\\\\x%", ConfigQueryDomain.toLikePattern("100%_off\\x", null));
+        // 前缀中的通配符按字面匹配
+        assertEquals("a*?%", ConfigQueryDomain.toLikePattern("a*?", null));
+    }
+
+    @Test
+    public void patternTranslatesGlobAndEscapesTheRest() {
+        assertEquals("db.%.url", ConfigQueryDomain.toLikePattern(null, "db.*.url"));
+        assertEquals("key_", ConfigQueryDomain.toLikePattern(null, "key?"));
+        assertEquals("a\\_b\\%%", ConfigQueryDomain.toLikePattern(null, "a_b%*"));
+        assertEquals("c:\\\\tmp", ConfigQueryDomain.toLikePattern(null, "c:\\tmp"));
+    }
+
+    @Test
+    public void noFilterOrBothFilters() {
+        assertNull(ConfigQueryDomain.toLikePattern(null, null));
+        BizException e = assertThrows(BizException.class, () -> ConfigQueryDomain.toLikePattern("a", "b*"));
+        assertEquals(ResultCode.PARAM_ERROR, e.getResultCode());
+    }
+}
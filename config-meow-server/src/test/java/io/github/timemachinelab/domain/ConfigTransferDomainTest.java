@@ -0,0 +1,186 @@
+package io.github.timemachinelab.domain;
+
+import io.github.timemachinelab.ConfigMeowApplication;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.ImportChange;
+import io.github.timemachinelab.pojo.dto.ImportResult;
+import io.github.timemachinelab.transfer.ConfigFormat;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 导入导出：分块大小设为2、明细上限设为4，以 transfer/namespace.ndjson 为语料
+ */
+public class ConfigTransferDomainTest {
+
+    private static ConfigurableApplicationContext context;
+
+    private static ConfigDomain domain;
+
+    private static ConfigTransferDomain transferDomain;
+
+    @BeforeAll
+    public static void start() {
+        context = new SpringApplicationBuilder(ConfigMeowApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:config_meow_transfer;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.druid.filters=stat",
+                        "--spring.sql.init.mode=always",
+                        "--spring.sql.init.schema-locations=classpath:schema-h2.sql",
+                        "--mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                        "--config-meow.transfer.chunk-size=2",
+                        "--config-meow.transfer.max-reported-changes=4",
+                        "--config-meow.snowflake.worker-id=11");
+        domain = context.getBean(ConfigDomain.class);
+        transferDomain = context.getBean(ConfigTransferDomain.class);
+    }
+
+    @AfterAll
+    public static void stop() {
+        context.close();
+    }
+
+    @Test
+    public void dryRunDiffsAgainstDatabaseWithoutWriting() throws IOException {
+        domain.setConfig(item("dry", "db.pool.max", "10", "int", null));
+        domain.setConfig(item("dry", "db.url", "jdbc:mysql://db:3306/orders?useUnicode=true", "string", "主库连接"));
+
+        ImportResult dryRun = importFixture("dry", true);
+        assertCounts(dryRun, 5, 3, 1, 1, 0);
+        assertTrue(dryRun.getDryRun());
+        assertFalse(dryRun.isTruncated());
+        ImportChange update = dryRun.getChanges().get(0);
+        assertEquals("db.pool.max", update.getConfigKey());
+        assertEquals("UPDATE", update.getOp());
+        assertEquals("10", update.getOldValue());
+        assertEquals("20", update.getNewValue());
+        assertEquals("ADD", dryRun.getChanges().get(1).getOp());
+        assertNull(dryRun.getChanges().get(1).getOldValue());
+        // 仅比对，库中配置不变
+        assertEquals("10", domain.getConfigByKey("transfer-app", "dry", "db.pool.max").getConfigValue());
+        assertNull(domain.getConfigByKey("transfer-app", "dry", "feature.flags"));
+
+        // 实际导入的结果与比对一致，再次比对时全部一致
+        assertCounts(importFixture("dry", false), 5, 3, 1, 1, 0);
+        assertEquals("20", domain.getConfigByKey("transfer-app", "dry", "db.pool.max").getConfigValue());
+        assertNotNull(domain.getConfigByKey("transfer-app", "dry", "feature.flags"));
+        ImportResult again = importFixture("dry", true);
+        assertCounts(again, 5, 0, 0, 5, 0);
+        assertTrue(again.getChanges().isEmpty());
+    }
+
+    @Test
+    public void propertiesImportIsCheckedAgainstExistingType() {
+        domain.setConfig(item("props", "port", "8080", "int", "端口"));
+
+        ImportResult result = importText("props", ConfigFormat.PROPERTIES, "name=a\nname=b\nport=abc\n", false);
+        // 同一块内重复的配置键以最后一条为准；库中为int类型的配置不接受非数字值
+        assertCounts(result, 3, 1, 0, 0, 1);
+        assertEquals("b", result.getChanges().get(0).getNewValue());
+        ImportChange failed = result.getChanges().get(1);
+        assertEquals("port", failed.getConfigKey());
+        assertEquals("FAILED", failed.getOp());
+        assertEquals("8080", failed.getOldValue());
+        assertNotNull(failed.getMessage());
+        assertEquals("b", domain.getConfigByKey("transfer-app", "props", "name").getConfigValue());
+        assertEquals("8080", domain.getConfigByKey("transfer-app", "props", "port").getConfigValue());
+
+        // properties 不携带数据类型与描述，导入后保持库中原值
+        assertCounts(importText("props", ConfigFormat.PROPERTIES, "port=9090\n", false), 1, 0, 1, 0, 0);
+        ConfigItemDTO port = domain.getConfigByKey("transfer-app", "props", "port");
+        assertEquals("9090", port.getConfigValue());
+        assertEquals("int", port.getDataType());
+        assertEquals("端口", port.getDescription());
+    }
+
+    @Test
+    public void exportedNamespaceImportsAsIdentical() throws IOException {
+        importFixture("source", false);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(5, transferDomain.export("transfer-app", "source", ConfigFormat.NDJSON, out));
+        String exported = new String(out.toByteArray(), StandardCharsets.UTF_8);
+
+        // 导出含未激活配置，导回原命名空间无差异，导入新命名空间全部新增
+        assertCounts(importText("source", ConfigFormat.NDJSON, exported, true), 5, 0, 0, 5, 0);
+        assertCounts(importText("target", ConfigFormat.NDJSON, exported, true), 5, 5, 0, 0, 0);
+    }
+
+    @Test
+    public void malformedInputKeepsEarlierChunks() {
+        String content = "{\"configKey\":\"a\",\"configValue\":\"1\"}\n"
+                + "{\"configKey\":\"b\",\"configValue\":\"2\"}\n"
+                + "{\"configKey\":";
+
+        BizException e = assertThrows(BizException.class,
+                () -> importText("broken", ConfigFormat.NDJSON, content, false));
+        assertEquals(ResultCode.PARAM_ERROR, e.getResultCode());
+        assertTrue(e.getMessage().startsWith("第3条配置解析失败（此前2条变更已写入）"), e.getMessage());
+        assertEquals("1", domain.getConfigByKey("transfer-app", "broken", "a").getConfigValue());
+        assertEquals("2", domain.getConfigByKey("transfer-app", "broken", "b").getConfigValue());
+    }
+
+    @Test
+    public void reportedChangesAreCapped() {
+        ImportResult result = importText("many", ConfigFormat.PROPERTIES, "k1=1\nk2=2\nk3=3\nk4=4\nk5=5\n", true);
+
+        assertCounts(result, 5, 5, 0, 0, 0);
+        assertEquals(4, result.getChanges().size());
+        assertTrue(result.isTruncated());
+    }
+
+    private static ImportResult importFixture(String environment, boolean dryRun) throws IOException {
+        try (InputStream in = ConfigTransferDomainTest.class.getResourceAsStream("/transfer/namespace.ndjson")) {
+            return transferDomain.importConfigs("transfer-app", environment, ConfigFormat.NDJSON, in, dryRun);
+        }
+    }
+
+    private static ImportResult importText(String environment, ConfigFormat format, String content, boolean dryRun) {
+        return transferDomain.importConfigs("transfer-app", environment, format,
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), dryRun);
+    }
+
+    private static void assertCounts(ImportResult result, long total, long added, long updated, long unchanged,
+                                     long failed) {
+        assertEquals(total, result.getTotal(), "total");
+        assertEquals(added, result.getAdded(), "added");
+        assertEquals(updated, result.getUpdated(), "updated");
+        assertEquals(unchanged, result.getUnchanged(), "unchanged");
+        assertEquals(failed, result.getFailed(), "failed");
+    }
+
+    private static ConfigItemDTO item(String environment, String configKey, String configValue, String dataType,
+                                      String description) {
+        return ConfigItemDTO.builder()
+                .appName("transfer-app")
+                .environment(environment)
+                .configKey(configKey)
+                .configValue(configValue)
+                .dataType(dataType)
+                .description(description)
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.timemachinelab.domain;
+
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.cache.ResolvedViewCache;
+import io.github.timemachinelab.config.CacheProperties;
+import io.github.timemachinelab.config.LayerProperties;
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LayeredConfigDomainTest {
+
+    private final ConfigDomain configDomain = mock(ConfigDomain.class);
+
+    private final ConfigBlobDomain blobDomain = mock(ConfigBlobDomain.class);
+
+    private LayeredConfigDomain layeredDomain;
+
+    @BeforeEach
+    public void setUp() {
+        LayerProperties layerProperties = new LayerProperties();
+        layerProperties.setEnabled(true);
+        when(blobDomain.inline(any(ConfigItemDTO.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        layeredDomain = new LayeredConfigDomain(configDomain,
+                new ResolvedViewCache(new CacheProperties(), layerProperties), layerProperties, blobDomain);
+
+        layer("_global", "default", item("_global", "default", "timeout", "10"),
+                item("_global", "default", "retries", "1"), item("_global", "default", "region", "eu"),
+                item("_global", "default", "zone", "a"));
+        layer("shop", "default", item("shop", "default", "timeout", "20"),
+                item("shop", "default", "retries", "2"));
+        layer("shop", "prod", item("shop", "prod", "timeout", "30"));
+        layer("cart", "default");
+        layer("cart", "prod");
+    }
+
+    @Test
+    public void higherLayersOverrideLowerOnes() {
+        ConfigItemDTO timeout = layeredDomain.getConfig("shop", "prod", "timeout");
+        assertEquals("30", timeout.getConfigValue());
+        assertEquals(Integer.valueOf(1), timeout.getVersion());
+        assertEquals("2", layeredDomain.getConfig("shop", "prod", "retries").getConfigValue());
+        assertEquals("eu", layeredDomain.getConfig("shop", "prod", "region").getConfigValue());
+        assertNull(layeredDomain.getConfig("shop", "prod", "missing"));
+
+        // 继承的配置归属于被读取的命名空间，不带出所在层的版本号
+        ConfigItemDTO inherited = layeredDomain.getConfig("shop", "prod", "region");
+        assertEquals("shop", inherited.getAppName());
+        assertEquals("prod", inherited.getEnvironment());
+        assertNull(inherited.getVersion());
+
+        // 其他应用只继承全局层
+        assertEquals("10", layeredDomain.getConfig("cart", "prod", "timeout").getConfigValue());
+    }
+
+    @Test
+    public void snapshotIsBuiltOnceAndListsMergedKeys() {
+        NamespaceSnapshot snapshot = layeredDomain.getSnapshot("shop", "prod");
+        List<String> keys = new ArrayList<>();
+        for (ConfigItemDTO item : snapshot.getItems()) {
+            keys.add(item.getConfigKey());
+        }
+        assertEquals(Arrays.asList("region", "retries", "timeout", "zone"), keys);
+
+        layeredDomain.getConfig("shop", "prod", "timeout");
+        layeredDomain.getTypedConfig("shop", "prod", "retries");
+        verify(configDomain, times(1)).getNamespaceSnapshot("shop", "prod");
+        verify(configDomain, never()).getConfigByKey(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void changeInDefaultLayerRefreshesOnlyThatKey() {
+        String before = layeredDomain.getSnapshot("shop", "prod").getVersion();
+
+        // (app, default) 层删除了 retries，合并结果回落到全局层
+        when(configDomain.getConfigByKey("shop", "prod", "retries")).thenReturn(null);
+        when(configDomain.getConfigByKey("shop", "default", "retries")).thenReturn(null);
+        when(configDomain.getConfigByKey("_global", "default", "retries"))
+                .thenReturn(item("_global", "default", "retries", "1"));
+        layeredDomain.onConfigChange(new ConfigChangeEvent("shop", "default", "retries",
+                ConfigChangeEvent.ChangeType.DELETE, 2L));
+        assertNull(layeredDomain.peekSnapshot("shop", "prod"));
+
+        assertEquals("1", layeredDomain.getConfig("shop", "prod", "retries").getConfigValue());
+        assertNotEquals(before, layeredDomain.getSnapshot("shop", "prod").getVersion());
+        verify(configDomain, times(1)).getNamespaceSnapshot("shop", "prod");
+        verify(configDomain, never()).getConfigByKey(anyString(), anyString(), eq("timeout"));
+    }
+
+    @Test
+    public void affectedNamespacesFollowInheritance() {
+        NamespaceKey shopProd = new NamespaceKey("shop", "prod");
+        NamespaceKey cartProd = new NamespaceKey("cart", "prod");
+        List<NamespaceKey> candidates = Arrays.asList(shopProd, cartProd);
+
+        assertEquals(candidates, layeredDomain.affectedNamespaces(new NamespaceKey("_global", "default"), candidates));
+        assertEquals(Collections.singletonList(shopProd),
+                layeredDomain.affectedNamespaces(new NamespaceKey("shop", "default"), candidates));
+        assertEquals(Collections.singletonList(shopProd), layeredDomain.affectedNamespaces(shopProd, candidates));
+        assertEquals(Collections.emptyList(),
+                layeredDomain.affectedNamespaces(new NamespaceKey("shop", "test"), candidates));
+    }
+
+    private void layer(String appName, String environment, ConfigItemDTO... items) {
+        when(configDomain.getNamespaceSnapshot(appName, environment))
+                .thenReturn(NamespaceSnapshot.of(appName, environment, Arrays.asList(items)));
+    }
+
+    private static ConfigItemDTO item(String appName, String environment, String configKey, String configValue) {
+        return ConfigItemDTO.builder()
+                .appName(appName)
+                .environment(environment)
+                .configKey(configKey)
+                .configValue(configValue)
+                .dataType("int")
+                .version(1)
+                .build();
+    }
+}
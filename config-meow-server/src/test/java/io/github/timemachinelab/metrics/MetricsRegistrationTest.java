@@ -0,0 +1,121 @@
+package io.github.timemachinelab.metrics;
+
+import io.github.timemachinelab.ConfigMeowApplication;
+import io.github.timemachinelab.common.VersionConflictException;
+import io.github.timemachinelab.domain.ConfigDomain;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在完整应用上下文中验证热路径指标均已注册，并以直方图形式输出到Prometheus
+ */
+public class MetricsRegistrationTest {
+
+    private static ConfigurableApplicationContext context;
+
+    private static ConfigDomain domain;
+
+    private static MeterRegistry registry;
+
+    @BeforeAll
+    public static void start() {
+        context = new SpringApplicationBuilder(ConfigMeowApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:config_meow_metrics;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.druid.filters=stat",
+                        "--spring.sql.init.mode=always",
+                        "--spring.sql.init.schema-locations=classpath:schema-h2.sql",
+                        "--mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                        "--config-meow.snowflake.worker-id=10");
+        domain = context.getBean(ConfigDomain.class);
+        registry = context.getBean(MeterRegistry.class);
+    }
+
+    @AfterAll
+    public static void stop() {
+        context.close();
+    }
+
+    @Test
+    public void domainMethodsAreTimedPerMethodAndOutcome() {
+        domain.setConfig(item("timeout", "10"));
+        domain.getConfigByKey("metrics-app", "dev", "timeout");
+        assertThrows(VersionConflictException.class, () -> domain.compareAndSetConfig(item("timeout", "11"), 0));
+
+        assertTrue(timer("config.domain", "method", "setConfig").count() >= 1);
+        assertTrue(timer("config.domain", "method", "getConfigByKey").count() >= 1);
+        Timer conflict = registry.find("config.domain").tag("method", "compareAndSetConfig")
+                .tag("exception", "VersionConflictException").timer();
+        assertNotNull(conflict);
+        assertEquals(1, conflict.count());
+    }
+
+    @Test
+    public void mapperStatementsAreTimedByShortId() {
+        domain.setConfig(item("retries", "3"));
+
+        Timer insert = registry.find("config.sql").tag("command", "INSERT").timer();
+        assertNotNull(insert);
+        assertTrue(insert.count() >= 1);
+        // 标签为 Mapper类名.方法名，不带包名
+        String statement = insert.getId().getTag("statement");
+        assertFalse(statement.startsWith("io."), statement);
+        assertTrue(statement.contains("Mapper."), statement);
+    }
+
+    @Test
+    public void poolSnowflakeCacheAndWatchMetersAreBound() {
+        assertNotNull(registry.find("druid.pool.active").gauge());
+        assertNotNull(registry.find("druid.pool.pending").gauge());
+        assertNotNull(registry.find("druid.pool.wait").functionTimer());
+        assertEquals(0.0, registry.find("snowflake.sequence.exhausted").functionCounter().count());
+        assertNotNull(registry.find("snowflake.clock.backward").functionCounter());
+        assertNotNull(registry.find("cache.gets").tag("cache", "config-item").meter());
+        assertNotNull(registry.find("cache.gets").tag("cache", "namespace-snapshot").meter());
+        assertNotNull(registry.find("config.cache.loads").tag("result", "leader").functionCounter());
+        assertEquals(0.0, registry.find("config.watch.pending").gauge().value());
+    }
+
+    @Test
+    public void latencyHistogramsAreScraped() {
+        domain.setConfig(item("histogram", "1"));
+
+        String scrape = context.getBean(PrometheusMeterRegistry.class).scrape();
+        assertTrue(scrape.contains("config_domain_seconds_bucket{"), "缺少领域方法耗时直方图");
+        assertTrue(scrape.contains("config_sql_seconds_bucket{"), "缺少SQL耗时直方图");
+        assertTrue(scrape.contains("application=\"config-meow\""), "缺少公共标签");
+    }
+
+    private static Timer timer(String name, String tag, String value) {
+        Timer timer = registry.find(name).tag(tag, value).tag("exception", "none").timer();
+        assertNotNull(timer, name + " " + tag + "=" + value);
+        return timer;
+    }
+
+    private static ConfigItemDTO item(String configKey, String configValue) {
+        return ConfigItemDTO.builder()
+                .appName("metrics-app")
+                .environment("dev")
+                .configKey(configKey)
+                .configValue(configValue)
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.timemachinelab.pojo.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class NamespaceSnapshotTest {
+
+    @Test
+    public void versionDependsOnlyOnContent() {
+        String version = version(item("timeout", "10"), item("retries", "3"));
+        assertEquals(version, version(item("timeout", "10"), item("retries", "3")));
+        // 条目的修订版本号、时间等元数据不影响快照版本
+        ConfigItemDTO touched = item("timeout", "10").toBuilder().version(7).build();
+        assertEquals(version, version(touched, item("retries", "3")));
+
+        assertNotEquals(version, version(item("timeout", "11"), item("retries", "3")));
+        assertNotEquals(version, version(item("timeout", "10")));
+        assertNotEquals(version, version(item("timeout", "10").toBuilder().dataType("string").build(),
+                item("retries", "3")));
+        assertNotEquals(version, version(item("timeout", "10").toBuilder().description("超时").build(),
+                item("retries", "3")));
+    }
+
+    @Test
+    public void adjacentFieldsDoNotCollide() {
+        assertNotEquals(version(item("ab", "c")), version(item("a", "bc")));
+        assertNotEquals(version(item("a", null)), version(item("a", "")));
+    }
+
+    @Test
+    public void largeValuesAreVersionedByReference() {
+        ConfigItemDTO reference = item("large", null).toBuilder().valueRef("h1").build();
+        ConfigItemDTO inlined = reference.toBuilder().configValue("large content").build();
+        // 是否内联配置值不改变快照版本，内容哈希变化才改变
+        assertEquals(version(reference), version(inlined));
+        assertNotEquals(version(reference), version(reference.toBuilder().valueRef("h2").build()));
+    }
+
+    private static String version(ConfigItemDTO... items) {
+        return NamespaceSnapshot.of("snapshot-app", "dev", Arrays.asList(items)).getVersion();
+    }
+
+    private static ConfigItemDTO item(String configKey, String configValue) {
+        return ConfigItemDTO.builder()
+                .appName("snapshot-app")
+                .environment("dev")
+                .configKey(configKey)
+                .configValue(configValue)
+                .dataType("int")
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.timemachinelab.ratelimit;
+
+import io.github.timemachinelab.common.RateLimitException;
+import io.github.timemachinelab.config.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimiterTest {
+
+    @Test
+    public void ipDimensionIsOffByDefault() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setIp(new RateLimitProperties.Quota(1, 1));
+        RateLimiter rateLimiter = new RateLimiter(properties);
+        // 经代理接入时所有请求的 remoteAddr 相同，不应共用一个IP桶
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.acquire("app-" + i, "10.0.0.1");
+        }
+    }
+
+    @Test
+    public void ipDimensionLimitsWhenEnabled() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setIpEnabled(true);
+        properties.setIp(new RateLimitProperties.Quota(1, 1));
+        RateLimiter rateLimiter = new RateLimiter(properties);
+        rateLimiter.acquire("app-a", "10.0.0.1");
+        assertThrows(RateLimitException.class, () -> rateLimiter.acquire("app-b", "10.0.0.1"));
+        rateLimiter.acquire("app-b", "10.0.0.2");
+    }
+
+    @Test
+    public void changingAppNameDoesNotYieldFreshBuckets() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setApp(new RateLimitProperties.Quota(1, 1));
+        properties.setNewApp(new RateLimitProperties.Quota(1, 2));
+        properties.getApps().put("configured", new RateLimitProperties.Quota(1, 1));
+        RateLimiter rateLimiter = new RateLimiter(properties);
+
+        rateLimiter.acquire("app-1", null);
+        rateLimiter.acquire("app-2", null);
+        // 新建桶的配额用尽后，新的应用名被拒绝
+        RateLimitException e = assertThrows(RateLimitException.class, () -> rateLimiter.acquire("app-3", null));
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        // 已有的桶按各自配额限流，单独配置的应用不占用新建配额
+        assertThrows(RateLimitException.class, () -> rateLimiter.acquire("app-1", null));
+        rateLimiter.acquire("configured", null);
+    }
+
+    @Test
+    public void quotasMustBePositive() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        RateLimitProperties properties = new RateLimitProperties();
+        assertTrue(validator.validate(properties).isEmpty());
+
+        properties.setApp(new RateLimitProperties.Quota(0, 1));
+        properties.getApps().put("bad-burst", new RateLimitProperties.Quota(1, 0));
+        Set<ConstraintViolation<RateLimitProperties>> violations = validator.validate(properties);
+        assertEquals(2, violations.size());
+    }
+}
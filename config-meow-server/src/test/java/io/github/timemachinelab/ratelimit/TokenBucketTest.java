@@ -0,0 +1,59 @@
+package io.github.timemachinelab.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void burstThenSteadyRate() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(10, 5, now);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+        }
+        long wait = bucket.tryAcquire(now);
+        assertTrue(wait > 0 && wait <= SECOND / 10);
+
+        now += wait;
+        assertEquals(0, bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now) > 0);
+    }
+
+    @Test
+    public void idleBucketRefillsOnlyUpToBurst() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(10, 3, now);
+        now += 60 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+        }
+        assertTrue(bucket.tryAcquire(now) > 0);
+    }
+
+    @Test
+    public void invalidQuotasAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 5, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(-1, 5, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(Double.NaN, 5, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(10, 0, 0));
+        // 速率极低时间隔乘以突发数会溢出
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1e-9, Integer.MAX_VALUE, 0));
+    }
+
+    @Test
+    public void slowRateNearClockWrapDoesNotOverflow() {
+        long now = Long.MAX_VALUE - SECOND;
+        TokenBucket bucket = new TokenBucket(0.001, 2, now);
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        long wait = bucket.tryAcquire(now);
+        assertTrue(wait > 0 && wait <= 1000 * SECOND, String.valueOf(wait));
+        assertEquals(0, bucket.tryAcquire(now + wait));
+    }
+}
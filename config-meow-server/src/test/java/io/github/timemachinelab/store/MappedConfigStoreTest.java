@@ -0,0 +1,160 @@
+package io.github.timemachinelab.store;
+
+import io.github.timemachinelab.ConfigMeowApplication;
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.StandaloneProperties;
+import io.github.timemachinelab.domain.ConfigDomain;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.entity.ConfigItemDO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedConfigStoreTest {
+
+    private static final NamespaceKey NAMESPACE = new NamespaceKey("store-app", "dev");
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    public void writesSurviveRestartAndCompaction() throws IOException {
+        MappedConfigStore store = open();
+        store.set(NAMESPACE, Arrays.asList(item("a", "1"), item("b", "2"), item("c", "3")));
+        assertEquals(2, store.set(NAMESPACE, Collections.singletonList(item("a", "10"))));
+        assertNull(store.compareAndSet(NAMESPACE, item("b", "20"), 5));
+        ConditionalWriteResult written = store.compareAndSet(NAMESPACE, item("b", "20"), 1);
+        assertEquals(3, written.getRevision());
+        assertEquals(2, written.getVersion());
+        assertEquals(4, store.delete(NAMESPACE, Arrays.asList("c", "missing")).getRevision());
+        store.close();
+
+        store = open();
+        assertEquals("10", store.get(NAMESPACE, "a").getConfigValue());
+        assertEquals(2, store.get(NAMESPACE, "a").getVersion());
+        assertEquals("20", store.get(NAMESPACE, "b").getConfigValue());
+        assertNull(store.get(NAMESPACE, "c"));
+
+        store.compact();
+        assertEquals(5, store.set(NAMESPACE, Collections.singletonList(item("d", "4"))));
+        store.close();
+        assertEquals(Collections.singletonList("snapshot-"), fileNames("snapshot-"));
+
+        store = open();
+        assertEquals(Arrays.asList("a", "b", "d"), keys(store.list(NAMESPACE, false)));
+        assertEquals(6, store.set(NAMESPACE, Collections.singletonList(item("a", "11"))));
+        assertEquals(3, store.get(NAMESPACE, "a").getVersion());
+        store.close();
+    }
+
+    @Test
+    public void pageMatchesLikePatternsInKeyOrder() throws IOException {
+        MappedConfigStore store = open();
+        List<ConfigItemDO> items = new ArrayList<>();
+        for (String key : Arrays.asList("db.pool.max", "db.pool.min", "db.url", "db_x", "dbxpool", "mq.url")) {
+            items.add(item(key, "v"));
+        }
+        store.set(NAMESPACE, items);
+
+        assertEquals(Arrays.asList("db.pool.max", "db.pool.min", "db.url"),
+                keys(store.page(NAMESPACE, "db.%", null, 10)));
+        assertEquals(Arrays.asList("db.pool.min", "db.url"), keys(store.page(NAMESPACE, "db.%", "db.pool.max", 10)));
+        assertEquals(Arrays.asList("db.url", "mq.url"), keys(store.page(NAMESPACE, "%.url", null, 10)));
+        assertEquals(Collections.singletonList("db_x"), keys(store.page(NAMESPACE, "db\\_%", null, 10)));
+        assertEquals(Arrays.asList("db.pool.max", "db.pool.min"), keys(store.page(NAMESPACE, "db_pool%", null, 2)));
+        assertEquals(Collections.singletonList("dbxpool"), keys(store.page(NAMESPACE, "db_pool%", "db.pool.min", 2)));
+        store.close();
+    }
+
+    @Test
+    public void readsReturnCopiesOfIndexedItems() throws IOException {
+        MappedConfigStore store = open();
+        store.set(NAMESPACE, Arrays.asList(item("a", "1"), item("b", "2")));
+
+        store.get(NAMESPACE, "a").setConfigValue("changed");
+        store.getAll(NAMESPACE, Collections.singletonList("a")).get(0).setVersion(9);
+        store.list(NAMESPACE, true).get(0).setIsActive(false);
+        store.page(NAMESPACE, null, null, 10).get(1).setConfigValue("changed");
+        store.scan(NAMESPACE, null, true, item -> item.setDataType("int"));
+
+        ConfigItemDO a = store.get(NAMESPACE, "a");
+        assertEquals("1", a.getConfigValue());
+        assertEquals(1, a.getVersion());
+        assertTrue(a.getIsActive());
+        assertEquals("string", a.getDataType());
+        assertEquals("2", store.get(NAMESPACE, "b").getConfigValue());
+        store.close();
+    }
+
+    @Test
+    public void standaloneProfileRunsWithoutDatabase() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ConfigMeowApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.profiles.active=standalone",
+                        "--config-meow.standalone.data-dir=" + dataDir,
+                        "--config-meow.snowflake.worker-id=6")) {
+            assertTrue(context.getBean(ConfigStore.class) instanceof MappedConfigStore);
+            assertFalse(context.containsBean("dataSource"));
+
+            ConfigDomain domain = context.getBean(ConfigDomain.class);
+            domain.setConfig(ConfigItemDTO.builder().appName("store-app").environment("dev")
+                    .configKey("timeout").configValue("30").dataType("int").build());
+            assertEquals("30", domain.getConfigByKey("store-app", "dev", "timeout").getConfigValue());
+
+            BizException e = assertThrows(BizException.class,
+                    () -> domain.rollbackNamespace("store-app", "dev", 0));
+            assertEquals(ResultCode.NOT_SUPPORTED, e.getResultCode());
+        }
+    }
+
+    private MappedConfigStore open() {
+        StandaloneProperties properties = new StandaloneProperties();
+        properties.setDataDir(dataDir.toString());
+        properties.setSegmentSize(DataSize.ofKilobytes(4));
+        return new MappedConfigStore(properties);
+    }
+
+    private List<String> fileNames(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(dataDir)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix))
+                    .map(name -> name.replaceAll("\\d+\\.dat$", ""))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> keys(List<ConfigItemDO> items) {
+        return items.stream().map(ConfigItemDO::getConfigKey).collect(Collectors.toList());
+    }
+
+    private static ConfigItemDO item(String configKey, String configValue) {
+        return ConfigItemDO.builder()
+                .appName(NAMESPACE.getAppName())
+                .environment(NAMESPACE.getEnvironment())
+                .configKey(configKey)
+                .configValue(configValue)
+                .build();
+    }
+}
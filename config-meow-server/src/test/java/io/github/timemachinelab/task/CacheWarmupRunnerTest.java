@@ -0,0 +1,210 @@
+package io.github.timemachinelab.task;
+
+import io.github.timemachinelab.ConfigMeowApplication;
+import io.github.timemachinelab.config.WarmupProperties;
+import io.github.timemachinelab.domain.ConfigDomain;
+import io.github.timemachinelab.domain.LayeredConfigDomain;
+import io.github.timemachinelab.mapper.NamespaceMapper;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.entity.ConfigNamespaceDO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CacheWarmupRunnerTest {
+
+    private final LayeredConfigDomain layeredDomain = mock(LayeredConfigDomain.class);
+
+    private final NamespaceMapper namespaceMapper = mock(NamespaceMapper.class);
+
+    // 预热期间发布的就绪状态
+    private final List<Object> published = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void releaseBlocked() {
+        release.countDown();
+    }
+
+    @Test
+    public void disabledWarmupLeavesReadinessAlone() {
+        WarmupProperties properties = new WarmupProperties();
+
+        runner(properties).run(new DefaultApplicationArguments());
+
+        assertTrue(published.isEmpty());
+        verify(namespaceMapper, never()).selectWarmupNamespaces(anyInt());
+    }
+
+    @Test
+    public void namespacesAreLoadedInParallelAfterRefusingTraffic() {
+        WarmupProperties properties = enabled(2, Duration.ofSeconds(5));
+        properties.setMaxNamespaces(10);
+        when(namespaceMapper.selectWarmupNamespaces(10)).thenReturn(namespaces("a", "b", "c", "d", "e"));
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        when(layeredDomain.preload(eq("warm-app"), anyString())).thenAnswer(invocation -> {
+            // 加载开始时应已发布拒绝流量
+            assertEquals(Collections.singletonList(ReadinessState.REFUSING_TRAFFIC), published);
+            threads.add(Thread.currentThread().getName());
+            return null;
+        });
+        CacheWarmupRunner runner = runner(properties);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        runner.bindTo(registry);
+
+        runner.run(new DefaultApplicationArguments());
+
+        for (String environment : Arrays.asList("a", "b", "c", "d", "e")) {
+            verify(layeredDomain).preload("warm-app", environment);
+        }
+        assertEquals(2, threads.size());
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("config-warmup-")), threads.toString());
+        assertEquals(5.0, registry.find("config.warmup.namespaces").gauge().value());
+        assertNotNull(registry.find("config.warmup.duration").timeGauge());
+    }
+
+    @Test
+    public void timeoutAndFailuresDoNotBlockStartup() {
+        when(namespaceMapper.selectWarmupNamespaces(0)).thenReturn(namespaces("slow", "broken", "ok"));
+        when(layeredDomain.preload("warm-app", "slow")).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        });
+        when(layeredDomain.preload("warm-app", "broken")).thenThrow(new IllegalStateException("db down"));
+        CacheWarmupRunner runner = runner(enabled(3, Duration.ofMillis(200)));
+        MeterRegistry registry = new SimpleMeterRegistry();
+        runner.bindTo(registry);
+
+        long start = System.nanoTime();
+        runner.run(new DefaultApplicationArguments());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 超时后放弃阻塞的命名空间，失败的命名空间不影响其他命名空间
+        assertTrue(elapsedMillis < 5000, elapsedMillis + "ms");
+        verify(layeredDomain).preload("warm-app", "ok");
+        assertEquals(1.0, registry.find("config.warmup.namespaces").gauge().value());
+        assertTrue(registry.find("config.warmup.duration").timeGauge().value(TimeUnit.MILLISECONDS) >= 200);
+    }
+
+    @Test
+    public void readinessIsReportedOnlyAfterWarmup() {
+        String url = "--spring.datasource.url=jdbc:h2:mem:config_meow_warmup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        try (ConfigurableApplicationContext seed = start(url, "always", "12")) {
+            ConfigDomain domain = seed.getBean(ConfigDomain.class);
+            for (String environment : Arrays.asList("dev", "test", "prod")) {
+                domain.setConfig(ConfigItemDTO.builder().appName("warm-app").environment(environment)
+                        .configKey("timeout").configValue("10").build());
+            }
+        }
+
+        // 内存库在首个上下文关闭后保留，第二个上下文启动时预热
+        List<ReadinessState> states = new CopyOnWriteArrayList<>();
+        List<String> warmAtReady = new CopyOnWriteArrayList<>();
+        ApplicationListener<ApplicationEvent> listener = event -> {
+            if (!(event instanceof AvailabilityChangeEvent)
+                    || !(((AvailabilityChangeEvent<?>) event).getState() instanceof ReadinessState)) {
+                return;
+            }
+            ReadinessState state = (ReadinessState) ((AvailabilityChangeEvent<?>) event).getState();
+            states.add(state);
+            if (state == ReadinessState.ACCEPTING_TRAFFIC) {
+                LayeredConfigDomain domain = ((ApplicationContext) event.getSource()).getBean(LayeredConfigDomain.class);
+                for (String environment : Arrays.asList("dev", "test", "prod")) {
+                    if (domain.peekSnapshot("warm-app", environment) != null) {
+                        warmAtReady.add(environment);
+                    }
+                }
+            }
+        };
+        try (ConfigurableApplicationContext warm = start(url, "never", "13", listener,
+                "--config-meow.warmup.enabled=true", "--config-meow.warmup.parallelism=2")) {
+            assertEquals(Arrays.asList(ReadinessState.REFUSING_TRAFFIC, ReadinessState.ACCEPTING_TRAFFIC), states);
+            assertEquals(3, warmAtReady.size(), warmAtReady.toString());
+        }
+    }
+
+    private CacheWarmupRunner runner(WarmupProperties properties) {
+        return new CacheWarmupRunner(layeredDomain, namespaceMapper, properties, event -> {
+            if (event instanceof AvailabilityChangeEvent) {
+                published.add(((AvailabilityChangeEvent<?>) event).getState());
+            }
+        });
+    }
+
+    private static WarmupProperties enabled(int parallelism, Duration timeout) {
+        WarmupProperties properties = new WarmupProperties();
+        properties.setEnabled(true);
+        properties.setParallelism(parallelism);
+        properties.setTimeout(timeout);
+        return properties;
+    }
+
+    private static List<ConfigNamespaceDO> namespaces(String... environments) {
+        List<ConfigNamespaceDO> namespaces = new ArrayList<>();
+        for (String environment : environments) {
+            namespaces.add(ConfigNamespaceDO.builder().appName("warm-app").environment(environment).build());
+        }
+        return namespaces;
+    }
+
+    private static ConfigurableApplicationContext start(String url, String sqlInitMode, String workerId,
+                                                        String... extraArgs) {
+        return start(url, sqlInitMode, workerId, null, extraArgs);
+    }
+
+    private static ConfigurableApplicationContext start(String url, String sqlInitMode, String workerId,
+                                                        ApplicationListener<ApplicationEvent> listener,
+                                                        String... extraArgs) {
+        List<String> args = new ArrayList<>(Arrays.asList(url,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.druid.filters=stat",
+                "--spring.sql.init.mode=" + sqlInitMode,
+                "--spring.sql.init.schema-locations=classpath:schema-h2.sql",
+                "--mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                "--config-meow.scheduling.enabled=false",
+                "--config-meow.snowflake.worker-id=" + workerId));
+        args.addAll(Arrays.asList(extraArgs));
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ConfigMeowApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false);
+        if (listener != null) {
+            builder.listeners(listener);
+        }
+        return builder.run(args.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,151 @@
+package io.github.timemachinelab.task;
+
+import io.github.timemachinelab.ConfigMeowApplication;
+import io.github.timemachinelab.domain.ConfigDomain;
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 两个应用上下文共用同一个内嵌数据库，模拟多节点部署
+ */
+public class ChangeLogSyncTaskTest {
+
+    private static final long SYNC_TIMEOUT_MILLIS = 5000;
+
+    private static ConfigurableApplicationContext nodeA;
+
+    private static ConfigurableApplicationContext nodeB;
+
+    private static List<ConfigChangeEvent> eventsOnB;
+
+    @BeforeAll
+    public static void startNodes() {
+        nodeA = startNode("node-a", 1, "always");
+        nodeB = startNode("node-b", 2, "never");
+        eventsOnB = recordEvents(nodeB);
+    }
+
+    @AfterAll
+    public static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    public void writeOnOneNodeInvalidatesCacheOnOther() {
+        ConfigDomain domainA = nodeA.getBean(ConfigDomain.class);
+        ConfigDomain domainB = nodeB.getBean(ConfigDomain.class);
+        domainA.setConfig(item("db.url", "v1"));
+        awaitTrue(() -> domainB.getConfigByKey("sync-app", "dev", "db.url") != null);
+        assertEquals("v1", domainB.getConfigByKey("sync-app", "dev", "db.url").getConfigValue());
+
+        // 节点B已缓存v1，节点A更新后B在拉取间隔内失效缓存
+        domainA.setConfig(item("db.url", "v2"));
+        awaitTrue(() -> "v2".equals(domainB.getConfigByKey("sync-app", "dev", "db.url").getConfigValue()));
+        awaitTrue(() -> eventsOnB.stream().anyMatch(e -> "db.url".equals(e.getConfigKey())));
+
+        domainB.deleteConfig("sync-app", "dev", "db.url");
+        awaitTrue(() -> domainA.getConfigByKey("sync-app", "dev", "db.url") == null);
+        assertNull(domainA.getConfigByKey("sync-app", "dev", "db.url"));
+    }
+
+    @Test
+    public void ownChangesAreNotReapplied() {
+        // 关闭定时调度，只由测试直接触发同步
+        ConfigurableApplicationContext nodeC = startNode("node-c", 8, "never",
+                "--config-meow.scheduling.enabled=false");
+        try {
+            List<ConfigChangeEvent> eventsOnC = recordEvents(nodeC);
+            ChangeLogSyncTask syncTask = nodeC.getBean(ChangeLogSyncTask.class);
+            syncTask.poll();
+
+            nodeC.getBean(ConfigDomain.class).setConfig(item("local.only", "x"));
+            nodeA.getBean(ConfigDomain.class).setConfig(item("remote.key", "y"));
+            assertEquals(1, countEvents(eventsOnC, "local.only"));
+            assertEquals(0, countEvents(eventsOnC, "remote.key"));
+
+            syncTask.poll();
+            // 其他节点的变更被应用，本节点自己的变更不再重复失效与通知
+            assertEquals(1, countEvents(eventsOnC, "remote.key"));
+            assertEquals(1, countEvents(eventsOnC, "local.only"));
+        } finally {
+            nodeC.close();
+        }
+    }
+
+    private static List<ConfigChangeEvent> recordEvents(ConfigurableApplicationContext node) {
+        List<ConfigChangeEvent> events = new CopyOnWriteArrayList<>();
+        node.addApplicationListener((ApplicationListener<ApplicationEvent>) event -> {
+            if (event instanceof PayloadApplicationEvent
+                    && ((PayloadApplicationEvent<?>) event).getPayload() instanceof ConfigChangeEvent) {
+                events.add((ConfigChangeEvent) ((PayloadApplicationEvent<?>) event).getPayload());
+            }
+        });
+        return events;
+    }
+
+    private static long countEvents(List<ConfigChangeEvent> events, String configKey) {
+        return events.stream().filter(e -> configKey.equals(e.getConfigKey())).count();
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId, int workerId, String sqlInitMode,
+                                                            String... extraArgs) {
+        List<String> args = new ArrayList<>(Arrays.asList("--spring.datasource.url=jdbc:h2:mem:config_meow_sync;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.druid.filters=stat",
+                        "--spring.sql.init.mode=" + sqlInitMode,
+                        "--spring.sql.init.schema-locations=classpath:schema-h2.sql",
+                        "--mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                        "--config-meow.snowflake.worker-id=" + workerId,
+                        "--config-meow.sync.node-id=" + nodeId,
+                        "--config-meow.sync.poll-interval=50ms"));
+        args.addAll(Arrays.asList(extraArgs));
+        return new SpringApplicationBuilder(ConfigMeowApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(args.toArray(new String[0]));
+    }
+
+    private static ConfigItemDTO item(String configKey, String configValue) {
+        return ConfigItemDTO.builder()
+                .appName("sync-app")
+                .environment("dev")
+                .configKey(configKey)
+                .configValue(configValue)
+                .build();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + SYNC_TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "多节点同步超时");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
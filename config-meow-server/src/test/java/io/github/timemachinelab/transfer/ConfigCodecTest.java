@@ -0,0 +1,61 @@
+package io.github.timemachinelab.transfer;
+
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ConfigCodecTest {
+
+    private final ConfigCodec codec = new ConfigCodec(new Jackson2ObjectMapperBuilder());
+
+    @Test
+    public void roundTripsAllFieldsThroughNdjsonAndYaml() throws IOException {
+        List<ConfigItemDTO> fixture = readFixture();
+        assertEquals(5, fixture.size());
+        for (ConfigFormat format : new ConfigFormat[]{ConfigFormat.NDJSON, ConfigFormat.YAML}) {
+            assertEquals(fixture, roundTrip(format, fixture), format.getCode());
+        }
+    }
+
+    @Test
+    public void propertiesCarryActiveKeysAndValuesOnly() throws IOException {
+        List<ConfigItemDTO> fixture = readFixture();
+        List<ConfigItemDTO> read = roundTrip(ConfigFormat.PROPERTIES, fixture);
+        assertEquals(4, read.size());
+        for (int i = 0; i < read.size(); i++) {
+            assertEquals(fixture.get(i).getConfigKey(), read.get(i).getConfigKey());
+            assertEquals(fixture.get(i).getConfigValue(), read.get(i).getConfigValue());
+            assertNull(read.get(i).getDataType());
+        }
+    }
+
+    private List<ConfigItemDTO> readFixture() throws IOException {
+        List<ConfigItemDTO> items = new ArrayList<>();
+        try (InputStream in = getClass().getResourceAsStream("/transfer/namespace.ndjson")) {
+            codec.read(ConfigFormat.NDJSON, in, items::add);
+        }
+        return items;
+    }
+
+    private List<ConfigItemDTO> roundTrip(ConfigFormat format, List<ConfigItemDTO> items) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ConfigCodec.ItemWriter writer = codec.open(format, out);
+        for (ConfigItemDTO item : items) {
+            writer.write(item);
+        }
+        writer.finish();
+        List<ConfigItemDTO> read = new ArrayList<>();
+        codec.read(format, new ByteArrayInputStream(out.toByteArray()), read::add);
+        return read;
+    }
+}
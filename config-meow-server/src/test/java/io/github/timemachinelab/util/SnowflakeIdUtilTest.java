@@ -0,0 +1,81 @@
+package io.github.timemachinelab.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SnowflakeIdUtilTest {
+
+    private static final long NOW = 1700000000000L;
+
+    @Test
+    public void concurrentIdsAreUnique() throws InterruptedException {
+        SnowflakeIdUtil generator = new SnowflakeIdUtil(7L);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(generator.nextId());
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    public void nextIdsAreIncreasingAcrossSequenceRollover() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdUtil generator = new SnowflakeIdUtil(3L, 5000L, clock::get);
+        long[] ids = generator.nextIds(10_000);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1]);
+            assertEquals(3L, generator.parseId(ids[i]).getMachineId());
+        }
+        assertTrue(generator.getSequenceExhaustedCount() > 0);
+        assertTrue(generator.nextId() > ids[ids.length - 1]);
+    }
+
+    @Test
+    public void clockBackwardWithinWindowIsTolerated() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdUtil generator = new SnowflakeIdUtil(1L, 1000L, clock::get);
+        long first = generator.nextId();
+        clock.set(NOW - 500);
+        long second = generator.nextId();
+        assertTrue(second > first);
+        assertEquals(0L, generator.getClockBackwardCount());
+    }
+
+    @Test
+    public void clockBackwardBeyondWindowIsRejected() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdUtil generator = new SnowflakeIdUtil(1L, 1000L, clock::get);
+        generator.nextId();
+        clock.set(NOW - 2000);
+        assertThrows(IllegalStateException.class, generator::nextId);
+        assertEquals(1L, generator.getClockBackwardCount());
+    }
+
+    @Test
+    public void invalidMachineIdIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdUtil(1024L));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdUtil(-1L));
+    }
+}
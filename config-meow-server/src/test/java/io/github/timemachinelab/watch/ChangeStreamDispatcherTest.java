@@ -0,0 +1,271 @@
+package io.github.timemachinelab.watch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.DbExecutorProperties;
+import io.github.timemachinelab.config.StreamProperties;
+import io.github.timemachinelab.datasource.DbExecutor;
+import io.github.timemachinelab.domain.LayeredConfigDomain;
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ChangeStreamDispatcherTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private static final NamespaceKey NAMESPACE = new NamespaceKey("stream-app", "dev");
+
+    private final LayeredConfigDomain layeredDomain = mock(LayeredConfigDomain.class);
+
+    private final List<CountDownLatch> blocked = new ArrayList<>();
+
+    private ChangeStreamDispatcher dispatcher;
+
+    @AfterEach
+    public void shutdown() {
+        for (CountDownLatch latch : blocked) {
+            latch.countDown();
+        }
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void readyPrecedesChangesAndIsResentWhenVersionMovesDuringSubscribe() {
+        dispatcher = start(new StreamProperties());
+        AtomicInteger reads = new AtomicInteger();
+        when(layeredDomain.getSnapshot("stream-app", "dev"))
+                .thenAnswer(invocation -> snapshot(reads.incrementAndGet() == 1 ? "v1" : "v2"));
+
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        dispatcher.subscribe(NAMESPACE, emitter);
+        dispatcher.onConfigChange(change("timeout"));
+
+        awaitTrue(() -> emitter.events().size() == 3);
+        List<String> events = emitter.events();
+        assertEquals("event:ready\ndata:{\"version\":\"v1\"}\n\n", events.get(0));
+        assertEquals("event:ready\ndata:{\"version\":\"v2\"}\n\n", events.get(1));
+        assertTrue(events.get(2).startsWith("id:7\nevent:change\n"), events.get(2));
+    }
+
+    @Test
+    public void slowSubscriberIsDroppedWhenQueueOverflows() {
+        StreamProperties properties = new StreamProperties();
+        properties.setQueueCapacity(1);
+        dispatcher = start(properties);
+        when(layeredDomain.getSnapshot("stream-app", "dev")).thenReturn(snapshot("v1"));
+
+        CountDownLatch release = block();
+        RecordingEmitter emitter = new RecordingEmitter(release);
+        dispatcher.subscribe(NAMESPACE, emitter);
+        // ready正在发送并阻塞，队列容量为1，第二个变更溢出
+        awaitTrue(() -> emitter.sending.get() == 1);
+        dispatcher.onConfigChange(change("a"));
+        dispatcher.onConfigChange(change("b"));
+
+        awaitTrue(() -> dispatcher.droppedCount() == 1);
+        release.countDown();
+        awaitTrue(() -> emitter.completed && dispatcher.subscriberCount() == 0);
+        assertEquals(1, emitter.events().size());
+    }
+
+    @Test
+    public void stalledSubscriberDoesNotStarveOthers() {
+        StreamProperties properties = new StreamProperties();
+        properties.setSenderThreads(1);
+        // 超时留足余量，避免负载较高时正常订阅者的发送也被判为停滞
+        properties.setSendTimeout(Duration.ofMillis(500));
+        dispatcher = start(properties);
+        when(layeredDomain.getSnapshot(anyString(), anyString())).thenReturn(snapshot("v1"));
+
+        RecordingEmitter stalled = new RecordingEmitter(block());
+        dispatcher.subscribe(NAMESPACE, stalled);
+        awaitTrue(() -> stalled.sending.get() == 1);
+
+        // 唯一的发送线程被阻塞，超时后由临时线程替补
+        RecordingEmitter healthy = new RecordingEmitter(null);
+        dispatcher.subscribe(new NamespaceKey("stream-app", "test"), healthy);
+        awaitTrue(() -> healthy.events().size() == 1);
+        assertEquals(1, dispatcher.droppedCount());
+        assertEquals(1, dispatcher.subscriberCount());
+        assertFalse(healthy.completed);
+    }
+
+    @Test
+    public void subscriberLimitIsEnforcedAndFailedSubscribeIsRolledBack() {
+        StreamProperties properties = new StreamProperties();
+        properties.setMaxSubscribers(1);
+        dispatcher = start(properties);
+        when(layeredDomain.getSnapshot("stream-app", "dev"))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(snapshot("v1"));
+
+        assertThrows(IllegalStateException.class, () -> dispatcher.subscribe(NAMESPACE, new RecordingEmitter(null)));
+        assertEquals(0, dispatcher.subscriberCount());
+
+        dispatcher.subscribe(NAMESPACE, new RecordingEmitter(null));
+        BizException e = assertThrows(BizException.class,
+                () -> dispatcher.subscribe(NAMESPACE, new RecordingEmitter(null)));
+        assertEquals(ResultCode.SERVICE_UNAVAILABLE, e.getResultCode());
+        assertEquals(1, dispatcher.subscriberCount());
+    }
+
+    @Test
+    public void uncachedSnapshotVersionIsReadOnDbExecutor() throws InterruptedException {
+        DbExecutor executor = new DbExecutor(new DbExecutorProperties());
+        dispatcher = start(new StreamProperties(), executor);
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        when(layeredDomain.getSnapshot("stream-app", "dev")).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return snapshot("v1");
+        });
+        when(layeredDomain.getSnapshot("stream-app", "test")).thenThrow(new IllegalStateException("db down"));
+        when(layeredDomain.peekSnapshot("stream-app", "prod")).thenReturn(snapshot("v3"));
+
+        try {
+            RecordingEmitter emitter = new RecordingEmitter(null);
+            dispatcher.subscribe(NAMESPACE, emitter);
+            awaitTrue(() -> emitter.events().size() == 1);
+            assertEquals("event:ready\ndata:{\"version\":\"v1\"}\n\n", emitter.events().get(0));
+            assertEquals(2, threads.size());
+            assertTrue(threads.stream().allMatch(name -> name.startsWith("config-db-")), threads.toString());
+
+            // 请求线程返回后读取失败，只能断开连接
+            RecordingEmitter failed = new RecordingEmitter(null);
+            dispatcher.subscribe(new NamespaceKey("stream-app", "test"), failed);
+            awaitTrue(() -> failed.failed && dispatcher.subscriberCount() == 1);
+
+            // 快照已缓存时在请求线程上发送ready，不读取存储
+            RecordingEmitter cached = new RecordingEmitter(null);
+            dispatcher.subscribe(new NamespaceKey("stream-app", "prod"), cached);
+            awaitTrue(() -> cached.events().size() == 1);
+            verify(layeredDomain, never()).getSnapshot("stream-app", "prod");
+            assertEquals(2, dispatcher.subscriberCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private ChangeStreamDispatcher start(StreamProperties properties) {
+        // 快照未缓存时在调用线程上读取，订阅失败同步抛出
+        DbExecutorProperties executorProperties = new DbExecutorProperties();
+        executorProperties.setEnabled(false);
+        return start(properties, new DbExecutor(executorProperties));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ChangeStreamDispatcher start(StreamProperties properties, DbExecutor executor) {
+        when(layeredDomain.affectedNamespaces(any(NamespaceKey.class), any(Collection.class)))
+                .thenAnswer(invocation -> {
+                    Collection<NamespaceKey> candidates = invocation.getArgument(1);
+                    return candidates.contains(NAMESPACE)
+                            ? Collections.singletonList(NAMESPACE) : Collections.emptyList();
+                });
+        when(layeredDomain.getConfig(anyString(), anyString(), anyString())).thenAnswer(invocation ->
+                ConfigItemDTO.builder().appName("stream-app").environment("dev")
+                        .configKey(invocation.getArgument(2)).configValue("1").build());
+        return new ChangeStreamDispatcher(layeredDomain, executor, new ObjectMapper(), properties);
+    }
+
+    private CountDownLatch block() {
+        CountDownLatch latch = new CountDownLatch(1);
+        blocked.add(latch);
+        return latch;
+    }
+
+    private static NamespaceSnapshot snapshot(String version) {
+        return new NamespaceSnapshot("stream-app", "dev", version, Collections.emptyList(), null);
+    }
+
+    private static ConfigChangeEvent change(String configKey) {
+        return new ConfigChangeEvent("stream-app", "dev", configKey, ConfigChangeEvent.ChangeType.SET, 7L);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待推送超时");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * 记录发送的事件文本；指定latch时首次发送阻塞到latch释放，模拟停滞的连接
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch release;
+        private final AtomicInteger sending = new AtomicInteger();
+        private volatile boolean completed;
+        private volatile boolean failed;
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sending.incrementAndGet();
+            if (release != null) {
+                try {
+                    release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                text.append(part.getData());
+            }
+            events.add(text.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            failed = true;
+        }
+
+        private List<String> events() {
+            synchronized (events) {
+                return new ArrayList<>(events);
+            }
+        }
+    }
+}
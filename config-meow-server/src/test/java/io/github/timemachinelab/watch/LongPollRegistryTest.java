@@ -0,0 +1,245 @@
+package io.github.timemachinelab.watch;
+
+import io.github.timemachinelab.cache.NamespaceKey;
+import io.github.timemachinelab.common.Result;
+import io.github.timemachinelab.config.DbExecutorProperties;
+import io.github.timemachinelab.config.WatchProperties;
+import io.github.timemachinelab.datasource.DbExecutor;
+import io.github.timemachinelab.domain.LayeredConfigDomain;
+import io.github.timemachinelab.event.ConfigChangeEvent;
+import io.github.timemachinelab.pojo.dto.NamespaceSnapshot;
+import io.github.timemachinelab.pojo.dto.NamespaceVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class LongPollRegistryTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private final LayeredConfigDomain layeredDomain = mock(LayeredConfigDomain.class);
+
+    // 各命名空间的当前快照版本
+    private final Map<NamespaceKey, String> versions = new ConcurrentHashMap<>();
+
+    // 读取快照的线程
+    private final Set<String> readThreads = ConcurrentHashMap.newKeySet();
+
+    private LongPollRegistry registry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void start() {
+        when(layeredDomain.getSnapshot(anyString(), anyString())).thenAnswer(invocation -> {
+            NamespaceKey key = new NamespaceKey(invocation.getArgument(0), invocation.getArgument(1));
+            readThreads.add(Thread.currentThread().getName());
+            return new NamespaceSnapshot(key.getAppName(), key.getEnvironment(),
+                    versions.getOrDefault(key, "v0"), Collections.emptyList(), null);
+        });
+        // 变更只影响所在的命名空间
+        when(layeredDomain.affectedNamespaces(any(NamespaceKey.class), any(Collection.class)))
+                .thenAnswer(invocation -> {
+                    NamespaceKey changed = invocation.getArgument(0);
+                    Collection<NamespaceKey> candidates = invocation.getArgument(1);
+                    return candidates.contains(changed)
+                            ? Collections.singletonList(changed) : Collections.emptyList();
+                });
+        // 快照未缓存时在调用线程上读取，便于断言立即返回的结果
+        registry = new LongPollRegistry(layeredDomain, inlineExecutor(), new WatchProperties());
+    }
+
+    @AfterEach
+    public void shutdown() {
+        registry.shutdown();
+    }
+
+    @Test
+    public void staleVersionReturnsImmediately() {
+        versions.put(new NamespaceKey("poll-app", "dev"), "v2");
+
+        DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> result = registry.watch(Arrays.asList(
+                new NamespaceVersion("poll-app", "dev", "v1"), new NamespaceVersion("poll-app", "test", "v0")));
+
+        assertTrue(result.hasResult());
+        List<NamespaceVersion> changed = body(result);
+        assertEquals(1, changed.size());
+        assertEquals("dev", changed.get(0).getEnvironment());
+        assertEquals("v2", changed.get(0).getVersion());
+        assertEquals(0, registry.watchCount());
+    }
+
+    @Test
+    public void changeWakesOnlyWatchersOfThatNamespace() {
+        DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> first =
+                registry.watch(Collections.singletonList(new NamespaceVersion("poll-app", "dev", "v0")));
+        DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> second =
+                registry.watch(Collections.singletonList(new NamespaceVersion("poll-app", "dev", "v0")));
+        DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> other =
+                registry.watch(Collections.singletonList(new NamespaceVersion("poll-app", "test", "v0")));
+        assertFalse(first.hasResult());
+        assertEquals(3, registry.watchCount());
+
+        versions.put(new NamespaceKey("poll-app", "dev"), "v1");
+        registry.onConfigChange(new ConfigChangeEvent("poll-app", "dev", "timeout",
+                ConfigChangeEvent.ChangeType.SET, 1L));
+
+        awaitTrue(() -> first.hasResult() && second.hasResult());
+        assertEquals("v1", body(first).get(0).getVersion());
+        assertEquals("v1", body(second).get(0).getVersion());
+        assertFalse(other.hasResult());
+        assertEquals(1, registry.watchCount());
+    }
+
+    @Test
+    public void cachedVersionsAreComparedWithoutDbExecutor() {
+        DbExecutor executor = mock(DbExecutor.class);
+        LongPollRegistry cached = new LongPollRegistry(layeredDomain, executor, new WatchProperties());
+        try {
+            when(layeredDomain.peekSnapshot("poll-app", "dev")).thenReturn(snapshot("dev", "v1"));
+
+            DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> result = cached.watch(Arrays.asList(
+                    new NamespaceVersion("poll-app", "dev", "v0"), new NamespaceVersion("poll-app", "test", "v0")));
+
+            // 已缓存的命名空间有变更即应答，无需读取未缓存的命名空间
+            assertEquals("v1", body(result).get(0).getVersion());
+            verify(executor, never()).submit(any());
+            verify(layeredDomain, never()).getSnapshot(anyString(), anyString());
+        } finally {
+            cached.shutdown();
+        }
+    }
+
+    @Test
+    public void uncachedVersionsAreReadOnDbExecutor() throws InterruptedException {
+        DbExecutor executor = new DbExecutor(new DbExecutorProperties());
+        LongPollRegistry uncached = new LongPollRegistry(layeredDomain, executor, new WatchProperties());
+        try {
+            when(layeredDomain.peekSnapshot("poll-app", "dev")).thenReturn(snapshot("dev", "v0"));
+            versions.put(new NamespaceKey("poll-app", "test"), "v1");
+
+            DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> result = uncached.watch(Arrays.asList(
+                    new NamespaceVersion("poll-app", "dev", "v0"), new NamespaceVersion("poll-app", "test", "v0")));
+
+            awaitTrue(result::hasResult);
+            List<NamespaceVersion> changed = body(result);
+            assertEquals(1, changed.size());
+            assertEquals("test", changed.get(0).getEnvironment());
+            assertEquals(Collections.singleton("config-db-1"), readThreads);
+            verify(layeredDomain, never()).getSnapshot("poll-app", "dev");
+            assertEquals(0, uncached.watchCount());
+        } finally {
+            uncached.shutdown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void timeoutAnswersNotModifiedAndUnregisters() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new WatchController(registry)).build();
+
+        MvcResult pending = mockMvc.perform(post("/watch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"appName\":\"poll-app\",\"environment\":\"dev\",\"version\":\"v0\"}]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(1, registry.watchCount());
+
+        // 挂起超时交给容器计时，这里模拟容器在超时后回调
+        MockAsyncContext asyncContext = (MockAsyncContext) pending.getRequest().getAsyncContext();
+        assertEquals(new WatchProperties().getTimeout().toMillis(), asyncContext.getTimeout());
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        mockMvc.perform(asyncDispatch(pending)).andExpect(status().isNotModified());
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onComplete(new AsyncEvent(asyncContext));
+        }
+        assertEquals(0, registry.watchCount());
+    }
+
+    private static NamespaceSnapshot snapshot(String environment, String version) {
+        return new NamespaceSnapshot("poll-app", environment, version, Collections.emptyList(), null);
+    }
+
+    private static DbExecutor inlineExecutor() {
+        DbExecutorProperties properties = new DbExecutorProperties();
+        properties.setEnabled(false);
+        return new DbExecutor(properties);
+    }
+
+    private static List<NamespaceVersion> body(DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> result) {
+        @SuppressWarnings("unchecked")
+        ResponseEntity<Result<List<NamespaceVersion>>> response =
+                (ResponseEntity<Result<List<NamespaceVersion>>>) result.getResult();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody().getData();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待长轮询唤醒超时");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * 只暴露长轮询的最小控制器，经由Spring MVC的异步处理验证超时响应
+     * 不标注为组件，避免被应用上下文的组件扫描注册
+     */
+    @RequestMapping
+    private static final class WatchController {
+        private final LongPollRegistry registry;
+
+        private WatchController(LongPollRegistry registry) {
+            this.registry = registry;
+        }
+
+        @PostMapping("/watch")
+        public DeferredResult<ResponseEntity<Result<List<NamespaceVersion>>>> watch(
+                @RequestBody List<NamespaceVersion> namespaces) {
+            return registry.watch(namespaces);
+        }
+    }
+}
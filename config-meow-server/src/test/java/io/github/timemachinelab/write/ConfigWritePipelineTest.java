@@ -0,0 +1,135 @@
+package io.github.timemachinelab.write;
+
+import io.github.timemachinelab.common.BizException;
+import io.github.timemachinelab.common.ConfigDataType;
+import io.github.timemachinelab.common.ResultCode;
+import io.github.timemachinelab.config.WritePipelineProperties;
+import io.github.timemachinelab.domain.ConfigDomain;
+import io.github.timemachinelab.pojo.dto.BatchItemResult;
+import io.github.timemachinelab.pojo.dto.ConfigItemDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConfigWritePipelineTest {
+
+    private final ConfigDomain configDomain = mock(ConfigDomain.class);
+
+    // 每次批量提交的配置项
+    private final List<List<ConfigItemDTO>> batches = new CopyOnWriteArrayList<>();
+
+    private ConfigWritePipeline pipeline;
+
+    @AfterEach
+    public void shutdown() throws InterruptedException {
+        pipeline.shutdown();
+    }
+
+    @Test
+    public void mergesWritesToSameKeyAndAcksEveryCaller() throws Exception {
+        pipeline = start(Duration.ofMillis(50), 100, "");
+        CompletableFuture<Boolean> first = pipeline.submit(item("a", "1").description("first").build());
+        CompletableFuture<Boolean> second = pipeline.submit(item("a", "2").build());
+        CompletableFuture<Boolean> other = pipeline.submit(item("b", "3").build());
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        assertTrue(other.get(5, TimeUnit.SECONDS));
+        assertEquals(1, batches.size());
+        List<ConfigItemDTO> batch = batches.get(0);
+        assertEquals(2, batch.size());
+        assertEquals("2", batch.get(0).getConfigValue());
+        assertEquals("first", batch.get(0).getDescription());
+    }
+
+    @Test
+    public void invalidWriteIsRejectedWithoutAffectingQueuedWrite() throws Exception {
+        pipeline = start(Duration.ofMillis(50), 100, "");
+        CompletableFuture<Boolean> typed = pipeline.submit(item("port", "8080").dataType("int").build());
+
+        BizException alone = assertThrows(BizException.class,
+                () -> pipeline.submit(item("port", "x").dataType("int").build()));
+        assertEquals(ResultCode.CONFIG_VALUE_INVALID, alone.getResultCode());
+        // 单独合法，与已排队的 dataType=int 合并后不合法
+        BizException merged = assertThrows(BizException.class, () -> pipeline.submit(item("port", "abc").build()));
+        assertEquals(ResultCode.CONFIG_VALUE_INVALID, merged.getResultCode());
+
+        assertTrue(typed.get(5, TimeUnit.SECONDS));
+        assertEquals("8080", batches.get(0).get(0).getConfigValue());
+    }
+
+    @Test
+    public void failedItemFailsOnlyItsOwnCallers() throws Exception {
+        pipeline = start(Duration.ofMillis(50), 100, "bad");
+        CompletableFuture<Boolean> good = pipeline.submit(item("good", "1").build());
+        CompletableFuture<Boolean> bad = pipeline.submit(item("bad", "1").build());
+        CompletableFuture<Boolean> badAgain = pipeline.submit(item("bad", "2").build());
+
+        assertTrue(good.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<Boolean> ack : new CompletableFuture[]{bad, badAgain}) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> ack.get(5, TimeUnit.SECONDS));
+            assertEquals(ResultCode.CONFIG_VALUE_INVALID, ((BizException) e.getCause()).getResultCode());
+        }
+    }
+
+    @Test
+    public void rejectsNewKeysWhenQueueIsFull() throws Exception {
+        pipeline = start(Duration.ofMillis(200), 1, "");
+        CompletableFuture<Boolean> first = pipeline.submit(item("a", "1").build());
+        BizException e = assertThrows(BizException.class, () -> pipeline.submit(item("b", "1").build()));
+        assertEquals(ResultCode.SERVICE_UNAVAILABLE, e.getResultCode());
+        // 已排队的配置键仍可合并
+        CompletableFuture<Boolean> merged = pipeline.submit(item("a", "2").build());
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(merged.get(5, TimeUnit.SECONDS));
+        assertEquals("2", batches.get(0).get(0).getConfigValue());
+    }
+
+    /**
+     * @param failingKey 批量提交时返回失败的配置键
+     */
+    private ConfigWritePipeline start(Duration window, int maxPending, String failingKey) {
+        when(configDomain.checkValueType(any(ConfigItemDTO.class))).thenAnswer(invocation -> {
+            ConfigItemDTO item = invocation.getArgument(0);
+            return ConfigDataType.check(item.getDataType(), item.getConfigValue());
+        });
+        when(configDomain.batchSetConfig(anyList())).thenAnswer(invocation -> {
+            List<ConfigItemDTO> items = invocation.getArgument(0);
+            batches.add(new ArrayList<>(items));
+            List<BatchItemResult> results = new ArrayList<>();
+            for (ConfigItemDTO item : items) {
+                results.add(BatchItemResult.of(item, !failingKey.equals(item.getConfigKey()), "invalid"));
+            }
+            return results;
+        });
+        WritePipelineProperties properties = new WritePipelineProperties();
+        properties.setEnabled(true);
+        properties.setWindow(window);
+        properties.setMaxPending(maxPending);
+        return new ConfigWritePipeline(configDomain, properties);
+    }
+
+    private static ConfigItemDTO.ConfigItemDTOBuilder item(String configKey, String configValue) {
+        return ConfigItemDTO.builder()
+                .appName("pipeline-app")
+                .environment("dev")
+                .configKey(configKey)
+                .configValue(configValue);
+    }
+}
@@ -0,0 +1,74 @@
+CREATE TABLE config_item (
+    id VARCHAR(64) NOT NULL COMMENT '配置ID',
+    app_name VARCHAR(100) NOT NULL COMMENT '应用名称',
+    environment VARCHAR(20) NOT NULL COMMENT '环境(dev/test/prod)',
+    config_key VARCHAR(200) NOT NULL COMMENT '配置键',
+    config_value TEXT COMMENT '配置值',
+    value_ref CHAR(64) COMMENT '大配置值在 config_blob 中的内容哈希，非空时 config_value 为空',
+    description VARCHAR(500) COMMENT '配置描述',
+    data_type VARCHAR(20) DEFAULT 'string' COMMENT '数据类型(string/int/boolean/json)',
+    is_active TINYINT(1) DEFAULT 1 COMMENT '是否激活',
+    created_by VARCHAR(50) COMMENT '创建人',
+    updated_by VARCHAR(50) COMMENT '更新人',
+    created_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    updated_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    version INT DEFAULT 1 COMMENT '版本号，用于乐观锁',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_app_env_key (app_name, environment, config_key),
+    KEY idx_app_env (app_name, environment),
+    KEY idx_app_name (app_name),
+    KEY idx_is_active (is_active),
+    KEY idx_value_ref (value_ref)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='配置管理表';
+
+
+CREATE TABLE config_namespace (
+    app_name VARCHAR(100) NOT NULL COMMENT '应用名称',
+    environment VARCHAR(20) NOT NULL COMMENT '环境(dev/test/prod)',
+    revision BIGINT NOT NULL DEFAULT 0 COMMENT '命名空间修订号，每次写入递增',
+    min_revision BIGINT NOT NULL DEFAULT 0 COMMENT '历史保留下限，早于该修订号的时点读取不可用',
+    updated_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (app_name, environment)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='命名空间修订号表';
+
+CREATE TABLE config_item_history (
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '历史ID',
+    app_name VARCHAR(100) NOT NULL COMMENT '应用名称',
+    environment VARCHAR(20) NOT NULL COMMENT '环境(dev/test/prod)',
+    config_key VARCHAR(200) NOT NULL COMMENT '配置键',
+    revision BIGINT NOT NULL COMMENT '写入时的命名空间修订号',
+    op_type VARCHAR(10) NOT NULL COMMENT '操作类型(SET/DELETE)',
+    config_value TEXT COMMENT '写入后的配置值，DELETE时为删除前的值',
+    value_ref CHAR(64) COMMENT '大配置值在 config_blob 中的内容哈希',
+    description VARCHAR(500) COMMENT '配置描述',
+    data_type VARCHAR(20) COMMENT '数据类型',
+    is_active TINYINT(1) COMMENT '是否激活',
+    created_time DATETIME(3) NOT NULL COMMENT '写入时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_ns_key_revision (app_name, environment, config_key, revision),
+    KEY idx_ns_revision (app_name, environment, revision),
+    KEY idx_ns_time (app_name, environment, created_time),
+    KEY idx_history_value_ref (value_ref)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='配置变更历史表（只追加）';
+
+CREATE TABLE config_change_log (
+    seq BIGINT NOT NULL AUTO_INCREMENT COMMENT '变更序号，单调递增',
+    app_name VARCHAR(100) NOT NULL COMMENT '应用名称',
+    environment VARCHAR(20) NOT NULL COMMENT '环境(dev/test/prod)',
+    config_key VARCHAR(200) NOT NULL COMMENT '配置键',
+    op_type VARCHAR(10) NOT NULL COMMENT '操作类型(SET/DELETE)',
+    revision BIGINT NOT NULL COMMENT '变更所属的命名空间修订号',
+    node_id VARCHAR(64) NOT NULL COMMENT '写入节点ID',
+    created_time DATETIME(3) NOT NULL COMMENT '写入时间',
+    PRIMARY KEY (seq),
+    KEY idx_created_time (created_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='配置变更日志表，各节点按序号增量拉取以同步缓存';
+
+CREATE TABLE config_blob (
+    content_hash CHAR(64) NOT NULL COMMENT '原始内容（UTF-8）的SHA-256',
+    content LONGBLOB NOT NULL COMMENT 'gzip压缩后的内容',
+    raw_size INT NOT NULL COMMENT '原始字节数',
+    referenced_time DATETIME NOT NULL COMMENT '最近一次被写入引用的时间，清理时据此留出宽限期',
+    PRIMARY KEY (content_hash),
+    KEY idx_referenced_time (referenced_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='大配置值内容表，按内容哈希去重存储';
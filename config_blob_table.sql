@@ -0,0 +1,12 @@
+CREATE TABLE config_blob (
+    content_hash CHAR(64) NOT NULL COMMENT '原始内容（UTF-8）的SHA-256',
+    content LONGBLOB NOT NULL COMMENT 'gzip压缩后的内容',
+    raw_size INT NOT NULL COMMENT '原始字节数',
+    referenced_time DATETIME NOT NULL COMMENT '最近一次被写入引用的时间，清理时据此留出宽限期',
+    PRIMARY KEY (content_hash),
+    KEY idx_referenced_time (referenced_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='大配置值内容表，按内容哈希去重存储';
+
+-- 已有库升级
+-- ALTER TABLE config_item ADD COLUMN value_ref CHAR(64) COMMENT '大配置值在 config_blob 中的内容哈希，非空时 config_value 为空' AFTER config_value, ADD KEY idx_value_ref (value_ref);
+-- ALTER TABLE config_item_history ADD COLUMN value_ref CHAR(64) COMMENT '大配置值在 config_blob 中的内容哈希' AFTER config_value, ADD KEY idx_history_value_ref (value_ref);
@@ -0,0 +1,12 @@
+CREATE TABLE config_change_log (
+    seq BIGINT NOT NULL AUTO_INCREMENT COMMENT '变更序号，单调递增',
+    app_name VARCHAR(100) NOT NULL COMMENT '应用名称',
+    environment VARCHAR(20) NOT NULL COMMENT '环境(dev/test/prod)',
+    config_key VARCHAR(200) NOT NULL COMMENT '配置键',
+    op_type VARCHAR(10) NOT NULL COMMENT '操作类型(SET/DELETE)',
+    revision BIGINT NOT NULL COMMENT '变更所属的命名空间修订号',
+    node_id VARCHAR(64) NOT NULL COMMENT '写入节点ID',
+    created_time DATETIME(3) NOT NULL COMMENT '写入时间',
+    PRIMARY KEY (seq),
+    KEY idx_created_time (created_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='配置变更日志表，各节点按序号增量拉取以同步缓存';
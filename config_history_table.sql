@@ -0,0 +1,28 @@
+CREATE TABLE config_namespace (
+    app_name VARCHAR(100) NOT NULL COMMENT '应用名称',
+    environment VARCHAR(20) NOT NULL COMMENT '环境(dev/test/prod)',
+    revision BIGINT NOT NULL DEFAULT 0 COMMENT '命名空间修订号，每次写入递增',
+    min_revision BIGINT NOT NULL DEFAULT 0 COMMENT '历史保留下限，早于该修订号的时点读取不可用',
+    updated_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (app_name, environment)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='命名空间修订号表';
+
+CREATE TABLE config_item_history (
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '历史ID',
+    app_name VARCHAR(100) NOT NULL COMMENT '应用名称',
+    environment VARCHAR(20) NOT NULL COMMENT '环境(dev/test/prod)',
+    config_key VARCHAR(200) NOT NULL COMMENT '配置键',
+    revision BIGINT NOT NULL COMMENT '写入时的命名空间修订号',
+    op_type VARCHAR(10) NOT NULL COMMENT '操作类型(SET/DELETE)',
+    config_value TEXT COMMENT '写入后的配置值，DELETE时为删除前的值',
+    value_ref CHAR(64) COMMENT '大配置值在 config_blob 中的内容哈希',
+    description VARCHAR(500) COMMENT '配置描述',
+    data_type VARCHAR(20) COMMENT '数据类型',
+    is_active TINYINT(1) COMMENT '是否激活',
+    created_time DATETIME(3) NOT NULL COMMENT '写入时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_ns_key_revision (app_name, environment, config_key, revision),
+    KEY idx_ns_revision (app_name, environment, revision),
+    KEY idx_ns_time (app_name, environment, created_time),
+    KEY idx_history_value_ref (value_ref)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='配置变更历史表（只追加）';
@@ -4,6 +4,7 @@ CREATE TABLE config_item (
     environment VARCHAR(20) NOT NULL COMMENT '环境(dev/test/prod)',
     config_key VARCHAR(200) NOT NULL COMMENT '配置键',
     config_value TEXT COMMENT '配置值',
+    value_ref CHAR(64) COMMENT '大配置值在 config_blob 中的内容哈希，非空时 config_value 为空',
     description VARCHAR(500) COMMENT '配置描述',
     data_type VARCHAR(20) DEFAULT 'string' COMMENT '数据类型(string/int/boolean/json)',
     is_active TINYINT(1) DEFAULT 1 COMMENT '是否激活',
@@ -16,5 +17,6 @@ CREATE TABLE config_item (
     UNIQUE KEY uk_app_env_key (app_name, environment, config_key),
     KEY idx_app_env (app_name, environment),
     KEY idx_app_name (app_name),
-    KEY idx_is_active (is_active)
+    KEY idx_is_active (is_active),
+    KEY idx_value_ref (value_ref)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='配置管理表';
\ No newline at end of file